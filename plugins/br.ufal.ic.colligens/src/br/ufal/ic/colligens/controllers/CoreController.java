@@ -2,6 +2,7 @@ package br.ufal.ic.colligens.controllers;
 
 import static de.ovgu.featureide.fm.core.localization.StringTable.ANALYZING_FILES;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.core.resources.IResource;
@@ -16,6 +17,7 @@ import org.eclipse.ui.IViewPart;
 import org.eclipse.ui.IWorkbenchWindow;
 
 import br.ufal.ic.colligens.activator.Colligens;
+import br.ufal.ic.colligens.controllers.invalidconfigurations.InvalidConfigurationsViewController;
 import br.ufal.ic.colligens.models.FileProxy;
 import br.ufal.ic.colligens.models.TypeChef;
 import br.ufal.ic.colligens.models.TypeChefException;
@@ -60,6 +62,11 @@ public class CoreController {
 			protected IStatus run(IProgressMonitor monitor) {
 
 				typeChef.setMonitor(monitor);
+				typeChef.setListener(fileProxy -> {
+					if (!fileProxy.getLogs().isEmpty()) {
+						Display.getDefault().asyncExec(() -> InvalidConfigurationsViewController.getInstance().add(fileProxy));
+					}
+				});
 
 				if (monitor.isCanceled()) {
 					return Status.CANCEL_STATUS;
@@ -75,6 +82,9 @@ public class CoreController {
 
 					final List<IResource> list = projectExplorerController.getList();
 
+					// results are added to the view as soon as a file has been checked
+					Display.getDefault().asyncExec(() -> InvalidConfigurationsViewController.getInstance().setInput(new ArrayList<FileProxy>()));
+
 					// get files to analyze e run;
 					typeChef.run(list);
 
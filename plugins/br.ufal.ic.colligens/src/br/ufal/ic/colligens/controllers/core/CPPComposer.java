@@ -52,6 +52,7 @@ import br.ufal.ic.colligens.util.ProjectConfigurationErrorLogger;
 import de.ovgu.featureide.core.CorePlugin;
 import de.ovgu.featureide.core.IFeatureProject;
 import de.ovgu.featureide.core.builder.IComposerExtensionClass;
+import de.ovgu.featureide.core.builder.preprocessor.DirectiveLexer;
 import de.ovgu.featureide.core.builder.preprocessor.PPComposerExtensionClass;
 import de.ovgu.featureide.core.fstmodel.preprocessor.FSTDirective;
 import de.ovgu.featureide.fm.core.base.IFeature;
@@ -78,6 +79,9 @@ public class CPPComposer extends PPComposerExtensionClass {
 	/* pattern for replacing preprocessor commands like "//#if" */
 	static final Pattern replaceCommandPattern = Pattern.compile("#(.+?)\\s");
 
+	/** lexer for the directives of the C preprocessor, e.g. "#if" */
+	private static final DirectiveLexer DIRECTIVE_LEXER = new DirectiveLexer("");
+
 	private CPPModelBuilder cppModelBuilder;
 
 	/*
@@ -293,12 +297,8 @@ public class CPPComposer extends PPComposerExtensionClass {
 	 * @param lineNumber line number of given line
 	 */
 	private void setMarkersNotConcreteFeatures(String line, IFile res, int lineNumber) {
-		final String[] splitted = line.split(CPPModelBuilder.OPERATORS, 0);
-
-		for (int i = 0; i < splitted.length; ++i) {
-			if (!splitted[i].equals("") && !splitted[i].contains("#")) {
-				setMarkersOnNotExistingOrAbstractFeature(splitted[i], lineNumber, res);
-			}
+		for (final String name : DIRECTIVE_LEXER.tokenize(line).getNames()) {
+			setMarkersOnNotExistingOrAbstractFeature(name, lineNumber, res);
 		}
 	}
 
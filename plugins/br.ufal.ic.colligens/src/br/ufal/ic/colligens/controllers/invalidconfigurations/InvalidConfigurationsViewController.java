@@ -6,6 +6,7 @@ import static de.ovgu.featureide.fm.core.localization.StringTable.SEVERITY;
 
 import java.awt.event.MouseEvent;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.core.resources.IFile;
@@ -64,10 +65,37 @@ public class InvalidConfigurationsViewController extends ViewController {
 	 * @param fileProxies list of file proxies
 	 */
 	public void setInput(List<FileProxy> fileProxies) {
+		if (treeViewer == null) {
+			return;
+		}
 		treeViewer.setInput(fileProxies);
 		treeViewer.refresh();
 	}
 
+	/**
+	 * Adds the results of a single file to the view, e.g., while other files are still being checked.
+	 *
+	 * @param fileProxy file proxy whose logs should be shown
+	 */
+	public void add(FileProxy fileProxy) {
+		if ((treeViewer == null) || fileProxy.getLogs().isEmpty()) {
+			return;
+		}
+		final Object input = treeViewer.getInput();
+		if (input instanceof List) {
+			@SuppressWarnings("unchecked")
+			final List<FileProxy> fileProxies = (List<FileProxy>) input;
+			if (!fileProxies.contains(fileProxy)) {
+				fileProxies.add(fileProxy);
+			}
+			treeViewer.refresh();
+		} else {
+			final List<FileProxy> fileProxies = new ArrayList<FileProxy>();
+			fileProxies.add(fileProxy);
+			setInput(fileProxies);
+		}
+	}
+
 	public void clear() {
 		if (treeViewer == null) {
 			return;
@@ -13,12 +13,23 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.RandomAccessFile;
 import java.net.URL;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import org.eclipse.cdt.core.model.CModelException;
 import org.eclipse.cdt.core.model.CoreModel;
@@ -29,6 +40,7 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Path;
+import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.ui.internal.util.BundleUtility;
 import org.prop4j.NodeWriter;
 
@@ -52,6 +64,10 @@ public class TypeChef {
 
 	private final AbstractHeader header;
 	private IProgressMonitor monitor = null;
+	private Consumer<FileProxy> listener = null;
+
+	private Collection<String> headerIncludes;
+	private final Set<Process> processes = ConcurrentHashMap.newKeySet();
 
 	public TypeChef() {
 		header = AbstractHeader.getInstance();
@@ -89,7 +105,6 @@ public class TypeChef {
 		paramters.add(Colligens.getDefault().getConfigDir().getAbsolutePath() + System.getProperty("file.separator") + "lexOutput.c");
 
 		if (Colligens.getDefault().getPreferenceStore().getBoolean("FEATURE_MODEL")) {
-			prepareFeatureModel(); // General processing options String
 			paramters.add("--featureModelFExpr");
 			paramters.add(Colligens.getDefault().getConfigDir().getAbsolutePath() + System.getProperty("file.separator") + "cnf.fm");
 		}
@@ -110,14 +125,12 @@ public class TypeChef {
 				}
 			} catch (final CModelException e) {
 
-				e.printStackTrace();
+				Colligens.getDefault().logError(e);
 			}
 
 		}
 
-		final Collection<String> headersPath = header.getIncludes();
-
-		for (final Iterator<String> iterator = headersPath.iterator(); iterator.hasNext();) {
+		for (final Iterator<String> iterator = headerIncludes.iterator(); iterator.hasNext();) {
 			paramters.add("-h");
 			paramters.add(iterator.next());
 		}
@@ -147,6 +160,20 @@ public class TypeChef {
 	}
 
 	/**
+	 * Sets a listener that is notified on the thread calling {@link #run(List)} each time a file has been checked. This allows to show the results of a file
+	 * before all other files are checked.
+	 *
+	 * @param listener the listener or <code>null</code>
+	 */
+	public void setListener(Consumer<FileProxy> listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Checks the given files. Files whose result is found in the {@link TypeChefCache} are not checked again. If the preference
+	 * <code>PARALLEL_PROCESSES</code> is greater than one, the remaining files are checked by that many TypeChef processes at once; otherwise, they are
+	 * checked one after another within Eclipse.
+	 *
 	 * @param resourceList list of resources
 	 * @throws TypeChefException exception
 	 */
@@ -167,48 +194,172 @@ public class TypeChef {
 
 			header.run();
 
+			final IPreferenceStore store = Colligens.getDefault().getPreferenceStore();
+			if (store.getBoolean("FEATURE_MODEL")) {
+				prepareFeatureModel();
+			}
+			headerIncludes = header.getIncludes();
+
+			// results depend on included headers of the project, which are not part of the key
+			final TypeChefCache cache = store.getBoolean("USE_CACHE") && !store.getBoolean("USE_INCLUDES") ? new TypeChefCache() : null;
+			final String contextHash = cache != null ? getContextHash() : null;
+
 			monitorbeginTask(ANALYZING_SELECTED_FILES, fileProxies.size());
 
+			final List<FileProxy> uncheckedFiles = new ArrayList<>();
+			final List<String> keys = new ArrayList<>();
 			for (final FileProxy fileProxy : fileProxies) {
-				// Monitor Update
-				monitorWorked(1);
-				monitorSubTask(fileProxy.getFullPath());
-				// end Monitor
-				if (monitorIsCanceled()) {
+				final String key = cache != null ? TypeChefCache.getKey(fileProxy, contextHash) : null;
+				if ((key != null) && cache.restore(key, fileProxy)) {
+					monitorWorked(1);
 					isFinish = true;
-					break;
+					fileChecked(fileProxy);
+				} else {
+					uncheckedFiles.add(fileProxy);
+					keys.add(key);
 				}
+			}
 
-				try {
+			try {
+				if (Math.min(uncheckedFiles.size(), store.getInt("PARALLEL_PROCESSES")) > 1) {
+					runInParallel(uncheckedFiles, keys, cache, store.getInt("PARALLEL_PROCESSES"));
+				} else {
+					runSequentially(uncheckedFiles, keys, cache);
+				}
+			} finally {
+				if (cache != null) {
+					cache.save();
+				}
+			}
+		} catch (final PlatformException e1) {
+			monitor = null;
+			Colligens.getDefault().logError(e1);
+		}
+		monitor = null;
+	}
 
-					final TypeChefFrontend typeChefFrontend = new TypeChefFrontend();
+	private void runSequentially(List<FileProxy> files, List<String> keys, TypeChefCache cache) throws TypeChefException {
+		for (int i = 0; i < files.size(); i++) {
+			final FileProxy fileProxy = files.get(i);
+			// Monitor Update
+			monitorWorked(1);
+			monitorSubTask(fileProxy.getFullPath());
+			// end Monitor
+			if (monitorIsCanceled()) {
+				isFinish = true;
+				break;
+			}
 
-					typeChefFrontend.processFile(getOptions(fileProxy), fileProxy);
+			try {
 
-					isFinish = true;
-				} catch (final OptionException e) {
-					e.printStackTrace();
-					// If the analysis is not performed correctly,
-					// and the analysis made ​​from the command line
-					startCommandLineMode(fileProxy);
+				final TypeChefFrontend typeChefFrontend = new TypeChefFrontend();
 
-					isFinish = true;
-				} catch (final Exception e) {
-					e.printStackTrace();
-					// If the analysis is not performed correctly,
-					// and the analysis made ​​from the command line
-					startCommandLineMode(fileProxy);
+				typeChefFrontend.processFile(getOptions(fileProxy), fileProxy);
+
+				isFinish = true;
+			} catch (final OptionException e) {
+				Colligens.getDefault().logError(e);
+				// If the analysis is not performed correctly,
+				// and the analysis made ​​from the command line
+				startCommandLineMode(fileProxy, "");
 
+				isFinish = true;
+			} catch (final Exception e) {
+				Colligens.getDefault().logError(e);
+				// If the analysis is not performed correctly,
+				// and the analysis made ​​from the command line
+				startCommandLineMode(fileProxy, "");
+
+				isFinish = true;
+			}
+
+			fileChecked(fileProxy, keys.get(i), cache);
+		}
+	}
+
+	/**
+	 * Checks each file in its own TypeChef process, because the frontend within Eclipse uses static state. The results are collected on the calling thread
+	 * in the order in which the processes finish.
+	 */
+	private void runInParallel(List<FileProxy> files, List<String> keys, TypeChefCache cache, int numberOfProcesses) {
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.min(files.size(), numberOfProcesses));
+		final CompletionService<Integer> completionService = new ExecutorCompletionService<>(executor);
+		try {
+			for (int i = 0; i < files.size(); i++) {
+				final int index = i;
+				completionService.submit(() -> {
+					startCommandLineMode(files.get(index), "-" + index);
+					return index;
+				});
+			}
+			for (int remaining = files.size(); remaining > 0;) {
+				if (monitorIsCanceled()) {
+					isFinish = true;
+					break;
+				}
+				final Future<Integer> result = completionService.poll(100, TimeUnit.MILLISECONDS);
+				if (result == null) {
+					continue;
+				}
+				remaining--;
+				try {
+					final int index = result.get();
+					monitorWorked(1);
+					monitorSubTask(files.get(index).getFullPath());
 					isFinish = true;
+					fileChecked(files.get(index), keys.get(index), cache);
+				} catch (final ExecutionException e) {
+					monitorWorked(1);
+					Colligens.getDefault().logError(e.getCause());
 				}
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
+			for (final Process process : processes) {
+				process.destroy();
+			}
+		}
+	}
 
+	private void fileChecked(FileProxy fileProxy, String key, TypeChefCache cache) {
+		if (key != null) {
+			cache.store(key, fileProxy);
+		}
+		fileChecked(fileProxy);
+	}
+
+	private void fileChecked(FileProxy fileProxy) {
+		if (listener != null) {
+			listener.accept(fileProxy);
+		}
+	}
+
+	/**
+	 * @return a hash of the feature model and the options of TypeChef, which together with the content of a file determine its result
+	 */
+	private String getContextHash() {
+		final StringBuilder context = new StringBuilder();
+		final IPreferenceStore store = Colligens.getDefault().getPreferenceStore();
+		context.append(store.getString("TypeChefPreference")).append('\n');
+		context.append(store.getBoolean("USE_STUBS")).append('\n');
+		final List<String> files = new ArrayList<>(headerIncludes);
+		if (store.getBoolean("FEATURE_MODEL")) {
+			files.add(Colligens.getDefault().getConfigDir().getAbsolutePath() + System.getProperty("file.separator") + "cnf.fm");
+		}
+		for (final String fileName : files) {
+			context.append(fileName).append('\n');
+			final File file = new File(fileName);
+			if (file.isFile()) {
+				try {
+					context.append(TypeChefCache.hash(Files.readAllBytes(file.toPath()))).append('\n');
+				} catch (final IOException e) {
+					Colligens.getDefault().logError(e);
+				}
 			}
-		} catch (final PlatformException e1) {
-			monitor = null;
-			e1.printStackTrace();
-			Colligens.getDefault().logError(e1);
 		}
-		monitor = null;
+		return TypeChefCache.hash(context.toString().getBytes(StandardCharsets.UTF_8));
 	}
 
 	/**
@@ -248,9 +399,10 @@ public class TypeChef {
 
 	/**
 	 * @param fileProxy
+	 * @param suffix the suffix of the temporary files of TypeChef, which must be unique among all processes running at the same time
 	 * @throws TypeChefException
 	 */
-	private void startCommandLineMode(FileProxy fileProxy) throws TypeChefException {
+	private void startCommandLineMode(FileProxy fileProxy, String suffix) throws TypeChefException {
 		final XMLParserTypeChef xmlParser = new XMLParserTypeChef();
 
 		final ArrayList<String> args = new ArrayList<String>();
@@ -258,7 +410,7 @@ public class TypeChef {
 
 		final String typeChefPreference = Colligens.getDefault().getPreferenceStore().getString("TypeChefPreference");
 
-		URL url = BundleUtility.find(Colligens.getDefault().getBundle(), "lib/" + "TypeChef-0.3.5.jar");
+		URL url = BundleUtility.find(Colligens.getDefault().getBundle(), "lib/" + "TypeChef-0.3.6.jar");
 		try {
 			url = FileLocator.toFileURL(url);
 		} catch (final IOException e) {
@@ -267,7 +419,6 @@ public class TypeChef {
 		final Path pathToTypeChef = new Path(url.getFile());
 
 		if (Colligens.getDefault().getPreferenceStore().getBoolean("FEATURE_MODEL")) {
-			prepareFeatureModel(); // General processing options String
 			args.add(0, Colligens.getDefault().getConfigDir().getAbsolutePath() + System.getProperty("file.separator") + "cnf.fm");
 			args.add(0, "--featureModelFExpr");
 		}
@@ -284,14 +435,12 @@ public class TypeChef {
 				}
 			} catch (final CModelException e) {
 
-				e.printStackTrace();
+				Colligens.getDefault().logError(e);
 			}
 
 		}
 
-		final Collection<String> headersPath = header.getIncludes();
-
-		for (final Iterator<String> iterator = headersPath.iterator(); iterator.hasNext();) {
+		for (final Iterator<String> iterator = headerIncludes.iterator(); iterator.hasNext();) {
 
 			args.add(0, iterator.next());
 			args.add(0, "-h");
@@ -300,7 +449,7 @@ public class TypeChef {
 		args.add(0, typeChefPreference);
 
 		// saved in the' temp directory
-		final String outputFilePath = Colligens.getDefault().getConfigDir().getAbsolutePath() + System.getProperty("file.separator") + "output";
+		final String outputFilePath = Colligens.getDefault().getConfigDir().getAbsolutePath() + System.getProperty("file.separator") + "output" + suffix;
 
 		try {
 			RandomAccessFile arq = new RandomAccessFile(outputFilePath, "rw");
@@ -308,12 +457,12 @@ public class TypeChef {
 			arq = new RandomAccessFile(outputFilePath + ".xml", "rw");
 			arq.close();
 		} catch (final Exception e) {
-			e.printStackTrace();
+			Colligens.getDefault().logError(e);
 		}
 
 		args.add(0, "--errorXML=" + outputFilePath + ".xml");
 
-		args.add(0, Colligens.getDefault().getConfigDir().getAbsolutePath() + System.getProperty("file.separator") + "lexOutput.c");
+		args.add(0, Colligens.getDefault().getConfigDir().getAbsolutePath() + System.getProperty("file.separator") + "lexOutput" + suffix + ".c");
 		args.add(0, "--lexOutput");
 		args.add(0, "--lexNoStdout");
 		args.add(0, "-w");
@@ -321,65 +470,45 @@ public class TypeChef {
 		args.add(0, "-jar");
 		args.add(0, "java");
 
-		for (final String s : args) {
-			System.err.print(s + " ");
-		}
-
 		final ProcessBuilder processBuilder = new ProcessBuilder(args);
 
-		BufferedReader input = null;
-		BufferedReader error = null;
+		// error messages are read together with the output, such that the process cannot block on a full buffer
+		processBuilder.redirectErrorStream(true);
+
+		Process process = null;
 		try {
-			final Process process = processBuilder.start();
-			input = new BufferedReader(new InputStreamReader(process.getInputStream(), Charset.availableCharsets().get("UTF-8")));
-			error = new BufferedReader(new InputStreamReader(process.getErrorStream(), Charset.availableCharsets().get("UTF-8")));
-			boolean x = true;
-			while (x) {
-				try {
-					String line;
-					while ((line = input.readLine()) != null) {
-						System.out.println(line);
-						Colligens.getDefault().logWarning(line);
-					}
-					try {
-						process.waitFor();
-					} catch (final InterruptedException e) {
-						System.out.println(e.toString());
-						Colligens.getDefault().logError(e);
-					}
-					final int exitValue = process.exitValue();
-					if (exitValue != 0) {
-						throw new TypeChefException(TYPECHEF_DID_NOT_RUN_CORRECTLY_);
-					}
-					x = false;
-				} catch (final IllegalThreadStateException e) {
-					System.out.println(e.toString());
-					Colligens.getDefault().logError(e);
+			process = processBuilder.start();
+			processes.add(process);
+			try (BufferedReader input = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = input.readLine()) != null) {
+					Colligens.getDefault().logWarning(line);
 				}
 			}
+			if (process.waitFor() != 0) {
+				throw new TypeChefException(TYPECHEF_DID_NOT_RUN_CORRECTLY_);
+			}
 		} catch (final IOException e) {
-			System.out.println(e.toString());
 			Colligens.getDefault().logError(e);
 			throw new TypeChefException(TYPECHEF_DID_NOT_RUN_CORRECTLY_);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TypeChefException(TYPECHEF_DID_NOT_RUN_CORRECTLY_);
 		} finally {
-			try {
-				if (input != null) {
-					input.close();
-				}
-			} catch (final IOException e) {
-				Colligens.getDefault().logError(e);
-			} finally {
-				if (error != null) {
-					try {
-						error.close();
-					} catch (final IOException e) {
-						Colligens.getDefault().logError(e);
-					}
-				}
+			if (process != null) {
+				processes.remove(process);
+				process.destroy();
 			}
 		}
+		final File xmlFile = new File(outputFilePath + ".xml");
+		xmlParser.setXMLFile(xmlFile);
 		xmlParser.setFile(fileProxy);
 		xmlParser.processFile();
+		if (!suffix.isEmpty()) {
+			new File(outputFilePath).delete();
+			xmlFile.delete();
+			new File(Colligens.getDefault().getConfigDir().getAbsolutePath() + System.getProperty("file.separator") + "lexOutput" + suffix + ".c").delete();
+		}
 	}
 
 	public void setMonitor(IProgressMonitor monitor) {
@@ -0,0 +1,265 @@
+package br.ufal.ic.colligens.models;
+
+import static de.ovgu.featureide.fm.core.localization.StringTable.SHA_256_DIGEST_ALGORITHM;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import br.ufal.ic.colligens.activator.Colligens;
+import br.ufal.ic.colligens.util.Log;
+
+/**
+ * Stores the results of TypeChef for single files in the configuration directory of Colligens. A result is identified by a hash of the content of the file
+ * and of its local includes, and a hash of everything else that influences TypeChef, i.e., the feature model and the options. Thus, unchanged files do not
+ * need to be checked again, even after a restart.
+ */
+public class TypeChefCache {
+
+	private static final String FILE_NAME = "typechef.cache";
+	private static final int VERSION = 2;
+	private static final int MAX_ENTRIES = 50000;
+
+	private static final Pattern LOCAL_INCLUDE = Pattern.compile("^\\s*#\\s*include\\s*\"([^\"]+)\"", Pattern.MULTILINE);
+
+	/**
+	 * A single problem reported by TypeChef.
+	 */
+	private static final class CachedLog {
+
+		private final int line;
+		private final int column;
+		private final String feature;
+		private final String severity;
+		private final String message;
+
+		private CachedLog(int line, int column, String feature, String severity, String message) {
+			this.line = line;
+			this.column = column;
+			this.feature = feature;
+			this.severity = severity;
+			this.message = message;
+		}
+
+	}
+
+	private final Map<String, List<CachedLog>> results = new LinkedHashMap<String, List<CachedLog>>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, List<CachedLog>> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	private final File file;
+	private boolean modified = false;
+
+	public TypeChefCache() {
+		file = new File(Colligens.getDefault().getConfigDir(), FILE_NAME);
+		load();
+	}
+
+	private void load() {
+		if (!file.isFile()) {
+			return;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != VERSION) {
+				return;
+			}
+			final int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				final String key = in.readUTF();
+				final int numberOfEntries = in.readInt();
+				final List<CachedLog> entries = new ArrayList<>(numberOfEntries);
+				for (int j = 0; j < numberOfEntries; j++) {
+					entries.add(new CachedLog(in.readInt(), in.readInt(), readString(in), readString(in), readString(in)));
+				}
+				results.put(key, entries);
+			}
+		} catch (final IOException e) {
+			results.clear();
+			Colligens.getDefault().logError(e);
+		}
+	}
+
+	/**
+	 * Writes the cache to the configuration directory, if it was modified.
+	 */
+	public synchronized void save() {
+		if (!modified) {
+			return;
+		}
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			out.writeInt(VERSION);
+			out.writeInt(results.size());
+			for (final Map.Entry<String, List<CachedLog>> result : results.entrySet()) {
+				out.writeUTF(result.getKey());
+				out.writeInt(result.getValue().size());
+				for (final CachedLog entry : result.getValue()) {
+					out.writeInt(entry.line);
+					out.writeInt(entry.column);
+					writeString(out, entry.feature);
+					writeString(out, entry.severity);
+					writeString(out, entry.message);
+				}
+			}
+			modified = false;
+		} catch (final IOException e) {
+			Colligens.getDefault().logError(e);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		final int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		final byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void writeString(DataOutputStream out, String string) throws IOException {
+		if (string == null) {
+			out.writeInt(-1);
+		} else {
+			final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Computes the key of a file. TypeChef resolves an include with quotes relative to the directory of the including file. Therefore, the key covers the
+	 * content of the file and of all headers it includes with quotes, directly or transitively. A header that does not exist is part of the key as well, as it
+	 * may be created later.
+	 *
+	 * @param fileProxy the file to check
+	 * @param contextHash the hash of the feature model and the options of TypeChef
+	 * @return the key of the file or <code>null</code>, if the file cannot be read
+	 */
+	public static String getKey(FileProxy fileProxy, String contextHash) {
+		final MessageDigest digest = createDigest();
+		final Path file = new File(fileProxy.getFileReal()).toPath().toAbsolutePath().normalize();
+		final Set<Path> visitedFiles = new HashSet<>();
+		final ArrayDeque<Path> files = new ArrayDeque<>();
+		visitedFiles.add(file);
+		files.add(file);
+		try {
+			while (!files.isEmpty()) {
+				final Path currentFile = files.poll();
+				final byte[] content;
+				try {
+					content = Files.readAllBytes(currentFile);
+				} catch (final IOException e) {
+					if (currentFile == file) {
+						return null;
+					}
+					digest.update((byte) 0);
+					continue;
+				}
+				digest.update((byte) 1);
+				digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(content.length).array());
+				digest.update(content);
+
+				final Matcher matcher = LOCAL_INCLUDE.matcher(new String(content, StandardCharsets.ISO_8859_1));
+				while (matcher.find()) {
+					final String includeName = matcher.group(1);
+					digest.update(includeName.getBytes(StandardCharsets.UTF_8));
+					digest.update((byte) 0);
+					final Path includedFile = currentFile.resolveSibling(includeName).normalize();
+					if (visitedFiles.add(includedFile)) {
+						files.add(includedFile);
+					}
+				}
+			}
+		} catch (final InvalidPathException e) {
+			return null;
+		}
+		return toHexString(digest.digest()) + contextHash;
+	}
+
+	/**
+	 * Computes the hash of the given content.
+	 *
+	 * @param content the content
+	 * @return the hash as hexadecimal string
+	 */
+	public static String hash(byte[] content) {
+		return toHexString(createDigest().digest(content));
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance(SHA_256_DIGEST_ALGORITHM);
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String toHexString(byte[] hash) {
+		final StringBuilder sb = new StringBuilder();
+		for (final byte b : hash) {
+			sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Adds the cached result for a file to its logs.
+	 *
+	 * @param key the key of the file
+	 * @param fileProxy the file
+	 * @return <code>true</code>, if a result was found in the cache
+	 */
+	public synchronized boolean restore(String key, FileProxy fileProxy) {
+		final List<CachedLog> entries = results.get(key);
+		if (entries == null) {
+			return false;
+		}
+		for (final CachedLog entry : entries) {
+			fileProxy.getLogs().add(new Log(fileProxy, entry.line, entry.column, entry.feature, entry.severity, entry.message));
+		}
+		return true;
+	}
+
+	/**
+	 * Stores the logs of a file that was checked by TypeChef.
+	 *
+	 * @param key the key of the file
+	 * @param fileProxy the file
+	 */
+	public synchronized void store(String key, FileProxy fileProxy) {
+		final List<CachedLog> entries = new ArrayList<>(fileProxy.getLogs().size());
+		for (final Log log : fileProxy.getLogs()) {
+			entries.add(new CachedLog(log.getLine(), log.getColumn(), log.getFeature(), log.getSeverity(), log.getMessage()));
+		}
+		results.put(key, entries);
+		modified = true;
+	}
+
+}
@@ -15,6 +15,8 @@ public class Initializer extends AbstractPreferenceInitializer {
 		store.setDefault("USE_INCLUDES", false);
 		store.setDefault("USE_STUBS", true);
 		store.setDefault("TypeChefPreference", "--parse");
+		store.setDefault("PARALLEL_PROCESSES", Runtime.getRuntime().availableProcessors());
+		store.setDefault("USE_CACHE", true);
 
 		// PreferenceGcc
 		store.setDefault("GCC", "gcc");
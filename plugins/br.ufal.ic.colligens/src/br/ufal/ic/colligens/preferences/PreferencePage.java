@@ -5,6 +5,7 @@ import static de.ovgu.featureide.fm.core.localization.StringTable.GENERAL_PROCES
 
 import org.eclipse.jface.preference.BooleanFieldEditor;
 import org.eclipse.jface.preference.FieldEditorPreferencePage;
+import org.eclipse.jface.preference.IntegerFieldEditor;
 import org.eclipse.jface.preference.RadioGroupFieldEditor;
 import org.eclipse.ui.IWorkbench;
 import org.eclipse.ui.IWorkbenchPreferencePage;
@@ -32,6 +33,12 @@ public class PreferencePage extends FieldEditorPreferencePage implements IWorkbe
 		addField(new RadioGroupFieldEditor("TypeChefPreference", GENERAL_PROCESSING_TYPECHEF_OPTIONS, 1,
 				new String[][] { { "&Typecheck", "--typecheck" }, { "P&arse", "--parse" } }, getFieldEditorParent()));
 
+		final IntegerFieldEditor parallelProcesses = new IntegerFieldEditor("PARALLEL_PROCESSES", "&Parallel TypeChef processes", getFieldEditorParent());
+		parallelProcesses.setValidRange(1, 256);
+		addField(parallelProcesses);
+
+		addField(new BooleanFieldEditor("USE_CACHE", "Cache &results of unchanged files", getFieldEditorParent()));
+
 	}
 
 	@Override
@@ -69,6 +69,14 @@ public class Log {
 		return message;
 	}
 
+	public int getLine() {
+		return line;
+	}
+
+	public int getColumn() {
+		return column;
+	}
+
 	public String getFileName() {
 		return fileProxy.getFileName();
 	}
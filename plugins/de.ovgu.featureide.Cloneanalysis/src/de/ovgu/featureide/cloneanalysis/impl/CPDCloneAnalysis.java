@@ -22,20 +22,19 @@ package de.ovgu.featureide.cloneanalysis.impl;
 
 import java.util.Iterator;
 
-import net.sourceforge.pmd.cpd.CPD;
 import net.sourceforge.pmd.cpd.Match;
-import de.ovgu.featureide.cloneanalysis.pmd.CPDAdapter;
 import de.ovgu.featureide.cloneanalysis.pmd.ICloneAnalyzerAdapter;
+import de.ovgu.featureide.cloneanalysis.pmd.IndexedCPDAdapter;
 
 public class CPDCloneAnalysis {
-	private ICloneAnalyzerAdapter<CPD> cpdAdapter;
+	private ICloneAnalyzerAdapter<?> cpdAdapter;
 
 	public CPDCloneAnalysis() {
-		cpdAdapter = new CPDAdapter();
+		cpdAdapter = new IndexedCPDAdapter();
 	}
 
 	public CPDCloneAnalysis(String filteredName) {
-		cpdAdapter = new CPDAdapter(filteredName);
+		cpdAdapter = new IndexedCPDAdapter(filteredName);
 	}
 
 	public Iterator<Match> analyze(Object selection) {
@@ -53,7 +52,7 @@ public class CPDCloneAnalysis {
 	/**
 	 * @return the cpdAdapter
 	 */
-	public ICloneAnalyzerAdapter<CPD> getCpdAdapter() {
+	public ICloneAnalyzerAdapter<?> getCpdAdapter() {
 		return cpdAdapter;
 	}
 
@@ -24,8 +24,6 @@ import java.io.IOException;
 import java.util.Iterator;
 
 import org.eclipse.core.resources.IContainer;
-import org.eclipse.core.resources.IProject;
-import org.eclipse.jface.viewers.IStructuredSelection;
 
 import net.sourceforge.pmd.cpd.CPD;
 import net.sourceforge.pmd.cpd.CPDConfiguration;
@@ -73,14 +71,6 @@ public class CPDAdapter extends DefaultCloneAnalyzerAdapter<CPD> {
 		// });
 	}
 
-	@Override
-	public void registerFilesForAnalysis(Object files) {
-		assert files != null : "files must not be null...";
-		if (files instanceof IStructuredSelection) addResourcesFromSelection((IStructuredSelection) files);
-		else if (files instanceof IProject) addProjectToAnalysis((IProject) files);
-		else assert false : ("adding files of type " + files.getClass() + "is not supported(yet)");
-	}
-
 	@Override
 	public Object startAnalysis() {
 		analysisTool.go();
@@ -0,0 +1,546 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.cloneanalysis.pmd;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.sourceforge.pmd.cpd.CPD;
+import net.sourceforge.pmd.cpd.CPDConfiguration;
+import net.sourceforge.pmd.cpd.Match;
+import net.sourceforge.pmd.cpd.SourceCode;
+import net.sourceforge.pmd.cpd.TokenEntry;
+import net.sourceforge.pmd.cpd.Tokenizer;
+import net.sourceforge.pmd.cpd.Tokens;
+
+/**
+ * A persistent index of the token streams of source files, which finds the same clones as {@link CPD}. For every file, the index stores its tokens, their
+ * lines, and the Rabin-Karp hashes of all windows of {@link CPDConfiguration#getMinimumTileSize() minimum tile size} tokens. When the index is
+ * {@link #update(Collection) updated}, only new and changed files are tokenized again, which is done in parallel. Thus, after an edit, clones can be found
+ * without tokenizing the whole product line.
+ */
+public class CloneIndex {
+
+	private static final int VERSION = 1;
+
+	/**
+	 * The base of the rolling hash.
+	 */
+	private static final int BASE = 37;
+
+	/**
+	 * The indexed tokens of a single file.
+	 */
+	private static final class FileEntry {
+
+		private static final int[] EMPTY = new int[0];
+
+		private final long lastModified;
+		private final long length;
+		private final int[] tokens;
+		private final int[] lines;
+		private final int[] hashes;
+
+		private FileEntry(long lastModified, long length, int[] tokens, int[] lines, int[] hashes) {
+			this.lastModified = lastModified;
+			this.length = length;
+			this.tokens = tokens;
+			this.lines = lines;
+			this.hashes = hashes;
+		}
+
+		private boolean isUpToDate(File file) {
+			return (lastModified == file.lastModified()) && (length == file.length());
+		}
+
+	}
+
+	private final CPDConfiguration configuration;
+	private final Tokenizer tokenizer;
+	private final int minimumTileSize;
+
+	private final Map<String, FileEntry> files = new HashMap<>();
+
+	/**
+	 * The images of all tokens. The index of an image is the identifier of the token in the {@link FileEntry file entries}.
+	 */
+	private final List<String> images = new ArrayList<>();
+	private final Map<String, Integer> imageIds = new ConcurrentHashMap<>();
+
+	private boolean modified = false;
+
+	/**
+	 * Creates an empty index.
+	 *
+	 * @param configuration the configuration that determines the language and the minimum size of clones
+	 */
+	public CloneIndex(CPDConfiguration configuration) {
+		this.configuration = configuration;
+		tokenizer = configuration.tokenizer();
+		minimumTileSize = configuration.getMinimumTileSize();
+	}
+
+	/**
+	 * Reads an index from a file. If the file does not exist, cannot be read, or was created for another language or minimum tile size, an empty index is
+	 * returned.
+	 *
+	 * @param indexFile the file containing the index
+	 * @param configuration the configuration that determines the language and the minimum size of clones
+	 * @return the index
+	 */
+	public static CloneIndex load(File indexFile, CPDConfiguration configuration) {
+		final CloneIndex index = new CloneIndex(configuration);
+		if (indexFile.isFile()) {
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+				index.read(in);
+			} catch (final IOException e) {
+				e.printStackTrace();
+				return new CloneIndex(configuration);
+			}
+		}
+		return index;
+	}
+
+	private void read(DataInputStream in) throws IOException {
+		if ((in.readInt() != VERSION) || !readString(in).equals(configuration.getLanguage().getName()) || (in.readInt() != minimumTileSize)) {
+			return;
+		}
+		final int numberOfImages = in.readInt();
+		for (int i = 0; i < numberOfImages; i++) {
+			final String image = readString(in);
+			imageIds.put(image, i);
+			images.add(image);
+		}
+		final int numberOfFiles = in.readInt();
+		for (int i = 0; i < numberOfFiles; i++) {
+			final String path = readString(in);
+			final long lastModified = in.readLong();
+			final long length = in.readLong();
+			final int[] tokens = readInts(in);
+			final int[] lines = readInts(in);
+			final int[] hashes = readInts(in);
+			files.put(path, new FileEntry(lastModified, length, tokens, lines, hashes));
+		}
+	}
+
+	/**
+	 * Writes the index to a file, if it was modified.
+	 *
+	 * @param indexFile the file to write
+	 */
+	public void save(File indexFile) {
+		if (!modified) {
+			return;
+		}
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+			out.writeInt(VERSION);
+			writeString(out, configuration.getLanguage().getName());
+			out.writeInt(minimumTileSize);
+			out.writeInt(images.size());
+			for (final String image : images) {
+				writeString(out, image);
+			}
+			out.writeInt(files.size());
+			for (final Map.Entry<String, FileEntry> file : files.entrySet()) {
+				final FileEntry entry = file.getValue();
+				writeString(out, file.getKey());
+				out.writeLong(entry.lastModified);
+				out.writeLong(entry.length);
+				writeInts(out, entry.tokens);
+				writeInts(out, entry.lines);
+				writeInts(out, entry.hashes);
+			}
+			modified = false;
+		} catch (final IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		final byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void writeString(DataOutputStream out, String string) throws IOException {
+		final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static int[] readInts(DataInputStream in) throws IOException {
+		final int[] values = new int[in.readInt()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = in.readInt();
+		}
+		return values;
+	}
+
+	private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+		out.writeInt(values.length);
+		for (final int value : values) {
+			out.writeInt(value);
+		}
+	}
+
+	/**
+	 * Tokenizes all given files that are not yet indexed or that were modified since they were indexed. Indexed files that no longer exist are removed from
+	 * the index.
+	 *
+	 * @param sourceFiles the files to index
+	 * @return the number of files that were tokenized
+	 */
+	public int update(Collection<File> sourceFiles) {
+		final List<File> changedFiles = new ArrayList<>();
+		for (final File file : sourceFiles) {
+			final FileEntry entry = files.get(file.getAbsolutePath());
+			if ((entry == null) || !entry.isUpToDate(file)) {
+				changedFiles.add(file);
+			}
+		}
+		for (final Iterator<String> iterator = files.keySet().iterator(); iterator.hasNext();) {
+			if (!new File(iterator.next()).isFile()) {
+				iterator.remove();
+				modified = true;
+			}
+		}
+		if (changedFiles.isEmpty()) {
+			return 0;
+		}
+		modified = true;
+
+		// the files are always tokenized by separate threads, as the tokenizer modifies thread-local state of TokenEntry
+		final int numberOfThreads = Math.min(changedFiles.size(), Runtime.getRuntime().availableProcessors());
+		final ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+		try {
+			final List<Future<FileEntry>> futures = new ArrayList<>(changedFiles.size());
+			for (final File file : changedFiles) {
+				futures.add(executor.submit(() -> tokenize(file)));
+			}
+			for (int i = 0; i < changedFiles.size(); i++) {
+				try {
+					files.put(changedFiles.get(i).getAbsolutePath(), futures.get(i).get());
+				} catch (final ExecutionException e) {
+					e.printStackTrace();
+				}
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
+		}
+		return changedFiles.size();
+	}
+
+	private FileEntry tokenize(File file) {
+		// the modification time is read first, so that concurrent changes cause the file to be tokenized again
+		final long lastModified = file.lastModified();
+		final long length = file.length();
+		final Tokens tokens = new Tokens();
+		// the images of a thread are searched linearly, so they are cleared for each file
+		TokenEntry.clearImages();
+		try {
+			tokenizer.tokenize(configuration.sourceCodeFor(file), tokens);
+		} catch (IOException | RuntimeException e) {
+			e.printStackTrace();
+			return new FileEntry(lastModified, length, FileEntry.EMPTY, FileEntry.EMPTY, FileEntry.EMPTY);
+		}
+
+		final List<TokenEntry> entries = tokens.getTokens();
+		int size = entries.size();
+		if ((size > 0) && (entries.get(size - 1) == TokenEntry.EOF)) {
+			size--;
+		}
+		final Map<Integer, Integer> localIds = new HashMap<>();
+		final int[] ids = new int[size];
+		final int[] lines = new int[size];
+		for (int i = 0; i < size; i++) {
+			final TokenEntry entry = entries.get(i);
+			Integer id = localIds.get(entry.getIdentifier());
+			if (id == null) {
+				id = getId(entry.toString());
+				localIds.put(entry.getIdentifier(), id);
+			}
+			ids[i] = id;
+			lines[i] = entry.getBeginLine();
+		}
+		return new FileEntry(lastModified, length, ids, lines, computeHashes(ids));
+	}
+
+	private int getId(String image) {
+		Integer id = imageIds.get(image);
+		if (id == null) {
+			synchronized (images) {
+				id = imageIds.get(image);
+				if (id == null) {
+					id = images.size();
+					images.add(image);
+					imageIds.put(image, id);
+				}
+			}
+		}
+		return id;
+	}
+
+	/**
+	 * Computes the hashes of all windows of {@link #minimumTileSize} tokens by rolling a polynomial hash over the tokens.
+	 *
+	 * @param tokens the tokens of a file
+	 * @return the hash of the window at each position
+	 */
+	private int[] computeHashes(int[] tokens) {
+		if (tokens.length < minimumTileSize) {
+			return FileEntry.EMPTY;
+		}
+		int power = 1;
+		int hash = 0;
+		for (int i = 0; i < minimumTileSize; i++) {
+			hash = (hash * BASE) + tokens[i];
+			if (i > 0) {
+				power *= BASE;
+			}
+		}
+		final int[] hashes = new int[(tokens.length - minimumTileSize) + 1];
+		hashes[0] = hash;
+		for (int i = 1; i < hashes.length; i++) {
+			hash = ((hash - (tokens[i - 1] * power)) * BASE) + tokens[(i + minimumTileSize) - 1];
+			hashes[i] = hash;
+		}
+		return hashes;
+	}
+
+	/**
+	 * Finds the clones within the given files, which must have been {@link #update(Collection) indexed} before. The windows of all files are sorted by their
+	 * hashes, which groups all candidates for clones without building a hash table. The candidates are extended and grouped the same way as by {@link CPD}.
+	 *
+	 * @param sourceFiles the files to search
+	 * @return the clones sorted as by {@link CPD}
+	 */
+	public List<Match> findMatches(Collection<File> sourceFiles) {
+		final TreeSet<String> paths = new TreeSet<>();
+		for (final File file : sourceFiles) {
+			final String path = file.getAbsolutePath();
+			if (files.containsKey(path)) {
+				paths.add(path);
+			}
+		}
+		final SelectedFiles selection = new SelectedFiles(paths);
+
+		int numberOfWindows = 0;
+		for (final FileEntry entry : selection.entries) {
+			numberOfWindows += entry.hashes.length;
+		}
+		// the hash is stored in the upper and the global position in the lower half of a long
+		final long[] windows = new long[numberOfWindows];
+		int k = 0;
+		for (int i = 0; i < selection.entries.length; i++) {
+			final int[] hashes = selection.entries[i].hashes;
+			for (int j = 0; j < hashes.length; j++) {
+				windows[k++] = ((long) hashes[j] << 32) | (selection.offsets[i] + j);
+			}
+		}
+		Arrays.sort(windows);
+
+		final Map<Long, List<Integer>> groups = new LinkedHashMap<>();
+		for (int start = 0; start < windows.length;) {
+			int end = start + 1;
+			while ((end < windows.length) && ((windows[end] >>> 32) == (windows[start] >>> 32))) {
+				end++;
+			}
+			if ((end - start) > 1) {
+				collect(selection, windows, start, end, groups);
+			}
+			start = end;
+		}
+		return createMatches(selection, groups);
+	}
+
+	/**
+	 * Compares all pairs of windows with the same hash, as done by the match collector of {@link CPD}.
+	 */
+	private void collect(SelectedFiles selection, long[] windows, int start, int end, Map<Long, List<Integer>> groups) {
+		for (int i = start; i < (end - 1); i++) {
+			final int first = (int) windows[i];
+			final int firstFile = selection.getFile(first);
+			final int firstOffset = first - selection.offsets[firstFile];
+			final int[] firstTokens = selection.entries[firstFile].tokens;
+			for (int j = i + 1; j < end; j++) {
+				final int second = (int) windows[j];
+				final int secondFile = selection.getFile(second);
+				final boolean sameFile = firstFile == secondFile;
+				if (sameFile && ((second - first) < minimumTileSize)) {
+					continue;
+				}
+				final int secondOffset = second - selection.offsets[secondFile];
+				final int[] secondTokens = selection.entries[secondFile].tokens;
+				if ((firstOffset > 0) && (secondOffset > 0) && (firstTokens[firstOffset - 1] == secondTokens[secondOffset - 1])) {
+					// the clone was already found at the previous tokens
+					continue;
+				}
+				int duplicates = 0;
+				while (((firstOffset + duplicates) < firstTokens.length) && ((secondOffset + duplicates) < secondTokens.length)
+					&& (firstTokens[firstOffset + duplicates] == secondTokens[secondOffset + duplicates])) {
+					duplicates++;
+				}
+				if ((duplicates < minimumTileSize) || (sameFile && ((first + duplicates) > second))) {
+					continue;
+				}
+				addToGroup(groups, first, second, duplicates);
+			}
+		}
+	}
+
+	/**
+	 * Adds a pair of clones to the group of clones with the same number of tokens. In contrast to {@link CPD}, two existing groups are merged, so that the
+	 * groups do not depend on the order of the pairs.
+	 */
+	private static void addToGroup(Map<Long, List<Integer>> groups, int first, int second, int tokenCount) {
+		final Long firstKey = ((long) tokenCount << 32) | first;
+		final Long secondKey = ((long) tokenCount << 32) | second;
+		final List<Integer> firstGroup = groups.get(firstKey);
+		final List<Integer> secondGroup = groups.get(secondKey);
+		if (firstGroup == null) {
+			if (secondGroup == null) {
+				final List<Integer> group = new ArrayList<>();
+				group.add(first);
+				group.add(second);
+				groups.put(firstKey, group);
+				groups.put(secondKey, group);
+			} else {
+				secondGroup.add(first);
+				groups.put(firstKey, secondGroup);
+			}
+		} else if (secondGroup == null) {
+			firstGroup.add(second);
+			groups.put(secondKey, firstGroup);
+		} else if (firstGroup != secondGroup) {
+			final List<Integer> larger = firstGroup.size() >= secondGroup.size() ? firstGroup : secondGroup;
+			final List<Integer> smaller = larger == firstGroup ? secondGroup : firstGroup;
+			larger.addAll(smaller);
+			for (final Integer position : smaller) {
+				groups.put(((long) tokenCount << 32) | position, larger);
+			}
+		}
+	}
+
+	private List<Match> createMatches(SelectedFiles selection, Map<Long, List<Integer>> groups) {
+		final List<Match> matches = new ArrayList<>();
+		final Map<String, SourceCode> sourceCodes = new HashMap<>();
+		final Set<List<Integer>> created = Collections.newSetFromMap(new IdentityHashMap<List<Integer>, Boolean>());
+		for (final Map.Entry<Long, List<Integer>> group : groups.entrySet()) {
+			final List<Integer> positions = group.getValue();
+			if (!created.add(positions)) {
+				continue;
+			}
+			final int tokenCount = (int) (group.getKey() >>> 32);
+			final TokenEntry[] marks = new TokenEntry[positions.size()];
+			for (int i = 0; i < marks.length; i++) {
+				final int position = positions.get(i);
+				final int file = selection.getFile(position);
+				final int offset = position - selection.offsets[file];
+				marks[i] = new TokenEntry(images.get(selection.entries[file].tokens[offset]), selection.paths[file], selection.entries[file].lines[offset]);
+			}
+			final Match match = new Match(tokenCount, marks[0], marks[1]);
+			for (int i = 2; i < marks.length; i++) {
+				match.addTokenEntry(marks[i]);
+			}
+
+			// as by CPD, the number of lines and the source code are taken from the first occurrence
+			final int position = Collections.min(positions);
+			final int file = selection.getFile(position);
+			final int offset = position - selection.offsets[file];
+			final int[] lines = selection.entries[file].lines;
+			final int beginLine = lines[offset];
+			match.setLineCount((lines[(offset + tokenCount) - 1] - beginLine) + 1);
+
+			SourceCode sourceCode = sourceCodes.get(selection.paths[file]);
+			if (sourceCode == null) {
+				sourceCode = configuration.sourceCodeFor(new File(selection.paths[file]));
+				sourceCodes.put(selection.paths[file], sourceCode);
+			}
+			match.setSourceCodeSlice(sourceCode.getSlice(beginLine, (beginLine + match.getLineCount()) - 1));
+			matches.add(match);
+		}
+		Collections.sort(matches);
+		return matches;
+	}
+
+	/**
+	 * The files that are searched for clones. The tokens of all files are numbered consecutively, which yields the global position of a selection.
+	 */
+	private final class SelectedFiles {
+
+		private final String[] paths;
+		private final FileEntry[] entries;
+		private final int[] offsets;
+
+		private SelectedFiles(Collection<String> paths) {
+			this.paths = paths.toArray(new String[0]);
+			entries = new FileEntry[this.paths.length];
+			offsets = new int[this.paths.length];
+			int offset = 0;
+			for (int i = 0; i < this.paths.length; i++) {
+				entries[i] = files.get(this.paths[i]);
+				offsets[i] = offset;
+				offset += entries[i].tokens.length;
+			}
+		}
+
+		private int getFile(int position) {
+			final int index = Arrays.binarySearch(offsets, position);
+			if (index >= 0) {
+				// skip empty files at the same offset
+				int file = index;
+				while (((file + 1) < offsets.length) && (offsets[file + 1] == position)) {
+					file++;
+				}
+				return file;
+			}
+			return -index - 2;
+		}
+
+	}
+
+}
@@ -51,6 +51,14 @@ public abstract class DefaultCloneAnalyzerAdapter<Tool> implements ICloneAnalyze
 		this.filter = filter;
 	}
 
+	@Override
+	public void registerFilesForAnalysis(Object files) {
+		assert files != null : "files must not be null...";
+		if (files instanceof IStructuredSelection) addResourcesFromSelection((IStructuredSelection) files);
+		else if (files instanceof IProject) addProjectToAnalysis((IProject) files);
+		else assert false : ("adding files of type " + files.getClass() + "is not supported(yet)");
+	}
+
 	/**
 	 * Gets the {@link IResource}s from the {@link IStructuredSelection} and registers them with the {@link #analysisTool} using
 	 * {@link #registerWithAnalysisTool(Set)}.
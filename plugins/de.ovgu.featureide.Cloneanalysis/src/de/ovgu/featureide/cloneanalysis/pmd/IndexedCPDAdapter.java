@@ -0,0 +1,124 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.cloneanalysis.pmd;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Platform;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+
+import net.sourceforge.pmd.cpd.CPD;
+import net.sourceforge.pmd.cpd.CPDConfiguration;
+import net.sourceforge.pmd.cpd.Match;
+
+/**
+ * An adapter that finds the same clones as the {@link CPDAdapter}, but uses a {@link CloneIndex} that is shared by all analyses and stored in the state
+ * location of the plug-in. Thus, only files that were changed since the last analysis are tokenized again.
+ */
+public class IndexedCPDAdapter extends DefaultCloneAnalyzerAdapter<CloneIndex> {
+
+	private static final String INDEX_FILE_NAME = "clones.index";
+
+	private static CloneIndex index = null;
+
+	private CPDConfiguration configuration = null;
+	private final Set<File> files = new LinkedHashSet<>();
+	private List<Match> matches = Collections.emptyList();
+
+	public IndexedCPDAdapter() {
+		super(new DefaultFilenameFilter());
+	}
+
+	public IndexedCPDAdapter(String filteredName) {
+		super(new FilteredFilenameFilter(filteredName));
+	}
+
+	@Override
+	public void initializeTool() {
+		configuration = createDefaultConfiguration();
+		analysisTool = getIndex(configuration);
+		files.clear();
+		matches = Collections.emptyList();
+	}
+
+	private static synchronized CloneIndex getIndex(CPDConfiguration configuration) {
+		if (index == null) {
+			final File indexFile = getIndexFile();
+			index = indexFile != null ? CloneIndex.load(indexFile, configuration) : new CloneIndex(configuration);
+		}
+		return index;
+	}
+
+	/**
+	 * @return the file of the index in the state location of the plug-in, or null if the plug-in is not running
+	 */
+	private static File getIndexFile() {
+		final Bundle bundle = FrameworkUtil.getBundle(IndexedCPDAdapter.class);
+		if (bundle == null) return null;
+		final IPath stateLocation = Platform.getStateLocation(bundle);
+		return stateLocation.append(INDEX_FILE_NAME).toFile();
+	}
+
+	/**
+	 * Updates the index for all registered files and searches them for clones, as done by {@link CPD#go()}.
+	 */
+	@Override
+	public Object startAnalysis() {
+		synchronized (IndexedCPDAdapter.class) {
+			analysisTool.update(files);
+			matches = analysisTool.findMatches(files);
+			final File indexFile = getIndexFile();
+			if (indexFile != null) analysisTool.save(indexFile);
+		}
+		return null;
+	}
+
+	@Override
+	protected void registerContainerRecursively(IContainer container) {
+		if (container.getLocation() != null) addRecursively(container.getLocation().toFile(), configuration.filenameFilter());
+	}
+
+	/**
+	 * Adds the files in a directory and its subdirectories, as done by {@link CPD#addRecursively(String)}.
+	 */
+	private void addRecursively(File directory, FilenameFilter filter) {
+		final File[] children = directory.listFiles(filter);
+		if (children == null) return;
+		for (File child : children) {
+			if (child.isDirectory()) addRecursively(child, filter);
+			else files.add(child);
+		}
+	}
+
+	@Override
+	public Iterator<Match> getMatches() {
+		return matches.iterator();
+	}
+}
@@ -0,0 +1,182 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.antenna;
+
+import static de.ovgu.featureide.fm.core.localization.StringTable.SHA_256_DIGEST_ALGORITHM;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IFile;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
+
+/**
+ * Remembers the source files of the last full build of an Antenna project. For each file, the index stores a hash of its content after preprocessing and the
+ * features that are referenced by its directives. Within the same feature model, a file has to be preprocessed again only if its content changed or if the
+ * selection of one of its referenced features changed.<br> The index is kept in memory only, thus, the first build of a session is always a full build.
+ */
+class AntennaBuildIndex {
+
+	/**
+	 * The state of a single file after the last build.
+	 */
+	static final class Entry {
+
+		private final byte[] contentHash;
+		private final Set<String> referencedFeatures;
+
+		/**
+		 * @param contentHash the hash of the file's content after preprocessing
+		 * @param referencedFeatures the features referenced by the directives of the file or <code>null</code>, if the result of preprocessing does not only
+		 *        depend on the selection of these features (e.g., due to a <code>#define</code> directive)
+		 */
+		Entry(byte[] contentHash, Set<String> referencedFeatures) {
+			this.contentHash = contentHash;
+			this.referencedFeatures = referencedFeatures;
+		}
+
+		/**
+		 * @return the features referenced by the directives of the file (never <code>null</code>)
+		 */
+		Set<String> getReferencedFeatures() {
+			return referencedFeatures != null ? referencedFeatures : Collections.<String> emptySet();
+		}
+
+	}
+
+	private final Map<IFile, Entry> entries = new ConcurrentHashMap<>();
+
+	private FeatureModelFormula formula;
+	private Set<String> selectedFeatures;
+
+	/** features whose selection changed since the last build, <code>null</code> if all files must be preprocessed */
+	private Set<String> changedFeatures;
+
+	/**
+	 * Starts a new build. Drops all entries if the feature model changed and computes the features whose selection changed since the last build.
+	 *
+	 * @param formula the formula of the current feature model
+	 * @param selectedFeatures the features selected in the current configuration
+	 * @param files all source files of the current build
+	 */
+	synchronized void startBuild(FeatureModelFormula formula, Collection<String> selectedFeatures, Collection<IFile> files) {
+		final Set<String> newSelection = new HashSet<>(selectedFeatures);
+		if ((this.formula != formula) || (this.selectedFeatures == null)) {
+			entries.clear();
+			changedFeatures = null;
+		} else {
+			final Set<String> difference = new HashSet<>(newSelection);
+			difference.addAll(this.selectedFeatures);
+			final Set<String> intersection = new HashSet<>(newSelection);
+			intersection.retainAll(this.selectedFeatures);
+			difference.removeAll(intersection);
+			changedFeatures = difference;
+			entries.keySet().retainAll(new HashSet<>(files));
+		}
+		this.formula = formula;
+		this.selectedFeatures = newSelection;
+	}
+
+	/**
+	 * Returns the entry of the given file if the file does not need to be preprocessed again.
+	 *
+	 * @param file the source file
+	 * @param contentHash the hash of the current content of the file
+	 * @return the entry of the file or <code>null</code>, if the file must be preprocessed
+	 */
+	Entry getUpToDateEntry(IFile file, byte[] contentHash) {
+		final Set<String> changed = changedFeatures;
+		if (changed == null) {
+			return null;
+		}
+		final Entry entry = entries.get(file);
+		if ((entry == null) || (entry.referencedFeatures == null) || !Arrays.equals(entry.contentHash, contentHash)) {
+			return null;
+		}
+		for (final String feature : entry.referencedFeatures) {
+			if (changed.contains(feature)) {
+				return null;
+			}
+		}
+		return entry;
+	}
+
+	/**
+	 * Stores the state of a file after it was preprocessed.
+	 *
+	 * @param file the source file
+	 * @param contentHash the hash of the content of the file after preprocessing
+	 * @param referencedFeatures the features referenced by the directives of the file or <code>null</code>, if the file must be preprocessed in every build
+	 */
+	void update(IFile file, byte[] contentHash, Set<String> referencedFeatures) {
+		entries.put(file, new Entry(contentHash, referencedFeatures));
+	}
+
+	/**
+	 * Removes the given file from the index, such that it is preprocessed in the next build.
+	 *
+	 * @param file the source file
+	 */
+	void remove(IFile file) {
+		entries.remove(file);
+	}
+
+	/**
+	 * Removes all files from the index, such that the next build is a full build.
+	 */
+	synchronized void clear() {
+		entries.clear();
+		formula = null;
+		selectedFeatures = null;
+		changedFeatures = null;
+	}
+
+	/**
+	 * Computes the hash of the given lines.
+	 *
+	 * @param lines the content of a file
+	 * @return the hash of the content
+	 */
+	static byte[] hash(List<String> lines) {
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance(SHA_256_DIGEST_ALGORITHM);
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		for (final String line : lines) {
+			digest.update(line.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) '\n');
+		}
+		return digest.digest();
+	}
+
+}
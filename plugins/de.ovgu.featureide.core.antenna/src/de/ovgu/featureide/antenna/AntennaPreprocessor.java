@@ -36,8 +36,12 @@ import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
 import java.util.Vector;
 import java.util.regex.Pattern;
 
@@ -56,6 +60,7 @@ import org.prop4j.And;
 import org.prop4j.False;
 import org.prop4j.Literal;
 import org.prop4j.Node;
+import org.prop4j.NodeReader;
 import org.prop4j.NodeReader.ErrorHandling;
 import org.prop4j.Not;
 import org.prop4j.SatSolver;
@@ -74,6 +79,8 @@ import de.ovgu.featureide.core.CorePlugin;
 import de.ovgu.featureide.core.IFeatureProject;
 import de.ovgu.featureide.core.builder.IComposerExtensionClass;
 import de.ovgu.featureide.core.builder.IComposerObject;
+import de.ovgu.featureide.core.builder.preprocessor.DirectiveLexer;
+import de.ovgu.featureide.core.builder.preprocessor.DirectiveLexer.Tokens;
 import de.ovgu.featureide.core.builder.preprocessor.PPComposerExtensionClass;
 import de.ovgu.featureide.core.fstmodel.preprocessor.FSTDirective;
 import de.ovgu.featureide.core.signature.documentation.base.ADocumentationCommentParser;
@@ -93,8 +100,11 @@ import de.ovgu.featureide.fm.core.editing.NodeCreator;
  */
 public class AntennaPreprocessor extends PPComposerExtensionClass {
 
-	/** antenna preprocessor used from external library */
-	private Preprocessor preprocessor;
+	/** comma separated list of the activated features, which are passed as definitions to the antenna preprocessor */
+	private String defines = "";
+
+	/** remembers the result of the last build, such that unchanged files are not preprocessed again */
+	private final AntennaBuildIndex buildIndex = new AntennaBuildIndex();
 
 	private AntennaModelBuilder antennaModelBuilder;
 
@@ -102,6 +112,20 @@ public class AntennaPreprocessor extends PPComposerExtensionClass {
 	static final Pattern replaceCommandPattern = Pattern.compile("//\\s*\\#(.+?)\\s");
 	static final Pattern annotationPattern = Pattern.compile(".*//\\s*(\\#|\\@).*");
 
+	/** lexer for the directives of Antenna annotations, e.g. "//#if" */
+	private static final DirectiveLexer DIRECTIVE_LEXER = new DirectiveLexer("//");
+
+	/** directives that start or continue a conditional block */
+	private static final String[] CONDITIONAL_DIRECTIVES = { "ifdef", "ifndef", "condition", "elifdef", "elifndef", "if", "else", "elif" };
+	/** directives that start a conditional block */
+	private static final String[] OPENING_DIRECTIVES = { "ifdef", "ifndef", "condition", "if" };
+	/** directives that continue a conditional block */
+	private static final String[] ALTERNATIVE_DIRECTIVES = { "elifdef", "elifndef", "else", "elif" };
+	/** directives with a negated expression */
+	private static final String[] NEGATED_DIRECTIVES = { "ifndef", "elifndef" };
+	/** directives whose result only depends on the selected features, files with other directives are preprocessed in every build */
+	private static final String[] INDEXED_DIRECTIVES = { "ifdef", "ifndef", "condition", "elifdef", "elifndef", "if", "else", "elif", "endif" };
+
 	public AntennaPreprocessor() {
 		super(ANTENNA);
 		nodereader.setIgnoreMissingFeatures(ErrorHandling.KEEP);
@@ -112,7 +136,7 @@ public class AntennaPreprocessor extends PPComposerExtensionClass {
 	public boolean initialize(IFeatureProject project) {
 		super.initialize(project);
 		antennaModelBuilder = new AntennaModelBuilder(project);
-		preprocessor = new Preprocessor(new AntennaLogger(), new AntennaLineFilter());
+		buildIndex.clear();
 
 		final String projectSourcePath = project.getProjectSourcePath();
 		if ((projectSourcePath == null) || projectSourcePath.isEmpty()) {
@@ -154,8 +178,7 @@ public class AntennaPreprocessor extends PPComposerExtensionClass {
 		// add source files
 		try {
 			// add activated features as definitions to preprocessor
-			preprocessor.clearDefines();
-			preprocessor.addDefines(featureList.toString());
+			defines = featureList.toString();
 
 			// preprocess for all files in source folder
 			startPreprocessingSourceFiles(featureProject.getBuildFolder(), true);
@@ -285,95 +308,131 @@ public class AntennaPreprocessor extends PPComposerExtensionClass {
 	 * @throws IOException
 	 */
 	private void preprocessSourceFiles(IFolder sourceFolder, boolean performFullBuild) throws CoreException, FileNotFoundException, IOException {
-		for (final IResource res : sourceFolder.members()) {
-			if (res instanceof IFolder) {
-				// for folders do recursively
-				preprocessSourceFiles((IFolder) res, performFullBuild);
-			} else if (res instanceof IFile) {
-				// delete all existing builder markers
-				if (performFullBuild) {
-					featureProject.deleteBuilderMarkers(res, 0);
-				}
+		final List<IFile> files = new ArrayList<>();
+		collectFiles(sourceFolder, files);
 
-				// get all lines from file
-				final Vector<String> lines = loadStringsFromFile((IFile) res);
+		if (!performFullBuild) {
+			// markers of unchanged files may have been deleted, thus, the next build must check all files again
+			buildIndex.clear();
+			processFilesInParallel(files, res -> processLinesOfFile(loadStringsFromFile(res), res));
+			return;
+		}
 
-				// do checking and some stuff
-				processLinesOfFile(lines, (IFile) res);
+		buildIndex.startBuild(featureProject.getFeatureModelManager().getPersistentFormula(), activatedFeatures, files);
+		processFilesInParallel(files, this::preprocessSourceFile);
+	}
 
-				if (!performFullBuild) {
-					continue;
-				}
+	/**
+	 * Checks and preprocesses a single file. Skips the file if neither its content nor the selection of a referenced feature changed since the last build.
+	 * May be called concurrently for different files.
+	 *
+	 * @param res the file to preprocess
+	 */
+	private void preprocessSourceFile(IFile res) {
+		final Vector<String> lines = loadStringsFromFile(res);
+		final AntennaBuildIndex.Entry entry = buildIndex.getUpToDateEntry(res, AntennaBuildIndex.hash(lines));
+		if (entry != null) {
+			// markers of the last build are still valid
+			usedFeatures.addAll(entry.getReferencedFeatures());
+			return;
+		}
 
-				boolean changed = false;
+		buildIndex.remove(res);
+		runWorkspaceOperation(() -> featureProject.deleteBuilderMarkers(res, 0));
+		final Set<String> referencedFeatures = processLinesOfFile(lines, res);
 
-				try {
-					// run antenna preprocessor
-					changed = preprocessor.preprocess(lines, ((IFile) res).getCharset());
-				} catch (final PPException e) {
-					final int lineNumber = e.getLineNumber();
-					featureProject.createBuilderMarker(res, e.getMessage().replace("Line #" + lineNumber + " :", "Antenna:"), Math.max(lineNumber, 0) + 1,
-							IMarker.SEVERITY_ERROR);
-					AntennaCorePlugin.getDefault().logError(e);
-				}
+		boolean changed = false;
+		try {
+			// run antenna preprocessor, a new instance for each file, as it is not thread-safe and keeps definitions of previous files
+			final Preprocessor preprocessor = new Preprocessor(new AntennaLogger(), new AntennaLineFilter());
+			preprocessor.addDefines(defines);
+			changed = preprocessor.preprocess(lines, res.getCharset());
+		} catch (final PPException e) {
+			final int lineNumber = e.getLineNumber();
+			createBuilderMarker(res, e.getMessage().replace("Line #" + lineNumber + " :", "Antenna:"), Math.max(lineNumber, 0) + 1, IMarker.SEVERITY_ERROR);
+			AntennaCorePlugin.getDefault().logError(e);
+			return;
+		} catch (final CoreException | IOException e) {
+			AntennaCorePlugin.getDefault().logError(e);
+			return;
+		}
 
-				// if preprocessor changed file: save & refresh
-				if (changed) {
-					FileOutputStream ostr = null;
-					try {
-						ostr = new FileOutputStream(res.getRawLocation().toOSString());
-						Preprocessor.saveStrings(lines, ostr, ((IFile) res).getCharset());
-					} finally {
-						if (ostr != null) {
-							ostr.close();
-						}
-					}
+		// if preprocessor changed file: save & refresh
+		if (changed) {
+			try (FileOutputStream ostr = new FileOutputStream(res.getRawLocation().toOSString())) {
+				Preprocessor.saveStrings(lines, ostr, res.getCharset());
+			} catch (final CoreException | IOException e) {
+				AntennaCorePlugin.getDefault().logError(e);
+				return;
+			}
+			runWorkspaceOperation(() -> {
+				try {
 					// use touch to support e.g. linux
 					res.touch(null);
 					res.refreshLocal(IResource.DEPTH_ZERO, null);
+				} catch (final CoreException e) {
+					AntennaCorePlugin.getDefault().logError(e);
 				}
-			}
+			});
 		}
+		buildIndex.update(res, AntennaBuildIndex.hash(lines), referencedFeatures);
 	}
 
 	/**
-	 * Do checking for all lines of file.
+	 * Do checking for all lines of file. The state of the checking is kept local, such that different files can be checked concurrently.
 	 *
 	 * @param lines all lines of file
 	 * @param res file
+	 * @return the features referenced by the directives of the file or <code>null</code>, if the file contains directives whose result does not only depend on
+	 *         the selected features (e.g., <code>#define</code>)
 	 */
-	synchronized private void processLinesOfFile(Vector<String> lines, IFile res) {
-		expressionStack = new ArrayDeque<>();
+	private Set<String> processLinesOfFile(Vector<String> lines, IFile res) {
+		final Deque<Node> expressionStack = new ArrayDeque<>();
 
 		// count of if, ifelse and else to remove after processing of else from stack
-		ifelseCountStack = new ArrayDeque<>();
+		final Deque<Integer> ifelseCountStack = new ArrayDeque<>();
+
+		final NodeReader nodeReader = createNodeReader();
+
+		final Set<String> referencedFeatures = new HashSet<>();
+		boolean selectionDependent = true;
 
 		// go line for line
 		for (int j = 0; j < lines.size(); ++j) {
 			final String line = lines.get(j);
+			final Tokens tokens = DIRECTIVE_LEXER.tokenize(line);
+			if (tokens.hasDirective() && !tokens.hasOnlyDirectives(INDEXED_DIRECTIVES)) {
+				selectionDependent = false;
+			}
 
 			// if line is preprocessor directive
-			if (containsPreprocessorDirective(line, "ifdef|ifndef|condition|elifdef|elifndef|if|else|elif")) {
+			if (tokens.hasDirective(CONDITIONAL_DIRECTIVES)) {
 
 				// if e1, elseif e2, ..., elseif en == if -e1 && -e2 && ... && en
 				// if e1, elseif e2, ..., else == if -e1 && -e2 && ...
-				if (containsPreprocessorDirective(line, "elifdef|elifndef|else|elif")) {
+				if (tokens.hasDirective(ALTERNATIVE_DIRECTIVES)) {
 					if (!expressionStack.isEmpty()) {
 						final Node lastElement = new Not(expressionStack.pop().clone());
 						expressionStack.push(lastElement);
 					}
-				} else if (containsPreprocessorDirective(line, "ifdef|ifndef|condition|if")) {
+				} else if (tokens.hasDirective(OPENING_DIRECTIVES)) {
 					ifelseCountStack.push(0);
 				}
 
-				if (!ifelseCountStack.isEmpty() && !containsPreprocessorDirective(line, "else")) {
+				if (!ifelseCountStack.isEmpty() && !tokens.hasDirective("else")) {
 					ifelseCountStack.push(ifelseCountStack.pop() + 1);
 				}
 
-				setMarkersContradictionalFeatures(line, res, j + 1);
+				final Node ppExpression = setMarkersContradictionalFeatures(line, tokens, res, j + 1, expressionStack, nodeReader);
+				if (ppExpression != null) {
+					referencedFeatures.addAll(ppExpression.getContainedFeatures());
+				} else if (!tokens.hasDirective("else")) {
+					selectionDependent = false;
+				}
+				referencedFeatures.addAll(tokens.getNames());
 
-				setMarkersNotConcreteFeatures(line, res, j + 1);
-			} else if (containsPreprocessorDirective(line, "endif")) {
+				setMarkersNotConcreteFeatures(tokens, res, j + 1);
+			} else if (tokens.hasDirective("endif")) {
 				while (!ifelseCountStack.isEmpty()) {
 					if (ifelseCountStack.peek() == 0) {
 						break;
@@ -391,6 +450,19 @@ public class AntennaPreprocessor extends PPComposerExtensionClass {
 				}
 			}
 		}
+		return selectionDependent ? referencedFeatures : null;
+	}
+
+	/**
+	 * Creates a node reader for parsing the expressions of one file. The shared {@link #nodereader} cannot be used, since files are checked concurrently.
+	 *
+	 * @return a new node reader
+	 */
+	private static NodeReader createNodeReader() {
+		final NodeReader nodeReader = new NodeReader();
+		nodeReader.setIgnoreMissingFeatures(ErrorHandling.KEEP);
+		nodeReader.setIgnoreUnparsableSubExpressions(ErrorHandling.KEEP);
+		return nodeReader;
 	}
 
 	/**
@@ -400,25 +472,30 @@ public class AntennaPreprocessor extends PPComposerExtensionClass {
 	 * feature model</li> </ol>
 	 *
 	 * @param line content of line
+	 * @param tokens the tokens of the given line
 	 * @param res file containing given line
 	 * @param lineNumber line number of given line
+	 * @param expressionStack the expressions of all enclosing annotations of the given line
+	 * @param nodeReader the node reader for the expression of the given line
+	 * @return the expression of the given line or <code>null</code>, if the line has no expression or the expression could not be parsed
 	 */
-	private void setMarkersContradictionalFeatures(String line, IFile res, int lineNumber) {
-		if (containsPreprocessorDirective(line, "else")) {
+	private Node setMarkersContradictionalFeatures(String line, Tokens tokens, IFile res, int lineNumber, Deque<Node> expressionStack,
+			NodeReader nodeReader) {
+		if (tokens.hasDirective("else")) {
 			if (!expressionStack.isEmpty()) {
-				checkContradictionOrTautology(lineNumber, res);
+				checkContradictionOrTautology(expressionStack, lineNumber, res);
 			}
 
-			return;
+			return null;
 		}
 
-		final boolean conditionIsSet = containsPreprocessorDirective(line, "condition");
-		final boolean negative = containsPreprocessorDirective(line, "ifndef|elifndef");
+		final boolean conditionIsSet = tokens.hasDirective("condition");
+		final boolean negative = tokens.hasDirective(NEGATED_DIRECTIVES);
 
 		convertLineForNodeReader(line);
 
 		// get all features and generate Node expression for given line
-		Node ppExpression = nodereader.stringToNode(line, featureList);
+		Node ppExpression = nodeReader.stringToNode(line, featureList);
 
 		if (ppExpression != null) {
 			if (negative) {
@@ -426,45 +503,29 @@ public class AntennaPreprocessor extends PPComposerExtensionClass {
 			}
 			expressionStack.push(ppExpression);
 
-			checkContradictionOrTautology(lineNumber, res);
+			checkContradictionOrTautology(expressionStack, lineNumber, res);
 		} else {
 			// if generating of expression failed, generate expression "true"
 			if (!conditionIsSet) {
 				expressionStack.push(new Literal(NodeCreator.varTrue));
 			}
 		}
-
+		return ppExpression;
 	}
 
 	/**
 	 * Checks given line if it contains not existing or abstract features.
 	 *
-	 * @param line content of line
+	 * @param tokens the tokens of the line
 	 * @param res file containing given line
 	 * @param lineNumber line number of given line
 	 */
-	private void setMarkersNotConcreteFeatures(String line, IFile res, int lineNumber) {
-		final String[] splitted = line.replaceAll("\\s+#", "#").split(AntennaModelBuilder.OPERATORS, 0);
-
-		for (int i = 0; i < splitted.length; ++i) {
-			final String linePart = splitted[i];
-			if (!linePart.isEmpty() && !containsPreprocessorDirective(linePart, ".*")) {
-				setMarkersOnNotExistingOrAbstractFeature(linePart, lineNumber, res);
-			}
+	private void setMarkersNotConcreteFeatures(Tokens tokens, IFile res, int lineNumber) {
+		for (final String name : tokens.getNames()) {
+			setMarkersOnNotExistingOrAbstractFeature(name, lineNumber, res);
 		}
 	}
 
-	/**
-	 * Checks whether the text contains the specified directive or not
-	 *
-	 * @param text text to check
-	 * @param directives directives splitted by |
-	 * @return true - if the specified directive is contained
-	 */
-	protected static boolean containsPreprocessorDirective(String text, String directives) {
-		return Pattern.compile("//\\s*\\#(" + directives + ")").matcher(text).find();
-	}
-
 	@Override
 	public ArrayList<String[]> getTemplates() {
 		return TEMPLATES;
@@ -943,31 +1004,32 @@ public class AntennaPreprocessor extends PPComposerExtensionClass {
 		int ifcount = 0;
 		for (int currentLine = firstLine; currentLine <= lastLine; currentLine++) {
 			final String line = lines.get(currentLine);
+			final Tokens tokens = DIRECTIVE_LEXER.tokenize(line);
 			// if line is preprocessor directive
-			if (containsPreprocessorDirective(line, "ifdef|ifndef|condition|elifdef|elifndef|if|else|elif")) {
-				if (containsPreprocessorDirective(line, "ifdef|ifndef|condition|if")) {
+			if (tokens.hasDirective(CONDITIONAL_DIRECTIVES)) {
+				if (tokens.hasDirective(OPENING_DIRECTIVES)) {
 					if (block == null) {
 						block = new IfBlock(currentLine, nodereader.stringToNode(convertLineForNodeReader(line)));
 					} else {
 						ifcount++;
 					}
-				} else if (containsPreprocessorDirective(line, "elifdef|elifndef|else|elif")) {
+				} else if (tokens.hasDirective(ALTERNATIVE_DIRECTIVES)) {
 					if (block == null) {
-						if (containsPreprocessorDirective(line, "else")) {
+						if (tokens.hasDirective("else")) {
 							// This is never supposed to happen, invalid input
 							block = new ElseBlock(currentLine, null);
-						} else if (containsPreprocessorDirective(line, "elif")) {
+						} else if (tokens.hasDirective("elif")) {
 							block = new ElifBlock(currentLine, null, null);
 						}
 					} else if ((ifcount == 0) && (block != null)) {
-						if (containsPreprocessorDirective(line, "else")) {
+						if (tokens.hasDirective("else")) {
 							block.setEndLine(currentLine);
 							parentBlock.addChild(block);
 
 							final Node buildNode = getPreviousNodesNegated(parentBlock);
 
 							block = new ElseBlock(currentLine, buildNode);
-						} else if (containsPreprocessorDirective(line, "elif")) {
+						} else if (tokens.hasDirective("elif")) {
 							block.setEndLine(currentLine);
 							parentBlock.addChild(block);
 
@@ -978,7 +1040,7 @@ public class AntennaPreprocessor extends PPComposerExtensionClass {
 						}
 					}
 				}
-			} else if (containsPreprocessorDirective(line, "endif")) {
+			} else if (tokens.hasDirective("endif")) {
 				if ((ifcount == 0) && (block != null)) {
 					block.setEndLine(currentLine);
 					lookForCodeBlocks(block, block.getStartLine() + 1, currentLine - 1, lines);
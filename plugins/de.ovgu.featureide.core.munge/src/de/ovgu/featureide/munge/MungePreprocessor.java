@@ -34,8 +34,10 @@ import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Vector;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -52,6 +54,7 @@ import org.eclipse.core.runtime.QualifiedName;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 import org.prop4j.Node;
+import org.prop4j.NodeReader;
 import org.prop4j.Not;
 import org.sonatype.plugins.munge.Munge;
 
@@ -97,9 +100,28 @@ public class MungePreprocessor extends PPComposerExtensionClass {
 	public static final Pattern OP_COM_PATTERN = Pattern.compile("(" + OPERATORS + ")|/\\*|\\*/");
 
 	/**
-	 * is true if actual line is in comment section (between <code>&#47;*</code> and <code>*&#47;</code>)
+	 * State of the annotation checking of a single file. Kept separately for each file, such that different files can be checked concurrently.
 	 */
-	private boolean commentSection;
+	private static class AnnotationCheckingState {
+
+		/** Stack for preprocessor directives (for nested expressions). */
+		private final Deque<Node> expressionStack = new ArrayDeque<>();
+
+		/** Stack for count of "if" and "else" instructions for each level. */
+		private final Deque<Integer> ifelseCountStack = new ArrayDeque<>();
+
+		/** Node reader for the expressions of the file. */
+		private final NodeReader nodeReader = new NodeReader();
+
+		/**
+		 * is true if actual line is in comment section (between <code>&#47;*</code> and <code>*&#47;</code>)
+		 */
+		private boolean commentSection = false;
+
+		private AnnotationCheckingState() {
+			ifelseCountStack.push(0);
+		}
+	}
 
 	public MungePreprocessor() {
 		super("Munge");
@@ -168,19 +190,17 @@ public class MungePreprocessor extends PPComposerExtensionClass {
 	}
 
 	private void annotationChecking(IFolder folder) {
+		final List<IFile> files = new ArrayList<>();
 		try {
-			for (final IResource res : folder.members()) {
-				if (res instanceof IFolder) {
-					annotationChecking((IFolder) res);
-				} else if (res instanceof IFile) {
-					final Vector<String> lines = loadStringsFromFile((IFile) res);
-					// do checking and some stuff
-					processLinesOfFile(lines, (IFile) res);
-				}
-			}
+			collectFiles(folder, files);
 		} catch (final CoreException e) {
 			MungeCorePlugin.getDefault().logError(e);
 		}
+		processFilesInParallel(files, res -> {
+			final Vector<String> lines = loadStringsFromFile(res);
+			// do checking and some stuff
+			processLinesOfFile(lines, res);
+		});
 	}
 
 	/**
@@ -241,23 +261,16 @@ public class MungePreprocessor extends PPComposerExtensionClass {
 	 * @param lines all lines of file
 	 * @param res file
 	 */
-	synchronized private void processLinesOfFile(Vector<String> lines, IFile res) {
-		expressionStack = new ArrayDeque<>();
-
-		// count of if, ifelse and else to remove after processing of else from
-		// stack
-		ifelseCountStack = new ArrayDeque<>();
-		ifelseCountStack.push(0);
-
-		commentSection = false;
+	private void processLinesOfFile(Vector<String> lines, IFile res) {
+		final AnnotationCheckingState state = new AnnotationCheckingState();
 
 		// go line for line
 		for (int j = 0; j < lines.size(); ++j) {
 			final String line = lines.get(j);
 
-			if (line.contains("/*") || line.contains("*/") || commentSection) {
+			if (line.contains("/*") || line.contains("*/") || state.commentSection) {
 
-				setMarkersContradictionalFeatures(line, res, j + 1);
+				setMarkersContradictionalFeatures(line, res, j + 1, state);
 
 				setMarkersNotConcreteFeatures(line, res, j + 1);
 			}
@@ -273,8 +286,11 @@ public class MungePreprocessor extends PPComposerExtensionClass {
 	 * @param line content of line
 	 * @param res file containing given line
 	 * @param lineNumber line number of given line
+	 * @param state the state of the annotation checking of the given file
 	 */
-	private void setMarkersContradictionalFeatures(String line, IFile res, int lineNumber) {
+	private void setMarkersContradictionalFeatures(String line, IFile res, int lineNumber, AnnotationCheckingState state) {
+		final Deque<Node> expressionStack = state.expressionStack;
+		final Deque<Integer> ifelseCountStack = state.ifelseCountStack;
 
 		final Matcher m = OP_COM_PATTERN.matcher(line);
 
@@ -284,9 +300,9 @@ public class MungePreprocessor extends PPComposerExtensionClass {
 
 			if (singleElement == null) {
 				if (completeElement.equals("/*")) {
-					commentSection = true;
+					state.commentSection = true;
 				} else if (completeElement.equals("*/")) {
-					commentSection = false;
+					state.commentSection = false;
 				}
 			} else {
 				if (singleElement.startsWith("if") || singleElement.equals("else")) {
@@ -297,7 +313,7 @@ public class MungePreprocessor extends PPComposerExtensionClass {
 						}
 
 					} else {
-						Node ppExpression = nodereader.stringToNode(m.group(4), featureList);
+						Node ppExpression = state.nodeReader.stringToNode(m.group(4), featureList);
 
 						if (singleElement.equals("if_not")) {
 							ppExpression = new Not(ppExpression.clone());
@@ -310,7 +326,7 @@ public class MungePreprocessor extends PPComposerExtensionClass {
 						ifelseCountStack.push(ifelseCountStack.pop() + 1);
 						expressionStack.push(ppExpression);
 					}
-					checkContradictionOrTautology(lineNumber, res);
+					checkContradictionOrTautology(expressionStack, lineNumber, res);
 
 				} else if (singleElement.equals("end")) {
 					for (; ifelseCountStack.peek() > 0; ifelseCountStack.push(ifelseCountStack.pop() - 1)) {
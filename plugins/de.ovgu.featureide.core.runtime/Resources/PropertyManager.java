@@ -24,33 +24,94 @@ import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 
 /**
  * Class generated by FeatureIDE to read feature selections from property files.
  * 
+ * If the system property {@value #RELOAD_PROPERTY} is set to <code>true</code>, the property file is watched
+ * and a changed feature selection is published atomically. Note that the fields of the class
+ * <code>FeatureFlags</code> are read only once and are not affected by reloading.
+ * 
  * @author Matthias Quaas
  * @author Kai Wolf
  */
 public class PropertyManager {
 
 	private static final String RUNTIME_PROPERTIES = "runtime.properties";
-	private static Properties property = new Properties();
+	public static final String RELOAD_PROPERTY = "featureide.runtime.reload";
+
+	/** Immutable snapshot of the current feature selection, which is replaced as a whole on reload. */
+	private static volatile Map<String, Boolean> selection = Collections.emptyMap();
 
 	private PropertyManager() {}
 
 	static {
+		File file = new File(RUNTIME_PROPERTIES);
 		try {
-			File file = new File(RUNTIME_PROPERTIES);
 			if (!file.exists()) {
 				file.createNewFile();
 			}
-			try (BufferedInputStream bis = new BufferedInputStream(new FileInputStream(RUNTIME_PROPERTIES))) {
-				property.load(bis);
-			}
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
+		selection = load(file);
+		if (Boolean.getBoolean(RELOAD_PROPERTY)) {
+			watch(file);
+		}
+	}
+
+	private static Map<String, Boolean> load(File file) {
+		Properties property = new Properties();
+		try (BufferedInputStream bis = new BufferedInputStream(new FileInputStream(file))) {
+			property.load(bis);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		Map<String, Boolean> newSelection = new HashMap<String, Boolean>();
+		for (String propertyName : property.stringPropertyNames()) {
+			newSelection.put(propertyName, Boolean.valueOf(property.getProperty(propertyName)));
+		}
+		return Collections.unmodifiableMap(newSelection);
+	}
+
+	private static void watch(final File file) {
+		final Path path = file.getAbsoluteFile().toPath();
+		Thread watcher = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				try (WatchService watchService = path.getFileSystem().newWatchService()) {
+					path.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+					while (true) {
+						WatchKey key = watchService.take();
+						for (WatchEvent<?> event : key.pollEvents()) {
+							if (path.getFileName().equals(event.context())) {
+								selection = load(file);
+								break;
+							}
+						}
+						if (!key.reset()) {
+							break;
+						}
+					}
+				} catch (IOException e) {
+					e.printStackTrace();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}, "PropertyManager reload");
+		watcher.setDaemon(true);
+		watcher.start();
 	}
 
 	/**
@@ -61,12 +122,14 @@ public class PropertyManager {
 	 */
 	public static boolean getProperty(String propertyName) {
 
-		if (property.getProperty(propertyName) == null) {
+		Boolean value = selection.get(propertyName);
+		if (value == null) {
 			System.err.println("Queried Property '"
 				+ propertyName + "' does not exist!");
+			return false;
 		}
 
-		return Boolean.valueOf(property.getProperty(propertyName));
+		return value;
 
 	}
 
@@ -0,0 +1,221 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.core.runtime;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.lang.model.SourceVersion;
+
+/**
+ * Generates the class <code>properties.FeatureFlags</code> with one <code>static final boolean</code> field per feature and rewrites calls of
+ * <code>PropertyManager.getProperty("Feature")</code> to reads of these fields. Thus, a feature check in the generated program costs a single field read
+ * instead of a lookup in the runtime properties.
+ */
+class FeatureFlagsGenerator {
+
+	/** matches <code>PropertyManager.getProperty("Feature")</code> with an optional package qualifier */
+	private static final Pattern GET_PROPERTY_CALL = Pattern.compile("(?<![\\w.$])((?:" + RuntimeParameters.PROPERTY_MANAGER_PACKAGE + "\\s*\\.\\s*)?)"
+		+ RuntimeParameters.PROPERTY_MANAGER_CLASS + "\\s*\\.\\s*" + RuntimeParameters.GET_PROPERTY_METHOD + "\\s*\\(\\s*\"([^\"\\\\]*)\"\\s*\\)");
+
+	/** matches reads of a feature flag, i.e., <code>FeatureFlags.Feature</code> with an optional package qualifier */
+	private static final Pattern FEATURE_FLAG_READ = Pattern.compile("(?<![\\w.$])((?:" + RuntimeParameters.PROPERTY_MANAGER_PACKAGE + "\\s*\\.\\s*)?)"
+		+ RuntimeParameters.FEATURE_FLAGS_CLASS + "\\s*\\.\\s*([\\p{javaJavaIdentifierStart}][\\p{javaJavaIdentifierPart}]*)(?![\\p{javaJavaIdentifierPart}(])");
+
+	private static final Pattern PACKAGE_DECLARATION = Pattern.compile("^\\s*package\\s+([\\w.]+)\\s*;", Pattern.MULTILINE);
+
+	private static final String PROPERTY_MANAGER_IMPORT = "import " + RuntimeParameters.PROPERTY_MANAGER_PACKAGE + "." + RuntimeParameters.PROPERTY_MANAGER_CLASS + ";";
+	private static final String FEATURE_FLAGS_IMPORT = "import " + RuntimeParameters.PROPERTY_MANAGER_PACKAGE + "." + RuntimeParameters.FEATURE_FLAGS_CLASS + ";";
+	private static final String WILDCARD_IMPORT = "import " + RuntimeParameters.PROPERTY_MANAGER_PACKAGE + ".*;";
+
+	private FeatureFlagsGenerator() {}
+
+	/**
+	 * Checks whether a feature can be represented by a field of the feature flags class. In addition to the check of
+	 * {@link RuntimeFMComposerExtension#isValidFeatureNameComposerSpecific(String)}, keywords and the literals <code>true</code>, <code>false</code>, and
+	 * <code>null</code> are rejected.
+	 *
+	 * @param featureName the name of the feature
+	 * @return {@code true} if the name is a valid name for a field
+	 */
+	static boolean isValidFlagName(String featureName) {
+		if ((featureName == null) || featureName.isEmpty()) {
+			return false;
+		}
+		if (!Character.isJavaIdentifierStart(featureName.charAt(0))) {
+			return false;
+		}
+		for (int i = 1; i < featureName.length(); i++) {
+			if (!Character.isJavaIdentifierPart(featureName.charAt(i))) {
+				return false;
+			}
+		}
+		return !SourceVersion.isKeyword(featureName);
+	}
+
+	/**
+	 * Generates the source code of the feature flags class. The selection of each feature is read once from the runtime properties when the class is loaded.
+	 *
+	 * @param featureNames the names of the features, names that are no valid field names are skipped (see {@link #isValidFlagName(String)})
+	 * @return the source code of the class
+	 */
+	static String generateClass(Collection<String> featureNames) {
+		final StringBuilder sb = new StringBuilder();
+		sb.append("package ").append(RuntimeParameters.PROPERTY_MANAGER_PACKAGE).append(";\n\n");
+		sb.append("/**\n");
+		sb.append(" * Class generated by FeatureIDE to access feature selections without any lookup.\n");
+		sb.append(" * The selection of each feature is read once from the property file when this class is loaded.\n");
+		sb.append(" * Do not edit, this class is generated again on every build.\n");
+		sb.append(" */\n");
+		sb.append("public final class ").append(RuntimeParameters.FEATURE_FLAGS_CLASS).append(" {\n\n");
+		boolean hasFlags = false;
+		for (final String featureName : featureNames) {
+			if (!isValidFlagName(featureName)) {
+				continue;
+			}
+			hasFlags = true;
+			sb.append("\tpublic static final boolean ").append(featureName).append(" = ").append(RuntimeParameters.PROPERTY_MANAGER_CLASS).append('.')
+					.append(RuntimeParameters.GET_PROPERTY_METHOD).append("(\"").append(featureName).append("\");\n");
+		}
+		if (hasFlags) {
+			sb.append('\n');
+		}
+		sb.append("\tprivate ").append(RuntimeParameters.FEATURE_FLAGS_CLASS).append("() {}\n\n");
+		sb.append("}\n");
+		return sb.toString();
+	}
+
+	/**
+	 * Rewrites all calls of <code>PropertyManager.getProperty("Feature")</code> with a constant feature name to reads of the corresponding feature flag. Calls
+	 * of unknown features are kept, such that the property manager still reports them at runtime.
+	 *
+	 * @param source the source code of a Java file
+	 * @param flags the names of all features in the feature flags class
+	 * @return the rewritten source code or the given source code, if it does not contain any call to rewrite
+	 */
+	static String rewriteCallSites(String source, Set<String> flags) {
+		final Matcher matcher = GET_PROPERTY_CALL.matcher(source);
+		final StringBuffer sb = new StringBuffer();
+		boolean rewritten = false;
+		boolean needsImport = false;
+		while (matcher.find()) {
+			final String featureName = matcher.group(2);
+			if (flags.contains(featureName) && isValidFlagName(featureName)) {
+				final boolean qualified = !matcher.group(1).isEmpty();
+				final String replacement = (qualified ? RuntimeParameters.PROPERTY_MANAGER_PACKAGE + "." : "") + RuntimeParameters.FEATURE_FLAGS_CLASS + "."
+					+ featureName;
+				matcher.appendReplacement(sb, Matcher.quoteReplacement(replacement));
+				rewritten = true;
+				needsImport |= !qualified;
+			}
+		}
+		if (!rewritten) {
+			return source;
+		}
+		matcher.appendTail(sb);
+		String result = sb.toString();
+
+		final Matcher packageMatcher = PACKAGE_DECLARATION.matcher(result);
+		final boolean hasPackage = packageMatcher.find();
+		if (needsImport && !(hasPackage && RuntimeParameters.PROPERTY_MANAGER_PACKAGE.equals(packageMatcher.group(1))) && !result.contains(FEATURE_FLAGS_IMPORT)
+			&& !result.contains(WILDCARD_IMPORT)) {
+			final int managerImport = result.indexOf(PROPERTY_MANAGER_IMPORT);
+			if (managerImport >= 0) {
+				final int end = managerImport + PROPERTY_MANAGER_IMPORT.length();
+				result = result.substring(0, end) + "\n" + FEATURE_FLAGS_IMPORT + result.substring(end);
+			} else if (hasPackage) {
+				final int end = packageMatcher.end();
+				result = result.substring(0, end) + "\n\n" + FEATURE_FLAGS_IMPORT + result.substring(end);
+			} else {
+				result = FEATURE_FLAGS_IMPORT + "\n" + result;
+			}
+		}
+
+		// remove the import of the property manager if it is not used anymore
+		final int managerImport = result.indexOf(PROPERTY_MANAGER_IMPORT);
+		if (managerImport >= 0) {
+			final int end = managerImport + PROPERTY_MANAGER_IMPORT.length();
+			final String remainder = result.substring(0, managerImport) + result.substring(end);
+			if (!Pattern.compile("\\b" + RuntimeParameters.PROPERTY_MANAGER_CLASS + "\\b").matcher(remainder).find()) {
+				result = result.substring(0, managerImport) + result.substring(end + (result.startsWith("\n", end) ? 1 : 0));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Reverts {@link #rewriteCallSites(String, Set)}, i.e., rewrites all reads of feature flags to calls of <code>PropertyManager.getProperty("Feature")</code>.
+	 * This is necessary before the feature flags class is removed, because the sources still refer to it.
+	 *
+	 * @param source the source code of a Java file
+	 * @return the rewritten source code or the given source code, if it does not contain any read of a feature flag
+	 */
+	static String restoreCallSites(String source) {
+		final Matcher matcher = FEATURE_FLAG_READ.matcher(source);
+		final StringBuffer sb = new StringBuffer();
+		boolean rewritten = false;
+		boolean needsImport = false;
+		while (matcher.find()) {
+			final String featureName = matcher.group(2);
+			if (isValidFlagName(featureName)) {
+				final boolean qualified = !matcher.group(1).isEmpty();
+				final String replacement = (qualified ? RuntimeParameters.PROPERTY_MANAGER_PACKAGE + "." : "") + RuntimeParameters.PROPERTY_MANAGER_CLASS + "."
+					+ RuntimeParameters.GET_PROPERTY_METHOD + "(\"" + featureName + "\")";
+				matcher.appendReplacement(sb, Matcher.quoteReplacement(replacement));
+				rewritten = true;
+				needsImport |= !qualified;
+			}
+		}
+		if (!rewritten && !source.contains(FEATURE_FLAGS_IMPORT)) {
+			return source;
+		}
+		matcher.appendTail(sb);
+		String result = sb.toString();
+
+		// replace the import of the feature flags class by the import of the property manager
+		final int flagsImport = result.indexOf(FEATURE_FLAGS_IMPORT);
+		if (flagsImport >= 0) {
+			final int end = flagsImport + FEATURE_FLAGS_IMPORT.length();
+			if (needsImport && !result.contains(PROPERTY_MANAGER_IMPORT) && !result.contains(WILDCARD_IMPORT)) {
+				result = result.substring(0, flagsImport) + PROPERTY_MANAGER_IMPORT + result.substring(end);
+			} else {
+				result = result.substring(0, flagsImport) + result.substring(end + (result.startsWith("\n", end) ? 1 : 0));
+			}
+			needsImport = false;
+		}
+
+		if (needsImport && !result.contains(PROPERTY_MANAGER_IMPORT) && !result.contains(WILDCARD_IMPORT)) {
+			final Matcher packageMatcher = PACKAGE_DECLARATION.matcher(result);
+			if (packageMatcher.find()) {
+				if (!RuntimeParameters.PROPERTY_MANAGER_PACKAGE.equals(packageMatcher.group(1))) {
+					final int packageEnd = packageMatcher.end();
+					result = result.substring(0, packageEnd) + "\n\n" + PROPERTY_MANAGER_IMPORT + result.substring(packageEnd);
+				}
+			} else {
+				result = PROPERTY_MANAGER_IMPORT + "\n" + result;
+			}
+		}
+		return result;
+	}
+
+}
@@ -21,6 +21,7 @@
 package de.ovgu.featureide.core.runtime;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
@@ -31,8 +32,11 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.Set;
 import java.util.Vector;
+import java.util.function.UnaryOperator;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
@@ -43,6 +47,8 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.IMethod;
@@ -53,8 +59,13 @@ import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
 import org.eclipse.jdt.core.search.IJavaSearchScope;
 import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchMatch;
+import org.eclipse.jdt.core.search.SearchParticipant;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.SearchRequestor;
 import org.eclipse.jdt.internal.corext.callhierarchy.CallHierarchy;
 import org.eclipse.jdt.internal.corext.callhierarchy.CallLocation;
 import org.eclipse.jdt.internal.corext.callhierarchy.MethodCall;
@@ -88,12 +99,14 @@ public class RuntimeParameters extends ComposerExtensionClass {
 	private static final int AST_Type = AST.JLS4;
 	public static final String RUN_CONFIGURATION = "Run Configuration";
 	public static final String PROPERTIES = "Properties";
+	public static final String FEATURE_FLAGS = "Feature Flags";
 	public static final String NOT_EXISTING_PROPERTY_MARKER = CorePlugin.PLUGIN_ID + ".builderProblemMarker";
 	public static final String PROPERTY_MANAGER_CLASS = "PropertyManager";
 	public static final String PROPERTY_MANAGER_PACKAGE = "properties";
 	public static final String GET_PROPERTY_METHOD = "getProperty";
+	public static final String FEATURE_FLAGS_CLASS = "FeatureFlags";
 	// the first entry represents the default composition mechanism
-	public static final String[] COMPOSITION_MECHANISMS = new String[] { PROPERTIES, RUN_CONFIGURATION };
+	public static final String[] COMPOSITION_MECHANISMS = new String[] { PROPERTIES, RUN_CONFIGURATION, FEATURE_FLAGS };
 
 	// TODO this must not be static
 	static ArrayList<FeatureLocation> featureLocs = new ArrayList<FeatureLocation>();
@@ -104,7 +117,7 @@ public class RuntimeParameters extends ComposerExtensionClass {
 	@Override
 	public void buildFSTModel() {
 
-		if (PROPERTIES.equals(featureProject.getCompositionMechanism())) {
+		if (usesPropertyFile()) {
 
 			// get all current locations of getProperty-calls within the code
 			setFeatureLocations();
@@ -326,7 +339,7 @@ public class RuntimeParameters extends ComposerExtensionClass {
 		if (super.initialize(project)) {
 			final IFolder buildFolder = featureProject.getBuildFolder();
 			if (buildFolder != null) {
-				if (PROPERTIES.equals(featureProject.getCompositionMechanism())) {
+				if (usesPropertyFile()) {
 					final IFolder propFolder = buildFolder.getFolder(PROPERTY_MANAGER_PACKAGE);
 
 					try {
@@ -357,6 +370,7 @@ public class RuntimeParameters extends ComposerExtensionClass {
 					final IFolder propFolder = buildFolder.getFolder(PROPERTY_MANAGER_PACKAGE);
 					final IFile filePropMan = propFolder.getFile(PROPERTY_MANAGER_CLASS + ".java");
 					deleteFile(filePropMan);
+					deleteFile(propFolder.getFile(FEATURE_FLAGS_CLASS + ".java"));
 					try {
 						propFolder.delete(true, null);
 					} catch (final CoreException e) {
@@ -388,10 +402,16 @@ public class RuntimeParameters extends ComposerExtensionClass {
 
 		final IFile filePropInBuild = buildFolder.getFile("runtime.properties");
 		final IFile fileProp = featureProject.getProject().getFile("runtime.properties");
-		if (PROPERTIES.equals(featureProject.getCompositionMechanism())) {
+		if (!FEATURE_FLAGS.equals(featureProject.getCompositionMechanism())) {
+			removeFeatureFlags(buildFolder);
+		}
+		if (usesPropertyFile()) {
+			final Configuration configuration = featureProject.loadConfiguration(config);
+			if (FEATURE_FLAGS.equals(featureProject.getCompositionMechanism()) && (configuration != null)) {
+				generateFeatureFlags(buildFolder, configuration);
+			}
 			buildFSTModel();
 
-			final Configuration configuration = featureProject.loadConfiguration(config);
 			if (configuration == null) {
 				return;
 			}
@@ -434,6 +454,134 @@ public class RuntimeParameters extends ComposerExtensionClass {
 		}
 	}
 
+	/**
+	 * Whether the feature selection is read from the runtime.properties file by the generated program.
+	 */
+	private boolean usesPropertyFile() {
+		final String compositionMechanism = featureProject.getCompositionMechanism();
+		return PROPERTIES.equals(compositionMechanism) || FEATURE_FLAGS.equals(compositionMechanism);
+	}
+
+	/**
+	 * Generates the FeatureFlags class with one field per concrete feature and rewrites all calls of the getProperty()-method with a constant feature name to
+	 * reads of these fields. Features whose names are Java keywords are still read via the getProperty()-method. Files are only written if their content
+	 * changes.
+	 *
+	 * @param buildFolder the source folder of the project
+	 * @param configuration the current configuration
+	 */
+	private void generateFeatureFlags(final IFolder buildFolder, final Configuration configuration) {
+		final Set<String> flags = new LinkedHashSet<>();
+		for (final SelectableFeature f : configuration.getFeatures()) {
+			final String featureName = f.getFeature().getName();
+			if (!f.getFeature().getStructure().isAbstract() && FeatureFlagsGenerator.isValidFlagName(featureName)) {
+				flags.add(featureName);
+			}
+		}
+
+		final IFolder propFolder = buildFolder.getFolder(PROPERTY_MANAGER_PACKAGE);
+		final IFile flagsFile = propFolder.getFile(FEATURE_FLAGS_CLASS + ".java");
+		if (propFolder.exists() && setContentsIfChanged(flagsFile, FeatureFlagsGenerator.generateClass(flags))) {
+			try {
+				flagsFile.setDerived(true, null);
+			} catch (final CoreException e) {
+				RuntimeCorePlugin.getDefault().logError(e);
+			}
+		}
+
+		try {
+			rewriteSources(buildFolder, source -> FeatureFlagsGenerator.rewriteCallSites(source, flags));
+		} catch (final CoreException e) {
+			RuntimeCorePlugin.getDefault().logError(e);
+		}
+	}
+
+	/**
+	 * Removes the FeatureFlags class after the composition mechanism was changed. Before, all reads of feature flags are rewritten back to calls of the
+	 * getProperty()-method, because the sources of the project still refer to the class. If this fails, the class is kept.
+	 *
+	 * @param buildFolder the source folder of the project
+	 */
+	private void removeFeatureFlags(final IFolder buildFolder) {
+		final IFile flagsFile = buildFolder.getFolder(PROPERTY_MANAGER_PACKAGE).getFile(FEATURE_FLAGS_CLASS + ".java");
+		if (!flagsFile.exists()) {
+			return;
+		}
+		try {
+			if (rewriteSources(buildFolder, FeatureFlagsGenerator::restoreCallSites)) {
+				deleteFile(flagsFile);
+			}
+		} catch (final CoreException e) {
+			RuntimeCorePlugin.getDefault().logError(e);
+		}
+	}
+
+	/**
+	 * Applies the given rewriter to all Java files in the given folder and its subfolders, except for derived resources.
+	 *
+	 * @return {@code true} if all files could be read and all changed files could be written
+	 */
+	private boolean rewriteSources(final IFolder folder, final UnaryOperator<String> rewriter) throws CoreException {
+		boolean success = true;
+		for (final IResource res : folder.members()) {
+			if (res instanceof IFolder) {
+				if (!res.isDerived()) {
+					success &= rewriteSources((IFolder) res, rewriter);
+				}
+			} else if ((res instanceof IFile) && "java".equals(res.getFileExtension()) && !res.isDerived()) {
+				final IFile file = (IFile) res;
+				final String source = readFile(file);
+				if (source == null) {
+					success = false;
+				} else {
+					final String rewrittenSource = rewriter.apply(source);
+					if (!rewrittenSource.equals(source)) {
+						success &= setContentsIfChanged(file, rewrittenSource);
+					}
+				}
+			}
+		}
+		return success;
+	}
+
+	/**
+	 * Writes the given content to the file, unless the file already has this content.
+	 *
+	 * @return {@code true} if the file was written
+	 */
+	private boolean setContentsIfChanged(final IFile file, final String content) {
+		if (file.exists() && content.equals(readFile(file))) {
+			return false;
+		}
+		try {
+			final String charset = file.exists() ? file.getCharset() : StandardCharsets.UTF_8.name();
+			final InputStream inputStream = new ByteArrayInputStream(content.getBytes(charset));
+			if (file.exists()) {
+				file.setContents(inputStream, IResource.FORCE | IResource.KEEP_HISTORY, null);
+			} else {
+				file.create(inputStream, true, null);
+			}
+			return true;
+		} catch (CoreException | IOException e) {
+			RuntimeCorePlugin.getDefault().logError(e);
+			return false;
+		}
+	}
+
+	private String readFile(final IFile file) {
+		try (InputStream inputStream = file.getContents(true)) {
+			final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[4096];
+			for (int length = inputStream.read(buffer); length >= 0; length = inputStream.read(buffer)) {
+				outputStream.write(buffer, 0, length);
+			}
+			return new String(outputStream.toByteArray(), file.getCharset());
+		} catch (CoreException | IOException e) {
+			RuntimeCorePlugin.getDefault().logError(e);
+			return null;
+		}
+	}
+
 	@Override
 	public void postCompile(final IResourceDelta delta, final IFile buildFile) {}
 
@@ -481,13 +629,6 @@ public class RuntimeParameters extends ComposerExtensionClass {
 				callLocs = getCallersOf(method);
 			}
 
-			String featureName;
-			String className;
-			IFile classFile;
-			ICompilationUnit compilationUnit;
-			int startLineNum;
-			int endLineNum;
-			FSTDirectiveCommand cmd;
 			for (final CallLocation[] callLoc : callLocs) {
 				for (final CallLocation element : callLoc) {
 					// feature name = attribute of getProperty-call
@@ -497,22 +638,14 @@ public class RuntimeParameters extends ComposerExtensionClass {
 					if (callTextElements.length < 2) {
 						continue;
 					}
-					featureName = callTextElements[1];
-
-					className = element.getMember().getParent().getElementName();
-					classFile = (IFile) element.getMember().getCompilationUnit().getCorrespondingResource();
-					compilationUnit = element.getMember().getCompilationUnit();
-					startLineNum = element.getLineNumber();
-					endLineNum = getEndOfIf(compilationUnit, startLineNum);
-					// if the call in the start line is within an if-statement,
-					// getEndOfIf() will return the end of the latter
-					cmd = endLineNum == 1 ? FSTDirectiveCommand.CALL : FSTDirectiveCommand.IF;
-					endLineNum = endLineNum == 1 ? startLineNum : endLineNum;
-
-					featureLocs.add(new FeatureLocation(featureName, startLineNum, endLineNum, classFile, className, cmd));
+					addFeatureLocation(callTextElements[1], element.getMember(), element.getLineNumber());
 				}
 			}
-		} catch (final JavaModelException e) {
+
+			if (FEATURE_FLAGS.equals(featureProject.getCompositionMechanism())) {
+				setFeatureFlagLocations(proj);
+			}
+		} catch (final CoreException e) {
 			RuntimeCorePlugin.getDefault().logError(e);
 		}
 		// sort all feature locations by 1) class (here represented by path
@@ -549,6 +682,69 @@ public class RuntimeParameters extends ComposerExtensionClass {
 		}
 	}
 
+	/**
+	 * Looks for reads of the fields of the FeatureFlags class and creates a FeatureLocation-object for each read.
+	 *
+	 * @param proj the Java project
+	 * @throws CoreException if the search fails
+	 */
+	private void setFeatureFlagLocations(final IJavaProject proj) throws CoreException {
+		final IType flagsType = proj.findType(PROPERTY_MANAGER_PACKAGE + "." + FEATURE_FLAGS_CLASS);
+		if (flagsType == null) {
+			return;
+		}
+		final IJavaSearchScope scope = SearchEngine.createJavaSearchScope(new IJavaElement[] { proj });
+		// parsed compilation units to compute the line numbers of the matches
+		final HashMap<ICompilationUnit, CompilationUnit> parsedUnits = new HashMap<>();
+		for (final IField field : flagsType.getFields()) {
+			final SearchPattern pattern = SearchPattern.createPattern(field, IJavaSearchConstants.READ_ACCESSES);
+			new SearchEngine().search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() }, scope, new SearchRequestor() {
+
+				@Override
+				public void acceptSearchMatch(SearchMatch match) throws CoreException {
+					if (!(match.getElement() instanceof IMember)) {
+						return;
+					}
+					final IMember member = (IMember) match.getElement();
+					final ICompilationUnit compilationUnit = member.getCompilationUnit();
+					if ((compilationUnit == null) || flagsType.equals(member.getDeclaringType())) {
+						return;
+					}
+					CompilationUnit parsedUnit = parsedUnits.get(compilationUnit);
+					if (parsedUnit == null) {
+						final ASTParser parser = ASTParser.newParser(AST_Type);
+						parser.setSource(compilationUnit);
+						parser.setKind(ASTParser.K_COMPILATION_UNIT);
+						parsedUnit = (CompilationUnit) parser.createAST(new NullProgressMonitor());
+						parsedUnits.put(compilationUnit, parsedUnit);
+					}
+					addFeatureLocation(field.getElementName(), member, parsedUnit.getLineNumber(match.getOffset()));
+				}
+			}, new NullProgressMonitor());
+		}
+	}
+
+	/**
+	 * Creates a FeatureLocation-object for a feature query within the given member.
+	 *
+	 * @param featureName the name of the queried feature
+	 * @param member the member containing the query
+	 * @param startLineNum the line of the query
+	 * @throws JavaModelException if the resource of the member cannot be accessed
+	 */
+	private void addFeatureLocation(final String featureName, final IMember member, final int startLineNum) throws JavaModelException {
+		final String className = member.getParent().getElementName();
+		final IFile classFile = (IFile) member.getCompilationUnit().getCorrespondingResource();
+		final ICompilationUnit compilationUnit = member.getCompilationUnit();
+		int endLineNum = getEndOfIf(compilationUnit, startLineNum);
+		// if the call in the start line is within an if-statement,
+		// getEndOfIf() will return the end of the latter
+		final FSTDirectiveCommand cmd = endLineNum == 1 ? FSTDirectiveCommand.CALL : FSTDirectiveCommand.IF;
+		endLineNum = endLineNum == 1 ? startLineNum : endLineNum;
+
+		featureLocs.add(new FeatureLocation(featureName, startLineNum, endLineNum, classFile, className, cmd));
+	}
+
 	/**
 	 * Creates the directive which will be added to the FSTModel and set its properties.
 	 *
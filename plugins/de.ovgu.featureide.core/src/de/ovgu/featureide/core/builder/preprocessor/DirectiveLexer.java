@@ -0,0 +1,206 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.core.builder.preprocessor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits a line of a source file into the tokens of preprocessor directives. A line is scanned only once, without any regular expression. The resulting
+ * {@link Tokens} can be queried repeatedly, e.g., for the kind of directive and for the names it references.<br> <br> A directive consists of a marker (e.g.,
+ * <code>//</code> for Antenna or the empty string for the C preprocessor), optional white space, the character <code>#</code>, and a keyword of letters. Words are
+ * separated by operator characters, which by default are the characters of the regular expression <code>[\s!=&lt;&gt;",;&amp;\^\|\(\)]</code>.
+ */
+public class DirectiveLexer {
+
+	/**
+	 * The default operator characters that separate names in directives.
+	 */
+	public static final String OPERATOR_CHARACTERS = " \t\n\u000B\f\r!=<>\",;&^|()";
+
+	/**
+	 * The tokens of a single line.
+	 */
+	public static final class Tokens {
+
+		private static final Tokens EMPTY = new Tokens(Collections.<String> emptyList(), Collections.<String> emptyList());
+
+		private final List<String> keywords;
+		private final List<String> names;
+
+		private Tokens(List<String> keywords, List<String> names) {
+			this.keywords = keywords;
+			this.names = names;
+		}
+
+		/**
+		 * @return {@code true} if the line contains at least one directive marker followed by <code>#</code>
+		 */
+		public boolean hasDirective() {
+			return !keywords.isEmpty();
+		}
+
+		/**
+		 * Checks whether the line contains one of the given directives. A directive matches if its keyword starts with one of the given keywords (e.g.,
+		 * <code>if</code> also matches <code>ifdef</code>), which corresponds to a regular expression search for <code>#(keyword1|keyword2|...)</code>.
+		 *
+		 * @param directives the keywords of the directives
+		 * @return {@code true} if the line contains one of the given directives
+		 */
+		public boolean hasDirective(String... directives) {
+			for (final String keyword : keywords) {
+				for (final String directive : directives) {
+					if (keyword.startsWith(directive)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Checks whether all directives of the line are among the given directives. In contrast to {@link #hasDirective(String...)}, the keywords must match
+		 * exactly.
+		 *
+		 * @param directives the keywords of the directives
+		 * @return {@code true} if the line contains no other directives than the given ones
+		 */
+		public boolean hasOnlyDirectives(String... directives) {
+			for (final String keyword : keywords) {
+				if (!Arrays.asList(directives).contains(keyword)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * @return the keywords of all directives in the line in order of appearance
+		 */
+		public List<String> getKeywords() {
+			return keywords;
+		}
+
+		/**
+		 * @return all non-empty words of the line that do not contain a directive in order of appearance
+		 */
+		public List<String> getNames() {
+			return names;
+		}
+	}
+
+	private final String marker;
+	private final boolean[] operators = new boolean[128];
+
+	/**
+	 * Creates a new lexer with the {@link #OPERATOR_CHARACTERS default operator characters}.
+	 *
+	 * @param marker the string that precedes the <code>#</code> of a directive
+	 */
+	public DirectiveLexer(String marker) {
+		this(marker, OPERATOR_CHARACTERS);
+	}
+
+	/**
+	 * Creates a new lexer.
+	 *
+	 * @param marker the string that precedes the <code>#</code> of a directive
+	 * @param operatorCharacters the ASCII characters that separate words
+	 */
+	public DirectiveLexer(String marker, String operatorCharacters) {
+		this.marker = marker;
+		for (int i = 0; i < operatorCharacters.length(); i++) {
+			operators[operatorCharacters.charAt(i)] = true;
+		}
+	}
+
+	/**
+	 * Splits the given line into tokens. Lines without any <code>#</code> cannot contain a directive and yield no tokens at all.
+	 *
+	 * @param line the line to tokenize
+	 * @return the tokens of the line
+	 */
+	public Tokens tokenize(String line) {
+		if (line.indexOf('#') < 0) {
+			return Tokens.EMPTY;
+		}
+		final List<String> keywords = new ArrayList<>(1);
+		final List<String> names = new ArrayList<>();
+		final int length = line.length();
+		int i = 0;
+		while (i < length) {
+			if (isOperator(line.charAt(i))) {
+				i++;
+				continue;
+			}
+			final int start = i;
+			boolean directive = false;
+			while ((i < length) && !isOperator(line.charAt(i))) {
+				if (line.startsWith(marker, i)) {
+					final int hashIndex = skipWhiteSpace(line, i + marker.length());
+					if ((hashIndex < length) && (line.charAt(hashIndex) == '#')) {
+						int end = hashIndex + 1;
+						while ((end < length) && Character.isLetter(line.charAt(end))) {
+							end++;
+						}
+						keywords.add(line.substring(hashIndex + 1, end));
+						directive = true;
+						i = end;
+						continue;
+					}
+				}
+				i++;
+			}
+			if (!directive) {
+				names.add(line.substring(start, i));
+			}
+		}
+		return new Tokens(keywords, names);
+	}
+
+	private boolean isOperator(char c) {
+		return (c < operators.length) && operators[c];
+	}
+
+	private static int skipWhiteSpace(String line, int index) {
+		while ((index < line.length()) && isWhiteSpace(line.charAt(index))) {
+			index++;
+		}
+		return index;
+	}
+
+	private static boolean isWhiteSpace(char c) {
+		switch (c) {
+		case ' ':
+		case '\t':
+		case '\n':
+		case '\u000B':
+		case '\f':
+		case '\r':
+			return true;
+		default:
+			return false;
+		}
+	}
+
+}
@@ -28,15 +28,18 @@ import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
-import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.Vector;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.eclipse.core.resources.IFile;
@@ -44,22 +47,19 @@ import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
-import org.prop4j.And;
 import org.prop4j.Literal;
 import org.prop4j.Node;
 import org.prop4j.NodeReader;
-import org.prop4j.Not;
-import org.prop4j.SatSolver;
-import org.sat4j.specs.TimeoutException;
 
 import de.ovgu.featureide.core.CorePlugin;
 import de.ovgu.featureide.core.builder.ComposerExtensionClass;
+import de.ovgu.featureide.fm.core.analysis.cnf.Variables;
+import de.ovgu.featureide.fm.core.analysis.cnf.analysis.PresenceConditionChecker;
 import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
 import de.ovgu.featureide.fm.core.base.FeatureUtils;
 import de.ovgu.featureide.fm.core.base.IFeature;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
 import de.ovgu.featureide.fm.core.configuration.Configuration;
-import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
 import de.ovgu.featureide.fm.core.explanations.preprocessors.InvariantPresenceConditionExplanation;
 import de.ovgu.featureide.fm.core.explanations.preprocessors.InvariantPresenceConditionExplanationCreator;
 import de.ovgu.featureide.fm.core.explanations.preprocessors.PreprocessorExplanationCreatorFactory;
@@ -118,6 +118,12 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 	 */
 	protected boolean voidFeatureModel;
 
+	/**
+	 * Checks the expressions of preprocessor annotations against the feature model. Created in {@link #prepareFullBuild(Path)} and shared by all files of a
+	 * build, such that the clauses of the feature model are loaded only once and each distinct expression is only checked once.
+	 */
+	protected PresenceConditionChecker presenceConditionChecker;
+
 	/**
 	 * Preprocessor name used for messages in build markers (must set in subclass).
 	 */
@@ -134,14 +140,20 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 	protected Collection<String> featureList;
 
 	/**
-	 * Pattern for checking of concrete feature: "feature1|feature2|feature3|...".
+	 * Maps the names of all features to their variables in the feature model formula. Used for checking whether a name in an annotation refers to a
+	 * (concrete) feature. Will be generated in {@link #prepareFullBuild(Path)}.
 	 */
-	protected Pattern patternIsConcreteFeature;
+	protected Variables featureVariables;
 
 	/**
-	 * Pattern for checking of abstract feature: "feature1|feature2|feature3|...".
+	 * Contains {@code true} at the index of each variable in {@link #featureVariables} that belongs to an abstract feature.
 	 */
-	protected Pattern patternIsAbstractFeature;
+	private boolean[] abstractFeatureVariables = new boolean[0];
+
+	/**
+	 * {@code true}, if the feature model contains any concrete feature, {@code false} otherwise
+	 */
+	private boolean hasConcreteFeatures;
 
 	/**
 	 * Node Reader for parsing expressions in preprocessor annotations to check for tautologies and contradictions.
@@ -161,8 +173,11 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 	private static final String BUILDER_MARKER = CorePlugin.PLUGIN_ID + ".builderProblemMarker";
 	private static final String FEATURE_MODULE_MARKER = CorePlugin.PLUGIN_ID + ".featureModuleMarker";
 
+	/** Workspace operations of the file that is currently processed by this thread within {@link #processFilesInParallel(List, Consumer)}. */
+	private final ThreadLocal<List<Runnable>> deferredWorkspaceOperations = new ThreadLocal<>();
+
 	/** contains all used features at any source file **/
-	protected HashSet<String> usedFeatures = new HashSet<>();
+	protected final Set<String> usedFeatures = ConcurrentHashMap.newKeySet();
 
 	/**
 	 * Sets the name of the plug-in
@@ -190,33 +205,25 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 			// // read activated features from configuration
 			activatedFeatures = new ArrayList<>(configuration.getSelectedFeatureNames());
 		}
-		// get all concrete and abstract features and generate pattern
-		final StringBuilder concreteFeatures = new StringBuilder();
-		final StringBuilder abstractFeatures = new StringBuilder();
+		// index all concrete and abstract features by name
 		featureModel = persistentFormula.getFeatureModel();
+		final Variables variables = persistentFormula.getCNF().getVariables();
+		final boolean[] abstractVariables = new boolean[variables.maxVariableID() + 1];
+		boolean concreteFeatureFound = false;
 		for (final IFeature feature : featureModel.getFeatures()) {
 			if (feature.getStructure().isConcrete()) {
-				concreteFeatures.append(feature.getName());
-				concreteFeatures.append("|");
+				concreteFeatureFound = true;
 			} else {
-				abstractFeatures.append(feature.getName());
-				abstractFeatures.append("|");
+				abstractVariables[variables.getVariable(feature.getName())] = true;
 			}
 		}
-		// checking if there are any abstract features
-		if (abstractFeatures.length() > 0) {
-			patternIsAbstractFeature = Pattern.compile(abstractFeatures.substring(0, abstractFeatures.length() - 1));
-		}
-		if (concreteFeatures.length() > 0) {
-			patternIsConcreteFeature = Pattern.compile(concreteFeatures.substring(0, concreteFeatures.length() - 1));
-		}
+		abstractVariables[0] = false;
+		abstractFeatureVariables = abstractVariables;
+		featureVariables = variables;
+		hasConcreteFeatures = concreteFeatureFound;
 
-		// create expression of feature model
-		try {
-			voidFeatureModel = !new SatSolver(AdvancedNodeCreator.createNodes(featureModel), 1000).hasSolution();
-		} catch (final TimeoutException e) {
-			voidFeatureModel = false;
-		}
+		presenceConditionChecker = new PresenceConditionChecker(persistentFormula.getCNF());
+		voidFeatureModel = presenceConditionChecker.isVoid();
 
 		featureList = Functional.toList(FeatureUtils.extractFeatureNames(featureModel.getFeatures()));
 
@@ -226,66 +233,20 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 	/**
 	 * Checks the expression on top of the expression stack for a contradiction or a tautology. Does not set any markers.
 	 *
-	 * @param node the expression to prove
-	 * @param withModel Checking with model if is <code>true</code>.
-	 *
 	 * @return the status of the annotation
 	 */
 	protected AnnotationStatus isContradictionOrTautology() {
-		final Node expression = expressionStack.peek();
-
-		Node nestedExpressions = null;
-		if (expressionStack.size() > 1) {
-			Node[] children = expressionStack.toArray(new Node[expressionStack.size()]);
-			children = Arrays.copyOfRange(children, 1, children.length); // Exclude the topmost expression because it is examined separately.
-			nestedExpressions = new And(children);
-		}
-
-		try {
-			return isContradictionOrTautology(expression, AdvancedNodeCreator.createNodes(featureModel), nestedExpressions);
-		} catch (final TimeoutException e) {
-			CorePlugin.getDefault().logError(e);
-			return AnnotationStatus.NORMAL;
-		}
+		return isContradictionOrTautology(expressionStack);
 	}
 
-	private AnnotationStatus isContradictionOrTautology(Node expression, Node featureModel, Node nestedExpressions) throws TimeoutException {
-		if (voidFeatureModel) {
-			return AnnotationStatus.VOID;
-		}
-
-		/*
-		 * -SAT(expression)
-		 */
-		if (!new SatSolver(expression, 1000).hasSolution()) {
-			return AnnotationStatus.CONTRADICTION;
-		}
-
-		/*
-		 * -SAT(-expression)
-		 */
-		if (!new SatSolver(new Not(expression), 1000).hasSolution()) {
-			return AnnotationStatus.TAUTOLOGY;
-		}
-
-		final Node context = (nestedExpressions != null) ? new And(featureModel, nestedExpressions) : featureModel;
-
-		/*
-		 * -SAT(FM & nestedExpressions & expression)
-		 */
-		if (!new SatSolver(new And(context, expression), 1000).hasSolution()) {
-			return AnnotationStatus.DEAD;
-		}
-
-		/*
-		 * TAUT(FM & nestedExpressions => expression) = -SAT(-(FM & nestedExpressions => expression)) = -SAT(-(-(FM & nestedExpressions) | expression)) =
-		 * -SAT(-(-FM | -nestedExpressions | expression)) = -SAT(FM & nestedExpressions & -expression)
-		 */
-		if (!new SatSolver(new And(context, new Not(expression)), 1000).hasSolution()) {
-			return AnnotationStatus.SUPERFLUOUS;
-		}
-
-		return AnnotationStatus.NORMAL;
+	/**
+	 * Checks the expression on top of the given expression stack for a contradiction or a tautology. Does not set any markers.
+	 *
+	 * @param expressionStack the expressions of the current annotation and all enclosing annotations
+	 * @return the status of the annotation
+	 */
+	protected AnnotationStatus isContradictionOrTautology(Deque<Node> expressionStack) {
+		return AnnotationStatus.valueOf(presenceConditionChecker.check(expressionStack).name());
 	}
 
 	/**
@@ -296,6 +257,18 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 	 * @param res file path
 	 */
 	protected void setMarkersOnContradictionOrTautology(AnnotationStatus status, int lineNumber, IFile res) {
+		setMarkersOnContradictionOrTautology(expressionStack, status, lineNumber, res);
+	}
+
+	/**
+	 * Set marker for tautology or contradiction on given line in given file.
+	 *
+	 * @param expressionStack the expressions of the current annotation and all enclosing annotations
+	 * @param status the status of the annotation
+	 * @param lineNumber number of line
+	 * @param res file path
+	 */
+	protected void setMarkersOnContradictionOrTautology(Deque<Node> expressionStack, AnnotationStatus status, int lineNumber, IFile res) {
 		String message;
 		switch (status) {
 		case NORMAL:
@@ -322,7 +295,7 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 		case SUPERFLUOUS:
 			positive = true;
 		case DEAD:
-			final InvariantPresenceConditionExplanation explanation = getInvariantExpressionExplanation(positive);
+			final InvariantPresenceConditionExplanation explanation = getInvariantExpressionExplanation(expressionStack, positive);
 			if ((explanation != null) && (explanation.getReasons() != null) && !explanation.getReasons().isEmpty()) {
 				message += System.lineSeparator();
 				message += explanation.getWriter().getString();
@@ -332,16 +305,17 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 			break;
 		}
 
-		featureProject.createBuilderMarker(res, message, lineNumber, IMarker.SEVERITY_WARNING);
+		createBuilderMarker(res, message, lineNumber, IMarker.SEVERITY_WARNING);
 	}
 
 	/**
 	 * Returns an explanation for why the expression currently on top of the expression stack is a contradiction or a tautology.
 	 *
+	 * @param expressionStack the expressions of the current annotation and all enclosing annotations
 	 * @param tautology true if the expression to explain is a tautology; false if it is a contradiction
 	 * @return an explanation
 	 */
-	private InvariantPresenceConditionExplanation getInvariantExpressionExplanation(boolean tautology) {
+	private synchronized InvariantPresenceConditionExplanation getInvariantExpressionExplanation(Deque<Node> expressionStack, boolean tautology) {
 		invariantExpressionExplanationCreator.setFeatureModel(featureModel);
 		final List<Node> reverseExpressionStack = new ArrayList<>(expressionStack);
 		Collections.reverse(reverseExpressionStack); // Iteration order of Stack is from bottom to top instead of top to bottom.
@@ -359,9 +333,23 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 	 * @param res file containing the expression
 	 */
 	protected void checkContradictionOrTautology(int lineNumber, IFile res) {
+		checkContradictionOrTautology(expressionStack, lineNumber, res);
+	}
+
+	/**
+	 * <p> Checks whether the expression in the given line is a tautology or a contradiction. If so, a marker is added to the given line. </p>
+	 *
+	 * <p> It is assumed that the expression to check is on top of the given expression stack. This method may be called concurrently for different files.
+	 * </p>
+	 *
+	 * @param expressionStack the expressions of the current annotation and all enclosing annotations
+	 * @param lineNumber line number of the expression
+	 * @param res file containing the expression
+	 */
+	protected void checkContradictionOrTautology(Deque<Node> expressionStack, int lineNumber, IFile res) {
 		findLiterals(expressionStack.peek());
-		final AnnotationStatus status = isContradictionOrTautology();
-		setMarkersOnContradictionOrTautology(status, lineNumber, res);
+		final AnnotationStatus status = isContradictionOrTautology(expressionStack);
+		setMarkersOnContradictionOrTautology(expressionStack, status, lineNumber, res);
 	}
 
 	private void findLiterals(Node ppExpression) {
@@ -386,25 +374,33 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 			return false;
 		}
 
-		Matcher matcherFeature = null;
-		if (patternIsAbstractFeature != null) {
-			matcherFeature = patternIsAbstractFeature.matcher(name);
+		if (isAbstractFeature(name)) {
+			createBuilderMarker(res, name + MESSAGE_ABSTRACT, lineNumber, IMarker.SEVERITY_WARNING);
+		} else if (hasConcreteFeatures && !isFeature(name)) {
+			createBuilderMarker(res, name + MESSAGE_NOT_DEFINED, lineNumber, IMarker.SEVERITY_WARNING);
+			return false;
 		}
+		return true;
+	}
 
-		if ((matcherFeature != null) && matcherFeature.matches()) {
-			featureProject.createBuilderMarker(res, name + MESSAGE_ABSTRACT, lineNumber, IMarker.SEVERITY_WARNING);
-		} else {
-			Matcher matcherConreteFeature = null;
-			if (patternIsConcreteFeature != null) {
-				matcherConreteFeature = patternIsConcreteFeature.matcher(name);
-			}
+	/**
+	 * Checks whether the given name refers to a feature of the feature model.
+	 *
+	 * @param name the name to check
+	 * @return {@code true} if there is a feature with the given name
+	 */
+	protected boolean isFeature(String name) {
+		return (featureVariables != null) && (featureVariables.getVariable(name) != 0);
+	}
 
-			if ((matcherConreteFeature != null) && !matcherConreteFeature.matches()) {
-				featureProject.createBuilderMarker(res, name + MESSAGE_NOT_DEFINED, lineNumber, IMarker.SEVERITY_WARNING);
-				return false;
-			}
-		}
-		return true;
+	/**
+	 * Checks whether the given name refers to an abstract feature of the feature model.
+	 *
+	 * @param name the name to check
+	 * @return {@code true} if there is an abstract feature with the given name
+	 */
+	protected boolean isAbstractFeature(String name) {
+		return (featureVariables != null) && abstractFeatureVariables[featureVariables.getVariable(name)];
 	}
 
 	/**
@@ -422,6 +418,97 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 		}
 	}
 
+	/**
+	 * Collects all files in the given folder and its subfolders.
+	 *
+	 * @param folder the folder to search
+	 * @param files the list to which the files are added
+	 * @throws CoreException if the members of a folder cannot be accessed
+	 */
+	protected static void collectFiles(IFolder folder, List<IFile> files) throws CoreException {
+		for (final IResource res : folder.members()) {
+			if (res instanceof IFolder) {
+				collectFiles((IFolder) res, files);
+			} else if (res instanceof IFile) {
+				files.add((IFile) res);
+			}
+		}
+	}
+
+	/**
+	 * Applies the given function to all given files in parallel on a bounded thread pool. The processing of different files is independent of each other,
+	 * provided that the given function keeps its state (e.g., the expression stack) local to the file.<br> <br> As the calling thread may hold the workspace
+	 * lock (e.g., during a build), the function must not modify the workspace directly. Instead, it has to pass such operations to
+	 * {@link #runWorkspaceOperation(Runnable)}, which defers them until the file is processed completely. The deferred operations are then executed on the
+	 * calling thread in the order of the given files.
+	 *
+	 * @param files the files to process
+	 * @param fileProcessor the function processing a single file
+	 */
+	protected void processFilesInParallel(List<IFile> files, Consumer<IFile> fileProcessor) {
+		final int numberOfThreads = Math.min(files.size(), Runtime.getRuntime().availableProcessors());
+		if (numberOfThreads <= 1) {
+			files.forEach(fileProcessor);
+			return;
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+		try {
+			final List<Future<List<Runnable>>> results = new ArrayList<>(files.size());
+			for (final IFile file : files) {
+				results.add(executor.submit(() -> {
+					final List<Runnable> operations = new ArrayList<>();
+					deferredWorkspaceOperations.set(operations);
+					try {
+						fileProcessor.accept(file);
+					} finally {
+						deferredWorkspaceOperations.remove();
+					}
+					return operations;
+				}));
+			}
+			for (final Future<List<Runnable>> result : results) {
+				try {
+					for (final Runnable operation : result.get()) {
+						operation.run();
+					}
+				} catch (final ExecutionException e) {
+					CorePlugin.getDefault().logError(e.getCause());
+				}
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Executes the given operation, which modifies the workspace (e.g., creates a marker). Within {@link #processFilesInParallel(List, Consumer)}, the
+	 * operation is deferred and executed later on the calling thread.
+	 *
+	 * @param operation the operation to execute
+	 */
+	protected void runWorkspaceOperation(Runnable operation) {
+		final List<Runnable> operations = deferredWorkspaceOperations.get();
+		if (operations != null) {
+			operations.add(operation);
+		} else {
+			operation.run();
+		}
+	}
+
+	/**
+	 * Creates a builder marker via {@link #runWorkspaceOperation(Runnable)}.
+	 *
+	 * @param res the resource of the marker
+	 * @param message the message of the marker
+	 * @param lineNumber the line number of the marker
+	 * @param severity the severity of the marker
+	 */
+	protected void createBuilderMarker(IFile res, String message, int lineNumber, int severity) {
+		runWorkspaceOperation(() -> featureProject.createBuilderMarker(res, message, lineNumber, severity));
+	}
+
 	public void deleteAllPreprocessorAnotationMarkers() {
 		try {
 			final IFolder sourceFolder = featureProject.getComposer().hasFeatureFolder() ? featureProject.getSourceFolder() : featureProject.getBuildFolder();
@@ -107,9 +107,9 @@ import de.ovgu.featureide.fm.core.base.impl.MultiFeature;
 import de.ovgu.featureide.fm.core.base.impl.MultiFeatureModel;
 import de.ovgu.featureide.fm.core.configuration.Configuration;
 import de.ovgu.featureide.fm.core.configuration.ConfigurationAnalyzer;
+import de.ovgu.featureide.fm.core.configuration.ConfigurationColumnMatrix;
 import de.ovgu.featureide.fm.core.configuration.FeatureIDEFormat;
-import de.ovgu.featureide.fm.core.configuration.SelectableFeature;
-import de.ovgu.featureide.fm.core.configuration.Selection;
+import de.ovgu.featureide.fm.core.configuration.io.ConfigurationLoader;
 import de.ovgu.featureide.fm.core.io.EclipseFileSystem;
 import de.ovgu.featureide.fm.core.io.FeatureOrderFormat;
 import de.ovgu.featureide.fm.core.io.IPersistentFormat;
@@ -217,6 +217,13 @@ public class FeatureProject extends BuilderMarkerHandler implements IFeatureProj
 
 	private boolean configurationUpdate = false;
 
+	/**
+	 * The selections of all configurations, which are updated for each changed configuration file. Is created lazily for the current feature model.
+	 */
+	private ConfigurationColumnMatrix configurationColumns = null;
+	private FeatureModelFormula configurationColumnsFormula = null;
+	private final Object configurationColumnsLock = new Object();
+
 	@Override
 	public String getFeaturestubPath() {
 		return featureStubPath;
@@ -279,12 +286,12 @@ public class FeatureProject extends BuilderMarkerHandler implements IFeatureProj
 			next(CALCULATE_CORE_AND_DEAD_FEATURES, workMonitor);
 			final List<String> concreteFeatures = getOptionalConcreteFeatures();
 			next(GET_SELECTION_MATRIX, workMonitor);
-			final boolean[][] selectionMatrix = getSelectionMatrix(concreteFeatures);
+			final ConfigurationColumnMatrix selectionMatrix = getConfigurationColumns();
 			next(GET_FALSE_OPTIONAL_FEATURES, workMonitor);
-			final Collection<String> falseOptionalFeatures = getFalseOptionalConfigurationFeatures(selectionMatrix, concreteFeatures);
+			final Collection<String> falseOptionalFeatures = selectionMatrix.getAlwaysSelectedFeatures(concreteFeatures);
 			next(GET_UNUSED_FEATURES, workMonitor);
 			workMonitor.checkCancel();
-			final Collection<String> deadFeatures = getUnusedConfigurationFeatures(selectionMatrix, concreteFeatures);
+			final Collection<String> deadFeatures = selectionMatrix.getNeverSelectedFeatures(concreteFeatures);
 			next("create marker: dead features", workMonitor);
 			if (!deadFeatures.isEmpty()) {
 				createConfigurationMarker(folder, MARKER_NEVER_SELECTED + deadFeatures.size() + (deadFeatures.size() > 1 ? " features are " : " feature is ")
@@ -1080,11 +1087,13 @@ public class FeatureProject extends BuilderMarkerHandler implements IFeatureProj
 				final List<Path> configs = getAllConfigurations();
 				final IPath configIPath = configIFolder.getFullPath();
 				final IResourceDelta configurationDelta = event.getDelta().findMember(configIPath);
+				boolean coverageChanged = false;
 				if (configurationDelta != null) {
 					for (final IResourceDelta delta : configurationDelta.getAffectedChildren(IResourceDelta.REMOVED)) {
 						CorePlugin.getDefault().logInfo(delta.toString() + " was removed.");
 						// if configuration was removed update warnings
-						checkFeatureCoverage();
+						removeConfigurationColumn(EclipseFileSystem.getPath(delta.getResource()));
+						coverageChanged = true;
 					}
 				}
 				final List<Path> changedConfigs = new ArrayList<>();
@@ -1092,10 +1101,15 @@ public class FeatureProject extends BuilderMarkerHandler implements IFeatureProj
 					final IPath iPath = EclipseFileSystem.getResource(config).getFullPath();
 					final IResourceDelta delta = event.getDelta().findMember(iPath);
 					if (delta != null) {
-						checkFeatureCoverage();
-						break;
+						if ((delta.getKind() == IResourceDelta.ADDED) || ((delta.getFlags() & IResourceDelta.CONTENT) != 0)) {
+							updateConfigurationColumn(config);
+						}
+						coverageChanged = true;
 					}
 				}
+				if (coverageChanged) {
+					checkFeatureCoverage();
+				}
 
 				final Path currentConfig = getCurrentConfiguration();
 				for (final Path config : configs) {
@@ -1301,7 +1315,7 @@ public class FeatureProject extends BuilderMarkerHandler implements IFeatureProj
 
 	@Override
 	public Collection<String> getFalseOptionalConfigurationFeatures() {
-		return getFalseOptionalConfigurationFeatures(getSelectionMatrix(), (List<String>) getOptionalConcreteFeatures());
+		return getConfigurationColumns().getAlwaysSelectedFeatures(getOptionalConcreteFeatures());
 	}
 
 	public Collection<String> getFalseOptionalConfigurationFeatures(boolean[][] selections, final List<String> concreteFeatures) {
@@ -1310,7 +1324,7 @@ public class FeatureProject extends BuilderMarkerHandler implements IFeatureProj
 
 	@Override
 	public Collection<String> getUnusedConfigurationFeatures() {
-		return getUnusedConfigurationFeatures(getSelectionMatrix(), (List<String>) getOptionalConcreteFeatures());
+		return getConfigurationColumns().getNeverSelectedFeatures(getOptionalConcreteFeatures());
 	}
 
 	public Collection<String> getUnusedConfigurationFeatures(boolean[][] selections, final List<String> concreteFeatures) {
@@ -1333,32 +1347,61 @@ public class FeatureProject extends BuilderMarkerHandler implements IFeatureProj
 		return falseOptionalFeatures;
 	}
 
-	private boolean[][] getSelectionMatrix() {
-		return getSelectionMatrix(getOptionalConcreteFeatures());
+	/**
+	 * Returns the selections of all configurations. The whole configuration folder is only loaded if the feature model changed since the last call.
+	 * Otherwise, the matrix was already updated for each changed configuration file. Both the initial matrix and the updates are restricted to the files of
+	 * {@link #getConfigurationColumnFiles()}. The index of the folder is kept in the working location of the project.
+	 */
+	private ConfigurationColumnMatrix getConfigurationColumns() {
+		final FeatureModelFormula formula = featureModelManager.getPersistentFormula();
+		synchronized (configurationColumnsLock) {
+			if ((configurationColumns == null) || (configurationColumnsFormula != formula)) {
+				final ConfigurationLoader loader = new ConfigurationLoader();
+				loader.setParallelism(Runtime.getRuntime().availableProcessors());
+				final IPath workingLocation = project.getWorkingLocation(CorePlugin.PLUGIN_ID);
+				if (workingLocation != null) {
+					loader.setIndexFile(ConfigurationLoader.getIndexFile(workingLocation.toFile().toPath(), configFolder));
+				}
+				configurationColumns = new ConfigurationColumnMatrix(loader.loadFileSelections(formula, configFolder, getConfigurationColumnFiles()));
+				configurationColumnsFormula = formula;
+			}
+			return configurationColumns;
+		}
 	}
 
-	private boolean[][] getSelectionMatrix(final Collection<String> concreteFeatures) {
-		final List<Path> configurations = getAllConfigurations();
-
-		final boolean[][] selections = new boolean[configurations.size()][concreteFeatures.size()];
-		final FeatureModelFormula featureModel = featureModelManager.getPersistentFormula();
+	/**
+	 * Returns all {@link #getAllConfigurations() configurations} except for the {@link #getInternalConfigurationFile(Path) internal} ones, which cannot be
+	 * parsed without the feature model.
+	 */
+	private List<Path> getConfigurationColumnFiles() {
+		final List<Path> configs = getAllConfigurations();
+		configs.removeIf(config -> !isConfigurationColumnFile(config));
+		return configs;
+	}
 
-		int row = 0;
-		for (final Path file : configurations) {
-			final boolean[] currentRow = selections[row++];
-			final Configuration configuration = ConfigurationManager.load(file);
-			configuration.updateFeatures(featureModel);
+	private static boolean isConfigurationColumnFile(Path file) {
+		return !file.getFileName().toString().endsWith("." + FeatureIDEFormat.EXTENSION);
+	}
 
-			int column = 0;
-			for (final String feature : concreteFeatures) {
-				final SelectableFeature selectablefeature = configuration.getSelectableFeature(feature);
-				if (selectablefeature != null) {
-					currentRow[column] = selectablefeature.getSelection() == Selection.SELECTED;
+	private void updateConfigurationColumn(Path file) {
+		synchronized (configurationColumnsLock) {
+			if ((configurationColumns != null) && isConfigurationColumnFile(file)) {
+				final Configuration configuration = ConfigurationManager.load(file);
+				if (configuration != null) {
+					configurationColumns.set(file, configuration);
+				} else {
+					configurationColumns.remove(file);
 				}
-				column++;
 			}
 		}
-		return selections;
+	}
+
+	private void removeConfigurationColumn(Path file) {
+		synchronized (configurationColumnsLock) {
+			if ((configurationColumns != null) && (file != null)) {
+				configurationColumns.remove(file);
+			}
+		}
 	}
 
 	private List<String> getOptionalConcreteFeatures() {
@@ -0,0 +1,366 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.attributes.base.impl;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import de.ovgu.featureide.fm.attributes.AttributeUtils;
+import de.ovgu.featureide.fm.attributes.base.IExtendedFeature;
+import de.ovgu.featureide.fm.attributes.base.IFeatureAttribute;
+import de.ovgu.featureide.fm.core.base.IFeature;
+
+/**
+ * Stores the values of all attributes with the same name in one column. Each feature of the model is mapped to a dense index, and each {@link Column} holds
+ * a <code>double[]</code> and a <code>long[]</code> value array and several bitmaps over these indices. Sets of features are represented as bitmaps as well
+ * (see {@link #getSelection(Iterable)}), such that aggregates over a set of features can be computed by iterating the set bits instead of searching the
+ * attribute lists of the features.<br> <br>
+ * Columns are created lazily for each requested attribute name and are kept up-to-date by {@link #update(IFeature, String)} whenever an attribute is added,
+ * removed, renamed, or assigned. If the features of the model change, the whole store is discarded by {@link ExtendedFeatureModel}.
+ */
+public class AttributeColumnStore {
+
+	/**
+	 * The values of one attribute name for all features of the model. The arrays of a column are never modified after they were published. Instead, each
+	 * update creates a new {@link Snapshot}, such that readers can access the current snapshot without synchronization.
+	 */
+	public static final class Column {
+
+		private final String name;
+		private volatile Snapshot snapshot;
+
+		private Column(String name, Snapshot snapshot) {
+			this.name = name;
+			this.snapshot = snapshot;
+		}
+
+		/**
+		 * @return the name of the attribute
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the current values of the column, which do not change anymore
+		 */
+		public Snapshot getSnapshot() {
+			return snapshot;
+		}
+
+		/**
+		 * @param index the index of a feature
+		 * @return true, if the feature has a long or double attribute with this name and a value
+		 */
+		public boolean isNumerical(int index) {
+			return snapshot.isNumerical(index);
+		}
+
+		/**
+		 * @param index the index of a feature
+		 * @return the value of the feature, see {@link Snapshot#getValues()}
+		 */
+		public double getValue(int index) {
+			return snapshot.getValue(index);
+		}
+
+	}
+
+	/**
+	 * An immutable state of a {@link Column}. The arrays returned by the getters must not be modified.
+	 */
+	public static final class Snapshot {
+
+		private final double[] values;
+		private final long[] longValues;
+		private final long[] declared;
+		private final long[] numerical;
+		private final long[] integral;
+		private final long[] bool;
+		private final long[] unassigned;
+
+		private Snapshot(int size) {
+			values = new double[size];
+			longValues = new long[size];
+			final int words = getWordCount(size);
+			declared = new long[words];
+			numerical = new long[words];
+			integral = new long[words];
+			bool = new long[words];
+			unassigned = new long[words];
+		}
+
+		private Snapshot(Snapshot snapshot) {
+			values = snapshot.values.clone();
+			longValues = snapshot.longValues.clone();
+			declared = snapshot.declared.clone();
+			numerical = snapshot.numerical.clone();
+			integral = snapshot.integral.clone();
+			bool = snapshot.bool.clone();
+			unassigned = snapshot.unassigned.clone();
+		}
+
+		private void set(int index, IFeatureAttribute attribute) {
+			final int word = index >>> 6;
+			final long bit = 1L << index;
+			declared[word] &= ~bit;
+			numerical[word] &= ~bit;
+			integral[word] &= ~bit;
+			bool[word] &= ~bit;
+			unassigned[word] &= ~bit;
+			values[index] = 0;
+			longValues[index] = 0;
+			if (attribute == null) {
+				return;
+			}
+			declared[word] |= bit;
+			if (AttributeUtils.isNumerical(attribute)) {
+				final Object value = attribute.getValue();
+				if (value == null) {
+					unassigned[word] |= bit;
+				} else if (value instanceof Long) {
+					numerical[word] |= bit;
+					integral[word] |= bit;
+					longValues[index] = (Long) value;
+					values[index] = (Long) value;
+				} else {
+					numerical[word] |= bit;
+					values[index] = AttributeUtils.getDoubleValue(attribute, null);
+				}
+			} else if (AttributeUtils.isBoolean(attribute)) {
+				final Double value = AttributeUtils.getBooleanValueAsDouble(attribute, null);
+				if (value == null) {
+					unassigned[word] |= bit;
+				} else {
+					bool[word] |= bit;
+					values[index] = value;
+				}
+			}
+		}
+
+		/**
+		 * @param index the index of a feature
+		 * @return true, if the feature has a long or double attribute with this name and a value
+		 */
+		public boolean isNumerical(int index) {
+			return (numerical[index >>> 6] & (1L << index)) != 0;
+		}
+
+		/**
+		 * @param index the index of a feature
+		 * @return true, if the feature has a long attribute with this name and a value
+		 */
+		public boolean isLong(int index) {
+			return (integral[index >>> 6] & (1L << index)) != 0;
+		}
+
+		/**
+		 * @param index the index of a feature
+		 * @return the value of the feature, see {@link #getValues()}
+		 */
+		public double getValue(int index) {
+			return values[index];
+		}
+
+		/**
+		 * @param index the index of a feature
+		 * @return the exact value of the feature, see {@link #getLongValues()}
+		 */
+		public long getLongValue(int index) {
+			return longValues[index];
+		}
+
+		/**
+		 * @return the value of each feature, which is only meaningful if the feature is set in {@link #getNumerical()} or {@link #getBoolean()}. Boolean values
+		 *         are stored as <code>1</code> and <code>0</code>. Long values larger than <code>2^53</code> are rounded, their exact value is contained in
+		 *         {@link #getLongValues()}.
+		 */
+		public double[] getValues() {
+			return values;
+		}
+
+		/**
+		 * @return the exact value of each feature with a long attribute, which is only meaningful if the feature is set in {@link #getLong()}
+		 */
+		public long[] getLongValues() {
+			return longValues;
+		}
+
+		/**
+		 * @return the bitmap of all features that have an attribute with this name, regardless of its type and value
+		 */
+		public long[] getDeclared() {
+			return declared;
+		}
+
+		/**
+		 * @return the bitmap of all features that have a long or double attribute with this name and a value
+		 */
+		public long[] getNumerical() {
+			return numerical;
+		}
+
+		/**
+		 * @return the bitmap of all features that have a long attribute with this name and a value (a subset of {@link #getNumerical()})
+		 */
+		public long[] getLong() {
+			return integral;
+		}
+
+		/**
+		 * @return the bitmap of all features that have a boolean attribute with this name and a value
+		 */
+		public long[] getBoolean() {
+			return bool;
+		}
+
+		/**
+		 * @return the bitmap of all features that have a long, double, or boolean attribute with this name but no value
+		 */
+		public long[] getUnassigned() {
+			return unassigned;
+		}
+
+	}
+
+	private final IFeature[] features;
+	private final Map<IFeature, Integer> indices;
+	private final Map<String, Column> columns = new HashMap<>();
+
+	/**
+	 * Creates an empty store for the features that are currently contained in the given model.
+	 *
+	 * @param featureModel the feature model
+	 */
+	public AttributeColumnStore(ExtendedFeatureModel featureModel) {
+		features = featureModel.getFeatures().toArray(new IFeature[0]);
+		indices = new IdentityHashMap<>(features.length);
+		for (int i = 0; i < features.length; i++) {
+			indices.put(features[i], i);
+		}
+	}
+
+	private static int getWordCount(int size) {
+		return (size + 63) >>> 6;
+	}
+
+	/**
+	 * @return the number of features, which is the size of each column
+	 */
+	public int size() {
+		return features.length;
+	}
+
+	/**
+	 * @param index the index of a feature
+	 * @return the feature with the given index
+	 */
+	public IFeature getFeature(int index) {
+		return features[index];
+	}
+
+	/**
+	 * @param feature a feature
+	 * @return the index of the given feature, or <code>-1</code> if the feature is not part of the store
+	 */
+	public int getIndex(IFeature feature) {
+		final Integer index = indices.get(feature);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * Returns the column for the given attribute name. The column is built on the first request by scanning all features once.
+	 *
+	 * @param attributeName the name of the attribute
+	 * @return the column of the attribute
+	 */
+	public synchronized Column getColumn(String attributeName) {
+		Column column = columns.get(attributeName);
+		if (column == null) {
+			final Snapshot snapshot = new Snapshot(features.length);
+			for (int i = 0; i < features.length; i++) {
+				snapshot.set(i, getAttribute(features[i], attributeName));
+			}
+			column = new Column(attributeName, snapshot);
+			columns.put(attributeName, column);
+		}
+		return column;
+	}
+
+	/**
+	 * Updates the entry of the given feature in the column of the given attribute name, if this column was already built. The column publishes a changed
+	 * copy of its arrays, such that concurrent readers of the previous {@link Snapshot} are not affected.
+	 *
+	 * @param feature the feature whose attribute changed
+	 * @param attributeName the name of the changed attribute
+	 */
+	public synchronized void update(IFeature feature, String attributeName) {
+		final Column column = columns.get(attributeName);
+		if (column != null) {
+			final int index = getIndex(feature);
+			if (index >= 0) {
+				final Snapshot snapshot = new Snapshot(column.snapshot);
+				snapshot.set(index, getAttribute(feature, attributeName));
+				column.snapshot = snapshot;
+			}
+		}
+	}
+
+	/**
+	 * Creates a bitmap of the given features.
+	 *
+	 * @param features the features
+	 * @return the bitmap, or <code>null</code> if a feature is not part of the store or is contained more than once
+	 */
+	public long[] getSelection(Iterable<?> features) {
+		final long[] selection = new long[getWordCount(this.features.length)];
+		for (final Object feature : features) {
+			final Integer index = indices.get(feature);
+			if (index == null) {
+				return null;
+			}
+			final int word = index >>> 6;
+			final long bit = 1L << index;
+			if ((selection[word] & bit) != 0) {
+				return null;
+			}
+			selection[word] |= bit;
+		}
+		return selection;
+	}
+
+	/**
+	 * Returns the attribute that determines the value of a feature. As in the value providers of the formulas, the last attribute with the given name wins.
+	 */
+	private static IFeatureAttribute getAttribute(IFeature feature, String attributeName) {
+		IFeatureAttribute result = null;
+		if (feature instanceof IExtendedFeature) {
+			for (final IFeatureAttribute attribute : ((IExtendedFeature) feature).getAttributes()) {
+				if (attribute.getName().equals(attributeName)) {
+					result = attribute;
+				}
+			}
+		}
+		return result;
+	}
+
+}
@@ -70,11 +70,10 @@ public class BooleanFeatureAttribute extends FeatureAttribute {
 	public void setValue(Object value) {
 		if (value == null) {
 			this.value = null;
-			return;
-		}
-		if (value instanceof Boolean) {
+		} else if (value instanceof Boolean) {
 			this.value = (Boolean) value;
 		}
+		updateAttributeColumn(getName());
 	}
 
 	@Override
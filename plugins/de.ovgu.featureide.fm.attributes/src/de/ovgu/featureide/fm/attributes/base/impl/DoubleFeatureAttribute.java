@@ -74,11 +74,10 @@ public class DoubleFeatureAttribute extends FeatureAttribute {
 	public void setValue(Object value) {
 		if (value == null) {
 			this.value = null;
-			return;
-		}
-		if (value instanceof Double) {
+		} else if (value instanceof Double) {
 			this.value = (Double) value;
 		}
+		updateAttributeColumn(getName());
 	}
 
 	/**
@@ -83,11 +83,20 @@ public class ExtendedFeature extends Feature implements IExtendedFeature {
 	@Override
 	public void addAttribute(IFeatureAttribute attribute) {
 		attributes.add(attribute);
+		updateAttributeColumn(attribute.getName());
 	}
 
 	@Override
 	public void removeAttribute(IFeatureAttribute attribute) {
-		attributes.remove(attribute);
+		if (attributes.remove(attribute)) {
+			updateAttributeColumn(attribute.getName());
+		}
+	}
+
+	private void updateAttributeColumn(String attributeName) {
+		if (getFeatureModel() instanceof ExtendedFeatureModel) {
+			((ExtendedFeatureModel) getFeatureModel()).updateAttributeColumn(this, attributeName);
+		}
 	}
 
 	@Override
@@ -20,6 +20,8 @@
  */
 package de.ovgu.featureide.fm.attributes.base.impl;
 
+import java.util.Hashtable;
+
 import de.ovgu.featureide.fm.attributes.base.IExtendedFeatureModel;
 import de.ovgu.featureide.fm.core.ExtensionManager.NoSuchExtensionException;
 import de.ovgu.featureide.fm.core.base.IFeature;
@@ -37,6 +39,9 @@ public class ExtendedFeatureModel extends FeatureModel implements IExtendedFeatu
 
 	IFeatureModelFactory factory;
 
+	/** Column store of the attribute values, which is created lazily and discarded whenever features are added or removed */
+	private volatile AttributeColumnStore attributeStore;
+
 	public ExtendedFeatureModel(ExtendedFeatureModel copyFeatureModel, ExtendedFeature newRoot, boolean copyId) {
 		super(copyFeatureModel, newRoot, copyId);
 
@@ -75,6 +80,69 @@ public class ExtendedFeatureModel extends FeatureModel implements IExtendedFeatu
 		structure.getRoot().setAbstract(true);
 	}
 
+	/**
+	 * Returns the column store of the attribute values of this model. The store is created on the first request and kept up-to-date on attribute changes until
+	 * the features of the model change.
+	 *
+	 * @return the attribute column store
+	 */
+	public AttributeColumnStore getAttributeStore() {
+		AttributeColumnStore store = attributeStore;
+		if (store == null) {
+			synchronized (this) {
+				store = attributeStore;
+				if (store == null) {
+					store = new AttributeColumnStore(this);
+					attributeStore = store;
+				}
+			}
+		}
+		return store;
+	}
+
+	/**
+	 * Notifies the attribute column store that an attribute of the given feature was added, removed, renamed, or assigned a new value.
+	 *
+	 * @param feature the feature containing the attribute
+	 * @param attributeName the name of the attribute
+	 */
+	public void updateAttributeColumn(IFeature feature, String attributeName) {
+		final AttributeColumnStore store = attributeStore;
+		if (store != null) {
+			store.update(feature, attributeName);
+		}
+	}
+
+	@Override
+	public boolean addFeature(IFeature feature) {
+		attributeStore = null;
+		return super.addFeature(feature);
+	}
+
+	@Override
+	public boolean deleteFeature(IFeature feature) {
+		attributeStore = null;
+		return super.deleteFeature(feature);
+	}
+
+	@Override
+	public void deleteFeatureFromTable(IFeature feature) {
+		attributeStore = null;
+		super.deleteFeatureFromTable(feature);
+	}
+
+	@Override
+	public void setFeatureTable(Hashtable<String, IFeature> featureTable) {
+		attributeStore = null;
+		super.setFeatureTable(featureTable);
+	}
+
+	@Override
+	public void reset() {
+		attributeStore = null;
+		super.reset();
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder builder = new StringBuilder();
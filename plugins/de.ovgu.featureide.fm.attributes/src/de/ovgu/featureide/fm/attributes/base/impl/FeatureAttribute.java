@@ -195,7 +195,10 @@ public abstract class FeatureAttribute implements IFeatureAttribute {
 				}
 			}
 		}
+		final String oldName = getName();
 		this.name = name;
+		updateAttributeColumn(oldName);
+		updateAttributeColumn(getName());
 	}
 
 	/*
@@ -254,6 +257,18 @@ public abstract class FeatureAttribute implements IFeatureAttribute {
 		this.configureable = configurable;
 	}
 
+	/**
+	 * Notifies the attribute column store of the feature model about a change of this attribute.
+	 * 
+	 * @param attributeName The name of the changed column
+	 * @see ExtendedFeatureModel#updateAttributeColumn(IFeature, String)
+	 */
+	protected void updateAttributeColumn(String attributeName) {
+		if ((feature != null) && (feature.getFeatureModel() instanceof ExtendedFeatureModel)) {
+			((ExtendedFeatureModel) feature.getFeatureModel()).updateAttributeColumn(feature, attributeName);
+		}
+	}
+
 	@Override
 	public void addRecursiveAttributes() {
 		addRecursiveAttributes((IExtendedFeature) getFeature());
@@ -74,11 +74,10 @@ public class LongFeatureAttribute extends FeatureAttribute {
 	public void setValue(Object value) {
 		if (value == null) {
 			this.value = null;
-			return;
-		}
-		if (value instanceof Long) {
+		} else if (value instanceof Long) {
 			this.value = (Long) value;
 		}
+		updateAttributeColumn(getName());
 	}
 
 	/**
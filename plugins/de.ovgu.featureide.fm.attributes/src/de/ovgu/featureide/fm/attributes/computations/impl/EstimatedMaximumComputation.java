@@ -1,13 +1,18 @@
 package de.ovgu.featureide.fm.attributes.computations.impl;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.swt.graphics.Image;
 
 import de.ovgu.featureide.fm.attributes.base.IExtendedFeature;
 import de.ovgu.featureide.fm.attributes.base.IFeatureAttribute;
+import de.ovgu.featureide.fm.attributes.base.impl.AttributeColumnStore;
+import de.ovgu.featureide.fm.attributes.base.impl.AttributeColumnStore.Snapshot;
 import de.ovgu.featureide.fm.attributes.base.impl.DoubleFeatureAttribute;
+import de.ovgu.featureide.fm.attributes.base.impl.ExtendedFeatureModel;
 import de.ovgu.featureide.fm.attributes.base.impl.LongFeatureAttribute;
 import de.ovgu.featureide.fm.core.base.IFeature;
 import de.ovgu.featureide.fm.core.base.IFeatureStructure;
@@ -25,8 +30,10 @@ public class EstimatedMaximumComputation implements IOutlineEntry {
 
 	Configuration config;
 	IFeatureAttribute attribute;
-	List<IFeature> selectedFeatures;
-	List<IFeature> unselectedFeatures;
+	Set<IFeature> selectedFeatures;
+	Set<IFeature> unselectedFeatures;
+	AttributeColumnStore store;
+	Snapshot column;
 
 	public EstimatedMaximumComputation(Configuration config, IFeatureAttribute attribute) {
 		this.config = config;
@@ -66,9 +73,21 @@ public class EstimatedMaximumComputation implements IOutlineEntry {
 		return attribute instanceof LongFeatureAttribute || attribute instanceof DoubleFeatureAttribute;
 	}
 
-	private double getSubtreeValue(IFeature root) {
+	/**
+	 * Returns the value of the attribute for the given feature, preferably from the attribute column store of the feature model.
+	 * 
+	 * @param feature The feature
+	 * @return The value of the attribute, or 0 if the feature has no numerical value for it
+	 */
+	private double getAttributeValue(IFeature feature) {
+		if (column != null) {
+			final int index = store.getIndex(feature);
+			if (index >= 0) {
+				return column.isNumerical(index) ? column.getValue(index) : 0;
+			}
+		}
 		double value = 0;
-		IExtendedFeature ext = (IExtendedFeature) root;
+		IExtendedFeature ext = (IExtendedFeature) feature;
 		for (IFeatureAttribute att : ext.getAttributes()) {
 			if (att.getName().equals(attribute.getName())) {
 				if (att instanceof LongFeatureAttribute) {
@@ -82,6 +101,11 @@ public class EstimatedMaximumComputation implements IOutlineEntry {
 				}
 			}
 		}
+		return value;
+	}
+
+	private double getSubtreeValue(IFeature root) {
+		double value = getAttributeValue(root);
 		if (!root.getStructure().hasChildren()) {
 			return value;
 		} else {
@@ -96,7 +120,7 @@ public class EstimatedMaximumComputation implements IOutlineEntry {
 						if (tempValue >= 0 || isSelected(struc.getFeature())) {
 							value += tempValue;
 						} else {
-							negativeValues.add(getSubtreeValue(struc.getFeature()));
+							negativeValues.add(tempValue);
 						}
 					}
 				}
@@ -135,8 +159,15 @@ public class EstimatedMaximumComputation implements IOutlineEntry {
 	}
 
 	public Object getSelectionSum() {
-		selectedFeatures = config.getSelectedFeatures();
-		unselectedFeatures = config.getUnSelectedFeatures();
+		selectedFeatures = new HashSet<>(config.getSelectedFeatures());
+		unselectedFeatures = new HashSet<>(config.getUnSelectedFeatures());
+		if (config.getFeatureModel() instanceof ExtendedFeatureModel) {
+			store = ((ExtendedFeatureModel) config.getFeatureModel()).getAttributeStore();
+			column = store.getColumn(attribute.getName()).getSnapshot();
+		} else {
+			store = null;
+			column = null;
+		}
 		return getSubtreeValue(config.getFeatureModel().getStructure().getRoot().getFeature());
 	}
 
@@ -0,0 +1,195 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.attributes.computations.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.ovgu.featureide.fm.attributes.base.IExtendedFeature;
+import de.ovgu.featureide.fm.attributes.base.IFeatureAttribute;
+import de.ovgu.featureide.fm.attributes.base.impl.DoubleFeatureAttribute;
+import de.ovgu.featureide.fm.attributes.base.impl.LongFeatureAttribute;
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.Variables;
+import de.ovgu.featureide.fm.core.analysis.cnf.analysis.LinearObjectiveAnalysis;
+import de.ovgu.featureide.fm.core.analysis.cnf.analysis.LinearObjectiveAnalysis.Optimum;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.configuration.Configuration;
+import de.ovgu.featureide.fm.core.configuration.SelectableFeature;
+import de.ovgu.featureide.fm.core.configuration.Selection;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Computes the exact minimal and maximal sum of a numeric attribute over all valid configurations that extend a (partial) configuration. In contrast to
+ * {@link EstimatedMaximumComputation} and {@link EstimatedMinimumComputation}, cross-tree constraints are respected. The sum is encoded as linear objective
+ * over the CNF of the feature model and optimized by a {@link LinearObjectiveAnalysis}.<br> <br> Instances are cached per formula and attribute name, such
+ * that re-optimizing after a changed selection can reuse previous optima. If an attribute value changes, the objective is built again.
+ */
+public class ExactAttributeOptimization {
+
+	/**
+	 * The maximal time in milliseconds for one optimization, which is usually computed in the UI thread.
+	 */
+	private static final long TOTAL_TIMEOUT = 1000;
+
+	/**
+	 * Returns the (cached) optimization for the given attribute. The cache is stored as element of the formula (see
+	 * {@link ExactAttributeOptimizationCreator}).
+	 *
+	 * @param formula the formula of the feature model
+	 * @param attributeName the name of a numeric attribute
+	 * @return the optimization for the attribute
+	 */
+	public static ExactAttributeOptimization getInstance(FeatureModelFormula formula, String attributeName) {
+		return formula.getElement(new ExactAttributeOptimizationCreator()).computeIfAbsent(attributeName,
+				name -> new ExactAttributeOptimization(formula, name));
+	}
+
+	private final FeatureModelFormula formula;
+	private final String attributeName;
+
+	private double[] weights;
+	private LinearObjectiveAnalysis maximumAnalysis;
+	private LinearObjectiveAnalysis minimumAnalysis;
+
+	private boolean timeoutOccured;
+
+	public ExactAttributeOptimization(FeatureModelFormula formula, String attributeName) {
+		this.formula = formula;
+		this.attributeName = attributeName;
+	}
+
+	/**
+	 * Computes the maximal sum of the attribute over all valid configurations that contain the current selection of the given configuration.
+	 *
+	 * @param config the configuration
+	 * @return the optimal value and a configuration with this value or {@code null}, if the configuration is invalid or the optimization failed
+	 */
+	public synchronized Optimum getMaximum(Configuration config) {
+		updateWeights();
+		if (maximumAnalysis == null) {
+			maximumAnalysis = createAnalysis(true);
+		}
+		return optimize(maximumAnalysis, config);
+	}
+
+	/**
+	 * Computes the minimal sum of the attribute over all valid configurations that contain the current selection of the given configuration.
+	 *
+	 * @param config the configuration
+	 * @return the optimal value and a configuration with this value or {@code null}, if the configuration is invalid or the optimization failed
+	 */
+	public synchronized Optimum getMinimum(Configuration config) {
+		updateWeights();
+		if (minimumAnalysis == null) {
+			minimumAnalysis = createAnalysis(false);
+		}
+		return optimize(minimumAnalysis, config);
+	}
+
+	/**
+	 * @return {@code true} if the last optimization exceeded the solver's timeout or its total timeout, such that its result is not guaranteed to be optimal
+	 */
+	public synchronized boolean isTimeoutOccured() {
+		return timeoutOccured;
+	}
+
+	/**
+	 * Returns the names of the features that are selected in the solution of the given optimum.
+	 *
+	 * @param optimum the optimum
+	 * @return the names of all selected features
+	 */
+	public List<String> getSelectedFeatureNames(Optimum optimum) {
+		final Variables variables = formula.getCNF().getVariables();
+		final List<String> names = new ArrayList<>();
+		for (final int literal : optimum.getSolution().getLiterals()) {
+			if (literal > 0) {
+				names.add(variables.getName(literal));
+			}
+		}
+		return names;
+	}
+
+	private Optimum optimize(LinearObjectiveAnalysis analysis, Configuration config) {
+		final Variables variables = formula.getCNF().getVariables();
+		final List<Integer> literals = new ArrayList<>();
+		for (final SelectableFeature feature : config.getFeatures()) {
+			final int variable = variables.getVariable(feature.getName());
+			if (variable > 0) {
+				if (feature.getSelection() == Selection.SELECTED) {
+					literals.add(variable);
+				} else if (feature.getSelection() == Selection.UNSELECTED) {
+					literals.add(-variable);
+				}
+			}
+		}
+		final int[] assumptions = new int[literals.size()];
+		for (int i = 0; i < assumptions.length; i++) {
+			assumptions[i] = literals.get(i);
+		}
+		analysis.setAssumptions(new LiteralSet(assumptions));
+		final Optimum optimum = LongRunningWrapper.runMethod(analysis);
+		timeoutOccured = analysis.isTimeoutOccured();
+		return optimum;
+	}
+
+	private LinearObjectiveAnalysis createAnalysis(boolean maximize) {
+		final LinearObjectiveAnalysis analysis = new LinearObjectiveAnalysis(formula.getCNF(), weights);
+		analysis.setMaximize(maximize);
+		analysis.setThrowTimeoutException(false);
+		analysis.setTotalTimeout(TOTAL_TIMEOUT);
+		return analysis;
+	}
+
+	/**
+	 * Collects the attribute values of all features. Previous optima are discarded if a value changed.
+	 */
+	private void updateWeights() {
+		final CNF cnf = formula.getCNF();
+		final Variables variables = cnf.getVariables();
+		final double[] newWeights = new double[variables.size() + 1];
+		for (final IFeature feature : formula.getFeatureModel().getFeatures()) {
+			if (feature instanceof IExtendedFeature) {
+				final IFeatureAttribute attribute = ((IExtendedFeature) feature).getAttribute(attributeName);
+				if ((attribute != null) && (attribute.getValue() != null)) {
+					final int variable = variables.getVariable(feature.getName());
+					if (variable > 0) {
+						if (attribute instanceof LongFeatureAttribute) {
+							newWeights[variable] = (Long) attribute.getValue();
+						} else if (attribute instanceof DoubleFeatureAttribute) {
+							newWeights[variable] = (Double) attribute.getValue();
+						}
+					}
+				}
+			}
+		}
+		if (!Arrays.equals(weights, newWeights)) {
+			weights = newWeights;
+			maximumAnalysis = null;
+			minimumAnalysis = null;
+		}
+	}
+
+}
@@ -0,0 +1,40 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.attributes.computations.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.ACreator;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
+
+/**
+ * Creates the cache of {@link ExactAttributeOptimization optimizations} per attribute name for a {@link FeatureModelFormula feature model formula}. As an
+ * element of the formula, the cache is released together with the formula and discarded when the formula is reset.
+ */
+public class ExactAttributeOptimizationCreator extends ACreator<Map<String, ExactAttributeOptimization>> {
+
+	@Override
+	protected Map<String, ExactAttributeOptimization> create() {
+		return new ConcurrentHashMap<>();
+	}
+
+}
@@ -45,6 +45,10 @@ public class AverageFunctionFormula implements MultiFormulaAggregate {
 
 	@Override
 	public double getResult(Iterable<? extends Object> valueHolders) {
+		final ColumnAggregation aggregation = ColumnAggregation.create(formula, valueProvider, valueHolders);
+		if (aggregation != null) {
+			return aggregation.sum() / aggregation.count();
+		}
 		Double sum = 0d;
 		double count = 0d;
 		for (Object valueHolder : valueHolders) {
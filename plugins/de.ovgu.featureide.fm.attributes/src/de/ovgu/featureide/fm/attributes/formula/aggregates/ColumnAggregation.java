@@ -0,0 +1,267 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.attributes.formula.aggregates;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import de.ovgu.featureide.fm.attributes.base.impl.AttributeColumnStore;
+import de.ovgu.featureide.fm.attributes.base.impl.AttributeColumnStore.Snapshot;
+import de.ovgu.featureide.fm.attributes.base.impl.ExtendedFeatureModel;
+import de.ovgu.featureide.fm.attributes.formula.AggregateFormula;
+import de.ovgu.featureide.fm.attributes.formula.formulas.KeyValueVariable;
+import de.ovgu.featureide.fm.attributes.formula.provider.FeatureNameValueProvider;
+import de.ovgu.featureide.fm.attributes.formula.provider.FeatureValueProvider;
+import de.ovgu.featureide.fm.attributes.formula.provider.FormulaValueProvider;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+
+/**
+ * Computes aggregates of a single attribute over a set of features using the {@link AttributeColumnStore} of the feature model. The set of features is
+ * converted into a bitmap once, and each aggregate is a loop over the set bits of the bitmap and the bitmaps of the column. The results are the same as the
+ * ones of the generic evaluation with {@link FeatureValueProvider} or {@link FeatureNameValueProvider}, except for rounding due to the different order of
+ * summation. Long values are summed and compared exactly, such that they are only rounded once when they are converted into the result.<br> <br> An
+ * aggregation reads one {@link Snapshot} of the column, so concurrent updates of the column do not affect it.
+ */
+final class ColumnAggregation {
+
+	private final Snapshot column;
+	private final long[] selection;
+	/** The value of an attribute without a value */
+	private final Double unassignedValue;
+	/** The value of a feature without the attribute */
+	private final Double missingValue;
+
+	private ColumnAggregation(Snapshot column, long[] selection, Double unassignedValue, Double missingValue) {
+		this.column = column;
+		this.selection = selection;
+		this.unassignedValue = unassignedValue;
+		this.missingValue = missingValue;
+	}
+
+	/**
+	 * Creates a column aggregation if the given formula is a single variable and the value holders are features (or feature names) of one
+	 * {@link ExtendedFeatureModel}.
+	 *
+	 * @param formula the aggregated formula
+	 * @param valueProvider the value provider of the aggregate
+	 * @param valueHolders the features or feature names
+	 * @return the aggregation, or <code>null</code> if the generic evaluation must be used
+	 */
+	static ColumnAggregation create(AggregateFormula formula, FormulaValueProvider valueProvider, Iterable<? extends Object> valueHolders) {
+		if (!(formula instanceof KeyValueVariable)) {
+			return null;
+		}
+		final Iterator<? extends Object> iterator = valueHolders.iterator();
+		if (!iterator.hasNext()) {
+			return null;
+		}
+		final String attributeName = ((KeyValueVariable) formula).getName();
+		if (valueProvider instanceof FeatureValueProvider) {
+			final Object first = iterator.next();
+			if (!(first instanceof IFeature) || !(((IFeature) first).getFeatureModel() instanceof ExtendedFeatureModel)) {
+				return null;
+			}
+			final AttributeColumnStore store = ((ExtendedFeatureModel) ((IFeature) first).getFeatureModel()).getAttributeStore();
+			final long[] selection = store.getSelection(valueHolders);
+			if (selection == null) {
+				return null;
+			}
+			return new ColumnAggregation(store.getColumn(attributeName).getSnapshot(), selection, valueProvider.getDefaultValue(),
+					FeatureValueProvider.DEFAULT_WEIGHT);
+		} else if (valueProvider instanceof FeatureNameValueProvider) {
+			final IFeatureModel featureModel = ((FeatureNameValueProvider) valueProvider).getFeatureModel();
+			if (!(featureModel instanceof ExtendedFeatureModel)) {
+				return null;
+			}
+			final List<IFeature> features = new ArrayList<>();
+			for (final Object name : valueHolders) {
+				final IFeature feature = featureModel.getFeature((String) name);
+				if (feature == null) {
+					return null;
+				}
+				features.add(feature);
+			}
+			final AttributeColumnStore store = ((ExtendedFeatureModel) featureModel).getAttributeStore();
+			final long[] selection = store.getSelection(features);
+			if (selection == null) {
+				return null;
+			}
+			return new ColumnAggregation(store.getColumn(attributeName).getSnapshot(), selection, valueProvider.getDefaultValue(),
+					valueProvider.getDefaultValue());
+		}
+		return null;
+	}
+
+	/**
+	 * @return the sum of all values, ignoring null values
+	 */
+	double sum() {
+		final double[] values = column.getValues();
+		final long[] longValues = column.getLongValues();
+		final long[] declared = column.getDeclared();
+		final long[] numerical = column.getNumerical();
+		final long[] integral = column.getLong();
+		final long[] bool = column.getBoolean();
+		final long[] unassigned = column.getUnassigned();
+		double sum = 0;
+		long longSum = 0;
+		int unassignedCount = 0;
+		int missingCount = 0;
+		for (int i = 0; i < selection.length; i++) {
+			final long selected = selection[i];
+			long assigned = selected & (numerical[i] | bool[i]) & ~integral[i];
+			while (assigned != 0) {
+				sum += values[(i << 6) + Long.numberOfTrailingZeros(assigned)];
+				assigned &= assigned - 1;
+			}
+			long assignedLong = selected & integral[i];
+			while (assignedLong != 0) {
+				final long value = longValues[(i << 6) + Long.numberOfTrailingZeros(assignedLong)];
+				final long newSum = longSum + value;
+				if (((longSum ^ newSum) & (value ^ newSum)) < 0) {
+					// overflow, continue in double arithmetic
+					sum += longSum;
+					longSum = value;
+				} else {
+					longSum = newSum;
+				}
+				assignedLong &= assignedLong - 1;
+			}
+			unassignedCount += Long.bitCount(selected & unassigned[i]);
+			missingCount += Long.bitCount(selected & ~declared[i]);
+		}
+		if (unassignedValue != null) {
+			sum += unassignedCount * unassignedValue;
+		}
+		if (missingValue != null) {
+			sum += missingCount * missingValue;
+		}
+		return sum + longSum;
+	}
+
+	/**
+	 * @return the number of non-null values
+	 */
+	int count() {
+		final long[] declared = column.getDeclared();
+		final long[] numerical = column.getNumerical();
+		final long[] bool = column.getBoolean();
+		final long[] unassigned = column.getUnassigned();
+		int count = 0;
+		for (int i = 0; i < selection.length; i++) {
+			final long selected = selection[i];
+			count += Long.bitCount(selected & (numerical[i] | bool[i]));
+			if (unassignedValue != null) {
+				count += Long.bitCount(selected & unassigned[i]);
+			}
+			if (missingValue != null) {
+				count += Long.bitCount(selected & ~declared[i]);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @param maximum whether to compute the maximum or the minimum
+	 * @return the maximal or minimal non-null value, or null if there is none
+	 */
+	Double extremum(boolean maximum) {
+		final double[] values = column.getValues();
+		final long[] longValues = column.getLongValues();
+		final long[] declared = column.getDeclared();
+		final long[] numerical = column.getNumerical();
+		final long[] integral = column.getLong();
+		final long[] bool = column.getBoolean();
+		final long[] unassigned = column.getUnassigned();
+		boolean found = false;
+		double result = maximum ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+		boolean foundLong = false;
+		long longResult = maximum ? Long.MIN_VALUE : Long.MAX_VALUE;
+		boolean hasUnassigned = false;
+		boolean hasMissing = false;
+		for (int i = 0; i < selection.length; i++) {
+			final long selected = selection[i];
+			long assigned = selected & (numerical[i] | bool[i]) & ~integral[i];
+			found |= assigned != 0;
+			while (assigned != 0) {
+				final double value = values[(i << 6) + Long.numberOfTrailingZeros(assigned)];
+				result = maximum ? Math.max(result, value) : Math.min(result, value);
+				assigned &= assigned - 1;
+			}
+			long assignedLong = selected & integral[i];
+			foundLong |= assignedLong != 0;
+			while (assignedLong != 0) {
+				final long value = longValues[(i << 6) + Long.numberOfTrailingZeros(assignedLong)];
+				longResult = maximum ? Math.max(longResult, value) : Math.min(longResult, value);
+				assignedLong &= assignedLong - 1;
+			}
+			hasUnassigned |= (selected & unassigned[i]) != 0;
+			hasMissing |= (selected & ~declared[i]) != 0;
+		}
+		if (foundLong) {
+			result = maximum ? Math.max(result, longResult) : Math.min(result, longResult);
+			found = true;
+		}
+		if (hasUnassigned && (unassignedValue != null)) {
+			result = maximum ? Math.max(result, unassignedValue) : Math.min(result, unassignedValue);
+			found = true;
+		}
+		if (hasMissing && (missingValue != null)) {
+			result = maximum ? Math.max(result, missingValue) : Math.min(result, missingValue);
+			found = true;
+		}
+		return found ? result : null;
+	}
+
+	/**
+	 * @return all non-null values in index order
+	 */
+	List<Double> values() {
+		final double[] values = column.getValues();
+		final long[] declared = column.getDeclared();
+		final long[] numerical = column.getNumerical();
+		final long[] bool = column.getBoolean();
+		final long[] unassigned = column.getUnassigned();
+		final List<Double> result = new ArrayList<>();
+		for (int i = 0; i < selection.length; i++) {
+			final long selected = selection[i];
+			long remaining = selected & (numerical[i] | bool[i] | unassigned[i] | ~declared[i]);
+			while (remaining != 0) {
+				final int index = Long.numberOfTrailingZeros(remaining);
+				final long bit = 1L << index;
+				if (((numerical[i] | bool[i]) & bit) != 0) {
+					result.add(values[(i << 6) + index]);
+				} else if ((unassigned[i] & bit) != 0) {
+					if (unassignedValue != null) {
+						result.add(unassignedValue);
+					}
+				} else if (missingValue != null) {
+					result.add(missingValue);
+				}
+				remaining &= remaining - 1;
+			}
+		}
+		return result;
+	}
+
+}
@@ -39,6 +39,10 @@ public class MaxFunctionFormula implements MultiFormulaAggregate {
 
 	@Override
 	public double getResult(Iterable<? extends Object> valueHolders) {
+		final ColumnAggregation aggregation = ColumnAggregation.create(formula, valueProvider, valueHolders);
+		if (aggregation != null) {
+			return aggregation.extremum(true);
+		}
 		Double max = null;
 		for (Object valueHolder : valueHolders) {
 			Set<String> variables = formula.getVariables();
@@ -48,6 +48,10 @@ public class MedianFunctionFormula implements MultiFormulaAggregate {
 
 	@Override
 	public double getResult(Iterable<? extends Object> valueHolders) {
+		final ColumnAggregation aggregation = ColumnAggregation.create(formula, valueProvider, valueHolders);
+		if (aggregation != null) {
+			return computeMedianOfList(aggregation.values());
+		}
 		Double sum = 0d;
 		List<Double> values = new ArrayList<>();
 		for (Object valueHolder : valueHolders) {
@@ -44,6 +44,10 @@ public class MinFunctionFormula implements MultiFormulaAggregate {
 
 	@Override
 	public double getResult(Iterable<? extends Object> valueHolders) {
+		final ColumnAggregation aggregation = ColumnAggregation.create(formula, valueProvider, valueHolders);
+		if (aggregation != null) {
+			return aggregation.extremum(false);
+		}
 		Double min = null;
 		for (Object valueHolder : valueHolders) {
 			Set<String> variables = formula.getVariables();
@@ -49,6 +49,10 @@ public class SumFunctionFormula implements MultiFormulaAggregate {
 
 	@Override
 	public double getResult(Iterable<? extends Object> valueHolders) {
+		final ColumnAggregation aggregation = ColumnAggregation.create(formula, valueProvider, valueHolders);
+		if (aggregation != null) {
+			return aggregation.sum();
+		}
 		Double sum = 0d;
 		for (Object valueHolder : valueHolders) {
 			Set<String> variables = formula.getVariables();
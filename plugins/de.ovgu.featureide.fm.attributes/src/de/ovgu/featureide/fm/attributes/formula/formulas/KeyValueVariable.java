@@ -35,6 +35,10 @@ public class KeyValueVariable implements AggregateFormula {
 		this.name = name;
 	}
 
+	public String getName() {
+		return name;
+	}
+
 	@Override
 	public Double getResult(Map<String, Double> valueProviderMap) {
 		return valueProviderMap.get(name);
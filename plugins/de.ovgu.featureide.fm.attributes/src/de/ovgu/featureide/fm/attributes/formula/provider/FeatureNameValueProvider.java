@@ -78,6 +78,10 @@ public class FeatureNameValueProvider implements FormulaValueProvider {
 		return result;
 	}
 
+	public IFeatureModel getFeatureModel() {
+		return model;
+	}
+
 	@Override
 	public Double getDefaultValue() {
 		return defaultValue;
@@ -35,7 +35,8 @@ import de.ovgu.featureide.fm.core.base.IFeatureModel;
 
 public class FeatureValueProvider implements FormulaValueProvider {
 
-	private static final double DEFAULT_WEIGHT = 0d;
+	/** The value of features that do not have an attribute with the requested name */
+	public static final double DEFAULT_WEIGHT = 0d;
 	private Double defaultValue;
 
 	public FeatureValueProvider(Double defaultValue) {
@@ -28,6 +28,8 @@ import de.ovgu.featureide.fm.attributes.base.IFeatureAttribute;
 import de.ovgu.featureide.fm.attributes.base.impl.DoubleFeatureAttribute;
 import de.ovgu.featureide.fm.attributes.base.impl.LongFeatureAttribute;
 import de.ovgu.featureide.fm.attributes.computations.impl.EstimatedMinimumComputation;
+import de.ovgu.featureide.fm.attributes.computations.impl.ExactAttributeOptimization;
+import de.ovgu.featureide.fm.core.analysis.cnf.analysis.LinearObjectiveAnalysis.Optimum;
 import de.ovgu.featureide.fm.core.configuration.Configuration;
 import de.ovgu.featureide.fm.ui.views.outline.IOutlineEntry;
 
@@ -45,10 +47,17 @@ public class AttributeMinimumEntry implements IOutlineEntry {
 	public AttributeMinimumEntry(Configuration config, IFeatureAttribute attribute) {
 		this.config = config;
 		this.attribute = attribute;
-		estimatedMinimum = new EstimatedMinimumComputation(config, attribute);
-		result = (Double) estimatedMinimum.getSelectionSum();
-		labelSuffix = EST;
-
+		final ExactAttributeOptimization optimization = ExactAttributeOptimization.getInstance(config.getFeatureModelFormula(), attribute.getName());
+		final Optimum optimum = optimization.getMinimum(config);
+		if ((optimum != null) && !optimization.isTimeoutOccured()) {
+			result = optimum.getValue();
+			labelSuffix = "";
+		} else {
+			// fall back to the estimation if the configuration is invalid or the optimization took too long
+			estimatedMinimum = new EstimatedMinimumComputation(config, attribute);
+			result = (Double) estimatedMinimum.getSelectionSum();
+			labelSuffix = EST;
+		}
 	}
 
 	public Double getResult() {
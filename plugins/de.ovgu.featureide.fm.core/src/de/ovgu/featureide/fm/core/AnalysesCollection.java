@@ -22,8 +22,11 @@ package de.ovgu.featureide.fm.core;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -39,12 +42,14 @@ import de.ovgu.featureide.fm.core.analysis.cnf.Variables;
 import de.ovgu.featureide.fm.core.analysis.cnf.analysis.AClauseAnalysis;
 import de.ovgu.featureide.fm.core.analysis.cnf.analysis.AbstractAnalysis;
 import de.ovgu.featureide.fm.core.analysis.cnf.analysis.AnalysisResult;
-import de.ovgu.featureide.fm.core.analysis.cnf.analysis.AtomicSetAnalysis;
+import de.ovgu.featureide.fm.core.analysis.cnf.analysis.AtomicSetAnalysisMIG;
 import de.ovgu.featureide.fm.core.analysis.cnf.analysis.CauseAnalysis;
 import de.ovgu.featureide.fm.core.analysis.cnf.analysis.CauseAnalysis.Anomalies;
+import de.ovgu.featureide.fm.core.analysis.cnf.analysis.CompositionalCoreDeadAnalysis;
 import de.ovgu.featureide.fm.core.analysis.cnf.analysis.ContradictionAnalysis;
 import de.ovgu.featureide.fm.core.analysis.cnf.analysis.CoreDeadAnalysis;
 import de.ovgu.featureide.fm.core.analysis.cnf.analysis.HasSolutionAnalysis;
+import de.ovgu.featureide.fm.core.analysis.cnf.analysis.ImplicationAnalysisMIG;
 import de.ovgu.featureide.fm.core.analysis.cnf.analysis.IndependentContradictionAnalysis;
 import de.ovgu.featureide.fm.core.analysis.cnf.analysis.IndependentRedundancyAnalysis;
 import de.ovgu.featureide.fm.core.analysis.cnf.analysis.IndeterminedAnalysis;
@@ -53,12 +58,16 @@ import de.ovgu.featureide.fm.core.analysis.cnf.formula.ACreator;
 import de.ovgu.featureide.fm.core.analysis.cnf.formula.EmptyCNFCreator;
 import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
 import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureTreeCNFCreator;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.ModalImplicationGraphCreator;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.SolutionRepositoryCreator;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.ISatSolver;
 import de.ovgu.featureide.fm.core.base.FeatureUtils;
 import de.ovgu.featureide.fm.core.base.IConstraint;
 import de.ovgu.featureide.fm.core.base.IFeature;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
 import de.ovgu.featureide.fm.core.base.IFeatureModelElement;
 import de.ovgu.featureide.fm.core.base.impl.FeatureModelProperty;
+import de.ovgu.featureide.fm.core.base.impl.MultiFeatureModel;
 import de.ovgu.featureide.fm.core.explanations.Explanation;
 import de.ovgu.featureide.fm.core.explanations.ExplanationCreator;
 import de.ovgu.featureide.fm.core.explanations.fm.DeadFeatureExplanation;
@@ -153,9 +162,44 @@ public class AnalysesCollection {
 		}
 	};
 
+	/**
+	 * Keeps the solvers of finished analyses, such that a later analysis of the same type on the same {@link CNF} does not need to load the formula again.
+	 * Only analyses that leave their solver in its initial state may return it to the pool.
+	 */
+	static final class SolverPool {
+
+		private static final int MAX_IDLE_SOLVERS = 4;
+
+		private final Map<CNF, Map<Class<?>, Deque<ISatSolver>>> idleSolvers = new IdentityHashMap<>();
+
+		synchronized ISatSolver take(Class<?> analysis, CNF cnf) {
+			final Map<Class<?>, Deque<ISatSolver>> cnfSolvers = idleSolvers.get(cnf);
+			if (cnfSolvers != null) {
+				final Deque<ISatSolver> solvers = cnfSolvers.get(analysis);
+				if (solvers != null) {
+					return solvers.pollFirst();
+				}
+			}
+			return null;
+		}
+
+		synchronized void offer(Class<?> analysis, CNF cnf, ISatSolver solver) {
+			final Deque<ISatSolver> solvers = idleSolvers.computeIfAbsent(cnf, c -> new HashMap<>()).computeIfAbsent(analysis, a -> new ArrayDeque<>());
+			if (solvers.size() < MAX_IDLE_SOLVERS) {
+				solvers.addFirst(solver);
+			}
+		}
+
+		synchronized void clear() {
+			idleSolvers.clear();
+		}
+
+	}
+
 	static class AnalysisWrapper<R, A extends AbstractAnalysis<R>> {
 
 		protected FeatureModelFormula formula;
+		private SolverPool solverPool;
 
 		private Object syncObject = new Object();
 		private IMonitor<R> monitor = new NullMonitor<>();
@@ -164,9 +208,20 @@ public class AnalysesCollection {
 		private AnalysisResult<R> analysisResult;
 
 		private final Class<A> analysis;
+		private final boolean reuseSolver;
 
 		public AnalysisWrapper(Class<A> analysis) {
+			this(analysis, false);
+		}
+
+		/**
+		 * @param analysis the class of the analysis, which must provide a constructor with a {@link CNF} and, if <code>reuseSolver</code> is set, with an
+		 *        {@link ISatSolver} as only parameter
+		 * @param reuseSolver whether the analysis leaves its solver unchanged, such that it can be used for further analyses
+		 */
+		public AnalysisWrapper(Class<A> analysis, boolean reuseSolver) {
 			this.analysis = analysis;
+			this.reuseSolver = reuseSolver;
 		}
 
 		public R getResult() {
@@ -189,10 +244,14 @@ public class AnalysesCollection {
 				this.monitor = monitor != null ? monitor : new NullMonitor<>();
 				R result = null;
 				if (curAnalysisResult == null) {
-					final AbstractAnalysis<R> analysisInstance = createNewAnalysis();
+					final CNF cnf = getCNF();
+					final AbstractAnalysis<R> analysisInstance = createNewAnalysis(cnf);
 					try {
 						result = LongRunningWrapper.runMethod(analysisInstance, this.monitor);
 						curAnalysisResult = result == null ? null : analysisInstance.getResult();
+						if ((result != null) && reuseSolver && (solverPool != null) && (analysisInstance.getSolver() != null)) {
+							solverPool.offer(analysis, cnf, analysisInstance.getSolver());
+						}
 					} catch (final MethodCancelException e) {
 
 					} catch (final Exception e) {
@@ -211,11 +270,15 @@ public class AnalysesCollection {
 			}
 		}
 
-		private A createNewAnalysis() {
+		private A createNewAnalysis(CNF cnf) {
 			try {
-				final CNF cnf = getCNF();
-				final A newInstance = analysis.getConstructor(CNF.class).newInstance(cnf);
+				final ISatSolver solver = reuseSolver && (solverPool != null) ? solverPool.take(analysis, cnf) : null;
+				final A newInstance = solver != null ? analysis.getConstructor(ISatSolver.class).newInstance(solver)
+					: analysis.getConstructor(CNF.class).newInstance(cnf);
 				configureAnalysis(cnf, newInstance);
+				if (cnf == formula.getCNF()) {
+					newInstance.setSolutionRepository(formula.getElement(new SolutionRepositoryCreator()));
+				}
 				return newInstance;
 			} catch (
 					InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException | NoSuchMethodException
@@ -235,6 +298,10 @@ public class AnalysesCollection {
 			this.formula = formula;
 		}
 
+		void setSolverPool(SolverPool solverPool) {
+			this.solverPool = solverPool;
+		}
+
 		public boolean isEnabled() {
 			return enabled;
 		}
@@ -256,13 +323,13 @@ public class AnalysesCollection {
 
 	static final class CauseAnalysisWrapper extends AConstraintAnalysisWrapper<List<Anomalies>, CauseAnalysis> {
 
-		private final AnalysisWrapper<LiteralSet, CoreDeadAnalysis> coreDeadAnalysis;
+		private final AnalysisWrapper<LiteralSet, ? extends CoreDeadAnalysis> coreDeadAnalysis;
 		private final FalseOptionalAnalysisWrapper foAnalysis;
 		protected boolean[] relevantConstraint;
 
-		private CauseAnalysisWrapper(Class<CauseAnalysis> analysis, AnalysisWrapper<LiteralSet, CoreDeadAnalysis> coreDeadAnalysis,
+		private CauseAnalysisWrapper(Class<CauseAnalysis> analysis, AnalysisWrapper<LiteralSet, ? extends CoreDeadAnalysis> coreDeadAnalysis,
 				FalseOptionalAnalysisWrapper foAnalysis) {
-			super(analysis, new FeatureTreeCNFCreator());
+			super(analysis, new FeatureTreeCNFCreator(), false);
 			this.coreDeadAnalysis = coreDeadAnalysis;
 			this.foAnalysis = foAnalysis;
 		}
@@ -295,6 +362,22 @@ public class AnalysesCollection {
 
 	}
 
+	static final class CoreDeadAnalysisWrapper extends AnalysisWrapper<LiteralSet, CompositionalCoreDeadAnalysis> {
+
+		private CoreDeadAnalysisWrapper() {
+			super(CompositionalCoreDeadAnalysis.class, true);
+		}
+
+		@Override
+		protected void configureAnalysis(CNF cnf, CompositionalCoreDeadAnalysis analysis) {
+			final IFeatureModel featureModel = formula.getFeatureModel();
+			if (featureModel instanceof MultiFeatureModel) {
+				analysis.setAliases(((MultiFeatureModel) featureModel).getExternalModels().keySet());
+			}
+		}
+
+	}
+
 	static final class IndeterminesAnalzsisWrapper extends AnalysisWrapper<LiteralSet, IndeterminedAnalysis> {
 
 		private IndeterminesAnalzsisWrapper(Class<IndeterminedAnalysis> analysis) {
@@ -314,7 +397,11 @@ public class AnalysesCollection {
 		private List<IConstraint> constraints;
 
 		private ConstraintAnalysisWrapper(Class<A> analysis, ACreator<CNF> cnfCreator) {
-			super(analysis, cnfCreator);
+			super(analysis, cnfCreator, false);
+		}
+
+		private ConstraintAnalysisWrapper(Class<A> analysis, ACreator<CNF> cnfCreator, boolean reuseSolver) {
+			super(analysis, cnfCreator, reuseSolver);
 		}
 
 		public void setConstraints(List<IConstraint> constraints) {
@@ -340,8 +427,8 @@ public class AnalysesCollection {
 
 		private final ACreator<CNF> cnfCreator;
 
-		private AConstraintAnalysisWrapper(Class<A> analysis, ACreator<CNF> cnfCreator) {
-			super(analysis);
+		private AConstraintAnalysisWrapper(Class<A> analysis, ACreator<CNF> cnfCreator, boolean reuseSolver) {
+			super(analysis, reuseSolver);
 			this.cnfCreator = cnfCreator;
 		}
 
@@ -368,16 +455,32 @@ public class AnalysesCollection {
 
 	}
 
-	static final class FalseOptionalAnalysisWrapper extends AnalysisWrapper<List<LiteralSet>, IndependentRedundancyAnalysis> {
+	static final class AtomicSetAnalysisWrapper extends AnalysisWrapper<List<LiteralSet>, AtomicSetAnalysisMIG> {
+
+		private AtomicSetAnalysisWrapper() {
+			super(AtomicSetAnalysisMIG.class);
+		}
+
+		@Override
+		protected void configureAnalysis(CNF cnf, AtomicSetAnalysisMIG analysis) {
+			analysis.setModalImplicationGraph(formula.getElement(new ModalImplicationGraphCreator()));
+			analysis.setParallelism(Runtime.getRuntime().availableProcessors());
+		}
+
+	}
+
+	static final class FalseOptionalAnalysisWrapper extends AnalysisWrapper<List<LiteralSet>, ImplicationAnalysisMIG> {
 
 		private List<IFeature> optionalFeatures;
 
 		private FalseOptionalAnalysisWrapper() {
-			super(IndependentRedundancyAnalysis.class);
+			super(ImplicationAnalysisMIG.class, true);
 		}
 
 		@Override
-		protected void configureAnalysis(CNF cnf, IndependentRedundancyAnalysis analysis) {
+		protected void configureAnalysis(CNF cnf, ImplicationAnalysisMIG analysis) {
+			analysis.setModalImplicationGraph(formula.getElement(new ModalImplicationGraphCreator()));
+			analysis.setParallelism(Runtime.getRuntime().availableProcessors());
 			final List<LiteralSet> literalSetList = new ArrayList<>();
 			final Variables variables = cnf.getVariables();
 			for (final IFeature iFeature : optionalFeatures) {
@@ -396,15 +499,16 @@ public class AnalysesCollection {
 	}
 
 	private FeatureModelFormula formula;
-	final AnalysisWrapper<Boolean, HasSolutionAnalysis> validAnalysis = new AnalysisWrapper<>(HasSolutionAnalysis.class);
-	final AnalysisWrapper<List<LiteralSet>, AtomicSetAnalysis> atomicSetAnalysis = new AnalysisWrapper<>(AtomicSetAnalysis.class);
-	final AnalysisWrapper<LiteralSet, CoreDeadAnalysis> coreDeadAnalysis = new AnalysisWrapper<>(CoreDeadAnalysis.class);
+	private final SolverPool solverPool = new SolverPool();
+	final AnalysisWrapper<Boolean, HasSolutionAnalysis> validAnalysis = new AnalysisWrapper<>(HasSolutionAnalysis.class, true);
+	final AtomicSetAnalysisWrapper atomicSetAnalysis = new AtomicSetAnalysisWrapper();
+	final CoreDeadAnalysisWrapper coreDeadAnalysis = new CoreDeadAnalysisWrapper();
 	final FalseOptionalAnalysisWrapper foAnalysis = new FalseOptionalAnalysisWrapper();
 	final AnalysisWrapper<LiteralSet, IndeterminedAnalysis> determinedAnalysis = new IndeterminesAnalzsisWrapper(IndeterminedAnalysis.class);
 	final ConstraintAnalysisWrapper<RemoveRedundancyAnalysis> constraintRedundancyAnalysis =
 		new ConstraintAnalysisWrapper<>(RemoveRedundancyAnalysis.class, new FeatureTreeCNFCreator());
 	final ConstraintAnalysisWrapper<IndependentRedundancyAnalysis> constraintTautologyAnalysis =
-		new ConstraintAnalysisWrapper<>(IndependentRedundancyAnalysis.class, new EmptyCNFCreator());
+		new ConstraintAnalysisWrapper<>(IndependentRedundancyAnalysis.class, new EmptyCNFCreator(), true);
 	final ConstraintAnalysisWrapper<IndependentContradictionAnalysis> constraintContradictionAnalysis =
 		new ConstraintAnalysisWrapper<>(IndependentContradictionAnalysis.class, new EmptyCNFCreator());
 	final ConstraintAnalysisWrapper<ContradictionAnalysis> constraintVoidAnalysis =
@@ -421,6 +525,9 @@ public class AnalysesCollection {
 	}
 
 	void reset(FeatureModelFormula formula) {
+		if (formula != this.formula) {
+			solverPool.clear();
+		}
 		this.formula = formula;
 		for (final AnalysisWrapper<?, ?> analysisWrapper : list) {
 			analysisWrapper.reset();
@@ -452,6 +559,7 @@ public class AnalysesCollection {
 		this.formula = formula;
 		for (final AnalysisWrapper<?, ?> analysisWrapper : list) {
 			analysisWrapper.setFormula(formula);
+			analysisWrapper.setSolverPool(solverPool);
 		}
 
 		deadFeatureExplanationCreator.setFeatureModel(formula.getFeatureModel());
@@ -0,0 +1,185 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import de.ovgu.featureide.fm.core.FeatureModelAnalyzer.AnalysisStep;
+import de.ovgu.featureide.fm.core.base.IFeatureModelElement;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor.MethodCancelException;
+import de.ovgu.featureide.fm.core.job.monitor.NullMonitor;
+
+/**
+ * Runs the analysis steps of a {@link FeatureModelAnalyzer} according to their dependencies. The computation of a step runs on the given executor as soon as
+ * all steps it depends on are finished. The results are applied (i.e., the feature model elements are annotated) on the calling thread in the order of
+ * completion, such that the properties of the feature model are never modified concurrently.
+ */
+final class AnalysisScheduler {
+
+	/**
+	 * The computation of an analysis step.
+	 */
+	@FunctionalInterface
+	interface Computation {
+
+		/**
+		 * @param monitor a monitor that is canceled together with the scheduler
+		 * @return the feature model elements found by the analysis step
+		 */
+		Collection<? extends IFeatureModelElement> compute(IMonitor<?> monitor) throws Exception;
+	}
+
+	/**
+	 * An analysis step together with its dependencies.
+	 */
+	final class Task {
+
+		private final AnalysisStep step;
+		private final int work;
+		private final Computation computation;
+		private final Consumer<Collection<? extends IFeatureModelElement>> application;
+
+		private final List<Task> dependents = new ArrayList<>();
+		private int remainingDependencies = 0;
+
+		private final NullMonitor<?> taskMonitor = new NullMonitor<>();
+		private long time;
+
+		private Task(AnalysisStep step, int work, Computation computation, Consumer<Collection<? extends IFeatureModelElement>> application) {
+			this.step = step;
+			this.work = work;
+			this.computation = computation;
+			this.application = application;
+		}
+
+		private Collection<? extends IFeatureModelElement> call() throws Exception {
+			final long start = System.nanoTime();
+			try {
+				return computation.compute(taskMonitor);
+			} finally {
+				time = System.nanoTime() - start;
+			}
+		}
+
+	}
+
+	private final List<Task> tasks = new ArrayList<>();
+
+	/**
+	 * Adds a new analysis step.
+	 *
+	 * @param step the analysis step
+	 * @param work the amount of work that is reported to the monitor when the step is finished
+	 * @param computation the computation of the step, which is executed concurrently to other steps
+	 * @param application applies the result of the computation, which is executed on the calling thread of {@link #run(Executor, IMonitor, Listener)}
+	 * @param dependencies the steps that have to be finished (including the application of their results) before the computation of this step starts
+	 * @return the new task
+	 */
+	Task add(AnalysisStep step, int work, Computation computation, Consumer<Collection<? extends IFeatureModelElement>> application, Task... dependencies) {
+		final Task task = new Task(step, work, computation, application);
+		for (final Task dependency : dependencies) {
+			dependency.dependents.add(task);
+			task.remainingDependencies++;
+		}
+		tasks.add(task);
+		return task;
+	}
+
+	/**
+	 * Receives each finished analysis step.
+	 */
+	@FunctionalInterface
+	interface Listener {
+
+		void finished(AnalysisStep step, Collection<? extends IFeatureModelElement> elements, long time);
+	}
+
+	/**
+	 * Runs all added steps and blocks until all of them are finished.
+	 *
+	 * @param executor the executor for the computations
+	 * @param monitor the monitor for progress and cancellation
+	 * @param listener is notified on the calling thread after the result of a step was applied
+	 */
+	void run(Executor executor, IMonitor<?> monitor, Listener listener) {
+		final CompletionService<Collection<? extends IFeatureModelElement>> completionService = new ExecutorCompletionService<>(executor);
+		final List<Future<Collection<? extends IFeatureModelElement>>> futures = new ArrayList<>(tasks.size());
+		final List<Task> runningTasks = new ArrayList<>(tasks.size());
+		try {
+			for (final Task task : tasks) {
+				if (task.remainingDependencies == 0) {
+					futures.add(completionService.submit(task::call));
+					runningTasks.add(task);
+				}
+			}
+			for (int finished = 0; finished < tasks.size(); finished++) {
+				Future<Collection<? extends IFeatureModelElement>> future = null;
+				while (future == null) {
+					monitor.checkCancel();
+					future = completionService.poll(100, TimeUnit.MILLISECONDS);
+				}
+				final Task task = runningTasks.get(futures.indexOf(future));
+				final Collection<? extends IFeatureModelElement> elements = getResult(future);
+				task.application.accept(elements);
+				monitor.worked(task.work);
+				listener.finished(task.step, elements, task.time);
+				for (final Task dependent : task.dependents) {
+					if (--dependent.remainingDependencies == 0) {
+						futures.add(completionService.submit(dependent::call));
+						runningTasks.add(dependent);
+					}
+				}
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MethodCancelException();
+		} finally {
+			for (final Task task : runningTasks) {
+				task.taskMonitor.cancel();
+			}
+		}
+	}
+
+	private static Collection<? extends IFeatureModelElement> getResult(Future<Collection<? extends IFeatureModelElement>> future) throws InterruptedException {
+		try {
+			return future.get();
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new RuntimeException(cause);
+		}
+	}
+
+}
@@ -23,15 +23,23 @@ package de.ovgu.featureide.fm.core;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import de.ovgu.featureide.fm.core.AnalysesCollection.ConstraintAnalysisWrapper;
 import de.ovgu.featureide.fm.core.AnalysesCollection.StringToFeature;
+import de.ovgu.featureide.fm.core.AnalysisScheduler.Task;
 import de.ovgu.featureide.fm.core.analysis.ConstraintProperties;
 import de.ovgu.featureide.fm.core.analysis.ConstraintProperties.ConstraintStatus;
 import de.ovgu.featureide.fm.core.analysis.FeatureModelProperties;
@@ -44,7 +52,12 @@ import de.ovgu.featureide.fm.core.analysis.cnf.Variables;
 import de.ovgu.featureide.fm.core.analysis.cnf.analysis.CauseAnalysis.Anomalies;
 import de.ovgu.featureide.fm.core.analysis.cnf.analysis.CoreDeadAnalysis;
 import de.ovgu.featureide.fm.core.analysis.cnf.analysis.HasSolutionAnalysis;
+import de.ovgu.featureide.fm.core.analysis.cnf.analysis.ImplicationAnalysisMIG;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelExplanationCacheCreator;
 import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.ModalImplicationGraphCreator;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.SolutionRepositoryCreator;
+import de.ovgu.featureide.fm.core.analysis.mig.ModalImplicationGraph;
 import de.ovgu.featureide.fm.core.base.FeatureUtils;
 import de.ovgu.featureide.fm.core.base.IConstraint;
 import de.ovgu.featureide.fm.core.base.IFeature;
@@ -58,10 +71,14 @@ import de.ovgu.featureide.fm.core.explanations.fm.DeadFeatureExplanation;
 import de.ovgu.featureide.fm.core.explanations.fm.DeadFeatureExplanationCreator;
 import de.ovgu.featureide.fm.core.explanations.fm.FalseOptionalFeatureExplanation;
 import de.ovgu.featureide.fm.core.explanations.fm.FalseOptionalFeatureExplanationCreator;
+import de.ovgu.featureide.fm.core.explanations.fm.FeatureModelExplanation;
+import de.ovgu.featureide.fm.core.explanations.fm.FeatureModelExplanationCache;
+import de.ovgu.featureide.fm.core.explanations.fm.FeatureModelExplanationCache.Anomaly;
 import de.ovgu.featureide.fm.core.explanations.fm.MultipleAnomaliesExplanation;
 import de.ovgu.featureide.fm.core.explanations.fm.MultipleAnomaliesExplanationCreator;
 import de.ovgu.featureide.fm.core.explanations.fm.RedundantConstraintExplanation;
 import de.ovgu.featureide.fm.core.explanations.fm.RedundantConstraintExplanationCreator;
+import de.ovgu.featureide.fm.core.explanations.fm.impl.mus.MusExplanationBatch;
 import de.ovgu.featureide.fm.core.filter.FeatureSetFilter;
 import de.ovgu.featureide.fm.core.filter.OptionalFeatureFilter;
 import de.ovgu.featureide.fm.core.functional.Functional;
@@ -79,12 +96,58 @@ import de.ovgu.featureide.fm.core.job.monitor.NullMonitor;
  */
 public class FeatureModelAnalyzer implements IEventListener {
 
+	/**
+	 * The analysis steps of {@link FeatureModelAnalyzer#analyzeFeatureModel(IMonitor)}.
+	 */
+	public enum AnalysisStep {
+		VALIDITY, DEAD_FEATURES, FALSE_OPTIONAL_FEATURES, INDETERMINATE_HIDDEN_FEATURES, VOID_CONSTRAINTS, CONTRADICTORY_CONSTRAINTS, REDUNDANT_CONSTRAINTS,
+		TAUTOLOGY_CONSTRAINTS, CONSTRAINT_ANOMALIES
+	}
+
+	/**
+	 * Is notified whenever an analysis step of {@link FeatureModelAnalyzer#analyzeFeatureModel(IMonitor)} is finished and its results are available via
+	 * {@link FeatureModelAnalyzer#getFeatureProperties(IFeature)} and {@link FeatureModelAnalyzer#getConstraintProperties(IConstraint)}.
+	 */
+	@FunctionalInterface
+	public interface IAnalysisListener {
+
+		/**
+		 * Called on the thread that runs the analysis.
+		 *
+		 * @param step the finished analysis step
+		 * @param elements the features or constraints that were annotated by the step
+		 * @param time the computation time of the step in nanoseconds
+		 */
+		void analysisFinished(AnalysisStep step, Collection<? extends IFeatureModelElement> elements, long time);
+	}
+
+	private static ExecutorService defaultExecutor;
+
+	/**
+	 * @return a shared thread pool with one daemon thread per processor
+	 */
+	private static synchronized Executor getDefaultExecutor() {
+		if (defaultExecutor == null) {
+			final AtomicInteger threadCount = new AtomicInteger();
+			defaultExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+				final Thread thread = new Thread(runnable, "FeatureModelAnalyzer-" + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return defaultExecutor;
+	}
+
 	private final FeatureModelFormula formula;
 	private final IFeatureModel featureModel;
 	private final List<IConstraint> constraints;
 
 	private final AnalysesCollection analysesCollection;
 
+	private Executor executor = getDefaultExecutor();
+	private final List<IAnalysisListener> analysisListeners = new CopyOnWriteArrayList<>();
+	private final Map<AnalysisStep, Long> analysisTimes = Collections.synchronizedMap(new EnumMap<>(AnalysisStep.class));
+
 	public void reset() {
 		analysesCollection.reset(formula);
 	}
@@ -214,6 +277,25 @@ public class FeatureModelAnalyzer implements IEventListener {
 		return result;
 	}
 
+	/**
+	 * Computes the conditionally core and dead features for multiple sets of assumptions at once, for instance, for all configurations of a folder. The
+	 * assumption sets are analyzed in parallel using the {@link ModalImplicationGraph modal implication graph} of the feature model.
+	 *
+	 * @param assumptionSets the assumption sets as literals of the {@link FeatureModelFormula#getCNF() CNF}
+	 * @param monitor the monitor
+	 * @return for each assumption set, all literals that are implied by the feature model and the set, or <code>null</code> if the set is contradictory
+	 *
+	 * @see ImplicationAnalysisMIG
+	 */
+	public List<LiteralSet> getConditionallyCoreDeadLiterals(List<LiteralSet> assumptionSets, IMonitor<List<LiteralSet>> monitor) {
+		final ImplicationAnalysisMIG analysis = new ImplicationAnalysisMIG(formula.getCNF(), formula.getElement(new ModalImplicationGraphCreator()));
+		analysis.setAssumptionSets(assumptionSets);
+		analysis.setParallelism(Runtime.getRuntime().availableProcessors());
+		analysis.setSolutionRepository(formula.getElement(new SolutionRepositoryCreator()));
+		LongRunningWrapper.runMethod(analysis, monitor);
+		return analysis.getImpliedLiterals();
+	}
+
 	public List<IConstraint> getContradictoryConstraints(IMonitor<List<LiteralSet>> monitor) {
 		return getConstraintAnalysisResults(getVoidConstraints(monitor.subTask(1)), analysesCollection.constraintContradictionAnalysis, monitor);
 	}
@@ -365,12 +447,18 @@ public class FeatureModelAnalyzer implements IEventListener {
 				work += 19;
 			}
 			monitor.setRemainingWork(work);
+			analysisTimes.clear();
 
+			final long start = System.nanoTime();
 			updateFeatureModel(monitor);
+			if (analysesCollection.isCalculateFeatures() || analysesCollection.isCalculateConstraints()) {
+				fireAnalysisFinished(AnalysisStep.VALIDITY, Collections.<IFeatureModelElement> emptyList(), System.nanoTime() - start);
+			}
 
-			updateFeatures(monitor);
-
-			updateConstraints(monitor);
+			final AnalysisScheduler scheduler = new AnalysisScheduler();
+			final List<Task> featureTasks = scheduleFeatures(scheduler, monitor);
+			scheduleConstraints(scheduler, featureTasks, monitor);
+			scheduler.run(executor == null ? Runnable::run : executor, monitor, this::fireAnalysisFinished);
 		} finally {
 			monitor.done();
 		}
@@ -378,6 +466,129 @@ public class FeatureModelAnalyzer implements IEventListener {
 		return analysesCollection;
 	}
 
+	/**
+	 * Resets the feature properties and adds the analyses for dead, false-optional, and indeterminate hidden features to the given scheduler. These analyses
+	 * do not depend on each other.
+	 */
+	private List<Task> scheduleFeatures(AnalysisScheduler scheduler, IMonitor<Boolean> monitor) {
+		final List<Task> tasks = new ArrayList<>();
+		if (analysesCollection.isCalculateFeatures()) {
+			monitor.checkCancel();
+			resetFeatureProperties(monitor);
+			if (getFeatureModelProperties().hasStatus(FeatureModelStatus.VOID)) {
+				annotateFeatures(FeatureStatus.DEAD, monitor);
+				monitor.worked(3);
+			} else {
+				tasks.add(scheduler.add(AnalysisStep.DEAD_FEATURES, 1, m -> getDeadFeatures(castMonitor(m)), getFeatureAnnotator(FeatureStatus.DEAD)));
+				tasks.add(scheduler.add(AnalysisStep.FALSE_OPTIONAL_FEATURES, 1, m -> getFalseOptionalFeatures(castMonitor(m)),
+						getFeatureAnnotator(FeatureStatus.FALSE_OPTIONAL)));
+				tasks.add(scheduler.add(AnalysisStep.INDETERMINATE_HIDDEN_FEATURES, 1, m -> getIndeterminedHiddenFeatures(castMonitor(m)),
+						getFeatureAnnotator(FeatureStatus.INDETERMINATE_HIDDEN)));
+			}
+		}
+		return tasks;
+	}
+
+	/**
+	 * Resets the constraint properties and adds the constraint analyses to the given scheduler. The redundancy analysis runs concurrently to the feature
+	 * analyses, the tautology analysis only checks redundant constraints, and the anomaly analysis requires the results of all other analyses.
+	 */
+	private void scheduleConstraints(AnalysisScheduler scheduler, List<Task> featureTasks, IMonitor<Boolean> monitor) {
+		if (analysesCollection.isCalculateConstraints()) {
+			monitor.checkCancel();
+			resetConstraintProperties(monitor);
+			if (getFeatureModelProperties().hasStatus(FeatureModelStatus.VOID)) {
+				final Task voidTask =
+					scheduler.add(AnalysisStep.VOID_CONSTRAINTS, 2, m -> getVoidConstraints(castMonitor(m)), getConstraintAnnotator(ConstraintStatus.VOID));
+				scheduler.add(AnalysisStep.CONTRADICTORY_CONSTRAINTS, 17, m -> getContradictoryConstraints(castMonitor(m)),
+						getConstraintAnnotator(ConstraintStatus.UNSATISFIABLE), voidTask);
+			} else {
+				final Task redundantTask = scheduler.add(AnalysisStep.REDUNDANT_CONSTRAINTS, 2, m -> getRedundantConstraints(castMonitor(m)),
+						getConstraintAnnotator(ConstraintStatus.REDUNDANT));
+				final Task tautologyTask = scheduler.add(AnalysisStep.TAUTOLOGY_CONSTRAINTS, 2, m -> getTautologyConstraints(castMonitor(m)),
+						getConstraintAnnotator(ConstraintStatus.TAUTOLOGY), redundantTask);
+				final List<Task> dependencies = new ArrayList<>(featureTasks);
+				dependencies.add(redundantTask);
+				dependencies.add(tautologyTask);
+				scheduler.add(AnalysisStep.CONSTRAINT_ANOMALIES, 15, m -> getAnomalyConstraints(castMonitor(m)), elements -> {},
+						dependencies.toArray(new Task[dependencies.size()]));
+			}
+		}
+	}
+
+	private Consumer<Collection<? extends IFeatureModelElement>> getFeatureAnnotator(FeatureStatus status) {
+		return features -> {
+			for (final IFeatureModelElement feature : features) {
+				getFeatureProperties((IFeature) feature).setStatus(status);
+			}
+			if (!features.isEmpty()) {
+				getFeatureModelProperties().setStatus(FeatureModelStatus.ANOMALIES);
+			}
+		};
+	}
+
+	private Consumer<Collection<? extends IFeatureModelElement>> getConstraintAnnotator(ConstraintStatus status) {
+		return constraints -> {
+			for (final IFeatureModelElement constraint : constraints) {
+				getConstraintProperties((IConstraint) constraint).setStatus(status);
+			}
+			if (!constraints.isEmpty() && ((status == ConstraintStatus.REDUNDANT) || (status == ConstraintStatus.TAUTOLOGY))) {
+				getFeatureModelProperties().setStatus(FeatureModelStatus.ANOMALIES);
+			}
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> IMonitor<T> castMonitor(IMonitor<?> monitor) {
+		return (IMonitor<T>) monitor;
+	}
+
+	private void fireAnalysisFinished(AnalysisStep step, Collection<? extends IFeatureModelElement> elements, long time) {
+		analysisTimes.put(step, time);
+		for (final IAnalysisListener listener : analysisListeners) {
+			listener.analysisFinished(step, elements, time);
+		}
+	}
+
+	/**
+	 * Sets the executor that runs independent analyses of {@link #analyzeFeatureModel(IMonitor)} concurrently. By default, a shared thread pool with one
+	 * thread per processor is used.
+	 *
+	 * @param executor the executor, or <code>null</code> to run all analyses sequentially on the calling thread
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Adds a listener that receives the results of {@link #analyzeFeatureModel(IMonitor)} as soon as a single analysis step is finished.
+	 *
+	 * @param listener the listener
+	 */
+	public void addAnalysisListener(IAnalysisListener listener) {
+		analysisListeners.add(listener);
+	}
+
+	public void removeAnalysisListener(IAnalysisListener listener) {
+		analysisListeners.remove(listener);
+	}
+
+	/**
+	 * Returns the computation time of each analysis step of the last call of {@link #analyzeFeatureModel(IMonitor)}. Steps that were not executed are not
+	 * contained.
+	 *
+	 * @return a map from analysis step to computation time in nanoseconds
+	 */
+	public Map<AnalysisStep, Long> getAnalysisTimes() {
+		synchronized (analysisTimes) {
+			return new EnumMap<>(analysisTimes);
+		}
+	}
+
 	public void updateConstraints() {
 		updateConstraints(null);
 	}
@@ -388,14 +599,7 @@ public class FeatureModelAnalyzer implements IEventListener {
 				monitor = new NullMonitor<>();
 			}
 			monitor.checkCancel();
-			// set default values for constraint properties
-			for (final IConstraint constraint : constraints) {
-				final ConstraintProperties constraintProperties = getConstraintProperties(constraint);
-				constraintProperties.resetStatus();
-				constraintProperties.setStatus(ConstraintStatus.NECESSARY);
-				constraintProperties.setStatus(ConstraintStatus.SATISFIABLE);
-			}
-			monitor.worked();
+			resetConstraintProperties(monitor);
 
 			monitor.checkCancel();
 			final FeatureModelProperties properties = getFeatureModelProperties();
@@ -426,6 +630,17 @@ public class FeatureModelAnalyzer implements IEventListener {
 		}
 	}
 
+	private void resetConstraintProperties(IMonitor<Boolean> monitor) {
+		// set default values for constraint properties
+		for (final IConstraint constraint : constraints) {
+			final ConstraintProperties constraintProperties = getConstraintProperties(constraint);
+			constraintProperties.resetStatus();
+			constraintProperties.setStatus(ConstraintStatus.NECESSARY);
+			constraintProperties.setStatus(ConstraintStatus.SATISFIABLE);
+		}
+		monitor.worked();
+	}
+
 	/**
 	 * Annotates the constraints in <code>constraints</code> with <code>status</code>, which might either {@link ConstraintStatus#REDUNDANT} or
 	 * {@link ConstraintStatus#TAUTOLOGY} (as redundant constraints or tautologies). This triggers a constraint analysis using the given <code>monitor</code>.
@@ -480,14 +695,7 @@ public class FeatureModelAnalyzer implements IEventListener {
 			if (monitor == null) {
 				monitor = new NullMonitor<>();
 			}
-			featureModel.getFeatures().forEach(feature -> getFeatureProperties(feature).resetStatus());
-
-			annotateFeatures(FeatureStatus.COMMON, monitor);
-			annotateFeatures(FeatureStatus.MANDATORY, monitor);
-			annotateFeatures(FeatureStatus.OPTIONAL, monitor);
-			annotateFeatures(FeatureStatus.GROUP, monitor);
-
-			monitor.worked();
+			resetFeatureProperties(monitor);
 
 			monitor.checkCancel();
 			final FeatureModelProperties properties = getFeatureModelProperties();
@@ -511,6 +719,17 @@ public class FeatureModelAnalyzer implements IEventListener {
 		}
 	}
 
+	private void resetFeatureProperties(IMonitor<Boolean> monitor) {
+		featureModel.getFeatures().forEach(feature -> getFeatureProperties(feature).resetStatus());
+
+		annotateFeatures(FeatureStatus.COMMON, monitor);
+		annotateFeatures(FeatureStatus.MANDATORY, monitor);
+		annotateFeatures(FeatureStatus.OPTIONAL, monitor);
+		annotateFeatures(FeatureStatus.GROUP, monitor);
+
+		monitor.worked();
+	}
+
 	/**
 	 * Annotates the features of <code>featureModelFormula</code> with the given status, i.e. checks if they are common, mandatory, optional features, belong to
 	 * a group, or are dead, false optional or indeterminate. The latter three analyzes require the <code>monitor</code> object, though a monitor is not
@@ -797,6 +1016,11 @@ public class FeatureModelAnalyzer implements IEventListener {
 	 * @param feature potentially dead feature; not null
 	 */
 	private void addDeadFeatureExplanation(IFeatureModel fm, IFeature feature) {
+		final FeatureModelExplanation<?> cachedExplanation = (fm == featureModel) ? getCachedExplanation(Anomaly.DEAD_FEATURE, feature) : null;
+		if (cachedExplanation instanceof DeadFeatureExplanation) {
+			analysesCollection.deadFeatureExplanations.put(feature, (DeadFeatureExplanation) cachedExplanation);
+			return;
+		}
 		final DeadFeatureExplanationCreator creator;
 		if (fm == featureModel) {
 			creator = analysesCollection.deadFeatureExplanationCreator;
@@ -839,6 +1063,11 @@ public class FeatureModelAnalyzer implements IEventListener {
 	 * @param feature potentially false-optional feature; not null
 	 */
 	private void addFalseOptionalFeatureExplanation(IFeatureModel fm, IFeature feature) {
+		final FeatureModelExplanation<?> cachedExplanation = (fm == featureModel) ? getCachedExplanation(Anomaly.FALSE_OPTIONAL_FEATURE, feature) : null;
+		if (cachedExplanation instanceof FalseOptionalFeatureExplanation) {
+			analysesCollection.falseOptionalFeatureExplanations.put(feature, (FalseOptionalFeatureExplanation) cachedExplanation);
+			return;
+		}
 		final FalseOptionalFeatureExplanationCreator creator;
 		if (fm == featureModel) {
 			creator = analysesCollection.falseOptionalFeatureExplanationCreator;
@@ -883,6 +1112,11 @@ public class FeatureModelAnalyzer implements IEventListener {
 	 * @param constraint potentially redundant constraint; not null
 	 */
 	private void addRedundantConstraintExplanation(IFeatureModel fm, IConstraint constraint) {
+		final FeatureModelExplanation<?> cachedExplanation = (fm == featureModel) ? getCachedExplanation(Anomaly.REDUNDANT_CONSTRAINT, constraint) : null;
+		if (cachedExplanation instanceof RedundantConstraintExplanation) {
+			analysesCollection.redundantConstraintExplanations.put(constraint, (RedundantConstraintExplanation) cachedExplanation);
+			return;
+		}
 		final RedundantConstraintExplanationCreator creator;
 		if (fm == featureModel) {
 			creator = analysesCollection.redundantConstraintExplanationCreator;
@@ -894,6 +1128,34 @@ public class FeatureModelAnalyzer implements IEventListener {
 		analysesCollection.redundantConstraintExplanations.put(constraint, creator.getExplanation());
 	}
 
+	/**
+	 * Explains all dead features, false-optional features, and redundant constraints of the feature model in one batch. The explanations are computed
+	 * concurrently and cached for the current revision of the feature model. Subsequent calls of {@link #getDeadFeatureExplanation(IFeature)},
+	 * {@link #getFalseOptionalFeatureExplanation(IFeature)}, and {@link #getRedundantConstraintExplanation(IConstraint)} return the cached explanations.
+	 *
+	 * @param monitor the monitor
+	 * @return the cache containing the explanations and their computation times
+	 *
+	 * @see MusExplanationBatch
+	 */
+	public FeatureModelExplanationCache explainAnomalies(IMonitor<FeatureModelExplanationCache> monitor) {
+		final MusExplanationBatch batch = new MusExplanationBatch(formula);
+		batch.setParallelism(Runtime.getRuntime().availableProcessors());
+		return LongRunningWrapper.runMethod(batch, monitor);
+	}
+
+	/**
+	 * Returns an explanation from the batch cache of the current revision of the feature model.
+	 *
+	 * @param anomaly the kind of anomaly
+	 * @param element the anomalous element
+	 * @return the cached explanation; null if there is none
+	 */
+	private FeatureModelExplanation<?> getCachedExplanation(Anomaly anomaly, IFeatureModelElement element) {
+		final FeatureModelExplanationCache.Entry entry = formula.getElement(new FeatureModelExplanationCacheCreator()).get(anomaly, element);
+		return entry == null ? null : entry.getExplanation();
+	}
+
 	public void setMultipleAnomalyExplanationTypes(FeatureStatus[] featureStatuses, ConstraintStatus[] constraintStatuses) {
 		analysesCollection.setMultipleAnomaliesExplanation(null);
 		analysesCollection.multipleAnomaliesExplanationCreator.setAnomalyTypes(featureStatuses, constraintStatuses);
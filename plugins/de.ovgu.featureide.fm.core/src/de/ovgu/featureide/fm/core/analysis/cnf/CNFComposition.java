@@ -0,0 +1,379 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.cnf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.manipulator.remove.CNFSlicer;
+import de.ovgu.featureide.fm.core.base.impl.MultiFeatureModel;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Composes the {@link CNF} of a feature model with imported models, such as a {@link MultiFeatureModel}, from the CNFs of the imported models.<br> <br> The
+ * variables of an imported model are all variables whose name starts with the alias of the import followed by a dot. Each clause that only contains variables
+ * of the same imported model belongs to the CNF of that model, all other clauses belong to the importing model. The interface of an imported model consists of
+ * its variables that occur in a clause of the importing model.<br> <br> The composed CNF contains the clauses of the importing model and the CNF of each
+ * imported model sliced to its interface with a {@link CNFSlicer}. Thus, it is equivalent to the original CNF projected onto the variables of the importing
+ * model and the interfaces. The sliced CNFs are cached by their content independent of the alias, such that a model that is imported by many feature models is
+ * sliced only once.
+ */
+public class CNFComposition {
+
+	/**
+	 * The CNF of an imported model. Its variables are named relative to the alias of the import and sorted by name, and its clauses are sorted, such that
+	 * equal imported models yield equal CNFs.
+	 */
+	public static final class ImportedCNF {
+
+		private final String alias;
+		private final CNF cnf;
+		private final int[] originalVariables;
+		private final List<String> interfaceVariables;
+
+		private ImportedCNF(String alias, CNF cnf, int[] originalVariables, List<String> interfaceVariables) {
+			this.alias = alias;
+			this.cnf = cnf;
+			this.originalVariables = originalVariables;
+			this.interfaceVariables = interfaceVariables;
+		}
+
+		public String getAlias() {
+			return alias;
+		}
+
+		public CNF getCNF() {
+			return cnf;
+		}
+
+		/**
+		 * @return the names of the interface variables relative to the alias of the import
+		 */
+		public List<String> getInterfaceVariables() {
+			return interfaceVariables;
+		}
+
+		/**
+		 * Converts literals of the CNF of this imported model into literals of the original CNF.
+		 *
+		 * @param literals literals of {@link #getCNF()}
+		 * @return the corresponding literals of the original CNF
+		 */
+		public int[] convertToOriginal(int[] literals) {
+			final int[] originalLiterals = new int[literals.length];
+			for (int i = 0; i < literals.length; i++) {
+				final int literal = literals[i];
+				final int variable = originalVariables[Math.abs(literal)];
+				originalLiterals[i] = literal > 0 ? variable : -variable;
+			}
+			return originalLiterals;
+		}
+
+	}
+
+	private static final int MAX_CACHE_SIZE = 256;
+
+	private static final Map<List<Object>, CNF> slicedCNFs = createCache();
+
+	/**
+	 * Creates a synchronized map that holds the most recently used entries.
+	 *
+	 * @return a new map
+	 */
+	public static <K, V> Map<K, V> createCache() {
+		return Collections.synchronizedMap(new LinkedHashMap<K, V>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+				return size() > MAX_CACHE_SIZE;
+			}
+		});
+	}
+
+	/**
+	 * Removes all cached sliced CNFs.
+	 */
+	public static void clearCache() {
+		slicedCNFs.clear();
+	}
+
+	private final List<ImportedCNF> importedCNFs = new ArrayList<>();
+	private final CNF composedCNF;
+	private final int[] originalVariables;
+
+	/**
+	 * Creates a new composition.
+	 *
+	 * @param cnf the CNF of the importing model including the clauses of all imported models
+	 * @param aliases the aliases of the imported models
+	 */
+	public CNFComposition(CNF cnf, Collection<String> aliases) {
+		final Variables variables = cnf.getVariables();
+		final String[] names = variables.getNames();
+		final List<String> aliasList = new ArrayList<>(aliases);
+		final Map<String, Integer> aliasIndex = new HashMap<>();
+		for (int i = 0; i < aliasList.size(); i++) {
+			aliasIndex.put(aliasList.get(i), i);
+		}
+
+		final int[] part = new int[names.length];
+		for (int variable = 1; variable < names.length; variable++) {
+			final int dotIndex = names[variable].indexOf('.');
+			final Integer index = dotIndex < 0 ? null : aliasIndex.get(names[variable].substring(0, dotIndex));
+			part[variable] = index == null ? -1 : index;
+		}
+
+		final List<List<LiteralSet>> partClauses = new ArrayList<>(aliasList.size());
+		for (int i = 0; i < aliasList.size(); i++) {
+			partClauses.add(new ArrayList<LiteralSet>());
+		}
+		final List<LiteralSet> ownClauses = new ArrayList<>();
+		final boolean[] interfaceVariable = new boolean[names.length];
+		for (final LiteralSet clause : cnf.getClauses()) {
+			final int clausePart = getPart(clause, part);
+			if (clausePart < 0) {
+				ownClauses.add(clause);
+				for (final int literal : clause.getLiterals()) {
+					interfaceVariable[Math.abs(literal)] = true;
+				}
+			} else {
+				partClauses.get(clausePart).add(clause);
+			}
+		}
+
+		final List<String> composedNames = new ArrayList<>();
+		for (int variable = 1; variable < names.length; variable++) {
+			if ((part[variable] < 0) || interfaceVariable[variable]) {
+				composedNames.add(names[variable]);
+			}
+		}
+		for (int i = 0; i < aliasList.size(); i++) {
+			final ImportedCNF importedCNF = createImportedCNF(aliasList.get(i), i, names, part, interfaceVariable, partClauses.get(i));
+			if (importedCNF != null) {
+				importedCNFs.add(importedCNF);
+			}
+		}
+
+		final Variables composedVariables = new Variables(composedNames);
+		originalVariables = new int[composedNames.size() + 1];
+		for (int variable = 1; variable < originalVariables.length; variable++) {
+			originalVariables[variable] = variables.getVariable(composedNames.get(variable - 1));
+		}
+		List<LiteralSet> composedClauses = new ArrayList<>(ownClauses.size());
+		for (final LiteralSet clause : ownClauses) {
+			composedClauses.add(clause.adapt(variables, composedVariables));
+		}
+		for (final ImportedCNF importedCNF : importedCNFs) {
+			final CNF slicedCNF = slice(importedCNF);
+			if (slicedCNF == null) {
+				composedClauses = null;
+				break;
+			}
+			final String prefix = importedCNF.alias + ".";
+			for (final LiteralSet clause : slicedCNF.getClauses()) {
+				final int[] literals = clause.getLiterals();
+				final int[] composedLiterals = new int[literals.length];
+				for (int i = 0; i < literals.length; i++) {
+					final int literal = literals[i];
+					composedLiterals[i] = composedVariables.getVariable(prefix + slicedCNF.getVariables().getName(Math.abs(literal)), literal > 0);
+				}
+				composedClauses.add(new LiteralSet(composedLiterals));
+			}
+		}
+		composedCNF = composedClauses == null ? null : new CNF(composedVariables, composedClauses);
+	}
+
+	private static int getPart(LiteralSet clause, int[] part) {
+		final int[] literals = clause.getLiterals();
+		if (literals.length == 0) {
+			return -1;
+		}
+		final int clausePart = part[Math.abs(literals[0])];
+		for (int i = 1; i < literals.length; i++) {
+			if (part[Math.abs(literals[i])] != clausePart) {
+				return -1;
+			}
+		}
+		return clausePart;
+	}
+
+	private static ImportedCNF createImportedCNF(String alias, int index, String[] names, int[] part, boolean[] interfaceVariable,
+			List<LiteralSet> clauses) {
+		final int prefixLength = alias.length() + 1;
+		final List<String> localNames = new ArrayList<>();
+		final Map<String, Integer> originalIndex = new HashMap<>();
+		for (int variable = 1; variable < names.length; variable++) {
+			if (part[variable] == index) {
+				final String localName = names[variable].substring(prefixLength);
+				localNames.add(localName);
+				originalIndex.put(localName, variable);
+			}
+		}
+		if (localNames.isEmpty()) {
+			return null;
+		}
+		Collections.sort(localNames);
+
+		final int[] originalVariables = new int[localNames.size() + 1];
+		final int[] localVariables = new int[names.length];
+		final List<String> interfaceVariables = new ArrayList<>();
+		for (int i = 0; i < localNames.size(); i++) {
+			final String localName = localNames.get(i);
+			final int variable = originalIndex.get(localName);
+			originalVariables[i + 1] = variable;
+			localVariables[variable] = i + 1;
+			if (interfaceVariable[variable]) {
+				interfaceVariables.add(localName);
+			}
+		}
+
+		final List<LiteralSet> localClauses = new ArrayList<>(clauses.size());
+		for (final LiteralSet clause : clauses) {
+			final int[] literals = clause.getLiterals();
+			final int[] localLiterals = new int[literals.length];
+			for (int i = 0; i < literals.length; i++) {
+				final int literal = literals[i];
+				final int variable = localVariables[Math.abs(literal)];
+				localLiterals[i] = literal > 0 ? variable : -variable;
+			}
+			localClauses.add(new LiteralSet(localLiterals));
+		}
+		return new ImportedCNF(alias, new CNF(new Variables(localNames), sort(localClauses)), originalVariables, interfaceVariables);
+	}
+
+	private static ClauseList sort(List<LiteralSet> clauses) {
+		Collections.sort(clauses);
+		final ClauseList sortedClauses = new ClauseList(clauses.size());
+		for (final LiteralSet clause : clauses) {
+			if (sortedClauses.isEmpty() || !sortedClauses.get(sortedClauses.size() - 1).equals(clause)) {
+				sortedClauses.add(clause);
+			}
+		}
+		return sortedClauses;
+	}
+
+	/**
+	 * Slices a CNF with a {@link CNFSlicer}, such that only the given variables remain.
+	 *
+	 * @param cnf the CNF
+	 * @param remainingVariables the names of the variables to keep
+	 * @return the sliced CNF with its own {@link Variables} or {@code null} if the CNF could not be sliced, e.g., because it is contradictory
+	 */
+	public static CNF slice(CNF cnf, Collection<String> remainingVariables) {
+		final List<String> removedVariables = new ArrayList<>(Arrays.asList(cnf.getVariables().getNames()).subList(1, cnf.getVariables().size() + 1));
+		removedVariables.removeAll(remainingVariables);
+		if (removedVariables.isEmpty()) {
+			return cnf;
+		}
+		final CNF slicedCNF = LongRunningWrapper.runMethod(new CNFSlicer(cnf, removedVariables));
+		return slicedCNF == null ? null : slicedCNF.normalize();
+	}
+
+	/**
+	 * Slices the CNF of an imported model to its interface. The result is cached.
+	 *
+	 * @param importedCNF the imported model
+	 * @return the sliced CNF, whose variables are named relative to the alias of the import, or {@code null} if the CNF could not be sliced
+	 */
+	public static CNF slice(ImportedCNF importedCNF) {
+		final List<Object> key = Arrays.<Object> asList(importedCNF.cnf, importedCNF.interfaceVariables);
+		CNF slicedCNF = slicedCNFs.get(key);
+		if (slicedCNF == null) {
+			slicedCNF = slice(importedCNF.cnf, importedCNF.interfaceVariables);
+			if (slicedCNF != null) {
+				slicedCNFs.put(key, slicedCNF);
+			}
+		}
+		return slicedCNF;
+	}
+
+	/**
+	 * @return the CNFs of all imported models that contain at least one variable
+	 */
+	public List<ImportedCNF> getImportedCNFs() {
+		return importedCNFs;
+	}
+
+	/**
+	 * @return the composed CNF, which contains the variables of the importing model and of all interfaces, or {@code null} if an imported model could not be
+	 *         sliced
+	 */
+	public CNF getComposedCNF() {
+		return composedCNF;
+	}
+
+	/**
+	 * Converts literals of the composed CNF into literals of the original CNF.
+	 *
+	 * @param literals literals of {@link #getComposedCNF()}
+	 * @return the corresponding literals of the original CNF
+	 */
+	public int[] convertToOriginal(int[] literals) {
+		final int[] originalLiterals = new int[literals.length];
+		for (int i = 0; i < literals.length; i++) {
+			final int literal = literals[i];
+			final int variable = originalVariables[Math.abs(literal)];
+			originalLiterals[i] = literal > 0 ? variable : -variable;
+		}
+		return originalLiterals;
+	}
+
+	/**
+	 * Restricts the CNF of an imported model by its context, i.e., by the composed CNF projected onto the interface of the imported model. The resulting CNF is
+	 * equivalent to the original CNF projected onto the variables of the imported model.
+	 *
+	 * @param importedCNF an imported model of this composition
+	 * @return the CNF of the imported model including the clauses of its context, using the same {@link Variables} as {@link ImportedCNF#getCNF()}, or
+	 *         {@code null} if the context could not be computed
+	 */
+	public CNF getImportedCNFInContext(ImportedCNF importedCNF) {
+		final String prefix = importedCNF.alias + ".";
+		final List<String> interfaceNames = new ArrayList<>(importedCNF.interfaceVariables.size());
+		for (final String name : importedCNF.interfaceVariables) {
+			interfaceNames.add(prefix + name);
+		}
+		final CNF context = slice(composedCNF, interfaceNames);
+		if (context == null) {
+			return null;
+		}
+		final Variables localVariables = importedCNF.cnf.getVariables();
+		final List<LiteralSet> clauses = new ArrayList<>(importedCNF.cnf.getClauses());
+		for (final LiteralSet clause : context.getClauses()) {
+			final int[] literals = clause.getLiterals();
+			final int[] localLiterals = new int[literals.length];
+			for (int i = 0; i < literals.length; i++) {
+				final int literal = literals[i];
+				localLiterals[i] = localVariables.getVariable(context.getVariables().getName(Math.abs(literal)).substring(prefix.length()), literal > 0);
+			}
+			clauses.add(new LiteralSet(localLiterals));
+		}
+		return new CNF(localVariables, sort(clauses));
+	}
+
+}
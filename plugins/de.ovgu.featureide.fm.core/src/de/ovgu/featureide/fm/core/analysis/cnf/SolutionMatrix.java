@@ -0,0 +1,423 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.cnf;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet.Order;
+
+/**
+ * Compact list of solutions that uses two bits per variable and solution instead of one int per literal.<br> Each solution is stored as a row of two bit
+ * planes, one for selected and one for deselected variables. Variables that are in neither plane are undefined. This allows coverage checks, distances,
+ * and statistics to be computed word by word.<br> <br> Elements returned by {@link #get(int)} are decoded on each call. Complete solutions are returned in
+ * {@link Order#INDEX index order}, partial solutions contain only the defined literals in ascending order of their variables.<br> <br> This class is not
+ * thread-safe.
+ *
+ * @see SolutionList
+ */
+public class SolutionMatrix extends AbstractList<LiteralSet> implements RandomAccess, Serializable {
+
+	private static final long serialVersionUID = -3316408215745958102L;
+
+	private int numberOfVariables;
+	private int wordsPerPlane;
+	private int wordsPerRow;
+
+	private long[] data;
+	private int size = 0;
+
+	public SolutionMatrix() {
+		this(0);
+	}
+
+	public SolutionMatrix(int numberOfVariables) {
+		setDimension(numberOfVariables);
+		data = new long[0];
+	}
+
+	public SolutionMatrix(int numberOfVariables, Collection<? extends LiteralSet> solutions) {
+		this(numberOfVariables);
+		ensureCapacity(solutions.size());
+		addAll(solutions);
+	}
+
+	private void setDimension(int numberOfVariables) {
+		if (numberOfVariables < 0) {
+			throw new IllegalArgumentException(Integer.toString(numberOfVariables));
+		}
+		this.numberOfVariables = numberOfVariables;
+		wordsPerPlane = (numberOfVariables + (Long.SIZE - 1)) / Long.SIZE;
+		wordsPerRow = wordsPerPlane << 1;
+	}
+
+	/**
+	 * Changes the number of variables. Only possible as long as the matrix is empty.
+	 *
+	 * @param numberOfVariables the new number of variables
+	 * @throws IllegalStateException if the matrix already contains solutions
+	 */
+	public void setNumberOfVariables(int numberOfVariables) {
+		if (size > 0) {
+			throw new IllegalStateException("Matrix is not empty");
+		}
+		setDimension(numberOfVariables);
+	}
+
+	public int getNumberOfVariables() {
+		return numberOfVariables;
+	}
+
+	public void ensureCapacity(int numberOfSolutions) {
+		final long requiredLength = (long) numberOfSolutions * wordsPerRow;
+		if (requiredLength > data.length) {
+			if (requiredLength > Integer.MAX_VALUE) {
+				throw new OutOfMemoryError();
+			}
+			final long grownLength = data.length + (data.length >> 1) + wordsPerRow;
+			data = Arrays.copyOf(data, (int) Math.min(Integer.MAX_VALUE, Math.max(requiredLength, grownLength)));
+		}
+	}
+
+	/**
+	 * Removes unused capacity.
+	 */
+	public void trimToSize() {
+		data = Arrays.copyOf(data, size * wordsPerRow);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public LiteralSet get(int row) {
+		checkIndex(row);
+		final int[] literals = new int[numberOfVariables];
+		int index = 0;
+		final int offset = row * wordsPerRow;
+		for (int variable = 1; variable <= numberOfVariables; variable++) {
+			final int word = offset + ((variable - 1) >>> 6);
+			final long mask = 1L << (variable - 1);
+			if ((data[word] & mask) != 0) {
+				literals[index++] = variable;
+			} else if ((data[word + wordsPerPlane] & mask) != 0) {
+				literals[index++] = -variable;
+			}
+		}
+		if (index == numberOfVariables) {
+			return new LiteralSet(literals, Order.INDEX, false);
+		} else {
+			return new LiteralSet(Arrays.copyOf(literals, index), Order.UNORDERED, false);
+		}
+	}
+
+	@Override
+	public void add(int row, LiteralSet solution) {
+		if ((row < 0) || (row > size)) {
+			throw new IndexOutOfBoundsException(Integer.toString(row));
+		}
+		ensureCapacity(size + 1);
+		if (row < size) {
+			System.arraycopy(data, row * wordsPerRow, data, (row + 1) * wordsPerRow, (size - row) * wordsPerRow);
+		}
+		size++;
+		modCount++;
+		pack(solution, data, row * wordsPerRow);
+	}
+
+	/**
+	 * Appends a new solution in which all variables are undefined.
+	 *
+	 * @return the index of the new solution
+	 *
+	 * @see #setLiteral(int, int)
+	 */
+	public int addEmpty() {
+		ensureCapacity(size + 1);
+		Arrays.fill(data, size * wordsPerRow, (size + 1) * wordsPerRow, 0L);
+		modCount++;
+		return size++;
+	}
+
+	@Override
+	public LiteralSet set(int row, LiteralSet solution) {
+		final LiteralSet oldSolution = get(row);
+		pack(solution, data, row * wordsPerRow);
+		return oldSolution;
+	}
+
+	@Override
+	public LiteralSet remove(int row) {
+		final LiteralSet oldSolution = get(row);
+		System.arraycopy(data, (row + 1) * wordsPerRow, data, row * wordsPerRow, (size - row - 1) * wordsPerRow);
+		size--;
+		modCount++;
+		return oldSolution;
+	}
+
+	@Override
+	public void clear() {
+		size = 0;
+		modCount++;
+	}
+
+	/**
+	 * @param row the index of the solution
+	 * @param variable the variable
+	 * @return {@code variable} if selected, {@code -variable} if deselected, and {@code 0} if undefined
+	 */
+	public int getLiteral(int row, int variable) {
+		checkIndex(row);
+		checkVariable(variable);
+		final int word = (row * wordsPerRow) + ((variable - 1) >>> 6);
+		final long mask = 1L << (variable - 1);
+		return ((data[word] & mask) != 0) ? variable : ((data[word + wordsPerPlane] & mask) != 0) ? -variable : 0;
+	}
+
+	/**
+	 * Sets the selection of a single variable.
+	 *
+	 * @param row the index of the solution
+	 * @param literal a positive literal selects, a negative literal deselects its variable
+	 */
+	public void setLiteral(int row, int literal) {
+		checkIndex(row);
+		final int variable = Math.abs(literal);
+		checkVariable(variable);
+		final int word = (row * wordsPerRow) + ((variable - 1) >>> 6);
+		final long mask = 1L << (variable - 1);
+		if (literal > 0) {
+			data[word] |= mask;
+			data[word + wordsPerPlane] &= ~mask;
+		} else {
+			data[word] &= ~mask;
+			data[word + wordsPerPlane] |= mask;
+		}
+	}
+
+	public boolean contains(int row, int literal) {
+		final int variable = Math.abs(literal);
+		return (variable > 0) && (variable <= numberOfVariables) && (getLiteral(row, variable) == literal);
+	}
+
+	public boolean containsAll(int row, LiteralSet literals) {
+		checkIndex(row);
+		final int offset = row * wordsPerRow;
+		for (final int literal : literals.getLiterals()) {
+			final int variable = Math.abs(literal);
+			if ((variable == 0) || (variable > numberOfVariables)) {
+				return false;
+			}
+			final int word = offset + ((variable - 1) >>> 6) + (literal > 0 ? 0 : wordsPerPlane);
+			if ((data[word] & (1L << (variable - 1))) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Converts a solution into the internal representation of a row.
+	 *
+	 * @param solution the solution
+	 * @return a new array that can be passed to {@link #getDistance(int, long[])}
+	 */
+	public long[] pack(LiteralSet solution) {
+		final long[] packedSolution = new long[wordsPerRow];
+		pack(solution, packedSolution, 0);
+		return packedSolution;
+	}
+
+	private void pack(LiteralSet solution, long[] target, int offset) {
+		Arrays.fill(target, offset, offset + wordsPerRow, 0L);
+		for (final int literal : solution.getLiterals()) {
+			if (literal != 0) {
+				final int variable = Math.abs(literal);
+				checkVariable(variable);
+				target[offset + ((variable - 1) >>> 6) + (literal > 0 ? 0 : wordsPerPlane)] |= 1L << (variable - 1);
+			}
+		}
+	}
+
+	/**
+	 * Computes the number of variables with a different selection in two solutions. Undefined differs from both, selected and deselected.
+	 *
+	 * @param rowA the index of the first solution
+	 * @param rowB the index of the second solution
+	 * @return the hamming distance of both solutions
+	 */
+	public int getDistance(int rowA, int rowB) {
+		checkIndex(rowA);
+		checkIndex(rowB);
+		return getDistance(data, rowA * wordsPerRow, data, rowB * wordsPerRow);
+	}
+
+	/**
+	 * Computes the number of variables with a different selection in a stored solution and a {@link #pack(LiteralSet) packed} solution.
+	 *
+	 * @param row the index of the stored solution
+	 * @param packedSolution the other solution
+	 * @return the hamming distance of both solutions
+	 *
+	 * @see #getDistance(int, int)
+	 */
+	public int getDistance(int row, long[] packedSolution) {
+		checkIndex(row);
+		return getDistance(data, row * wordsPerRow, packedSolution, 0);
+	}
+
+	private int getDistance(long[] dataA, int offsetA, long[] dataB, int offsetB) {
+		int distance = 0;
+		for (int i = 0; i < wordsPerPlane; i++) {
+			final long positiveDiff = dataA[offsetA + i] ^ dataB[offsetB + i];
+			final long negativeDiff = dataA[offsetA + i + wordsPerPlane] ^ dataB[offsetB + i + wordsPerPlane];
+			distance += Long.bitCount(positiveDiff | negativeDiff);
+		}
+		return distance;
+	}
+
+	public int countSelected(int row) {
+		checkIndex(row);
+		return countBits(row * wordsPerRow);
+	}
+
+	public int countDeselected(int row) {
+		checkIndex(row);
+		return countBits((row * wordsPerRow) + wordsPerPlane);
+	}
+
+	public int countUndefined(int row) {
+		return numberOfVariables - countSelected(row) - countDeselected(row);
+	}
+
+	private int countBits(int offset) {
+		int count = 0;
+		for (int i = offset, end = offset + wordsPerPlane; i < end; i++) {
+			count += Long.bitCount(data[i]);
+		}
+		return count;
+	}
+
+	/**
+	 * Computes the column of a literal as bit set over all solutions. Bit {@code i} of the result (i.e., {@code (column[i >>> 6] >>> i) & 1}) is set, iff
+	 * the solution at index {@code i} contains the literal.
+	 *
+	 * @param literal the literal
+	 * @return a new array with {@code ceil(size() / 64)} elements
+	 */
+	public long[] getColumn(int literal) {
+		final int variable = Math.abs(literal);
+		checkVariable(variable);
+		final long[] column = new long[(size + (Long.SIZE - 1)) / Long.SIZE];
+		final long mask = 1L << (variable - 1);
+		int word = ((variable - 1) >>> 6) + (literal > 0 ? 0 : wordsPerPlane);
+		for (int row = 0; row < size; row++, word += wordsPerRow) {
+			if ((data[word] & mask) != 0) {
+				column[row >>> 6] |= 1L << row;
+			}
+		}
+		return column;
+	}
+
+	/**
+	 * Computes for each variable the number of solutions in which it is selected.
+	 *
+	 * @return an array with {@code getNumberOfVariables() + 1} elements, indexed by variable
+	 */
+	public int[] countSelections() {
+		return countPlane(0);
+	}
+
+	/**
+	 * Computes for each variable the number of solutions in which it is deselected.
+	 *
+	 * @return an array with {@code getNumberOfVariables() + 1} elements, indexed by variable
+	 */
+	public int[] countDeselections() {
+		return countPlane(wordsPerPlane);
+	}
+
+	private int[] countPlane(int planeOffset) {
+		final int[] counts = new int[numberOfVariables + 1];
+		for (int row = 0; row < size; row++) {
+			final int offset = (row * wordsPerRow) + planeOffset;
+			for (int i = 0; i < wordsPerPlane; i++) {
+				long word = data[offset + i];
+				while (word != 0) {
+					counts[(i << 6) + Long.numberOfTrailingZeros(word) + 1]++;
+					word &= word - 1;
+				}
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * Transposes up to 64 consecutive solutions into bit sets over these solutions. Afterwards, bit {@code i} of {@code selected[variable]} is set, iff the
+	 * solution at index {@code fromRow + i} selects the variable, and bit {@code i} of {@code deselected[variable]} is set, iff it deselects the variable.
+	 *
+	 * @param fromRow the index of the first solution
+	 * @param selected an array with at least {@code getNumberOfVariables() + 1} elements, which is overwritten
+	 * @param deselected an array with at least {@code getNumberOfVariables() + 1} elements, which is overwritten
+	 * @return the number of transposed solutions
+	 */
+	public int transpose(int fromRow, long[] selected, long[] deselected) {
+		checkIndex(fromRow);
+		final int count = Math.min(Long.SIZE, size - fromRow);
+		Arrays.fill(selected, 0, numberOfVariables + 1, 0L);
+		Arrays.fill(deselected, 0, numberOfVariables + 1, 0L);
+		for (int i = 0; i < count; i++) {
+			final int offset = (fromRow + i) * wordsPerRow;
+			final long bit = 1L << i;
+			for (int j = 0; j < wordsPerPlane; j++) {
+				long word = data[offset + j];
+				while (word != 0) {
+					selected[(j << 6) + Long.numberOfTrailingZeros(word) + 1] |= bit;
+					word &= word - 1;
+				}
+				word = data[offset + wordsPerPlane + j];
+				while (word != 0) {
+					deselected[(j << 6) + Long.numberOfTrailingZeros(word) + 1] |= bit;
+					word &= word - 1;
+				}
+			}
+		}
+		return count;
+	}
+
+	private void checkIndex(int row) {
+		if ((row < 0) || (row >= size)) {
+			throw new IndexOutOfBoundsException(Integer.toString(row));
+		}
+	}
+
+	private void checkVariable(int variable) {
+		if ((variable <= 0) || (variable > numberOfVariables)) {
+			throw new IllegalArgumentException("Unknown variable " + variable);
+		}
+	}
+
+}
@@ -0,0 +1,252 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.cnf;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bounded store of satisfying assignments of a {@link CNF}, which can be shared by all analyses on this formula.<br> <br> Solutions are stored column-wise:
+ * for each variable there is a bit set over all slots of the repository, in which a bit is set if the solution in this slot selects the variable. Thus, the
+ * question whether any known solution contains a given set of literals is answered by combining the bit sets of these literals word by word. Analyses use this
+ * to refute candidates without calling a solver (e.g., if some known solution contains <code>-x</code>, <code>x</code> cannot be a core feature).<br> <br> If
+ * the repository is full, new solutions replace the oldest ones. Duplicates are not stored. All methods are thread-safe.
+ *
+ * @see de.ovgu.featureide.fm.core.analysis.cnf.formula.SolutionRepositoryCreator
+ */
+public class SolutionRepository {
+
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	private final CNF cnf;
+	private final int numberOfVariables;
+	private final int capacity;
+	private final int words;
+
+	/**
+	 * For each variable, the slots of all solutions that select this variable.
+	 */
+	private final long[][] selected;
+	/**
+	 * The slots that contain a solution.
+	 */
+	private final long[] occupied;
+
+	private int nextSlot = 0;
+	private int size = 0;
+
+	public SolutionRepository(CNF cnf) {
+		this(cnf, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param cnf the formula that all added solutions satisfy
+	 * @param capacity the maximum number of solutions
+	 */
+	public SolutionRepository(CNF cnf, int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException(Integer.toString(capacity));
+		}
+		this.cnf = cnf;
+		this.capacity = capacity;
+		numberOfVariables = cnf.getVariables().maxVariableID();
+		words = (capacity + (Long.SIZE - 1)) / Long.SIZE;
+		selected = new long[numberOfVariables][words];
+		occupied = new long[words];
+	}
+
+	/**
+	 * Adds a solution to this repository. Only complete solutions in {@link LiteralSet.Order#INDEX index order} are accepted.
+	 *
+	 * @param solution a satisfying assignment of the formula of this repository
+	 * @return {@code true} if the solution was added, {@code false} if it is already contained or incomplete
+	 */
+	public boolean add(int[] solution) {
+		if ((solution == null) || (solution.length != numberOfVariables)) {
+			return false;
+		}
+		for (int i = 0; i < solution.length; i++) {
+			if (Math.abs(solution[i]) != (i + 1)) {
+				return false;
+			}
+		}
+		lock.writeLock().lock();
+		try {
+			if (findSlot(solution) >= 0) {
+				return false;
+			}
+			final int slot = nextSlot;
+			final int word = slot / Long.SIZE;
+			final long mask = 1L << (slot % Long.SIZE);
+			for (int i = 0; i < solution.length; i++) {
+				if (solution[i] > 0) {
+					selected[i][word] |= mask;
+				} else {
+					selected[i][word] &= ~mask;
+				}
+			}
+			occupied[word] |= mask;
+			nextSlot = (slot + 1) % capacity;
+			if (size < capacity) {
+				size++;
+			}
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Searches for a known solution that contains all given literals.
+	 *
+	 * @param literals the literals the solution must contain
+	 * @return a copy of a solution in {@link LiteralSet.Order#INDEX index order} or {@code null} if there is no such solution
+	 */
+	public int[] getSolution(int... literals) {
+		lock.readLock().lock();
+		try {
+			final int slot = findSlot(literals);
+			if (slot < 0) {
+				misses.increment();
+				return null;
+			}
+			hits.increment();
+			final int word = slot / Long.SIZE;
+			final long mask = 1L << (slot % Long.SIZE);
+			final int[] solution = new int[numberOfVariables];
+			for (int i = 0; i < numberOfVariables; i++) {
+				solution[i] = (selected[i][word] & mask) != 0 ? i + 1 : -(i + 1);
+			}
+			return solution;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Checks whether any known solution contains all given literals.
+	 *
+	 * @param literals the literals the solution must contain
+	 * @return {@code true} if there is such a solution
+	 */
+	public boolean containsSolution(int... literals) {
+		lock.readLock().lock();
+		try {
+			if (findSlot(literals) < 0) {
+				misses.increment();
+				return false;
+			}
+			hits.increment();
+			return true;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private int findSlot(int[] literals) {
+		for (int word = 0; word < words; word++) {
+			long slots = occupied[word];
+			for (int i = 0; (slots != 0) && (i < literals.length); i++) {
+				final int literal = literals[i];
+				if (literal != 0) {
+					final int index = Math.abs(literal) - 1;
+					if (index >= numberOfVariables) {
+						return -1;
+					}
+					slots &= literal > 0 ? selected[index][word] : ~selected[index][word];
+				}
+			}
+			if (slots != 0) {
+				return (word * Long.SIZE) + Long.numberOfTrailingZeros(slots);
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Removes all solutions. Does not reset the {@link #getHits() hit} and {@link #getMisses() miss} counters.
+	 */
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			for (final long[] slots : selected) {
+				Arrays.fill(slots, 0);
+			}
+			Arrays.fill(occupied, 0);
+			nextSlot = 0;
+			size = 0;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public CNF getCNF() {
+		return cnf;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return size;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the number of queries that were answered by a known solution
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return the number of queries that could not be answered by a known solution
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return the ratio of {@link #getHits() hits} to all queries, or 0 if there were no queries yet
+	 */
+	public double getHitRate() {
+		final long h = hits.sum();
+		final long total = h + misses.sum();
+		return total == 0 ? 0 : (double) h / total;
+	}
+
+	@Override
+	public String toString() {
+		return "SolutionRepository [size=" + size() + ", capacity=" + capacity + ", hits=" + getHits() + ", misses=" + getMisses() + "]";
+	}
+
+}
@@ -0,0 +1,245 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.cnf;
+
+import java.util.Arrays;
+import java.util.List;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.AdvancedSatSolver;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.ISimpleSatSolver.SatResult;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.RuntimeContradictionException;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor.MethodCancelException;
+
+/**
+ * Checks whether solutions can be valid with respect to a {@link CNF}.<br> <br> A complete solution, i.e., one that defines every variable of the CNF, is
+ * valid iff it satisfies every clause. Thus, complete solutions are evaluated directly against the clauses without a sat solver. Lists of solutions are
+ * evaluated 64 at a time, such that a single operation on a {@code long} evaluates a literal for 64 solutions (bit {@code i} of a word belongs to the
+ * {@code i}-th solution of the current block).<br> A partial solution is valid, if it can be completed to a valid solution. This is decided by a sat solver,
+ * which is only created for the first partial solution.<br> <br> Literals of variables that do not belong to the CNF are ignored. A solution that contains
+ * a literal and its complement is never valid. A sat solver that reaches its timeout results in an invalid solution, as for
+ * {@link de.ovgu.featureide.fm.core.configuration.ConfigurationPropagator#isValid()}.<br> <br> This class is not thread-safe.
+ */
+public class SolutionValidator {
+
+	private final CNF cnf;
+	private final int numberOfVariables;
+	private final int[][] clauses;
+
+	private AdvancedSatSolver solver = null;
+	private boolean contradictory = false;
+
+	private long[] selected;
+	private long[] deselected;
+
+	public SolutionValidator(CNF cnf) {
+		this.cnf = cnf;
+		numberOfVariables = cnf.getVariables().size();
+		final List<LiteralSet> clauseList = cnf.getClauses();
+		clauses = new int[clauseList.size()][];
+		int index = 0;
+		for (final LiteralSet clause : clauseList) {
+			clauses[index++] = clause.getLiterals();
+		}
+	}
+
+	public CNF getCNF() {
+		return cnf;
+	}
+
+	/**
+	 * Checks a single solution.
+	 *
+	 * @param solution a solution with the variables of the CNF
+	 * @return {@code true} if the solution satisfies all clauses or, if it is partial, can be completed to such a solution
+	 */
+	public boolean isValid(LiteralSet solution) {
+		final byte[] assignment = new byte[numberOfVariables + 1];
+		int definedVariables = 0;
+		for (final int literal : solution.getLiterals()) {
+			final int variable = Math.abs(literal);
+			if ((variable > 0) && (variable <= numberOfVariables)) {
+				final byte value = literal > 0 ? (byte) 1 : (byte) -1;
+				if (assignment[variable] == 0) {
+					assignment[variable] = value;
+					definedVariables++;
+				} else if (assignment[variable] != value) {
+					return false;
+				}
+			}
+		}
+		if (definedVariables < numberOfVariables) {
+			return hasSolution(solution);
+		}
+		clauseLoop: for (final int[] clause : clauses) {
+			for (final int literal : clause) {
+				if ((literal > 0) == (assignment[Math.abs(literal)] > 0)) {
+					continue clauseLoop;
+				}
+			}
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Checks a list of solutions. Solutions that are stored in a {@link SolutionMatrix} for the variables of the CNF are read word by word.
+	 *
+	 * @param solutions solutions with the variables of the CNF
+	 * @param monitor the monitor, which is notified for each block of 64 solutions
+	 * @return for each solution, whether it is {@link #isValid(LiteralSet) valid}
+	 * @throws MethodCancelException if the monitor was canceled
+	 */
+	public boolean[] isValid(List<LiteralSet> solutions, IMonitor<?> monitor) throws MethodCancelException {
+		final boolean[] result = new boolean[solutions.size()];
+		if ((selected == null) || (selected.length <= numberOfVariables)) {
+			selected = new long[numberOfVariables + 1];
+			deselected = new long[numberOfVariables + 1];
+		}
+		final SolutionMatrix matrix = ((solutions instanceof SolutionMatrix) && (((SolutionMatrix) solutions).getNumberOfVariables() == numberOfVariables))
+			? (SolutionMatrix) solutions : null;
+
+		monitor.setRemainingWork((solutions.size() + (Long.SIZE - 1)) / Long.SIZE);
+		for (int fromRow = 0; fromRow < solutions.size(); fromRow += Long.SIZE) {
+			final int count = matrix != null ? matrix.transpose(fromRow, selected, deselected) : transpose(solutions, fromRow);
+			final long rows = count == Long.SIZE ? -1L : (1L << count) - 1;
+
+			long complete = rows;
+			long consistent = rows;
+			for (int variable = 1; variable <= numberOfVariables; variable++) {
+				complete &= selected[variable] | deselected[variable];
+				consistent &= ~(selected[variable] & deselected[variable]);
+			}
+			final long valid = evaluate(complete & consistent);
+			for (int i = 0; i < count; i++) {
+				final long bit = 1L << i;
+				if ((consistent & bit) == 0) {
+					result[fromRow + i] = false;
+				} else if ((complete & bit) != 0) {
+					result[fromRow + i] = (valid & bit) != 0;
+				} else {
+					result[fromRow + i] = hasSolution(solutions.get(fromRow + i));
+				}
+			}
+			monitor.step();
+		}
+		return result;
+	}
+
+	/**
+	 * Checks a list of solutions whose variables may differ from the variables of the CNF. Variables are identified by their names. Variables of the CNF
+	 * that are not part of the list are undefined, variables of the list that are not part of the CNF are ignored.
+	 *
+	 * @param solutionList the solutions and their variables
+	 * @param monitor the monitor, which is notified for each block of 64 solutions
+	 * @return for each solution, whether it is {@link #isValid(LiteralSet) valid}
+	 * @throws MethodCancelException if the monitor was canceled
+	 */
+	public boolean[] isValid(SolutionList solutionList, IMonitor<?> monitor) throws MethodCancelException {
+		final Variables variables = solutionList.getVariables();
+		final List<LiteralSet> solutions = solutionList.getSolutions();
+		if ((variables == null) || Arrays.equals(variables.getNames(), cnf.getVariables().getNames())) {
+			return isValid(solutions, monitor);
+		}
+		final int[] mapping = new int[variables.size() + 1];
+		for (int i = 1; i < mapping.length; i++) {
+			mapping[i] = cnf.getVariables().getVariable(variables.getName(i));
+		}
+		final SolutionMatrix adaptedSolutions = new SolutionMatrix(numberOfVariables);
+		adaptedSolutions.ensureCapacity(solutions.size());
+		for (final LiteralSet solution : solutions) {
+			final int row = adaptedSolutions.addEmpty();
+			for (final int literal : solution.getLiterals()) {
+				final int variable = Math.abs(literal);
+				if ((variable < mapping.length) && (mapping[variable] != 0)) {
+					adaptedSolutions.setLiteral(row, literal > 0 ? mapping[variable] : -mapping[variable]);
+				}
+			}
+		}
+		return isValid(adaptedSolutions, monitor);
+	}
+
+	private int transpose(List<LiteralSet> solutions, int fromRow) {
+		final int count = Math.min(Long.SIZE, solutions.size() - fromRow);
+		Arrays.fill(selected, 0L);
+		Arrays.fill(deselected, 0L);
+		for (int i = 0; i < count; i++) {
+			final long bit = 1L << i;
+			for (final int literal : solutions.get(fromRow + i).getLiterals()) {
+				if (literal > 0) {
+					if (literal <= numberOfVariables) {
+						selected[literal] |= bit;
+					}
+				} else if ((literal < 0) && (-literal <= numberOfVariables)) {
+					deselected[-literal] |= bit;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Evaluates all clauses for the current block of solutions.
+	 *
+	 * @param rows the complete solutions of the block
+	 * @return the solutions that satisfy all clauses
+	 */
+	private long evaluate(long rows) {
+		long valid = rows;
+		for (int i = 0; (i < clauses.length) && (valid != 0); i++) {
+			long satisfied = 0;
+			for (final int literal : clauses[i]) {
+				satisfied |= literal > 0 ? selected[literal] : deselected[-literal];
+			}
+			valid &= satisfied;
+		}
+		return valid;
+	}
+
+	private boolean hasSolution(LiteralSet solution) {
+		if (solver == null) {
+			if (contradictory) {
+				return false;
+			}
+			try {
+				solver = new AdvancedSatSolver(cnf);
+			} catch (final RuntimeContradictionException e) {
+				contradictory = true;
+				return false;
+			}
+		}
+		final int[] literals = solution.getLiterals();
+		final int[] assumptions = new int[literals.length];
+		int index = 0;
+		for (final int literal : literals) {
+			if ((literal != 0) && (Math.abs(literal) <= numberOfVariables)) {
+				assumptions[index++] = literal;
+			}
+		}
+		solver.assignmentPushAll(Arrays.copyOf(assumptions, index));
+		try {
+			return solver.hasSolution() == SatResult.TRUE;
+		} finally {
+			solver.assignmentClear(0);
+		}
+	}
+
+}
@@ -20,10 +20,14 @@
  */
 package de.ovgu.featureide.fm.core.analysis.cnf.analysis;
 
+import static de.ovgu.featureide.fm.core.localization.StringTable.KNOWN_SOLUTIONS_D_OF_D_QUERIES_ANSWERED_D_STORED;
+
+import java.util.Arrays;
 import java.util.Random;
 
 import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
 import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.SolutionRepository;
 import de.ovgu.featureide.fm.core.analysis.cnf.solver.AdvancedSatSolver;
 import de.ovgu.featureide.fm.core.analysis.cnf.solver.ISatSolver;
 import de.ovgu.featureide.fm.core.analysis.cnf.solver.RuntimeContradictionException;
@@ -43,6 +47,10 @@ public abstract class AbstractAnalysis<T> implements IAnalysis<T> {
 
 	protected LiteralSet assumptions = null;
 
+	private SolutionRepository solutionRepository = null;
+	private int repositoryQueries = 0;
+	private int repositoryHits = 0;
+
 	private Random random = new Random(112358);
 
 	private boolean timeoutOccured = false;
@@ -67,6 +75,33 @@ public abstract class AbstractAnalysis<T> implements IAnalysis<T> {
 		this.solver = solver;
 	}
 
+	/**
+	 * @return the solver of this analysis, or <code>null</code> if the formula is contradictory
+	 */
+	public ISatSolver getSolver() {
+		return solver;
+	}
+
+	/**
+	 * @return the repository of known solutions, or <code>null</code> if this analysis does not share its solutions
+	 */
+	public SolutionRepository getSolutionRepository() {
+		return solutionRepository;
+	}
+
+	/**
+	 * Sets a repository of known solutions, which the analysis consults before calling the solver and to which it adds any solution it finds.
+	 *
+	 * @param solutionRepository a repository for the same {@link CNF} as the solver of this analysis, or <code>null</code>
+	 * @throws IllegalArgumentException if the repository belongs to a different {@link CNF}
+	 */
+	public void setSolutionRepository(SolutionRepository solutionRepository) {
+		if ((solutionRepository != null) && (solver != null) && (solutionRepository.getCNF() != solver.getSatInstance())) {
+			throw new IllegalArgumentException("Solution repository belongs to a different formula");
+		}
+		this.solutionRepository = solutionRepository;
+	}
+
 	@Override
 	public final T execute(IMonitor<T> monitor) throws Exception {
 		if (solver == null) {
@@ -78,6 +113,8 @@ public abstract class AbstractAnalysis<T> implements IAnalysis<T> {
 		}
 		assumptions = new LiteralSet(solver.getAssignmentArray());
 		timeoutOccured = false;
+		repositoryQueries = 0;
+		repositoryHits = 0;
 
 		monitor.checkCancel();
 		try {
@@ -87,6 +124,43 @@ public abstract class AbstractAnalysis<T> implements IAnalysis<T> {
 			throw e;
 		} finally {
 			solver.assignmentClear(0);
+			if (repositoryQueries > 0) {
+				monitor.setTaskName(String.format(KNOWN_SOLUTIONS_D_OF_D_QUERIES_ANSWERED_D_STORED, repositoryHits, repositoryQueries,
+						solutionRepository.size()));
+			}
+		}
+	}
+
+	/**
+	 * Searches the {@link #getSolutionRepository() solution repository} for a solution that satisfies the {@link #getAssumptions() assumptions} and the given
+	 * literals.
+	 *
+	 * @param literals additional literals the solution must contain
+	 * @return a known solution or <code>null</code> if there is no such solution or no repository
+	 */
+	protected final int[] getKnownSolution(int... literals) {
+		if (solutionRepository == null) {
+			return null;
+		}
+		final int[] assumedLiterals = assumptions.getLiterals();
+		final int[] query = Arrays.copyOf(assumedLiterals, assumedLiterals.length + literals.length);
+		System.arraycopy(literals, 0, query, assumedLiterals.length, literals.length);
+		final int[] solution = solutionRepository.getSolution(query);
+		repositoryQueries++;
+		if (solution != null) {
+			repositoryHits++;
+		}
+		return solution;
+	}
+
+	/**
+	 * Adds a solution of the solver to the {@link #getSolutionRepository() solution repository}, if there is one.
+	 *
+	 * @param solution a solution returned by the solver
+	 */
+	protected final void addKnownSolution(int[] solution) {
+		if (solutionRepository != null) {
+			solutionRepository.add(solution);
 		}
 	}
 
@@ -55,8 +55,10 @@ public class AtomicSetAnalysis extends AVariableAnalysis<List<LiteralSet>> {
 		solver.useSolutionList(1000);
 
 		if (model1 != null) {
+			addKnownSolution(model1);
 			solver.setSelectionStrategy(SelectionStrategy.NEGATIVE);
 			final int[] model2 = solver.findSolution();
+			addKnownSolution(model2);
 			solver.setSelectionStrategy(SelectionStrategy.POSITIVE);
 
 			final byte[] done = new byte[model1.length];
@@ -67,6 +69,11 @@ public class AtomicSetAnalysis extends AVariableAnalysis<List<LiteralSet>> {
 			for (int i = 0; i < model1Copy.length; i++) {
 				final int varX = model1Copy[i];
 				if (varX != 0) {
+					final int[] knownSolution = getKnownSolution(-varX);
+					if (knownSolution != null) {
+						LiteralSet.resetConflicts(model1Copy, knownSolution);
+						continue;
+					}
 					solver.assignmentPush(-varX);
 					switch (solver.hasSolution()) {
 					case FALSE:
@@ -79,7 +86,9 @@ public class AtomicSetAnalysis extends AVariableAnalysis<List<LiteralSet>> {
 						break;
 					case TRUE:
 						solver.assignmentPop();
-						LiteralSet.resetConflicts(model1Copy, solver.getSolution());
+						final int[] solution = solver.getSolution();
+						addKnownSolution(solution);
+						LiteralSet.resetConflicts(model1Copy, solution);
 						solver.shuffleOrder(getRandom());
 						break;
 					}
@@ -113,6 +122,12 @@ public class AtomicSetAnalysis extends AVariableAnalysis<List<LiteralSet>> {
 								}
 							}
 
+							final int[] knownSolution = getKnownSolution(mx0, -my0);
+							if (knownSolution != null) {
+								LiteralSet.resetConflicts(xModel0, knownSolution);
+								continue inner;
+							}
+
 							solver.assignmentPush(-my0);
 
 							switch (solver.hasSolution()) {
@@ -123,7 +138,9 @@ public class AtomicSetAnalysis extends AVariableAnalysis<List<LiteralSet>> {
 								reportTimeout();
 								break;
 							case TRUE:
-								LiteralSet.resetConflicts(xModel0, solver.getSolution());
+								final int[] solution = solver.getSolution();
+								addKnownSolution(solution);
+								LiteralSet.resetConflicts(xModel0, solution);
 								solver.shuffleOrder(getRandom());
 								break;
 							}
@@ -0,0 +1,531 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.cnf.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.ISatSolver;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.ISatSolver.SelectionStrategy;
+import de.ovgu.featureide.fm.core.analysis.mig.MIGUtils;
+import de.ovgu.featureide.fm.core.analysis.mig.ModalImplicationGraph;
+import de.ovgu.featureide.fm.core.analysis.mig.Vertex;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+
+/**
+ * Finds atomic sets using a {@link ModalImplicationGraph modal implication graph}. Returns the same result as {@link AtomicSetAnalysis}: the first set
+ * contains all core and dead literals, each following set contains the literals of one atomic set.<br> <br> Literals in the same strongly connected component
+ * of the strong edges are equivalent and form an atomic set without any solver call. Only components that may be equivalent due to complex clauses are checked
+ * with the solver. To this end, the components are grouped by their values in a sample of solutions, as equivalent literals agree in every solution. The
+ * groups are independent of each other and are checked in parallel if a {@link #setParallelism(int) parallelism} greater than one is set.<br> <br> Without a
+ * graph, all literals are checked with the solver. A graph is only used to find core and dead features if there are no {@link #getAssumptions()
+ * assumptions}.
+ *
+ * @see AtomicSetAnalysis
+ */
+public class AtomicSetAnalysisMIG extends AbstractAnalysis<List<LiteralSet>> {
+
+	private static final int SAMPLE_SIZE = Long.SIZE;
+
+	private ModalImplicationGraph mig;
+	private int parallelism = 1;
+
+	private int numberOfVariables;
+	private int[] fixed;
+	private int[] model1;
+	private int[] component;
+	private int[][] componentMembers;
+	private int componentCount;
+
+	public AtomicSetAnalysisMIG(ISatSolver solver) {
+		this(solver, null);
+	}
+
+	public AtomicSetAnalysisMIG(CNF satInstance) {
+		this(satInstance, null);
+	}
+
+	public AtomicSetAnalysisMIG(ISatSolver solver, ModalImplicationGraph mig) {
+		super(solver);
+		this.mig = mig;
+	}
+
+	public AtomicSetAnalysisMIG(CNF satInstance, ModalImplicationGraph mig) {
+		super(satInstance);
+		this.mig = mig;
+	}
+
+	@Override
+	public List<LiteralSet> analyze(IMonitor<List<LiteralSet>> monitor) throws Exception {
+		final List<LiteralSet> result = new ArrayList<>();
+
+		solver.setSelectionStrategy(SelectionStrategy.POSITIVE);
+		model1 = solver.findSolution();
+		if (model1 == null) {
+			return result;
+		}
+		solver.setSelectionStrategy(SelectionStrategy.NEGATIVE);
+		final int[] model2 = solver.findSolution();
+		numberOfVariables = model1.length;
+		final boolean useGraph = (mig != null) && (mig.getAdjList().size() == (numberOfVariables << 1));
+
+		findCoreDead(model2, useGraph);
+		result.add(new LiteralSet(solver.getAssignmentArray(0, solver.getAssignmentSize())));
+		monitor.checkCancel();
+
+		findComponents(useGraph);
+		final int[] canonicalLiteral = getCanonicalLiterals();
+		final List<int[]> groups = groupBySample(canonicalLiteral, model2);
+		monitor.checkCancel();
+
+		final List<List<int[]>> atomicSets = verify(groups, useGraph, monitor);
+
+		final List<int[]> sets = new ArrayList<>();
+		for (final List<int[]> groupSets : atomicSets) {
+			sets.addAll(groupSets);
+		}
+		sets.sort((a, b) -> getSmallestVariable(a) - getSmallestVariable(b));
+		for (final int[] set : sets) {
+			result.add(new LiteralSet(set));
+		}
+		return result;
+	}
+
+	private void findCoreDead(int[] model2, boolean useGraph) {
+		fixed = new int[numberOfVariables];
+		for (final int literal : solver.getAssignmentArray()) {
+			fixed[Math.abs(literal) - 1] = literal;
+		}
+		if (useGraph) {
+			for (final Vertex vertex : mig.getAdjList()) {
+				final int literal = vertex.getVar();
+				if (vertex.isCore() && (fixed[Math.abs(literal) - 1] == 0)) {
+					fixed[Math.abs(literal) - 1] = literal;
+					solver.assignmentPush(literal);
+				}
+			}
+		}
+		// the graph does not consider any assumptions
+		if (!useGraph || !assumptions.isEmpty()) {
+			final int[] model1Copy = Arrays.copyOf(model1, model1.length);
+			LiteralSet.resetConflicts(model1Copy, model2);
+			for (int i = 0; i < model1Copy.length; i++) {
+				final int varX = model1Copy[i];
+				if ((varX != 0) && (fixed[i] == 0)) {
+					solver.assignmentPush(-varX);
+					switch (solver.hasSolution()) {
+					case FALSE:
+						fixed[i] = varX;
+						solver.assignmentReplaceLast(varX);
+						break;
+					case TIMEOUT:
+						solver.assignmentPop();
+						reportTimeout();
+						break;
+					case TRUE:
+						solver.assignmentPop();
+						LiteralSet.resetConflicts(model1Copy, solver.getSolution());
+						solver.shuffleOrder(getRandom());
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	private static int getSmallestVariable(int[] literals) {
+		int min = Integer.MAX_VALUE;
+		for (final int literal : literals) {
+			min = Math.min(min, Math.abs(literal));
+		}
+		return min;
+	}
+
+	private static int index(int literal) {
+		return ((Math.abs(literal) - 1) << 1) + (literal < 0 ? 0 : 1);
+	}
+
+	private static int literal(int index) {
+		final int var = (index >> 1) + 1;
+		return (index & 1) == 0 ? -var : var;
+	}
+
+	private boolean isFixed(int literal) {
+		return fixed[Math.abs(literal) - 1] != 0;
+	}
+
+	/**
+	 * Computes the strongly connected components of all literals that are not fixed using Tarjan's algorithm (without recursion).
+	 */
+	private void findComponents(boolean useGraph) {
+		final int size = numberOfVariables << 1;
+		component = new int[size];
+		Arrays.fill(component, -1);
+		componentCount = 0;
+
+		final int[] number = new int[size];
+		final int[] lowLink = new int[size];
+		final int[] edgePosition = new int[size];
+		final boolean[] onStack = new boolean[size];
+		final int[] componentStack = new int[size];
+		final int[] callStack = new int[size];
+		int componentStackSize = 0;
+		int counter = 0;
+
+		for (int start = 0; start < size; start++) {
+			if ((number[start] != 0) || isFixed(literal(start))) {
+				continue;
+			}
+			int callStackSize = 0;
+			number[start] = lowLink[start] = ++counter;
+			componentStack[componentStackSize++] = start;
+			onStack[start] = true;
+			callStack[callStackSize++] = start;
+
+			while (callStackSize > 0) {
+				final int v = callStack[callStackSize - 1];
+				final int[] strongEdges = useGraph ? mig.getAdjList().get(v).getStrongEdges() : new int[0];
+				if (edgePosition[v] < strongEdges.length) {
+					final int edge = strongEdges[edgePosition[v]++];
+					if (isFixed(edge)) {
+						continue;
+					}
+					final int w = index(edge);
+					if (number[w] == 0) {
+						number[w] = lowLink[w] = ++counter;
+						componentStack[componentStackSize++] = w;
+						onStack[w] = true;
+						callStack[callStackSize++] = w;
+					} else if (onStack[w]) {
+						lowLink[v] = Math.min(lowLink[v], number[w]);
+					}
+				} else {
+					callStackSize--;
+					if (callStackSize > 0) {
+						final int u = callStack[callStackSize - 1];
+						lowLink[u] = Math.min(lowLink[u], lowLink[v]);
+					}
+					if (lowLink[v] == number[v]) {
+						int w;
+						do {
+							w = componentStack[--componentStackSize];
+							onStack[w] = false;
+							component[w] = componentCount;
+						} while (w != v);
+						componentCount++;
+					}
+				}
+			}
+		}
+
+		final int[] memberCount = new int[componentCount];
+		for (int i = 0; i < size; i++) {
+			if (component[i] >= 0) {
+				memberCount[component[i]]++;
+			}
+		}
+		componentMembers = new int[componentCount][];
+		for (int c = 0; c < componentCount; c++) {
+			componentMembers[c] = new int[memberCount[c]];
+			memberCount[c] = 0;
+		}
+		for (int i = 0; i < size; i++) {
+			final int c = component[i];
+			if (c >= 0) {
+				componentMembers[c][memberCount[c]++] = i;
+			}
+		}
+	}
+
+	/**
+	 * Chooses one literal per pair of complementary components. As in {@link AtomicSetAnalysis}, this is the complement of the first solution's literal of
+	 * the smallest variable in the component.
+	 *
+	 * @return the chosen literal for each component, or 0 for the complementary components
+	 */
+	private int[] getCanonicalLiterals() {
+		final int[] canonicalLiteral = new int[componentCount];
+		final boolean[] done = new boolean[componentCount];
+		for (int i = 0; i < numberOfVariables; i++) {
+			if (fixed[i] == 0) {
+				final int literal = -model1[i];
+				final int c = component[index(literal)];
+				if (!done[c]) {
+					done[c] = true;
+					done[component[index(-literal)]] = true;
+					canonicalLiteral[c] = literal;
+				}
+			}
+		}
+		return canonicalLiteral;
+	}
+
+	/**
+	 * Groups the canonical literals of all components by their values in a sample of solutions. As all canonical literals are false in the first solution,
+	 * two of them cannot be complementary.
+	 *
+	 * @return the groups, each containing literals that agree in all sampled solutions
+	 */
+	private List<int[]> groupBySample(int[] canonicalLiteral, int[] model2) {
+		final List<int[]> sample = new ArrayList<>(SAMPLE_SIZE);
+		sample.add(model1);
+		if (model2 != null) {
+			sample.add(model2);
+		}
+		solver.setSelectionStrategy(SelectionStrategy.RANDOM);
+		for (int i = sample.size(); i < SAMPLE_SIZE; i++) {
+			solver.shuffleOrder(getRandom());
+			final int[] solution = solver.findSolution();
+			if (solution == null) {
+				break;
+			}
+			sample.add(solution);
+		}
+		for (final int[] solution : sample) {
+			addKnownSolution(solution);
+		}
+
+		final Map<Long, List<Integer>> groupMap = new LinkedHashMap<>();
+		for (int i = 0; i < numberOfVariables; i++) {
+			if (fixed[i] == 0) {
+				final int literal = canonicalLiteral[component[index(-model1[i])]];
+				if (Math.abs(literal) == (i + 1)) {
+					long signature = 0;
+					for (int k = 0; k < sample.size(); k++) {
+						if (sample.get(k)[i] == literal) {
+							signature |= 1L << k;
+						}
+					}
+					groupMap.computeIfAbsent(signature, s -> new ArrayList<>()).add(literal);
+				}
+			}
+		}
+
+		final List<int[]> groups = new ArrayList<>(groupMap.size());
+		for (final List<Integer> group : groupMap.values()) {
+			final int[] literals = new int[group.size()];
+			for (int i = 0; i < literals.length; i++) {
+				literals[i] = group.get(i);
+			}
+			groups.add(literals);
+		}
+		return groups;
+	}
+
+	private List<List<int[]>> verify(List<int[]> groups, boolean useGraph, IMonitor<List<LiteralSet>> monitor) throws Exception {
+		monitor.setRemainingWork(groups.size());
+		final List<List<int[]>> atomicSets = new ArrayList<>(groups.size());
+
+		int parallelGroups = 0;
+		for (final int[] group : groups) {
+			if (group.length > 1) {
+				parallelGroups++;
+			}
+		}
+		final int numberOfThreads = Math.min(parallelism, parallelGroups);
+		final BlockingQueue<Verifier> verifiers = new ArrayBlockingQueue<>(Math.max(1, numberOfThreads));
+		verifiers.add(new Verifier(solver, getRandom(), useGraph));
+		for (int i = 1; i < numberOfThreads; i++) {
+			verifiers.add(new Verifier(solver.clone(), new Random(getRandom().nextLong()), useGraph));
+		}
+
+		if (numberOfThreads <= 1) {
+			final Verifier verifier = verifiers.take();
+			for (final int[] group : groups) {
+				atomicSets.add(verifier.verify(group));
+				monitor.step();
+			}
+		} else {
+			final ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+			try {
+				final List<Future<List<int[]>>> futures = new ArrayList<>(groups.size());
+				for (final int[] group : groups) {
+					futures.add(pool.submit(() -> {
+						final Verifier verifier = verifiers.take();
+						try {
+							return verifier.verify(group);
+						} finally {
+							verifiers.add(verifier);
+						}
+					}));
+				}
+				for (final Future<List<int[]>> future : futures) {
+					try {
+						atomicSets.add(future.get());
+					} catch (final ExecutionException e) {
+						if (e.getCause() instanceof Exception) {
+							throw (Exception) e.getCause();
+						}
+						throw e;
+					}
+					monitor.step();
+				}
+			} finally {
+				pool.shutdownNow();
+			}
+		}
+
+		for (final Verifier verifier : verifiers) {
+			if (verifier.timeoutOccured) {
+				reportTimeout();
+			}
+		}
+		return atomicSets;
+	}
+
+	/**
+	 * Checks the equivalence of literals with its own solver.
+	 */
+	private final class Verifier {
+
+		private final ISatSolver verifierSolver;
+		private final Random random;
+		private final boolean useGraph;
+		private final List<int[]> counterExamples = new ArrayList<>();
+		private boolean timeoutOccured = false;
+
+		private Verifier(ISatSolver verifierSolver, Random random, boolean useGraph) {
+			this.verifierSolver = verifierSolver;
+			this.random = random;
+			this.useGraph = useGraph;
+		}
+
+		/**
+		 * @param group literals that agree in all sampled solutions
+		 * @return the atomic sets of the literals in the group
+		 */
+		private List<int[]> verify(int[] group) {
+			final List<int[]> result = new ArrayList<>();
+			counterExamples.clear();
+			int[] remaining = group;
+			while (remaining.length > 0) {
+				final int a = remaining[0];
+				final int[] next = new int[remaining.length - 1];
+				int nextSize = 0;
+				final List<Integer> equivalent = new ArrayList<>();
+				equivalent.add(a);
+				for (int i = 1; i < remaining.length; i++) {
+					final int b = remaining[i];
+					if (isEquivalent(a, b)) {
+						equivalent.add(b);
+					} else {
+						next[nextSize++] = b;
+					}
+				}
+				result.add(toAtomicSet(equivalent));
+				remaining = Arrays.copyOf(next, nextSize);
+			}
+			return result;
+		}
+
+		private boolean isEquivalent(int a, int b) {
+			for (final int[] solution : counterExamples) {
+				if ((solution[Math.abs(a) - 1] == a) != (solution[Math.abs(b) - 1] == b)) {
+					return false;
+				}
+			}
+			return (implies(a, b) && implies(b, a));
+		}
+
+		private boolean implies(int a, int b) {
+			if (useGraph && MIGUtils.isStronglyConnected(mig, a, b)) {
+				return true;
+			}
+			verifierSolver.assignmentPush(a);
+			verifierSolver.assignmentPush(-b);
+			try {
+				switch (verifierSolver.hasSolution()) {
+				case FALSE:
+					return true;
+				case TIMEOUT:
+					timeoutOccured = true;
+					return false;
+				case TRUE:
+					final int[] solution = verifierSolver.getSolution();
+					counterExamples.add(solution);
+					addKnownSolution(solution);
+					verifierSolver.shuffleOrder(random);
+					return false;
+				default:
+					return false;
+				}
+			} finally {
+				verifierSolver.assignmentPop();
+				verifierSolver.assignmentPop();
+			}
+		}
+
+		/**
+		 * Collects the literals of all components that are equivalent to the given literals.
+		 */
+		private int[] toAtomicSet(List<Integer> equivalent) {
+			int size = 0;
+			for (final int literal : equivalent) {
+				size += componentMembers[component[index(literal)]].length;
+			}
+			final int[] set = new int[size];
+			int i = 0;
+			for (final int literal : equivalent) {
+				for (final int member : componentMembers[component[index(literal)]]) {
+					set[i++] = literal(member);
+				}
+			}
+			return set;
+		}
+
+	}
+
+	public ModalImplicationGraph getModalImplicationGraph() {
+		return mig;
+	}
+
+	public void setModalImplicationGraph(ModalImplicationGraph mig) {
+		this.mig = mig;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets the number of threads that check the equivalence of literals.
+	 *
+	 * @param parallelism the number of threads
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException(Integer.toString(parallelism));
+		}
+		this.parallelism = parallelism;
+	}
+
+}
@@ -0,0 +1,126 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.cnf.analysis;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.CNFComposition;
+import de.ovgu.featureide.fm.core.analysis.cnf.CNFComposition.ImportedCNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.ISatSolver;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+
+/**
+ * Finds core and dead features of a feature model with imported models. The analysis is split along a {@link CNFComposition}: The importing model is analyzed
+ * together with the interfaces of the imported models, and each imported model is analyzed together with its context. The results for the imported models
+ * are cached by the content of their CNFs, such that an imported model is analyzed only once for all importing models that use it in the same way.<br> <br>
+ * Without imports, assumptions, or a restriction of the variables, the analysis behaves like a {@link CoreDeadAnalysis}.
+ */
+public class CompositionalCoreDeadAnalysis extends CoreDeadAnalysis {
+
+	private static final Map<CNF, LiteralSet> importedResults = CNFComposition.createCache();
+
+	/**
+	 * Removes all cached results of imported models.
+	 */
+	public static void clearCache() {
+		importedResults.clear();
+	}
+
+	private Collection<String> aliases = Collections.emptyList();
+
+	public CompositionalCoreDeadAnalysis(CNF satInstance) {
+		super(satInstance);
+	}
+
+	public CompositionalCoreDeadAnalysis(ISatSolver solver) {
+		super(solver);
+	}
+
+	public Collection<String> getAliases() {
+		return aliases;
+	}
+
+	/**
+	 * @param aliases the aliases of the imported models, which prefix the names of their variables
+	 */
+	public void setAliases(Collection<String> aliases) {
+		this.aliases = aliases;
+	}
+
+	@Override
+	public LiteralSet analyze(IMonitor<LiteralSet> monitor) throws Exception {
+		if (aliases.isEmpty() || (variables != null) || !assumptions.isEmpty()) {
+			return super.analyze(monitor);
+		}
+		final CNFComposition composition = new CNFComposition(solver.getSatInstance(), aliases);
+		if (composition.getImportedCNFs().isEmpty()) {
+			return super.analyze(monitor);
+		}
+		monitor.setRemainingWork(composition.getImportedCNFs().size() + 1);
+
+		final CNF composedCNF = composition.getComposedCNF();
+		final LiteralSet composedResult = (composedCNF != null) && Boolean.TRUE.equals(LongRunningWrapper.runMethod(new HasSolutionAnalysis(composedCNF)))
+			? LongRunningWrapper.runMethod(new CoreDeadAnalysis(composedCNF)) : null;
+		if (composedResult == null) {
+			// Void feature models are handled without composition
+			return super.analyze(monitor);
+		}
+		final Set<Integer> result = new LinkedHashSet<>();
+		for (final int literal : composition.convertToOriginal(composedResult.getLiterals())) {
+			result.add(literal);
+		}
+		monitor.step();
+
+		for (final ImportedCNF importedCNF : composition.getImportedCNFs()) {
+			final CNF importedCNFInContext = composition.getImportedCNFInContext(importedCNF);
+			if (importedCNFInContext == null) {
+				return super.analyze(monitor);
+			}
+			LiteralSet importedResult = importedResults.get(importedCNFInContext);
+			if (importedResult == null) {
+				importedResult = LongRunningWrapper.runMethod(new CoreDeadAnalysis(importedCNFInContext));
+				if (importedResult == null) {
+					return super.analyze(monitor);
+				}
+				importedResults.put(importedCNFInContext, importedResult);
+			}
+			for (final int literal : importedCNF.convertToOriginal(importedResult.getLiterals())) {
+				result.add(literal);
+			}
+			monitor.step();
+		}
+
+		final int[] literals = new int[result.size()];
+		int i = 0;
+		for (final Integer literal : result) {
+			literals[i++] = literal;
+		}
+		return new LiteralSet(literals);
+	}
+
+}
@@ -70,7 +70,7 @@ public class ConditionallyCoreDeadAnalysisMIG extends AConditionallyCoreDeadAnal
 		for (final Vertex vertex : mig.getAdjList()) {
 			if (vertex.isCore()) {
 				final int var = vertex.getVar();
-				knownValues[var - 1] = var;
+				knownValues[Math.abs(var) - 1] = var;
 				monitor.step(new LiteralSet(var));
 			}
 		}
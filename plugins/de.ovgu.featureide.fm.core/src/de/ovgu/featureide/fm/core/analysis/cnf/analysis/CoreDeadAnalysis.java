@@ -192,8 +192,10 @@ public class CoreDeadAnalysis extends AVariableAnalysis<LiteralSet> {
 		int[] model1 = solver.findSolution();
 
 		if (model1 != null) {
+			addKnownSolution(model1);
 			solver.setSelectionStrategy(SelectionStrategy.NEGATIVE);
 			final int[] model2 = solver.findSolution();
+			addKnownSolution(model2);
 
 			if (variables != null) {
 				final int[] model3 = new int[model1.length];
@@ -217,6 +219,11 @@ public class CoreDeadAnalysis extends AVariableAnalysis<LiteralSet> {
 			for (int i = 0; i < model1.length; i++) {
 				final int varX = model1[i];
 				if (varX != 0) {
+					final int[] knownSolution = getKnownSolution(-varX);
+					if (knownSolution != null) {
+						LiteralSet.resetConflicts(model1, knownSolution);
+						continue;
+					}
 					solver.assignmentPush(-varX);
 					switch (solver.hasSolution()) {
 					case FALSE:
@@ -229,7 +236,9 @@ public class CoreDeadAnalysis extends AVariableAnalysis<LiteralSet> {
 						break;
 					case TRUE:
 						solver.assignmentPop();
-						LiteralSet.resetConflicts(model1, solver.getSolution());
+						final int[] solution = solver.getSolution();
+						addKnownSolution(solution);
+						LiteralSet.resetConflicts(model1, solution);
 						solver.shuffleOrder(getRandom());
 						break;
 					}
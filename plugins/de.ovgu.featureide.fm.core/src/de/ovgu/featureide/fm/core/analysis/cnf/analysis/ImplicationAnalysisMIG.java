@@ -0,0 +1,466 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.cnf.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.sat4j.core.VecInt;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.ISatSolver;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.ISatSolver.SelectionStrategy;
+import de.ovgu.featureide.fm.core.analysis.mig.CollectingVisitor;
+import de.ovgu.featureide.fm.core.analysis.mig.MIGUtils;
+import de.ovgu.featureide.fm.core.analysis.mig.ModalImplicationGraph;
+import de.ovgu.featureide.fm.core.analysis.mig.Traverser;
+import de.ovgu.featureide.fm.core.analysis.mig.Vertex;
+import de.ovgu.featureide.fm.core.base.util.RingList;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+
+/**
+ * Finds implied clauses and conditionally core and dead features using a {@link ModalImplicationGraph modal implication graph}. Combines
+ * {@link IndependentRedundancyAnalysis} and {@link ConditionallyCoreDeadAnalysisMIG} in one pass:
+ * <ul>
+ * <li>For each clause group, the result contains the first clause that is implied by the formula or <code>null</code>. For instance, the clause
+ * <code>-parent | child</code> is implied if an optional feature is false-optional.</li>
+ * <li>For each {@link #setAssumptionSets(List) assumption set}, {@link #getImpliedLiterals()} contains all literals that are implied by the formula and the
+ * set, or <code>null</code> if the set is contradictory. For instance, the assumption sets may be all configurations of a folder.</li>
+ * </ul>
+ * Clauses that contain a core literal or that correspond to a strong edge of the graph are implied without a solver call. Other clauses are refuted by known
+ * solutions if possible. The remaining clauses and the assumption sets are checked by multiple solvers in parallel if a {@link #setParallelism(int)
+ * parallelism} greater than one is set.
+ *
+ * @see IndependentRedundancyAnalysis
+ * @see ConditionallyCoreDeadAnalysisMIG
+ */
+public class ImplicationAnalysisMIG extends AClauseAnalysis<List<LiteralSet>> {
+
+	private static final int MAX_CLAUSE_GROUPS_PER_TASK = 64;
+
+	private ModalImplicationGraph mig;
+	private List<LiteralSet> assumptionSets = Collections.emptyList();
+	private List<LiteralSet> impliedLiterals = Collections.emptyList();
+	private int parallelism = 1;
+
+	private int[] fixed;
+	private int[] model1;
+	private int[] model2;
+	private int[] groupStart;
+	private BlockingQueue<Worker> workers;
+
+	public ImplicationAnalysisMIG(ISatSolver solver) {
+		this(solver, null);
+	}
+
+	public ImplicationAnalysisMIG(CNF satInstance) {
+		this(satInstance, null);
+	}
+
+	public ImplicationAnalysisMIG(ISatSolver solver, ModalImplicationGraph mig) {
+		super(solver);
+		this.mig = mig;
+	}
+
+	public ImplicationAnalysisMIG(CNF satInstance, ModalImplicationGraph mig) {
+		super(satInstance);
+		this.mig = mig;
+	}
+
+	@Override
+	public List<LiteralSet> analyze(IMonitor<List<LiteralSet>> monitor) throws Exception {
+		final List<LiteralSet> clauses = clauseList == null ? Collections.<LiteralSet> emptyList() : clauseList;
+		if ((clauseGroupSize == null) || (clauseGroupSize.length == 0)) {
+			clauseGroupSize = new int[clauses.size()];
+			Arrays.fill(clauseGroupSize, 1);
+		}
+		groupStart = new int[clauseGroupSize.length + 1];
+		for (int i = 0; i < clauseGroupSize.length; i++) {
+			groupStart[i + 1] = groupStart[i] + clauseGroupSize[i];
+		}
+
+		final LiteralSet[] clauseResult = new LiteralSet[clauseGroupSize.length];
+		final LiteralSet[] setResult = new LiteralSet[assumptionSets.size()];
+		impliedLiterals = Arrays.asList(setResult);
+
+		solver.setSelectionStrategy(SelectionStrategy.POSITIVE);
+		model1 = solver.findSolution();
+		if (model1 == null) {
+			return Arrays.asList(clauseResult);
+		}
+		addKnownSolution(model1);
+		solver.setSelectionStrategy(SelectionStrategy.NEGATIVE);
+		model2 = solver.findSolution();
+		addKnownSolution(model2);
+
+		fixed = new int[model1.length];
+		for (final int literal : solver.getAssignmentArray()) {
+			fixed[Math.abs(literal) - 1] = literal;
+		}
+		final boolean useGraph = (mig != null) && (mig.getAdjList().size() == (model1.length << 1));
+		if (useGraph) {
+			for (final Vertex vertex : mig.getAdjList()) {
+				final int literal = vertex.getVar();
+				if (vertex.isCore() && (fixed[Math.abs(literal) - 1] == 0)) {
+					fixed[Math.abs(literal) - 1] = literal;
+					solver.assignmentPush(literal);
+				}
+			}
+		} else {
+			mig = null;
+		}
+
+		final List<Callable<Integer>> tasks = new ArrayList<>();
+		final List<Integer> uncheckedGroups = new ArrayList<>();
+		for (int i = 0; i < clauseGroupSize.length; i++) {
+			final LiteralSet impliedClause = findImpliedClause(clauses, i);
+			if (impliedClause != null) {
+				clauseResult[i] = impliedClause;
+			} else if (!isRefuted(clauses, i)) {
+				uncheckedGroups.add(i);
+			}
+		}
+		final int groupsPerTask = Math.max(1,
+				Math.min(MAX_CLAUSE_GROUPS_PER_TASK, (uncheckedGroups.size() + ((parallelism * 4) - 1)) / (parallelism * 4)));
+		for (int start = 0; start < uncheckedGroups.size(); start += groupsPerTask) {
+			final List<Integer> groups = uncheckedGroups.subList(start, Math.min(start + groupsPerTask, uncheckedGroups.size()));
+			tasks.add(() -> {
+				final Worker worker = takeWorker();
+				try {
+					for (final int group : groups) {
+						clauseResult[group] = worker.checkClauseGroup(clauses, group);
+					}
+				} finally {
+					releaseWorker(worker);
+				}
+				return groups.size();
+			});
+		}
+		for (int i = 0; i < setResult.length; i++) {
+			final int index = i;
+			tasks.add(() -> {
+				final Worker worker = takeWorker();
+				try {
+					setResult[index] = worker.findImpliedLiterals(assumptionSets.get(index));
+				} finally {
+					releaseWorker(worker);
+				}
+				return 1;
+			});
+		}
+
+		monitor.setRemainingWork(clauseGroupSize.length + setResult.length);
+		monitor.worked(clauseGroupSize.length - uncheckedGroups.size());
+		run(tasks, monitor);
+		return Arrays.asList(clauseResult);
+	}
+
+	/**
+	 * Checks whether a clause of the given group is implied without calling a solver.
+	 */
+	private LiteralSet findImpliedClause(List<LiteralSet> clauses, int group) {
+		for (int j = groupStart[group]; j < groupStart[group + 1]; j++) {
+			final LiteralSet clause = clauses.get(j);
+			final int[] literals = clause.getLiterals();
+			for (int k = 0; k < literals.length; k++) {
+				final int literal = literals[k];
+				if (fixed[Math.abs(literal) - 1] == literal) {
+					return clause;
+				}
+				if (mig != null) {
+					for (int l = k + 1; l < literals.length; l++) {
+						if (MIGUtils.isStronglyConnected(mig, -literal, literals[l])) {
+							return clause;
+						}
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Checks whether all clauses of the given group are refuted by known solutions.
+	 */
+	private boolean isRefuted(List<LiteralSet> clauses, int group) {
+		for (int j = groupStart[group]; j < groupStart[group + 1]; j++) {
+			if (getKnownSolution(clauses.get(j).negate().getLiterals()) == null) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private Worker takeWorker() throws InterruptedException {
+		return workers.take();
+	}
+
+	private void releaseWorker(Worker worker) {
+		workers.add(worker);
+	}
+
+	private void run(List<Callable<Integer>> tasks, IMonitor<List<LiteralSet>> monitor) throws Exception {
+		final int numberOfThreads = Math.min(parallelism, tasks.size());
+		workers = new ArrayBlockingQueue<>(Math.max(1, numberOfThreads));
+		final List<Worker> allWorkers = new ArrayList<>();
+		allWorkers.add(new Worker(solver, getRandom()));
+		for (int i = 1; i < numberOfThreads; i++) {
+			allWorkers.add(new Worker(solver.clone(), new Random(getRandom().nextLong())));
+		}
+		workers.addAll(allWorkers);
+
+		try {
+			if (numberOfThreads <= 1) {
+				for (final Callable<Integer> task : tasks) {
+					monitor.worked(task.call());
+				}
+			} else {
+				final ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+				try {
+					final List<Future<Integer>> futures = new ArrayList<>(tasks.size());
+					for (final Callable<Integer> task : tasks) {
+						futures.add(pool.submit(task));
+					}
+					for (final Future<Integer> future : futures) {
+						try {
+							monitor.worked(future.get());
+						} catch (final ExecutionException e) {
+							if (e.getCause() instanceof Exception) {
+								throw (Exception) e.getCause();
+							}
+							throw e;
+						}
+					}
+				} finally {
+					pool.shutdownNow();
+				}
+			}
+		} finally {
+			workers = null;
+		}
+
+		for (final Worker worker : allWorkers) {
+			if (worker.timeoutOccured) {
+				reportTimeout();
+			}
+		}
+	}
+
+	/**
+	 * Checks clauses and assumption sets with its own solver. The assignment of the solver contains the assumptions and all core and dead literals of the
+	 * graph.
+	 */
+	private final class Worker {
+
+		private final ISatSolver workerSolver;
+		private final Random random;
+		private final RingList<int[]> counterExamples = new RingList<>(ISatSolver.MAX_SOLUTION_BUFFER);
+		private boolean timeoutOccured = false;
+
+		private Worker(ISatSolver workerSolver, Random random) {
+			this.workerSolver = workerSolver;
+			this.random = random;
+			counterExamples.add(model1);
+			if (model2 != null) {
+				counterExamples.add(model2);
+			}
+		}
+
+		private LiteralSet checkClauseGroup(List<LiteralSet> clauses, int group) {
+			clauseLoop: for (int j = groupStart[group]; j < groupStart[group + 1]; j++) {
+				final LiteralSet clause = clauses.get(j);
+				final int[] complement = clause.negate().getLiterals();
+				for (final int[] solution : counterExamples) {
+					if (containsAll(solution, complement)) {
+						continue clauseLoop;
+					}
+				}
+
+				final int assignmentSize = workerSolver.getAssignmentSize();
+				for (final int literal : complement) {
+					workerSolver.assignmentPush(literal);
+				}
+				try {
+					switch (workerSolver.hasSolution()) {
+					case FALSE:
+						return clause;
+					case TIMEOUT:
+						timeoutOccured = true;
+						break;
+					case TRUE:
+						addCounterExample(workerSolver.getSolution());
+						break;
+					}
+				} finally {
+					workerSolver.assignmentClear(assignmentSize);
+				}
+			}
+			return null;
+		}
+
+		private LiteralSet findImpliedLiterals(LiteralSet assumptionSet) {
+			final int assignmentSize = workerSolver.getAssignmentSize();
+			final int[] knownValues = Arrays.copyOf(fixed, fixed.length);
+			try {
+				for (final int literal : assumptionSet.getLiterals()) {
+					final int value = knownValues[Math.abs(literal) - 1];
+					if (value == -literal) {
+						return null;
+					} else if (value == 0) {
+						knownValues[Math.abs(literal) - 1] = literal;
+						workerSolver.assignmentPush(literal);
+					}
+				}
+
+				final Traverser traverser = mig != null ? mig.traverse() : null;
+				if (traverser != null) {
+					traverser.setModel(knownValues);
+					traverseStrong(traverser, assumptionSet.getLiterals());
+				}
+
+				workerSolver.setSelectionStrategy(SelectionStrategy.POSITIVE);
+				final int[] unknownValues = workerSolver.findSolution();
+				if (unknownValues == null) {
+					return null;
+				}
+				workerSolver.setSelectionStrategy(SelectionStrategy.NEGATIVE);
+				final int[] negativeSolution = workerSolver.findSolution();
+				if (negativeSolution != null) {
+					LiteralSet.resetConflicts(unknownValues, negativeSolution);
+				}
+
+				for (int i = 0; i < unknownValues.length; i++) {
+					final int varX = unknownValues[i];
+					if ((varX != 0) && (knownValues[i] == 0)) {
+						workerSolver.assignmentPush(-varX);
+						switch (workerSolver.hasSolution()) {
+						case FALSE:
+							workerSolver.assignmentReplaceLast(varX);
+							knownValues[i] = varX;
+							if (traverser != null) {
+								traverseStrong(traverser, varX);
+							}
+							break;
+						case TIMEOUT:
+							workerSolver.assignmentPop();
+							timeoutOccured = true;
+							break;
+						case TRUE:
+							workerSolver.assignmentPop();
+							LiteralSet.resetConflicts(unknownValues, workerSolver.getSolution());
+							workerSolver.shuffleOrder(random);
+							break;
+						}
+					}
+				}
+				return new LiteralSet(workerSolver.getAssignmentArray(0, workerSolver.getAssignmentSize()));
+			} finally {
+				workerSolver.assignmentClear(assignmentSize);
+			}
+		}
+
+		/**
+		 * Adds all literals that are implied by the given literals via strong edges to the assignment of the solver. The traverser only visits literals of
+		 * variables without a known value.
+		 */
+		private void traverseStrong(Traverser traverser, int... literals) {
+			final CollectingVisitor visitor = new CollectingVisitor();
+			traverser.setVisitor(visitor);
+			traverser.traverseStrong(literals);
+			final VecInt impliedLiterals = visitor.getResult()[0];
+			for (int i = 0; i < impliedLiterals.size(); i++) {
+				workerSolver.assignmentPush(impliedLiterals.get(i));
+			}
+		}
+
+		private void addCounterExample(int[] solution) {
+			counterExamples.add(solution);
+			addKnownSolution(solution);
+			workerSolver.shuffleOrder(random);
+		}
+
+	}
+
+	private static boolean containsAll(int[] solution, int[] literals) {
+		for (final int literal : literals) {
+			if (solution[Math.abs(literal) - 1] != literal) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return for each {@link #getAssumptionSets() assumption set} of the last execution, all implied literals or <code>null</code> if the set is
+	 *         contradictory
+	 */
+	public List<LiteralSet> getImpliedLiterals() {
+		return impliedLiterals;
+	}
+
+	public List<LiteralSet> getAssumptionSets() {
+		return assumptionSets;
+	}
+
+	/**
+	 * Sets assumptions that are analyzed independently of each other in addition to the {@link #getAssumptions() assumptions} of the analysis.
+	 *
+	 * @param assumptionSets the assumption sets
+	 */
+	public void setAssumptionSets(List<LiteralSet> assumptionSets) {
+		this.assumptionSets = assumptionSets == null ? Collections.<LiteralSet> emptyList() : assumptionSets;
+	}
+
+	public ModalImplicationGraph getModalImplicationGraph() {
+		return mig;
+	}
+
+	public void setModalImplicationGraph(ModalImplicationGraph mig) {
+		this.mig = mig;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets the number of solvers that check clauses and assumption sets in parallel.
+	 *
+	 * @param parallelism the number of threads
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException(Integer.toString(parallelism));
+		}
+		this.parallelism = parallelism;
+	}
+
+}
@@ -86,6 +86,7 @@ public class IndependentRedundancyAnalysis extends AClauseAnalysis<List<LiteralS
 			final RingList<LiteralSet> solutionList = new RingList<>(ISatSolver.MAX_SOLUTION_BUFFER);
 			solver.setSelectionStrategy(SelectionStrategy.RANDOM);
 			solutionList.add(new LiteralSet(firstSolution, Order.INDEX, false));
+			addKnownSolution(firstSolution);
 
 			int endIndex = 0;
 			groupLoop: for (int i = 0; i < clauseGroupSize.length; i++) {
@@ -100,6 +101,11 @@ public class IndependentRedundancyAnalysis extends AClauseAnalysis<List<LiteralS
 							continue clauseLoop;
 						}
 					}
+					final int[] knownSolution = getKnownSolution(complement.getLiterals());
+					if (knownSolution != null) {
+						solutionList.add(new LiteralSet(knownSolution, Order.INDEX, false));
+						continue clauseLoop;
+					}
 
 					final SatResult hasSolution = solver.hasSolution(complement);
 					switch (hasSolution) {
@@ -110,7 +116,9 @@ public class IndependentRedundancyAnalysis extends AClauseAnalysis<List<LiteralS
 						reportTimeout();
 						break;
 					case TRUE:
-						solutionList.add(new LiteralSet(solver.getSolution(), Order.INDEX, false));
+						final int[] solution = solver.getSolution();
+						addKnownSolution(solution);
+						solutionList.add(new LiteralSet(solution, Order.INDEX, false));
 						solver.shuffleOrder(getRandom());
 						break;
 					default:
@@ -0,0 +1,402 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.cnf.analysis;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet.Order;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.ISatSolver;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.ISimpleSatSolver.SatResult;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+
+/**
+ * Finds a solution of a formula that maximizes (or minimizes) a linear objective function <code>w_1 * x_1 + ... + w_n * x_n</code>, where <code>x_i</code> is
+ * <code>1</code> if variable <code>i</code> is selected and <code>0</code> otherwise. The result is exact, i.e., it respects all clauses of the formula and
+ * the current assumptions.<br> <br> The analysis performs a branch-and-bound search over the variables with a non-zero weight, ordered by the absolute value of
+ * their weight. Each branch is checked with the SAT solver, and every solution found by the solver updates the best known solution. A branch is pruned if the
+ * sum of its decided weights and the most optimistic contribution of all undecided variables cannot improve on the best known solution.<br> <br> An instance
+ * can be executed repeatedly with different assumptions. The optima of previous executions are remembered: if a previous optimum was computed under a subset
+ * of the current assumptions and still satisfies them, it is returned without any search; otherwise, every previous optimum that satisfies the current
+ * assumptions is used as initial lower bound. Results of executions that exceeded the timeout of the solver are not remembered, because they may not be
+ * optimal.<br> <br> Besides the timeout of each satisfiability check, the whole search can be limited by a {@link #setTotalTimeout(long) total timeout}. If it
+ * is exceeded, the search stops and the best solution found so far is returned as if a timeout of the solver occurred.
+ */
+public class LinearObjectiveAnalysis extends AbstractAnalysis<LinearObjectiveAnalysis.Optimum> {
+
+	/**
+	 * An optimal solution and its objective value.
+	 */
+	public static class Optimum {
+
+		private final double value;
+		private final LiteralSet solution;
+
+		public Optimum(double value, LiteralSet solution) {
+			this.value = value;
+			this.solution = solution;
+		}
+
+		/**
+		 * @return the value of the objective function for the solution
+		 */
+		public double getValue() {
+			return value;
+		}
+
+		/**
+		 * @return a solution with the optimal value (ordered by variable index)
+		 */
+		public LiteralSet getSolution() {
+			return solution;
+		}
+
+		@Override
+		public String toString() {
+			return "Optimum [value=" + value + ", solution=" + solution + "]";
+		}
+
+	}
+
+	private static final class PreviousOptimum {
+
+		private final LiteralSet assumptions;
+		private final Optimum optimum;
+
+		private PreviousOptimum(LiteralSet assumptions, Optimum optimum) {
+			this.assumptions = assumptions;
+			this.optimum = optimum;
+		}
+
+	}
+
+	private static final int MAX_PREVIOUS_OPTIMA = 16;
+
+	private final double[] weights;
+	private boolean maximize = true;
+	private long totalTimeout = 0;
+
+	private final Deque<PreviousOptimum> previousOptima = new ArrayDeque<>();
+
+	/** variables with a non-zero weight that are not fixed by the assumptions, ordered by descending absolute weight */
+	private int[] order;
+	/** for each entry of {@link #order}, the maximal possible contribution of all following variables */
+	private double[] remainingBound;
+	private double bestScore;
+	private int[] bestSolution;
+	private long deadline;
+
+	/**
+	 * @param satInstance the formula
+	 * @param weights the weight of each variable, indexed by variable id (index <code>0</code> is ignored)
+	 */
+	public LinearObjectiveAnalysis(CNF satInstance, double[] weights) {
+		super(satInstance);
+		this.weights = Arrays.copyOf(weights, satInstance.getVariables().size() + 1);
+	}
+
+	/**
+	 * @param solver the solver for the formula
+	 * @param weights the weight of each variable, indexed by variable id (index <code>0</code> is ignored)
+	 */
+	public LinearObjectiveAnalysis(ISatSolver solver, double[] weights) {
+		super(solver);
+		this.weights = Arrays.copyOf(weights, solver.getSatInstance().getVariables().size() + 1);
+	}
+
+	public boolean isMaximize() {
+		return maximize;
+	}
+
+	/**
+	 * @param maximize {@code true} to maximize the objective function, {@code false} to minimize it
+	 */
+	public void setMaximize(boolean maximize) {
+		if (this.maximize != maximize) {
+			this.maximize = maximize;
+			previousOptima.clear();
+		}
+	}
+
+	public long getTotalTimeout() {
+		return totalTimeout;
+	}
+
+	/**
+	 * @param totalTimeout the maximal time for the whole search in milliseconds or <code>0</code> for no limit
+	 */
+	public void setTotalTimeout(long totalTimeout) {
+		this.totalTimeout = totalTimeout;
+	}
+
+	/**
+	 * Computes the value of the objective function for the given solution.
+	 *
+	 * @param solution a (partial) solution
+	 * @return the sum of the weights of all selected variables
+	 */
+	public double getValue(int[] solution) {
+		double value = 0;
+		for (final int literal : solution) {
+			if ((literal > 0) && (literal < weights.length)) {
+				value += weights[literal];
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Computes the value of the objective function for the given solution in decimal arithmetic, such that the result does not depend on the order of the
+	 * weights (e.g., <code>0.1 + 0.2</code> yields <code>0.3</code>).
+	 *
+	 * @param solution a (partial) solution
+	 * @return the sum of the weights of all selected variables
+	 */
+	private double getDecimalValue(int[] solution) {
+		BigDecimal value = BigDecimal.ZERO;
+		for (final int literal : solution) {
+			if ((literal > 0) && (literal < weights.length)) {
+				value = value.add(BigDecimal.valueOf(weights[literal]));
+			}
+		}
+		return value.doubleValue();
+	}
+
+	@Override
+	protected Optimum analyze(IMonitor<Optimum> monitor) throws Exception {
+		bestSolution = null;
+		bestScore = Double.NEGATIVE_INFINITY;
+		deadline = totalTimeout > 0 ? System.nanoTime() + (totalTimeout * 1_000_000L) : 0;
+
+		// reuse previous optima
+		for (final Iterator<PreviousOptimum> iterator = previousOptima.iterator(); iterator.hasNext();) {
+			final PreviousOptimum previous = iterator.next();
+			if (previous.optimum.getSolution().containsAll(assumptions)) {
+				if (assumptions.containsAll(previous.assumptions)) {
+					// optimum of a less constrained problem satisfies all assumptions
+					iterator.remove();
+					previousOptima.addFirst(previous);
+					return previous.optimum;
+				}
+				updateBest(previous.optimum.getSolution().getLiterals());
+			}
+		}
+
+		final SatResult hasSolution = solver.hasSolution();
+		switch (hasSolution) {
+		case FALSE:
+			return null;
+		case TIMEOUT:
+			reportTimeout();
+			return null;
+		case TRUE:
+			break;
+		default:
+			throw new AssertionError(hasSolution);
+		}
+		final int[] model = solver.getSolution();
+		updateBest(model);
+
+		initOrder();
+		double fixedScore = 0;
+		for (final int literal : assumptions.getLiterals()) {
+			if (literal > 0) {
+				fixedScore += getScore(literal);
+			}
+		}
+
+		// let the solver prefer the literals with a positive contribution
+		final int[] phase = new int[weights.length - 1];
+		for (int var = 1; var < weights.length; var++) {
+			phase[var - 1] = getScore(var) > 0 ? -var : var;
+		}
+		solver.setSelectionStrategy(phase, false);
+
+		search(fixedScore, model, monitor);
+
+		final Optimum optimum = new Optimum(getDecimalValue(bestSolution), new LiteralSet(bestSolution.clone(), Order.INDEX, false));
+		if (!isTimeoutOccured()) {
+			previousOptima.addFirst(new PreviousOptimum(assumptions, optimum));
+			if (previousOptima.size() > MAX_PREVIOUS_OPTIMA) {
+				previousOptima.removeLast();
+			}
+		}
+		return optimum;
+	}
+
+	private void initOrder() {
+		final boolean[] assigned = new boolean[weights.length];
+		for (final int literal : assumptions.getLiterals()) {
+			assigned[Math.abs(literal)] = true;
+		}
+		int count = 0;
+		final Integer[] variables = new Integer[weights.length];
+		for (int var = 1; var < weights.length; var++) {
+			if (!assigned[var] && (weights[var] != 0)) {
+				variables[count++] = var;
+			}
+		}
+		Arrays.sort(variables, 0, count, (v1, v2) -> Double.compare(Math.abs(weights[v2]), Math.abs(weights[v1])));
+		order = new int[count];
+		remainingBound = new double[count + 1];
+		for (int i = count - 1; i >= 0; i--) {
+			order[i] = variables[i];
+			remainingBound[i] = remainingBound[i + 1] + Math.max(0, getScore(order[i]));
+		}
+	}
+
+	/**
+	 * Searches for a better solution in the branch defined by the current assignment of the solver. The search tree is traversed depth-first with an explicit
+	 * stack, such that its depth is not limited by the call stack. The node at depth <code>d</code> decides the variable <code>order[d]</code>.
+	 *
+	 * @param fixedScore the contribution of all assumptions
+	 * @param model a solution that satisfies the current assignment
+	 * @param monitor the monitor
+	 */
+	private void search(double fixedScore, int[] model, IMonitor<Optimum> monitor) {
+		final int maxDepth = order.length;
+		// 0 = enter node, 1 = search other branch, 2 = leave node
+		final byte[] stages = new byte[maxDepth + 1];
+		final double[] scores = new double[maxDepth + 1];
+		final int[][] models = new int[maxDepth + 1][];
+		final boolean[] preferredSatisfiable = new boolean[maxDepth + 1];
+
+		int depth = 0;
+		stages[0] = 0;
+		scores[0] = fixedScore;
+		models[0] = model;
+		try {
+			while (depth >= 0) {
+				final double score = scores[depth];
+				switch (stages[depth]) {
+				case 0: {
+					if ((depth == maxDepth) || ((score + remainingBound[depth]) <= bestScore)) {
+						stages[depth] = 2;
+						break;
+					}
+					monitor.checkCancel();
+					if ((deadline != 0) && ((System.nanoTime() - deadline) > 0)) {
+						reportTimeout();
+						return;
+					}
+					stages[depth] = 1;
+
+					// branch with the preferred literal
+					final int var = order[depth];
+					final double varScore = getScore(var);
+					final int preferredLiteral = varScore > 0 ? var : -var;
+					final int[] preferredModel = findModel(preferredLiteral, models[depth]);
+					preferredSatisfiable[depth] = preferredModel != null;
+					if (preferredModel != null) {
+						solver.assignmentPush(preferredLiteral);
+						depth++;
+						stages[depth] = 0;
+						scores[depth] = score + Math.max(0, varScore);
+						models[depth] = preferredModel;
+					}
+					break;
+				}
+				case 1: {
+					stages[depth] = 2;
+
+					// branch with the other literal
+					final int var = order[depth];
+					final double varScore = getScore(var);
+					final double otherScore = Math.min(0, varScore);
+					if ((score + otherScore + remainingBound[depth + 1]) > bestScore) {
+						final int otherLiteral = varScore > 0 ? -var : var;
+						final int[] otherModel = preferredSatisfiable[depth] ? findModel(otherLiteral, models[depth]) : models[depth];
+						if (otherModel != null) {
+							solver.assignmentPush(otherLiteral);
+							depth++;
+							stages[depth] = 0;
+							scores[depth] = score + otherScore;
+							models[depth] = otherModel;
+						}
+					}
+					break;
+				}
+				default:
+					models[depth] = null;
+					depth--;
+					if (depth >= 0) {
+						solver.assignmentPop();
+					}
+					break;
+				}
+			}
+		} finally {
+			for (; depth > 0; depth--) {
+				solver.assignmentPop();
+			}
+		}
+	}
+
+	/**
+	 * Finds a solution that satisfies the current assignment and the given literal.
+	 *
+	 * @param literal the additional literal
+	 * @param model a solution that satisfies the current assignment
+	 * @return a solution or {@code null} if there is none
+	 */
+	private int[] findModel(int literal, int[] model) {
+		if (model[Math.abs(literal) - 1] == literal) {
+			return model;
+		}
+		solver.assignmentPush(literal);
+		try {
+			final SatResult hasSolution = solver.hasSolution();
+			switch (hasSolution) {
+			case FALSE:
+				return null;
+			case TIMEOUT:
+				reportTimeout();
+				return null;
+			case TRUE:
+				final int[] newModel = solver.getSolution();
+				updateBest(newModel);
+				return newModel;
+			default:
+				throw new AssertionError(hasSolution);
+			}
+		} finally {
+			solver.assignmentPop();
+		}
+	}
+
+	private void updateBest(int[] solution) {
+		final double score = maximize ? getValue(solution) : -getValue(solution);
+		if ((bestSolution == null) || (score > bestScore)) {
+			bestScore = score;
+			bestSolution = solution;
+		}
+	}
+
+	private double getScore(int var) {
+		return maximize ? weights[var] : -weights[var];
+	}
+
+}
@@ -0,0 +1,279 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.cnf.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.prop4j.And;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Not;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.Variables;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.ISimpleSatSolver.SatResult;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.SelectorSatSolver;
+import de.ovgu.featureide.fm.core.editing.NodeCreator;
+
+/**
+ * Checks presence conditions of preprocessor annotations for contradictions and tautologies, both in and of themselves and with respect to a feature model
+ * and the conditions of all enclosing annotations.<br> <br> All checks are answered by two incremental solvers that are created once, one containing the
+ * clauses of the feature model and one without any clauses. Each distinct expression is converted into clauses only once. These clauses are guarded by a
+ * selector variable, such that a check is a single solver call with the selectors of the expression and its context as assumptions. The result of each
+ * distinct combination of expression and context is cached.<br> <br> Variables that are not contained in the feature model are treated as free variables.
+ * This class is thread-safe.
+ *
+ * @see SelectorSatSolver
+ */
+public class PresenceConditionChecker {
+
+	/**
+	 * The satisfiability status of a presence condition.
+	 */
+	public enum Status {
+		/** The presence condition is satisfiable but not a tautology. */
+		NORMAL,
+		/** The feature model is void. */
+		VOID,
+		/** The presence condition is a contradiction with respect to the feature model and its context. */
+		DEAD,
+		/** The presence condition is a tautology with respect to the feature model and its context. */
+		SUPERFLUOUS,
+		/** The expression in and of itself is a contradiction. */
+		CONTRADICTION,
+		/** The expression in and of itself is a tautology. */
+		TAUTOLOGY,
+	}
+
+	private static final int TIMEOUT = 1000;
+
+	private final Variables variables;
+	private final SelectorSatSolver modelSolver;
+	private final SelectorSatSolver expressionSolver;
+	private final boolean voidModel;
+
+	private final Map<Object, Integer> additionalVariables = new HashMap<>();
+	private final Map<Node, Integer> selectors = new HashMap<>();
+	private final Map<List<Node>, Status> results = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a new checker for the given feature model formula.
+	 *
+	 * @param cnf the CNF of the feature model (must not be sliced)
+	 */
+	public PresenceConditionChecker(CNF cnf) {
+		variables = cnf.getVariables();
+		modelSolver = new SelectorSatSolver(cnf);
+		expressionSolver = new SelectorSatSolver(new CNF(variables));
+		modelSolver.setTimeout(TIMEOUT);
+		expressionSolver.setTimeout(TIMEOUT);
+		voidModel = modelSolver.hasSolution() == SatResult.FALSE;
+	}
+
+	/**
+	 * @return {@code true}, if the feature model is void, {@code false} otherwise.
+	 */
+	public boolean isVoid() {
+		return voidModel;
+	}
+
+	/**
+	 * Checks the given expression within the given context.
+	 *
+	 * @param expression the presence condition to check
+	 * @param context the conditions of all enclosing annotations (may be empty)
+	 * @return the status of the expression; {@link Status#NORMAL} if a solver call timed out
+	 */
+	public Status check(Node expression, List<Node> context) {
+		if (voidModel) {
+			return Status.VOID;
+		}
+		final List<Node> key = Arrays.asList(expression, new And(context.toArray(new Node[context.size()])));
+		Status status = results.get(key);
+		if (status == null) {
+			synchronized (this) {
+				status = computeStatus(expression, context);
+			}
+			if (status == null) {
+				return Status.NORMAL;
+			}
+			results.put(cloneKey(key), status);
+		}
+		return status;
+	}
+
+	/**
+	 * Checks the expression on top of the given stack within the context of all other expressions of the stack.
+	 *
+	 * @param expressionStack the conditions of the current annotation and all enclosing annotations (topmost first)
+	 * @return the status of the topmost expression
+	 *
+	 * @see #check(Node, List)
+	 */
+	public Status check(Iterable<Node> expressionStack) {
+		final ArrayList<Node> nodes = new ArrayList<>();
+		for (final Node node : expressionStack) {
+			nodes.add(node);
+		}
+		return check(nodes.get(0), nodes.subList(1, nodes.size()));
+	}
+
+	/**
+	 * @return the number of distinct checks that were answered by a solver
+	 */
+	public int getCacheSize() {
+		return results.size();
+	}
+
+	private Status computeStatus(Node expression, List<Node> context) {
+		final int expressionSelector = getSelector(expression);
+		final int negatedExpressionSelector = getSelector(new Not(expression));
+
+		// -SAT(expression)
+		switch (expressionSolver.hasSolution(expressionSelector)) {
+		case FALSE:
+			return Status.CONTRADICTION;
+		case TIMEOUT:
+			return null;
+		default:
+			break;
+		}
+
+		// -SAT(-expression)
+		switch (expressionSolver.hasSolution(negatedExpressionSelector)) {
+		case FALSE:
+			return Status.TAUTOLOGY;
+		case TIMEOUT:
+			return null;
+		default:
+			break;
+		}
+
+		final int[] assumptions = new int[context.size() + 1];
+		int i = 1;
+		for (final Node node : context) {
+			assumptions[i++] = getSelector(node);
+		}
+
+		// -SAT(FM & context & expression)
+		assumptions[0] = expressionSelector;
+		switch (modelSolver.hasSolution(assumptions)) {
+		case FALSE:
+			return Status.DEAD;
+		case TIMEOUT:
+			return null;
+		default:
+			break;
+		}
+
+		// TAUT(FM & context => expression) = -SAT(FM & context & -expression)
+		assumptions[0] = negatedExpressionSelector;
+		switch (modelSolver.hasSolution(assumptions)) {
+		case FALSE:
+			return Status.SUPERFLUOUS;
+		case TIMEOUT:
+			return null;
+		default:
+			return Status.NORMAL;
+		}
+	}
+
+	/**
+	 * Returns the selector variable of the given formula. If the formula has not been seen before, its clauses are added to both solvers guarded by a new
+	 * selector.
+	 */
+	private int getSelector(Node formula) {
+		Integer selector = selectors.get(formula);
+		if (selector == null) {
+			final Node clonedFormula = formula.clone();
+			selector = newVariable();
+			for (final Node clause : formula.clone().toRegularCNF().getChildren()) {
+				final LiteralSet literalSet = convertClause(clause);
+				if (literalSet != null) {
+					modelSolver.addSelectedClause(literalSet, selector);
+					expressionSolver.addSelectedClause(literalSet, selector);
+				}
+			}
+			selectors.put(clonedFormula, selector);
+		}
+		return selector;
+	}
+
+	/**
+	 * Converts a clause into a literal set. Constant literals are evaluated.
+	 *
+	 * @return the literal set or {@code null} if the clause is always satisfied
+	 */
+	private LiteralSet convertClause(Node clause) {
+		final Node[] children = clause.getChildren();
+		final int[] literals = new int[children.length];
+		int length = 0;
+		for (final Node child : children) {
+			final Literal literal = (Literal) child;
+			if (literal.var == NodeCreator.varTrue) {
+				if (literal.positive) {
+					return null;
+				}
+			} else if (literal.var == NodeCreator.varFalse) {
+				if (!literal.positive) {
+					return null;
+				}
+			} else {
+				final int variable = getVariable(literal.var);
+				literals[length++] = literal.positive ? variable : -variable;
+			}
+		}
+		return new LiteralSet(Arrays.copyOf(literals, length));
+	}
+
+	private int getVariable(Object var) {
+		final int variable = variables.getVariable(String.valueOf(var));
+		if (variable != 0) {
+			return variable;
+		}
+		Integer additionalVariable = additionalVariables.get(var);
+		if (additionalVariable == null) {
+			additionalVariable = newVariable();
+			additionalVariables.put(var, additionalVariable);
+		}
+		return additionalVariable;
+	}
+
+	/**
+	 * Creates a new variable in both solvers. As both solvers number their selectors consecutively, the variable has the same index in both solvers.
+	 */
+	private int newVariable() {
+		final int variable = modelSolver.newSelector();
+		expressionSolver.newSelector();
+		return variable;
+	}
+
+	private static List<Node> cloneKey(List<Node> key) {
+		return Arrays.asList(key.get(0).clone(), key.get(1).clone());
+	}
+
+}
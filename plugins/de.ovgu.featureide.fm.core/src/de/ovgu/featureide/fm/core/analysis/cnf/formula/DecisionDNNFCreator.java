@@ -0,0 +1,45 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.cnf.formula;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.ddnnf.DecisionDNNF;
+import de.ovgu.featureide.fm.core.analysis.ddnnf.LazyDecisionDNNF;
+
+/**
+ * Compiles a {@link CNF} of a feature model into a {@link DecisionDNNF}. As the CNF is sliced, the solutions of the decision-DNNF are the solutions of the
+ * feature model projected onto the remaining features. The decision-DNNF is only compiled when it is requested from the {@link LazyDecisionDNNF}, so the
+ * compilation is neither done while holding the lock of this creator nor without a timeout.
+ */
+public abstract class DecisionDNNFCreator extends ACreator<LazyDecisionDNNF> {
+
+	private final ACreator<CNF> cnfCreator;
+
+	public DecisionDNNFCreator(ACreator<CNF> cnfCreator) {
+		this.cnfCreator = cnfCreator;
+	}
+
+	@Override
+	protected LazyDecisionDNNF create() {
+		return new LazyDecisionDNNF(formula.getElement(cnfCreator).normalize());
+	}
+
+}
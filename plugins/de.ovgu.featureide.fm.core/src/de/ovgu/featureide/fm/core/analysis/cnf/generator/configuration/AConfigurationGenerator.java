@@ -20,6 +20,8 @@
  */
 package de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -42,6 +44,9 @@ public abstract class AConfigurationGenerator extends AbstractAnalysis<List<Lite
 
 	private final List<LiteralSet> resultList = new ArrayList<>();
 	private final LinkedBlockingQueue<LiteralSet> resultQueue;
+	private final List<IConfigurationSink> sinks = new ArrayList<>(1);
+
+	private boolean bufferResults = true;
 
 	public AConfigurationGenerator(CNF cnf) {
 		this(cnf, Integer.MAX_VALUE);
@@ -76,11 +81,20 @@ public abstract class AConfigurationGenerator extends AbstractAnalysis<List<Lite
 	protected abstract void generate(IMonitor<List<LiteralSet>> monitor) throws Exception;
 
 	protected void addResult(LiteralSet result) {
-		resultList.add(result);
-		try {
-			resultQueue.put(result);
-		} catch (final InterruptedException e) {
-			Logger.logError(e);
+		if (bufferResults) {
+			resultList.add(result);
+			try {
+				resultQueue.put(result);
+			} catch (final InterruptedException e) {
+				Logger.logError(e);
+			}
+		}
+		for (final IConfigurationSink sink : sinks) {
+			try {
+				sink.accept(result);
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
 		}
 	}
 
@@ -89,4 +103,24 @@ public abstract class AConfigurationGenerator extends AbstractAnalysis<List<Lite
 		return resultQueue;
 	}
 
+	@Override
+	public void addSink(IConfigurationSink sink) {
+		sinks.add(sink);
+	}
+
+	@Override
+	public void removeSink(IConfigurationSink sink) {
+		sinks.remove(sink);
+	}
+
+	@Override
+	public void setBufferResults(boolean bufferResults) {
+		this.bufferResults = bufferResults;
+	}
+
+	@Override
+	public boolean isBufferResults() {
+		return bufferResults;
+	}
+
 }
@@ -0,0 +1,142 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import de.ovgu.featureide.fm.core.Logger;
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet.Order;
+import de.ovgu.featureide.fm.core.analysis.ddnnf.DDNNFBuilder;
+import de.ovgu.featureide.fm.core.analysis.ddnnf.DecisionDNNF;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+import de.ovgu.featureide.fm.core.localization.StringTable;
+
+/**
+ * Generates uniformly distributed random configurations for a given propositional formula. The formula is compiled into a {@link DecisionDNNF} once, then
+ * each configuration is drawn top-down using the solution counts of the nodes.<br> <br> Without duplicates, the generator draws distinct ranks of solutions
+ * and maps each rank to its solution (see {@link DecisionDNNF#getSolution(BigInteger)}), so every subset of solutions with the requested size is equally
+ * likely and no solution is discarded. If the formula has fewer solutions than requested, all solutions are returned and the shortfall is reported by
+ * {@link #getMissingConfigurations()}.
+ *
+ * @see UniformRandomConfigurationGenerator
+ */
+public class DDNNFRandomConfigurationGenerator extends ARandomConfigurationGenerator {
+
+	private DecisionDNNF ddnnf;
+
+	private int missingConfigurations = 0;
+
+	public DDNNFRandomConfigurationGenerator(CNF cnf, int maxNumber) {
+		super(cnf, maxNumber);
+	}
+
+	/**
+	 * Uses an already compiled representation of the given formula.
+	 */
+	public DDNNFRandomConfigurationGenerator(CNF cnf, DecisionDNNF ddnnf, int maxNumber) {
+		super(cnf, maxNumber);
+		this.ddnnf = ddnnf;
+	}
+
+	@Override
+	protected void generate(IMonitor<List<LiteralSet>> monitor) throws Exception {
+		missingConfigurations = 0;
+		final DecisionDNNF ddnnf = getDecisionDNNF();
+		final BigInteger solutionCount = ddnnf.getSolutionCount();
+		if (allowDuplicates) {
+			if (solutionCount.signum() == 0) {
+				return;
+			}
+			monitor.setRemainingWork(maxSampleSize);
+			for (int i = 0; i < maxSampleSize; i++) {
+				addResult(new LiteralSet(ddnnf.sample(getRandom()), Order.INDEX, false));
+				monitor.step();
+			}
+		} else {
+			final int sampleSize = solutionCount.min(BigInteger.valueOf(maxSampleSize)).intValue();
+			// Integer.MAX_VALUE is used for requesting all configurations without a limit
+			if ((sampleSize < maxSampleSize) && (maxSampleSize < Integer.MAX_VALUE)) {
+				missingConfigurations = maxSampleSize - sampleSize;
+				Logger.logWarning(String.format(StringTable.ONLY_D_OF_D_REQUESTED_CONFIGURATIONS_EXIST, sampleSize, maxSampleSize));
+			}
+			monitor.setRemainingWork(sampleSize);
+			for (final BigInteger rank : getRandomRanks(solutionCount, sampleSize)) {
+				addResult(new LiteralSet(ddnnf.getSolution(rank), Order.INDEX, false));
+				monitor.step();
+			}
+		}
+	}
+
+	/**
+	 * Draws distinct ranks uniformly at random using Floyd's algorithm, which needs one random number per rank.
+	 *
+	 * @param solutionCount the number of ranks to choose from
+	 * @param sampleSize the number of ranks to draw
+	 * @return the ranks in random order
+	 */
+	private List<BigInteger> getRandomRanks(BigInteger solutionCount, int sampleSize) {
+		final Set<BigInteger> ranks = new HashSet<>();
+		final List<BigInteger> orderedRanks = new ArrayList<>(sampleSize);
+		for (BigInteger i = solutionCount.subtract(BigInteger.valueOf(sampleSize)); i.compareTo(solutionCount) < 0; i = i.add(BigInteger.ONE)) {
+			BigInteger rank = DecisionDNNF.nextBigInteger(getRandom(), i.add(BigInteger.ONE));
+			if (!ranks.add(rank)) {
+				rank = i;
+				ranks.add(rank);
+			}
+			orderedRanks.add(rank);
+		}
+		Collections.shuffle(orderedRanks, getRandom());
+		return orderedRanks;
+	}
+
+	/**
+	 * @return the number of requested configurations that could not be generated in the last run, because the formula has fewer solutions.
+	 */
+	public int getMissingConfigurations() {
+		return missingConfigurations;
+	}
+
+	private DecisionDNNF getDecisionDNNF() {
+		if ((ddnnf != null) && ((assumptions == null) || assumptions.isEmpty())) {
+			return ddnnf;
+		}
+		final CNF cnf = solver.getSatInstance();
+		if ((assumptions == null) || assumptions.isEmpty()) {
+			ddnnf = LongRunningWrapper.runMethod(new DDNNFBuilder(cnf));
+			return ddnnf;
+		} else {
+			final CNF conditionedCNF = new CNF(cnf);
+			for (final int literal : assumptions.getLiterals()) {
+				conditionedCNF.addClause(new LiteralSet(literal));
+			}
+			return LongRunningWrapper.runMethod(new DDNNFBuilder(conditionedCNF));
+		}
+	}
+
+}
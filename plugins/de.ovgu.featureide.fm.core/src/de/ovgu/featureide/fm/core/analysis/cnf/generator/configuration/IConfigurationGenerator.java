@@ -35,4 +35,23 @@ public interface IConfigurationGenerator extends IAnalysis<List<LiteralSet>> {
 
 	LinkedBlockingQueue<LiteralSet> getResultQueue();
 
+	/**
+	 * Registers a sink that is notified about each new configuration while the generator is running.
+	 *
+	 * @param sink the sink
+	 */
+	void addSink(IConfigurationSink sink);
+
+	void removeSink(IConfigurationSink sink);
+
+	/**
+	 * If set to {@code false}, the generator does not keep any configurations in memory. In this case, the result list and the result queue stay empty
+	 * and configurations can only be received by a {@link IConfigurationSink}. Default is {@code true}.
+	 *
+	 * @param bufferResults whether configurations are stored in the result list and queue
+	 */
+	void setBufferResults(boolean bufferResults);
+
+	boolean isBufferResults();
+
 }
@@ -26,6 +26,11 @@ import java.util.Collection;
 import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.sat4j.specs.IConstr;
 
@@ -37,7 +42,10 @@ import de.ovgu.featureide.fm.core.analysis.cnf.solver.RuntimeContradictionExcept
 import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
 
 /**
- * Generates configurations for a given propositional formula such that two-wise feature coverage is achieved.
+ * Generates configurations for a given propositional formula such that two-wise feature coverage is achieved.<br> <br> With a
+ * {@link #setParallelism(int) parallelism} greater than one, the pair-coverage bookkeeping is split into ranges of features that are processed on a
+ * fork-join pool. In addition, each round computes one candidate configuration per thread on its own solver instance and keeps the candidate that covers
+ * the most pairs. The result is deterministic for a given {@link #setRandom(Random) random} and parallelism.
  *
  * @author Sebastian Krieter
  */
@@ -166,14 +174,91 @@ public class PairWiseConfigurationGenerator extends AConfigurationGenerator impl
 
 	private int[] allYesSolution, allNoSolution;
 
+	/**
+	 * Minimal number of features for which the bookkeeping is split into parallel tasks.
+	 */
+	private static final int MIN_PARALLEL_FEATURES = 256;
+
+	private int parallelism = 1;
+	private ForkJoinPool pool = null;
+	private ISatSolver[] candidateSolvers = null;
+	private Random[] candidateRandoms = null;
+
 	public PairWiseConfigurationGenerator(CNF satInstance, int maxNumber) {
 		super(satInstance);
 		this.maxNumber = maxNumber;
 		numVariables = solver.getSatInstance().getVariables().size();
 	}
 
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets the number of threads used to compute a sample. Default is 1, which uses the sequential algorithm.
+	 *
+	 * @param parallelism the number of threads
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException(Integer.toString(parallelism));
+		}
+		this.parallelism = parallelism;
+	}
+
+	@FunctionalInterface
+	private interface RangeTask {
+
+		int run(int start, int end);
+
+	}
+
+	/**
+	 * Runs a task for disjoint ranges of [0, length) and sums up the results. The ranges are processed in parallel, if a pool is available and length is
+	 * large enough.
+	 */
+	private int runInRanges(int length, RangeTask task) {
+		if ((pool == null) || (length < MIN_PARALLEL_FEATURES)) {
+			return task.run(0, length);
+		}
+		final int numberOfRanges = Math.min(length, parallelism * 4);
+		final List<Callable<Integer>> tasks = new ArrayList<>(numberOfRanges);
+		for (int i = 0; i < numberOfRanges; i++) {
+			final int start = (int) (((long) length * i) / numberOfRanges);
+			final int end = (int) (((long) length * (i + 1)) / numberOfRanges);
+			tasks.add(() -> task.run(start, end));
+		}
+		int sum = 0;
+		for (final Future<Integer> future : pool.invokeAll(tasks)) {
+			sum += getResult(future);
+		}
+		return sum;
+	}
+
+	private static <T> T getResult(Future<T> future) {
+		try {
+			return future.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new RuntimeException(cause);
+		}
+	}
+
 	protected void addCombinationsFromModel(int[] curModel) {
-		for (int i = 0; i < combinations2.length; i++) {
+		runInRanges(numVariables, (start, end) -> {
+			addCombinationsFromModel(curModel, start, end);
+			return 0;
+		});
+	}
+
+	private void addCombinationsFromModel(int[] curModel, int startFeature, int endFeature) {
+		for (int i = startFeature * numVariables, iEnd = endFeature * numVariables; i < iEnd; i++) {
 			final int a = (i / numVariables);
 			final int b = (i % numVariables);
 			if (a == b) {
@@ -341,8 +426,12 @@ public class PairWiseConfigurationGenerator extends AConfigurationGenerator impl
 	}
 
 	protected int count(int[] curModel) {
+		return runInRanges(numVariables, (start, end) -> count(curModel, start, end)) / 2;
+	}
+
+	private int count(int[] curModel, int startFeature, int endFeature) {
 		int partCount = 0;
-		for (int i = 0; i < combinations2.length; i++) {
+		for (int i = startFeature * numVariables, iEnd = endFeature * numVariables; i < iEnd; i++) {
 			final int a = (i / numVariables);
 			final int b = (i % numVariables);
 			if (a == b) {
@@ -370,7 +459,7 @@ public class PairWiseConfigurationGenerator extends AConfigurationGenerator impl
 			partCount += (c >> 2) % 2;
 			partCount += (c >> 3) % 2;
 		}
-		return partCount / 2;
+		return partCount;
 	}
 
 	protected int count2() {
@@ -572,12 +661,43 @@ public class PairWiseConfigurationGenerator extends AConfigurationGenerator impl
 
 		addCombinationsFromModel(solution.getLiterals());
 
-		for (int i = 0; i < featureIndexArray.length; i++) {
+		runInRanges(featureIndexArray.length, this::updateFeatureIndices);
+
+		config.time = System.nanoTime() - time;
+		addResult(solution);
+		count++;
+		time = System.nanoTime();
+
+		try {
+			solver.addInternalClause(solution.negate());
+			if (candidateSolvers != null) {
+				for (final ISatSolver candidateSolver : candidateSolvers) {
+					if (candidateSolver != solver) {
+						candidateSolver.addInternalClause(solution.negate());
+					}
+				}
+			}
+		} catch (final RuntimeContradictionException e) {
+			return true;
+		}
+
+		// Statistic numbers
+		final int absUncovered = printStatisticNumbers(config);
+
+		finalCount = Math.max(finalCount, count - maxBackJumping);
+		if (absUncovered <= 0) {
+			return true;
+		}
+		return false;
+	}
+
+	private int updateFeatureIndices(int start, int end) {
+		for (int i = start; i < end; i++) {
 			final FeatureIndex featureIndex = featureIndexArray[i];
 			final int a = featureIndex.getIndex();
 			int selected = 0;
 			int coveredCombinations = 0;
-			for (int j = a * numVariables, end = j + numVariables; j < end; j++) {
+			for (int j = a * numVariables, jEnd = j + numVariables; j < jEnd; j++) {
 				final byte c = (combinations2[j]);
 				if ((c & BIT_00) != 0) {
 					selected--;
@@ -599,26 +719,7 @@ public class PairWiseConfigurationGenerator extends AConfigurationGenerator impl
 			featureIndex.setCoveredCombinations(coveredCombinations);
 			featureIndex.setSelected(selected);
 		}
-
-		config.time = System.nanoTime() - time;
-		addResult(solution);
-		count++;
-		time = System.nanoTime();
-
-		try {
-			solver.addInternalClause(solution.negate());
-		} catch (final RuntimeContradictionException e) {
-			return true;
-		}
-
-		// Statistic numbers
-		final int absUncovered = printStatisticNumbers(config);
-
-		finalCount = Math.max(finalCount, count - maxBackJumping);
-		if (absUncovered <= 0) {
-			return true;
-		}
-		return false;
+		return 0;
 	}
 
 	@SuppressWarnings("unused")
@@ -642,6 +743,10 @@ public class PairWiseConfigurationGenerator extends AConfigurationGenerator impl
 	}
 
 	protected boolean testCombination(int[] varStatus, boolean[] featuresUsed, int sa, int sb) {
+		return testCombination(solver, varStatus, featuresUsed, sa, sb);
+	}
+
+	private boolean testCombination(ISatSolver solver, int[] varStatus, boolean[] featuresUsed, int sa, int sb) {
 		final int a = Math.abs(sa) - 1;
 		final int b = Math.abs(sb) - 1;
 
@@ -830,6 +935,22 @@ public class PairWiseConfigurationGenerator extends AConfigurationGenerator impl
 		if (maxNumber <= 0) {
 			return;
 		}
+		if (parallelism > 1) {
+			pool = new ForkJoinPool(parallelism);
+		}
+		try {
+			generateSample(monitor);
+		} finally {
+			if (pool != null) {
+				pool.shutdownNow();
+				pool = null;
+			}
+			candidateSolvers = null;
+			candidateRandoms = null;
+		}
+	}
+
+	private void generateSample(IMonitor<List<LiteralSet>> monitor) throws Exception {
 		time = System.nanoTime();
 
 		final int featureCount = solver.getSatInstance().getVariables().size();
@@ -862,6 +983,18 @@ public class PairWiseConfigurationGenerator extends AConfigurationGenerator impl
 		solver = solver.clone();
 		solver.setSelectionStrategy(SelectionStrategy.RANDOM);
 
+		if (pool != null) {
+			candidateSolvers = new ISatSolver[parallelism];
+			candidateRandoms = new Random[parallelism];
+			candidateSolvers[0] = solver;
+			candidateRandoms[0] = getRandom();
+			for (int i = 1; i < parallelism; i++) {
+				candidateSolvers[i] = solver.clone();
+				candidateRandoms[i] = new Random(getRandom().nextLong());
+				candidateSolvers[i].shuffleOrder(candidateRandoms[i]);
+			}
+		}
+
 		// allyes
 		handleNewConfig(allYesSolution, featuresUsedOrg);
 		if (maxNumber == 1) {
@@ -870,11 +1003,8 @@ public class PairWiseConfigurationGenerator extends AConfigurationGenerator impl
 		// allno
 		handleNewConfig(allNoSolution, featuresUsedOrg);
 
-		final int[] varStatus = new int[2];
-
 		while (count <= maxNumber) {
 			monitor.checkCancel();
-			final boolean[] featuresUsed = Arrays.copyOf(featuresUsedOrg, featuresUsedOrg.length);
 
 			countLoops = featureIndexArray.length;
 			int prio = 0;
@@ -883,57 +1013,99 @@ public class PairWiseConfigurationGenerator extends AConfigurationGenerator impl
 			}
 			Arrays.sort(featureIndexArray);
 
-			for (int x = 1, end = featureIndexArray.length; x < end; x++) {
-				final FeatureIndex featureIndexA = featureIndexArray[x];
-				final int a = featureIndexA.getIndex();
-				if (featuresUsed[a]) {
-					continue;
+			final int[] candidate = (candidateSolvers == null) ? createCandidate(solver, featuresUsedOrg) : createBestCandidate(featuresUsedOrg);
+			if (handleNewConfig(candidate, featuresUsedOrg)) {
+				break;
+			}
+			if (candidateSolvers == null) {
+				solver.shuffleOrder(getRandom());
+				solver.assignmentClear(numberOfFixedFeatures);
+			} else {
+				for (int i = 0; i < candidateSolvers.length; i++) {
+					candidateSolvers[i].shuffleOrder(candidateRandoms[i]);
+					candidateSolvers[i].assignmentClear(numberOfFixedFeatures);
 				}
-				bLoop: for (int y = 0; y < x; y++) {
-					final FeatureIndex featureIndexB = featureIndexArray[y];
-					final int b = featureIndexB.getIndex();
-					final int index = (a * numVariables) + b;
-					final byte curCombo = (combinations2[index]);
-					if ((curCombo == 15) || featuresUsed[b]) {
-						continue;
-					}
+			}
+		}
+	}
 
-					varStatus[0] = 0;
-					varStatus[1] = 0;
-
-					final int[] combinationOrder = getCombinationOrder(featureIndexA.getSelected(), featureIndexB.getSelected(), curCombo);
-					comboLoop: for (int i = 0; i < combinationOrder.length; i++) {
-						final boolean result;
-						switch (combinationOrder[i]) {
-						case BIT_00:
-							result = testCombination(varStatus, featuresUsed, -(a + 1), -(b + 1));
-							break;
-						case BIT_01:
-							result = testCombination(varStatus, featuresUsed, -(a + 1), (b + 1));
-							break;
-						case BIT_10:
-							result = testCombination(varStatus, featuresUsed, (a + 1), -(b + 1));
-							break;
-						case BIT_11:
-							result = testCombination(varStatus, featuresUsed, (a + 1), (b + 1));
-							break;
-						default:
-							continue comboLoop;
-						}
-						if (result) {
-							break bLoop;
-						}
-					}
+	/**
+	 * Computes one candidate configuration on each candidate solver in parallel.
+	 *
+	 * @return the candidate that covers the most pairs. In case of a tie, the candidate of the solver with the lowest index.
+	 */
+	private int[] createBestCandidate(final boolean[] featuresUsedOrg) {
+		final List<Callable<int[]>> tasks = new ArrayList<>(candidateSolvers.length);
+		for (final ISatSolver candidateSolver : candidateSolvers) {
+			tasks.add(() -> createCandidate(candidateSolver, featuresUsedOrg));
+		}
+		int[] bestCandidate = null;
+		int bestCoverage = -1;
+		for (final Future<int[]> future : pool.invokeAll(tasks)) {
+			final int[] candidate = getResult(future);
+			if (candidate != null) {
+				final int coverage = count(candidate);
+				if (coverage > bestCoverage) {
+					bestCoverage = coverage;
+					bestCandidate = candidate;
 				}
 			}
+		}
+		return bestCandidate;
+	}
 
-			if (handleNewConfig(solver.findSolution(), featuresUsedOrg)) {
-				break;
-			} else {
-				solver.shuffleOrder(getRandom());
+	/**
+	 * Greedily assigns values to the features of a new configuration such that the configuration covers as many uncovered pairs as possible.<br> Only reads
+	 * the shared bookkeeping and may therefore be called concurrently for different solvers.
+	 */
+	private int[] createCandidate(final ISatSolver solver, final boolean[] featuresUsedOrg) {
+		final boolean[] featuresUsed = Arrays.copyOf(featuresUsedOrg, featuresUsedOrg.length);
+		final int[] varStatus = new int[2];
+
+		for (int x = 1, end = featureIndexArray.length; x < end; x++) {
+			final FeatureIndex featureIndexA = featureIndexArray[x];
+			final int a = featureIndexA.getIndex();
+			if (featuresUsed[a]) {
+				continue;
+			}
+			bLoop: for (int y = 0; y < x; y++) {
+				final FeatureIndex featureIndexB = featureIndexArray[y];
+				final int b = featureIndexB.getIndex();
+				final int index = (a * numVariables) + b;
+				final byte curCombo = (combinations2[index]);
+				if ((curCombo == 15) || featuresUsed[b]) {
+					continue;
+				}
+
+				varStatus[0] = 0;
+				varStatus[1] = 0;
+
+				final int[] combinationOrder = getCombinationOrder(featureIndexA.getSelected(), featureIndexB.getSelected(), curCombo);
+				comboLoop: for (int i = 0; i < combinationOrder.length; i++) {
+					final boolean result;
+					switch (combinationOrder[i]) {
+					case BIT_00:
+						result = testCombination(solver, varStatus, featuresUsed, -(a + 1), -(b + 1));
+						break;
+					case BIT_01:
+						result = testCombination(solver, varStatus, featuresUsed, -(a + 1), (b + 1));
+						break;
+					case BIT_10:
+						result = testCombination(solver, varStatus, featuresUsed, (a + 1), -(b + 1));
+						break;
+					case BIT_11:
+						result = testCombination(solver, varStatus, featuresUsed, (a + 1), (b + 1));
+						break;
+					default:
+						continue comboLoop;
+					}
+					if (result) {
+						break bLoop;
+					}
+				}
 			}
-			solver.assignmentClear(numberOfFixedFeatures);
 		}
+		return solver.findSolution();
 	}
 
 }
@@ -30,7 +30,8 @@ import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
 import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
 
 /**
- * Finds certain solutions of propositional formulas.
+ * Finds random solutions of propositional formulas. Biases the solver towards the distribution of an initial random sample, which does <b>not</b> guarantee a
+ * uniform distribution. Use {@link DDNNFRandomConfigurationGenerator} for provably uniform samples.
  *
  * @author Sebastian Krieter
  */
@@ -21,11 +21,13 @@
 package de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
 
 import de.ovgu.featureide.fm.core.analysis.cnf.ClauseList;
 import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
-import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.util.Pair;
+import de.ovgu.featureide.fm.core.analysis.cnf.SolutionMatrix;
 
 /**
  * Calculates statistics regarding t-wise feature coverage of a set of solutions.
@@ -106,6 +108,85 @@ public class TWiseConfigurationStatistic {
 		}
 	}
 
+	/**
+	 * Column-wise view on a sample. For each presence condition, stores a bit set over all configurations that cover the condition.
+	 */
+	private static final class CoverageIndex {
+
+		private final SolutionMatrix matrix;
+		private final int numberOfWords;
+		private final long[] allConfigurations;
+		private final long[][] literalColumns;
+		private final IdentityHashMap<PresenceCondition, long[]> conditionColumns = new IdentityHashMap<>();
+
+		public CoverageIndex(TWiseConfigurationUtil util, List<? extends LiteralSet> configurations) {
+			final int numberOfVariables = util.getCnf().getVariables().size();
+			if ((configurations instanceof SolutionMatrix) && (((SolutionMatrix) configurations).getNumberOfVariables() == numberOfVariables)) {
+				matrix = (SolutionMatrix) configurations;
+			} else {
+				matrix = new SolutionMatrix(numberOfVariables, configurations);
+			}
+			numberOfWords = (matrix.size() + (Long.SIZE - 1)) / Long.SIZE;
+			allConfigurations = new long[numberOfWords];
+			Arrays.fill(allConfigurations, -1L);
+			if ((matrix.size() % Long.SIZE) != 0) {
+				allConfigurations[numberOfWords - 1] = (1L << matrix.size()) - 1;
+			}
+			literalColumns = new long[(numberOfVariables << 1) + 1][];
+		}
+
+		public long[] newSet() {
+			return new long[numberOfWords];
+		}
+
+		public long[] getAllConfigurations() {
+			return allConfigurations;
+		}
+
+		public long[] getColumn(PresenceCondition presenceCondition) {
+			long[] column = conditionColumns.get(presenceCondition);
+			if (column == null) {
+				column = newSet();
+				final long[] clauseColumn = newSet();
+				for (final LiteralSet clause : presenceCondition) {
+					System.arraycopy(allConfigurations, 0, clauseColumn, 0, numberOfWords);
+					for (final int literal : clause.getLiterals()) {
+						intersect(clauseColumn, getColumn(literal), clauseColumn);
+					}
+					for (int i = 0; i < numberOfWords; i++) {
+						column[i] |= clauseColumn[i];
+					}
+				}
+				conditionColumns.put(presenceCondition, column);
+			}
+			return column;
+		}
+
+		private long[] getColumn(int literal) {
+			final int variable = Math.abs(literal);
+			if ((variable == 0) || (variable > matrix.getNumberOfVariables())) {
+				return newSet();
+			}
+			final int index = literal > 0 ? variable : matrix.getNumberOfVariables() + variable;
+			long[] column = literalColumns[index];
+			if (column == null) {
+				column = matrix.getColumn(literal);
+				literalColumns[index] = column;
+			}
+			return column;
+		}
+
+		public static int intersect(long[] set1, long[] set2, long[] result) {
+			int count = 0;
+			for (int i = 0; i < result.length; i++) {
+				result[i] = set1[i] & set2[i];
+				count += Long.bitCount(result[i]);
+			}
+			return count;
+		}
+
+	}
+
 	private void completeCalc(TWiseConfigurationUtil util, List<? extends LiteralSet> configurations, List<List<PresenceCondition>> groupedPresenceConditions) {
 		configValues = new double[configurations.size()];
 		configValues2 = new double[configurations.size()];
@@ -114,18 +195,13 @@ public class TWiseConfigurationStatistic {
 		final ClauseList combinedCondition = new ClauseList();
 		final PresenceCondition[] clauseListArray = new PresenceCondition[t];
 
-		final ArrayList<List<Pair<Integer, LiteralSet>>> lists = new ArrayList<>(t);
-		{
-			for (int i = 0; i <= t; i++) {
-				lists.add(new ArrayList<Pair<Integer, LiteralSet>>());
-			}
-			final List<Pair<Integer, LiteralSet>> list = lists.get(0);
-			int confIndex = 0;
-			for (final LiteralSet configuration : configurations) {
-				list.add(new Pair<>(confIndex++, configuration));
-			}
+		final CoverageIndex index = new CoverageIndex(util, configurations);
+		final long[][] coveringConfigurations = new long[t + 1][];
+		final int[] counts = new int[t + 1];
+		coveringConfigurations[0] = index.getAllConfigurations();
+		for (int i = 1; i <= t; i++) {
+			coveringConfigurations[i] = index.newSet();
 		}
-		final List<Pair<Integer, LiteralSet>> curConfigurationList = lists.get(t);
 
 		for (final List<PresenceCondition> expressions : groupedPresenceConditions) {
 			final int n = expressions.size();
@@ -161,24 +237,11 @@ public class TWiseConfigurationStatistic {
 					c[j] = c[j - 1] + 1;
 				}
 
-				for (int j = i; j <= t2; j++) {
-					if (j > 0) {
-						final List<Pair<Integer, LiteralSet>> prevList = lists.get(j - 1);
-						final List<Pair<Integer, LiteralSet>> curList = lists.get(j);
-						curList.clear();
-						final PresenceCondition presenceCondition = expressions.get(c[j]);
-						entryLoop: for (final Pair<Integer, LiteralSet> entry : prevList) {
-							for (final LiteralSet literals : presenceCondition) {
-								if (entry.getValue().containsAll(literals)) {
-									curList.add(entry);
-									continue entryLoop;
-								}
-							}
-						}
-					}
+				for (int j = Math.max(i, 1); j <= t2; j++) {
+					counts[j] = CoverageIndex.intersect(coveringConfigurations[j - 1], index.getColumn(expressions.get(c[j])), coveringConfigurations[j]);
 				}
 
-				final int count = curConfigurationList.size();
+				final int count = counts[t2];
 				if (count > 0) {
 					numberOfCoveredConditions++;
 					if (countValid) {
@@ -186,10 +249,13 @@ public class TWiseConfigurationStatistic {
 					}
 					final double value = 1.0 / count;
 					final long value2 = count == 1 ? 1 : 0;
-					for (final Pair<Integer, LiteralSet> entry : curConfigurationList) {
-						final int k = entry.getKey();
-						configValues[k] += value;
-						configValues2[k] += value2;
+					final long[] curConfigurations = coveringConfigurations[t2];
+					for (int w = 0; w < curConfigurations.length; w++) {
+						for (long word = curConfigurations[w]; word != 0; word &= word - 1) {
+							final int k = (w << 6) + Long.numberOfTrailingZeros(word);
+							configValues[k] += value;
+							configValues2[k] += value2;
+						}
 					}
 				} else {
 					if (countValid) {
@@ -221,18 +287,13 @@ public class TWiseConfigurationStatistic {
 		final ClauseList combinedCondition = new ClauseList();
 		final PresenceCondition[] clauseListArray = new PresenceCondition[t];
 
-		final ArrayList<List<Pair<Integer, LiteralSet>>> lists = new ArrayList<>(t);
-		{
-			for (int i = 0; i <= t; i++) {
-				lists.add(new ArrayList<Pair<Integer, LiteralSet>>());
-			}
-			final List<Pair<Integer, LiteralSet>> list = lists.get(0);
-			int confIndex = 0;
-			for (final LiteralSet configuration : configurations) {
-				list.add(new Pair<>(confIndex++, configuration));
-			}
+		final CoverageIndex index = new CoverageIndex(util, configurations);
+		final long[][] coveringConfigurations = new long[t + 1][];
+		final int[] counts = new int[t + 1];
+		coveringConfigurations[0] = index.getAllConfigurations();
+		for (int i = 1; i <= t; i++) {
+			coveringConfigurations[i] = index.newSet();
 		}
-		final List<Pair<Integer, LiteralSet>> curConfigurationList = lists.get(t);
 
 		for (final List<PresenceCondition> expressions : groupedPresenceConditions) {
 			final int n = expressions.size();
@@ -268,25 +329,11 @@ public class TWiseConfigurationStatistic {
 					c[j] = c[j - 1] + 1;
 				}
 
-				for (int j = i; j <= t2; j++) {
-					if (j > 0) {
-						final List<Pair<Integer, LiteralSet>> prevList = lists.get(j - 1);
-						final List<Pair<Integer, LiteralSet>> curList = lists.get(j);
-						curList.clear();
-						final PresenceCondition presenceCondition = expressions.get(c[j]);
-						entryLoop: for (final Pair<Integer, LiteralSet> entry : prevList) {
-							for (final LiteralSet literals : presenceCondition) {
-								if (entry.getValue().containsAll(literals)) {
-									curList.add(entry);
-									continue entryLoop;
-								}
-							}
-						}
-					}
+				for (int j = Math.max(i, 1); j <= t2; j++) {
+					counts[j] = CoverageIndex.intersect(coveringConfigurations[j - 1], index.getColumn(expressions.get(c[j])), coveringConfigurations[j]);
 				}
 
-				final int count = curConfigurationList.size();
-				if (count > 0) {
+				if (counts[t2] > 0) {
 					numberOfCoveredConditions++;
 					if (countValid) {
 						numberOfValidConditions++;
@@ -315,16 +362,11 @@ public class TWiseConfigurationStatistic {
 	private void fastCalc(TWiseConfigurationUtil util, List<? extends LiteralSet> configurations, List<List<PresenceCondition>> groupedPresenceConditions) {
 		configValues2 = new double[configurations.size()];
 
-		final ArrayList<List<Pair<Integer, LiteralSet>>> lists = new ArrayList<>(t);
-		{
-			for (int i = 0; i < t; i++) {
-				lists.add(new ArrayList<Pair<Integer, LiteralSet>>(configurations.size()));
-			}
-			final List<Pair<Integer, LiteralSet>> list = lists.get(0);
-			int confIndex = 0;
-			for (final LiteralSet configuration : configurations) {
-				list.add(new Pair<>(confIndex++, configuration));
-			}
+		final CoverageIndex index = new CoverageIndex(util, configurations);
+		final long[][] coveringConfigurations = new long[t + 1][];
+		coveringConfigurations[0] = index.getAllConfigurations();
+		for (int i = 1; i <= t; i++) {
+			coveringConfigurations[i] = index.newSet();
 		}
 
 		for (List<PresenceCondition> expressions : groupedPresenceConditions) {
@@ -368,44 +410,25 @@ public class TWiseConfigurationStatistic {
 					c[j] = c[j - 1] + 1;
 				}
 
-				for (int j = i; j < t; j++) {
-					if (j > 0) {
-						final List<Pair<Integer, LiteralSet>> prevList = lists.get(j - 1);
-						final List<Pair<Integer, LiteralSet>> curList = lists.get(j);
-						curList.clear();
-						final PresenceCondition presenceCondition = expressions.get(c[j]);
-						entryLoop: for (final Pair<Integer, LiteralSet> entry : prevList) {
-							for (final LiteralSet literals : presenceCondition) {
-								if (entry.getValue().containsAll(literals)) {
-									curList.add(entry);
-									continue entryLoop;
-								}
-							}
-						}
-					}
+				for (int j = Math.max(i, 1); j < t; j++) {
+					CoverageIndex.intersect(coveringConfigurations[j - 1], index.getColumn(expressions.get(c[j])), coveringConfigurations[j]);
 				}
 
-				Pair<Integer, LiteralSet> curEntry = null;
-				final PresenceCondition presenceCondition = expressions.get(c[t]);
-				entryLoop: for (final Pair<Integer, LiteralSet> entry : lists.get(t - 1)) {
-					for (final LiteralSet literals : presenceCondition) {
-						if (entry.getValue().containsAll(literals)) {
-							if (curEntry == null) {
-								numberOfCoveredConditions++;
-								curEntry = entry;
-								continue entryLoop;
-							} else {
-								continue combinationLoop;
+				final long[] curConfigurations = coveringConfigurations[t];
+				final int count = CoverageIndex.intersect(coveringConfigurations[t - 1], index.getColumn(expressions.get(c[t])), curConfigurations);
+				if (count == 0) {
+					numberOfUncoveredConditions++;
+				} else {
+					numberOfCoveredConditions++;
+					if (count == 1) {
+						for (int w = 0; w < curConfigurations.length; w++) {
+							if (curConfigurations[w] != 0) {
+								configValues2[(w << 6) + Long.numberOfTrailingZeros(curConfigurations[w])]++;
+								break;
 							}
 						}
 					}
 				}
-
-				if (curEntry != null) {
-					configValues2[curEntry.getKey()]++;
-				} else {
-					numberOfUncoveredConditions++;
-				}
 			}
 		}
 		int confIndex = 0;
@@ -0,0 +1,454 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.cnf.solver;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.ISimpleSatSolver.SatResult;
+
+/**
+ * Extracts minimal unsatisfiable subsets (MUS) of groups of clauses.<br> <br> The clauses of the given CNF are hard clauses that are always active. Every group
+ * of clauses added by {@link #addGroup(Collection)} is guarded by one permanent selector variable of a {@link SelectorSatSolver}. Thus, each satisfiability
+ * check during the extraction is a single call of {@link SelectorSatSolver#hasSolution(int...)} with the selectors of the active groups as assumptions. No
+ * clause is ever removed, which keeps the solver and all of its learned clauses warm over the extraction of many subsets.<br> <br> A subset is minimized
+ * either with QuickXplain or with deletion. Both start with the (not necessarily minimal) conflicting assumptions reported by the solver. Multiple subsets are
+ * enumerated with a hitting set tree, which stops after a given number of subsets has been found.<br> <br> This class is not thread-safe.
+ *
+ * @see SelectorSatSolver
+ */
+public class SelectorMusExtractor {
+
+	/**
+	 * The algorithm used to minimize an unsatisfiable subset.
+	 */
+	public enum Minimization {
+		/**
+		 * Removes one group at a time and keeps it only if the remaining groups are satisfiable. Every unsatisfiable call trims the remaining groups to its
+		 * conflicting assumptions, which makes this the fastest choice if these conflicts are already small.
+		 */
+		DELETION,
+		/** Divide-and-conquer minimization after Junker's QuickXplain. Needs fewer solver calls if a large conflict contains only a small subset. */
+		QUICKXPLAIN,
+	}
+
+	private final SelectorSatSolver solver;
+	private int[] selectors = new int[16];
+	private int groupCount = 0;
+	private int hintHits = 0;
+
+	private Minimization minimization = Minimization.DELETION;
+
+	/**
+	 * Creates a new extractor.
+	 *
+	 * @param cnf the hard clauses; must not be sliced
+	 * @throws RuntimeContradictionException if the hard clauses are a contradiction
+	 */
+	public SelectorMusExtractor(CNF cnf) throws RuntimeContradictionException {
+		solver = new SelectorSatSolver(cnf);
+	}
+
+	/**
+	 * Adds a group of clauses that is guarded by a new selector variable.
+	 *
+	 * @param clauses the clauses of the group; an empty clause makes the group a contradiction in and of itself
+	 * @return the index of the new group
+	 */
+	public int addGroup(Collection<? extends LiteralSet> clauses) {
+		final int selector = solver.newSelector();
+		for (final LiteralSet clause : clauses) {
+			solver.addSelectedClause(clause, selector);
+		}
+		if (groupCount == selectors.length) {
+			selectors = Arrays.copyOf(selectors, selectors.length << 1);
+		}
+		selectors[groupCount] = selector;
+		return groupCount++;
+	}
+
+	/**
+	 * @return the number of groups added so far
+	 */
+	public int getGroupCount() {
+		return groupCount;
+	}
+
+	/**
+	 * Returns the selector of the given group. Adding the selector to the assumptions of a query makes the group a hard part of the query.
+	 *
+	 * @param group the index of the group
+	 * @return the selector variable of the group
+	 */
+	public int getSelector(int group) {
+		if ((group < 0) || (group >= groupCount)) {
+			throw new IndexOutOfBoundsException(Integer.toString(group));
+		}
+		return selectors[group];
+	}
+
+	/**
+	 * @return the indexes of all groups
+	 */
+	public int[] getAllGroups() {
+		final int[] groups = new int[groupCount];
+		for (int i = 0; i < groups.length; i++) {
+			groups[i] = i;
+		}
+		return groups;
+	}
+
+	/**
+	 * @param excludedGroups the indexes of the groups to leave out
+	 * @return the indexes of all groups except the given ones
+	 */
+	public int[] getAllGroupsExcept(int... excludedGroups) {
+		final boolean[] excluded = new boolean[groupCount];
+		int excludedCount = 0;
+		for (final int group : excludedGroups) {
+			if (!excluded[group]) {
+				excluded[group] = true;
+				excludedCount++;
+			}
+		}
+		final int[] groups = new int[groupCount - excludedCount];
+		int index = 0;
+		for (int i = 0; i < groupCount; i++) {
+			if (!excluded[i]) {
+				groups[index++] = i;
+			}
+		}
+		return groups;
+	}
+
+	public Minimization getMinimization() {
+		return minimization;
+	}
+
+	public void setMinimization(Minimization minimization) {
+		if (minimization == null) {
+			throw new IllegalArgumentException("Minimization must not be null");
+		}
+		this.minimization = minimization;
+	}
+
+	/**
+	 * @return the underlying solver
+	 */
+	public SelectorSatSolver getSolver() {
+		return solver;
+	}
+
+	/**
+	 * Checks whether the hard clauses, the given groups, and the given assumptions are satisfiable.
+	 *
+	 * @param groups the indexes of the active groups
+	 * @param assumptions literals of the variables of the CNF or selectors of further groups
+	 * @return {@code true} if satisfiable
+	 * @throws RuntimeTimeoutException if the solver times out
+	 */
+	public boolean isSatisfiable(int[] groups, int... assumptions) throws RuntimeTimeoutException {
+		return check(assumptions, groups, 0, groups.length);
+	}
+
+	/**
+	 * Computes one minimal subset of the given groups that is unsatisfiable together with the hard clauses and the given assumptions. The assumptions are
+	 * never part of the subset.
+	 *
+	 * @param groups the indexes of the active groups
+	 * @param assumptions literals of the variables of the CNF or selectors of further groups
+	 * @return the sorted indexes of the groups in the subset (empty if the hard clauses and the assumptions are already a contradiction) or {@code null} if the
+	 *         given groups are satisfiable
+	 * @throws RuntimeTimeoutException if the solver times out
+	 */
+	public int[] getMinimalUnsatisfiableSubset(int[] groups, int... assumptions) throws RuntimeTimeoutException {
+		if (check(assumptions, groups, 0, groups.length)) {
+			return null;
+		}
+		return minimize(trimToConflict(groups, groups.length), assumptions);
+	}
+
+	/**
+	 * Computes one minimal unsatisfiable subset like {@link #getMinimalUnsatisfiableSubset(int[], int...)}, but first tries to find it within the given hint.
+	 * A hint is typically the subset of a related query, such as the explanation of a feature in the same atomic set. If the active groups of the hint are
+	 * already unsatisfiable, only these groups are minimized. Otherwise, the hint costs a single additional solver call.
+	 *
+	 * @param groups the indexes of the active groups
+	 * @param hint the indexes of the groups that are likely to contain a subset; groups that are not active are ignored; may be null
+	 * @param assumptions literals of the variables of the CNF or selectors of further groups
+	 * @return the sorted indexes of the groups in the subset or {@code null} if the given groups are satisfiable
+	 * @throws RuntimeTimeoutException if the solver times out
+	 * @see #getHintHits()
+	 */
+	public int[] getMinimalUnsatisfiableSubset(int[] groups, int[] hint, int... assumptions) throws RuntimeTimeoutException {
+		if (hint != null) {
+			final boolean[] active = new boolean[groupCount];
+			for (final int group : groups) {
+				active[group] = true;
+			}
+			final int[] activeHint = new int[hint.length];
+			int activeHintCount = 0;
+			for (final int group : hint) {
+				if (active[group]) {
+					active[group] = false;
+					activeHint[activeHintCount++] = group;
+				}
+			}
+			if (!check(assumptions, activeHint, 0, activeHintCount)) {
+				hintHits++;
+				return minimize(trimToConflict(activeHint, activeHintCount), assumptions);
+			}
+		}
+		return getMinimalUnsatisfiableSubset(groups, assumptions);
+	}
+
+	/**
+	 * @return the number of calls of {@link #getMinimalUnsatisfiableSubset(int[], int[], int...)} whose subset was found within the hint
+	 */
+	public int getHintHits() {
+		return hintHits;
+	}
+
+	private int[] minimize(int[] core, int[] assumptions) {
+		if (core.length > 0) {
+			switch (minimization) {
+			case QUICKXPLAIN:
+				if (check(assumptions, core, 0, 0)) {
+					core = quickXplain(assumptions, core, 0, core.length);
+				} else {
+					core = new int[0];
+				}
+				break;
+			case DELETION:
+			default:
+				core = deletion(assumptions, core);
+				break;
+			}
+		}
+		Arrays.sort(core);
+		return core;
+	}
+
+	/**
+	 * Computes up to the given number of distinct minimal unsatisfiable subsets of the given groups. The subsets are enumerated breadth-first with a hitting set
+	 * tree. Hence, the first subsets are found with the least number of removed groups and the enumeration stops as soon as enough subsets are found.
+	 *
+	 * @param groups the indexes of the active groups
+	 * @param maxCount the maximum number of subsets to compute; at least 1
+	 * @param assumptions literals of the variables of the CNF or selectors of further groups
+	 * @return the subsets in order of discovery as returned by {@link #getMinimalUnsatisfiableSubset(int[], int...)}; empty if the given groups are satisfiable
+	 * @throws RuntimeTimeoutException if the solver times out
+	 */
+	public List<int[]> getMinimalUnsatisfiableSubsets(int[] groups, int maxCount, int... assumptions) throws RuntimeTimeoutException {
+		return getMinimalUnsatisfiableSubsets(groups, null, maxCount, assumptions);
+	}
+
+	/**
+	 * Computes up to the given number of distinct minimal unsatisfiable subsets like {@link #getMinimalUnsatisfiableSubsets(int[], int, int...)}. The first
+	 * subset is searched within the given hint as by {@link #getMinimalUnsatisfiableSubset(int[], int[], int...)}.
+	 *
+	 * @param groups the indexes of the active groups
+	 * @param hint the indexes of the groups that are likely to contain a subset; may be null
+	 * @param maxCount the maximum number of subsets to compute; at least 1
+	 * @param assumptions literals of the variables of the CNF or selectors of further groups
+	 * @return the subsets in order of discovery; empty if the given groups are satisfiable
+	 * @throws RuntimeTimeoutException if the solver times out
+	 */
+	public List<int[]> getMinimalUnsatisfiableSubsets(int[] groups, int[] hint, int maxCount, int... assumptions) throws RuntimeTimeoutException {
+		if (maxCount < 1) {
+			throw new IllegalArgumentException("Maximum count must be at least 1");
+		}
+		final int[] firstSubset = getMinimalUnsatisfiableSubset(groups, hint, assumptions);
+		if (firstSubset == null) {
+			return Collections.emptyList();
+		}
+		final List<int[]> subsets = new ArrayList<>();
+		subsets.add(firstSubset);
+		if ((maxCount == 1) || (firstSubset.length == 0)) {
+			return subsets;
+		}
+
+		final List<Set<Integer>> satisfiableRemovals = new ArrayList<>();
+		final Set<Set<Integer>> visitedRemovals = new HashSet<>();
+		final ArrayDeque<Set<Integer>> queue = new ArrayDeque<>();
+		expand(Collections.<Integer> emptySet(), firstSubset, visitedRemovals, queue);
+
+		while (!queue.isEmpty() && (subsets.size() < maxCount)) {
+			final Set<Integer> removal = queue.poll();
+			if (containsSubset(satisfiableRemovals, removal)) {
+				continue;
+			}
+			int[] subset = null;
+			for (final int[] knownSubset : subsets) {
+				if (isDisjoint(knownSubset, removal)) {
+					subset = knownSubset;
+					break;
+				}
+			}
+			if (subset == null) {
+				final int[] remainingGroups = new int[groups.length];
+				int remainingCount = 0;
+				for (final int group : groups) {
+					if (!removal.contains(group)) {
+						remainingGroups[remainingCount++] = group;
+					}
+				}
+				subset = getMinimalUnsatisfiableSubset(Arrays.copyOf(remainingGroups, remainingCount), assumptions);
+				if (subset == null) {
+					satisfiableRemovals.add(removal);
+					continue;
+				}
+				subsets.add(subset);
+			}
+			expand(removal, subset, visitedRemovals, queue);
+		}
+		return subsets;
+	}
+
+	private static void expand(Set<Integer> removal, int[] subset, Set<Set<Integer>> visitedRemovals, ArrayDeque<Set<Integer>> queue) {
+		for (final int group : subset) {
+			final Set<Integer> childRemoval = new HashSet<>(removal);
+			childRemoval.add(group);
+			if (visitedRemovals.add(childRemoval)) {
+				queue.add(childRemoval);
+			}
+		}
+	}
+
+	private static boolean containsSubset(List<Set<Integer>> sets, Set<Integer> superset) {
+		for (final Set<Integer> set : sets) {
+			if (superset.containsAll(set)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isDisjoint(int[] subset, Set<Integer> removal) {
+		for (final int group : subset) {
+			if (removal.contains(group)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Removes one group at a time. Whenever the remaining groups are still unsatisfiable, they are trimmed to the conflicting assumptions of that call.
+	 */
+	private int[] deletion(int[] assumptions, int[] core) {
+		int[] candidate = core;
+		int index = 0;
+		while (index < candidate.length) {
+			final int[] reduced = new int[candidate.length - 1];
+			System.arraycopy(candidate, 0, reduced, 0, index);
+			System.arraycopy(candidate, index + 1, reduced, index, reduced.length - index);
+			if (check(assumptions, reduced, 0, reduced.length)) {
+				index++;
+			} else {
+				final int[] trimmed = trimToConflict(reduced, reduced.length);
+				// Groups before the index are known to be necessary and are always part of the conflict.
+				candidate = trimmed;
+				index = Math.min(index, candidate.length);
+			}
+		}
+		return candidate;
+	}
+
+	/**
+	 * QuickXplain on the groups in <code>groups[from:to]</code>. The groups in <code>groups[0:from]</code> are the background, which is known to be
+	 * satisfiable together with the assumptions. The groups are reordered in place, such that the returned groups are the prefix of the given range.
+	 */
+	private int[] quickXplain(int[] assumptions, int[] groups, int from, int to) {
+		final int length = quickXplain(assumptions, groups, from, to, false);
+		return Arrays.copyOfRange(groups, from, from + length);
+	}
+
+	private int quickXplain(int[] assumptions, int[] groups, int from, int to, boolean hasDelta) {
+		if (hasDelta && !check(assumptions, groups, 0, from)) {
+			return 0;
+		}
+		final int size = to - from;
+		if (size == 1) {
+			return 1;
+		}
+		final int middle = from + (size >>> 1);
+
+		// Explain the second half with the first half as background.
+		final int length2 = quickXplain(assumptions, groups, middle, to, true);
+
+		// Move the result of the second half to the front and explain the first half with it as background.
+		final int[] firstHalf = Arrays.copyOfRange(groups, from, middle);
+		System.arraycopy(groups, middle, groups, from, length2);
+		final int firstFrom = from + length2;
+		System.arraycopy(firstHalf, 0, groups, firstFrom, firstHalf.length);
+		final int length1 = quickXplain(assumptions, groups, firstFrom, firstFrom + firstHalf.length, length2 > 0);
+
+		return length2 + length1;
+	}
+
+	private boolean check(int[] assumptions, int[] groups, int from, int to) {
+		final int[] query = Arrays.copyOf(assumptions, assumptions.length + (to - from));
+		for (int i = from; i < to; i++) {
+			query[assumptions.length + (i - from)] = selectors[groups[i]];
+		}
+		switch (solver.hasSolution(query)) {
+		case FALSE:
+			return false;
+		case TRUE:
+			return true;
+		case TIMEOUT:
+		default:
+			throw new RuntimeTimeoutException();
+		}
+	}
+
+	/**
+	 * Restricts the given groups to those whose selectors are part of the conflicting assumptions of the last unsatisfiable call.
+	 */
+	private int[] trimToConflict(int[] groups, int length) {
+		final int[] conflict = solver.getConflictingAssumptions();
+		if (conflict.length == 0) {
+			return Arrays.copyOf(groups, length);
+		}
+		final Set<Integer> conflictingSelectors = new HashSet<>();
+		for (final int literal : conflict) {
+			conflictingSelectors.add(Math.abs(literal));
+		}
+		final int[] trimmed = new int[length];
+		int trimmedCount = 0;
+		for (int i = 0; i < length; i++) {
+			if (conflictingSelectors.contains(selectors[groups[i]])) {
+				trimmed[trimmedCount++] = groups[i];
+			}
+		}
+		return Arrays.copyOf(trimmed, trimmedCount);
+	}
+
+}
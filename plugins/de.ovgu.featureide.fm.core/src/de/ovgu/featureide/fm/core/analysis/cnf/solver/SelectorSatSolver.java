@@ -0,0 +1,168 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.cnf.solver;
+
+import java.util.Arrays;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IConstr;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+
+/**
+ * Sat solver that guards clauses with selector literals. A guarded clause is only active if its selector is assumed to be true in a call of
+ * {@link #hasSolution(int...)}. Thus, different subsets of clauses can be checked with one solver instance without removing any clause, which keeps all
+ * learned clauses between calls.<br> Selector variables are numbered after the variables of the given CNF. They are never part of a solution returned by
+ * {@link #getSolution()}.<br> <b>Note:</b> The given CNF must not be sliced (see {@link CNF#normalize()}).
+ */
+public class SelectorSatSolver extends SimpleSatSolver {
+
+	protected final int numberOfVariables;
+	protected int numberOfSelectors = 0;
+	private boolean orderOutdated = false;
+
+	public SelectorSatSolver(CNF satInstance) throws RuntimeContradictionException {
+		super(satInstance);
+		numberOfVariables = satInstance.getVariables().size();
+	}
+
+	/**
+	 * Creates a new selector variable.
+	 *
+	 * @return The new selector variable (a positive literal).
+	 */
+	public int newSelector() {
+		final int selector = numberOfVariables + ++numberOfSelectors;
+		if (!contradiction) {
+			solver.newVar(selector);
+			orderOutdated = true;
+		}
+		return selector;
+	}
+
+	/**
+	 * Adds a clause that is only active if the given selector is assumed to be true.
+	 *
+	 * @param clause The clause to add.
+	 * @param selector A selector variable created by {@link #newSelector()}.
+	 * @return The identifying constraint object of the guarded clause.
+	 */
+	public IConstr addSelectedClause(LiteralSet clause, int selector) throws RuntimeContradictionException {
+		final int[] literals = clause.getLiterals();
+		final int[] guardedLiterals = Arrays.copyOf(literals, literals.length + 1);
+		guardedLiterals[literals.length] = -selector;
+		return addGuardedClause(guardedLiterals);
+	}
+
+	/**
+	 * Adds a clause that is guarded by a new selector variable.
+	 *
+	 * @param clause The clause to add.
+	 * @return The selector variable of the clause.
+	 */
+	public int addSelectedClause(LiteralSet clause) throws RuntimeContradictionException {
+		final int selector = newSelector();
+		addSelectedClause(clause, selector);
+		return selector;
+	}
+
+	private IConstr addGuardedClause(int[] literals) throws RuntimeContradictionException {
+		if (contradiction) {
+			return null;
+		}
+		try {
+			return solver.addClause(new VecInt(literals));
+		} catch (final ContradictionException e) {
+			throw new RuntimeContradictionException(e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}<br> <br> The assignment may contain arbitrary literals of selector variables.
+	 */
+	@Override
+	public SatResult hasSolution(int... assignment) {
+		if (contradiction) {
+			return SatResult.FALSE;
+		}
+		if (orderOutdated) {
+			// The variable order has to know all selectors that were created after the last call
+			solver.getOrder().init();
+			orderOutdated = false;
+		}
+		try {
+			solver.setKeepSolverHot(true);
+			if (solver.isSatisfiable(new VecInt(Arrays.copyOf(assignment, assignment.length)), false)) {
+				return SatResult.TRUE;
+			} else {
+				return SatResult.FALSE;
+			}
+		} catch (final TimeoutException e) {
+			return SatResult.TIMEOUT;
+		}
+	}
+
+	/**
+	 * Returns the last solution found by the solver without any selector variables.
+	 *
+	 * @return An int array representing the satisfying assignment.
+	 */
+	@Override
+	public int[] getSolution() {
+		return contradiction ? null : Arrays.copyOf(solver.model(), numberOfVariables);
+	}
+
+	/**
+	 * Returns a subset of the assumptions of the last unsatisfiable call of {@link #hasSolution(int...)} that is sufficient to cause the contradiction. The
+	 * subset is not necessarily minimal.
+	 *
+	 * @return An int array containing the conflicting assumptions.
+	 */
+	public int[] getConflictingAssumptions() {
+		if (contradiction) {
+			return new int[0];
+		}
+		final IVecInt unsatExplanation = solver.unsatExplanation();
+		return unsatExplanation == null ? new int[0] : Arrays.copyOf(unsatExplanation.toArray(), unsatExplanation.size());
+	}
+
+	public int getNumberOfVariables() {
+		return numberOfVariables;
+	}
+
+	public int getNumberOfSelectors() {
+		return numberOfSelectors;
+	}
+
+	public boolean isSelector(int literal) {
+		return Math.abs(literal) > numberOfVariables;
+	}
+
+	@Override
+	public SelectorSatSolver clone() {
+		throw new RuntimeException("Cloning not supported for " + this.getClass().toString());
+	}
+
+}
@@ -0,0 +1,511 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.ddnnf;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.RuntimeTimeoutException;
+import de.ovgu.featureide.fm.core.analysis.ddnnf.DecisionDNNF.AndNode;
+import de.ovgu.featureide.fm.core.analysis.ddnnf.DecisionDNNF.DecisionNode;
+import de.ovgu.featureide.fm.core.analysis.ddnnf.DecisionDNNF.FalseNode;
+import de.ovgu.featureide.fm.core.analysis.ddnnf.DecisionDNNF.Node;
+import de.ovgu.featureide.fm.core.job.LongRunningMethod;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+
+/**
+ * Compiles a {@link CNF} into a {@link DecisionDNNF} using an exhaustive DPLL search with unit propagation, decomposition into independent components, and
+ * component caching. The search keeps its own stack, so its depth is not limited by the stack size of the calling thread. If a {@link #setTimeout(int)
+ * timeout} is set and exceeded, the compilation stops and returns {@code null}.<br> <b>Note:</b> The given CNF must not be sliced (see
+ * {@link CNF#normalize()}).
+ */
+public class DDNNFBuilder implements LongRunningMethod<DecisionDNNF> {
+
+	private static final class ComponentKey {
+
+		private final int[][] clauses;
+		private final int hashCode;
+
+		private ComponentKey(int[][] clauses) {
+			this.clauses = clauses;
+			hashCode = Arrays.deepHashCode(clauses);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return (this == obj) || ((obj instanceof ComponentKey) && (hashCode == obj.hashCode()) && Arrays.deepEquals(clauses, ((ComponentKey) obj).clauses));
+		}
+
+	}
+
+	/**
+	 * Compilation of a component by a decision on one of its variables.
+	 */
+	private static final class DecisionFrame {
+
+		private final ComponentKey key;
+		private final int[][] component;
+		private final int[] variables;
+		private final int variable;
+
+		private int stage = 0;
+		private Node positive = null;
+
+		private DecisionFrame(ComponentKey key, int[][] component, int[] variables, int variable) {
+			this.key = key;
+			this.component = component;
+			this.variables = variables;
+			this.variable = variable;
+		}
+
+	}
+
+	/**
+	 * Compilation of the independent components that remain after unit propagation.
+	 */
+	private static final class AndFrame {
+
+		private final int[] literals;
+		private final int[] freeVariables;
+		private final int[][][] components;
+		private final Node[] children;
+
+		private int next = 0;
+
+		private AndFrame(int[] literals, int[] freeVariables, int[][][] components) {
+			this.literals = literals;
+			this.freeVariables = freeVariables;
+			this.components = components;
+			children = new Node[components.length];
+		}
+
+	}
+
+	private static final Comparator<int[]> clauseComparator = new Comparator<int[]>() {
+
+		@Override
+		public int compare(int[] o1, int[] o2) {
+			final int length = Math.min(o1.length, o2.length);
+			for (int i = 0; i < length; i++) {
+				final int diff = Integer.compare(o1[i], o2[i]);
+				if (diff != 0) {
+					return diff;
+				}
+			}
+			return o1.length - o2.length;
+		}
+	};
+
+	private final CNF satInstance;
+	private final int numberOfVariables;
+	private final HashMap<ComponentKey, Node> cache = new HashMap<>();
+	private final FalseNode falseNode = new FalseNode();
+
+	private final byte[] values;
+	private final int[] trail;
+	private final int[] occurrences;
+	private final int[] parents;
+
+	private IMonitor<?> monitor;
+	private int timeout = 0;
+	private long deadline;
+	private int numberOfNodes;
+
+	public DDNNFBuilder(CNF satInstance) {
+		this.satInstance = satInstance;
+		numberOfVariables = satInstance.getVariables().size();
+		values = new byte[numberOfVariables + 1];
+		trail = new int[numberOfVariables];
+		occurrences = new int[numberOfVariables + 1];
+		parents = new int[numberOfVariables + 1];
+	}
+
+	public int getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * Sets the maximum time for the compilation.
+	 *
+	 * @param timeout the timeout in milliseconds or {@code 0} for no timeout. Default is {@code 0}.
+	 */
+	public void setTimeout(int timeout) {
+		if (timeout < 0) {
+			throw new IllegalArgumentException(Integer.toString(timeout));
+		}
+		this.timeout = timeout;
+	}
+
+	@Override
+	public DecisionDNNF execute(IMonitor<DecisionDNNF> monitor) throws Exception {
+		return build(monitor);
+	}
+
+	/**
+	 * Compiles the CNF.
+	 *
+	 * @param monitor the monitor that is checked for cancellation
+	 * @return the decision-DNNF or {@code null} if the timeout was exceeded
+	 */
+	DecisionDNNF build(IMonitor<?> monitor) {
+		this.monitor = monitor;
+		deadline = timeout > 0 ? System.currentTimeMillis() + timeout : Long.MAX_VALUE;
+		numberOfNodes = 1;
+
+		final List<LiteralSet> clauseList = satInstance.getClauses();
+		final ArrayList<int[]> clauses = new ArrayList<>(clauseList.size());
+		for (final LiteralSet clause : clauseList) {
+			final int[] cleanClause = clean(clause.getLiterals());
+			if (cleanClause != null) {
+				clauses.add(cleanClause);
+			}
+		}
+		final int[] variables = new int[numberOfVariables];
+		for (int i = 0; i < numberOfVariables; i++) {
+			variables[i] = i + 1;
+		}
+		try {
+			final Node root = compile(clauses.toArray(new int[0][]), variables);
+			return new DecisionDNNF(satInstance.getVariables(), numberOfVariables, root, numberOfNodes);
+		} catch (final RuntimeTimeoutException e) {
+			return null;
+		} finally {
+			cache.clear();
+		}
+	}
+
+	/**
+	 * @return a sorted copy of the clause without duplicate literals or {@code null} if the clause is a tautology.
+	 */
+	private static int[] clean(int[] literals) {
+		final int[] sortedLiterals = Arrays.copyOf(literals, literals.length);
+		Arrays.sort(sortedLiterals);
+		int length = 0;
+		for (int i = 0; i < sortedLiterals.length; i++) {
+			final int literal = sortedLiterals[i];
+			if ((length == 0) || (sortedLiterals[length - 1] != literal)) {
+				if (Arrays.binarySearch(sortedLiterals, -literal) >= 0) {
+					return null;
+				}
+				sortedLiterals[length++] = literal;
+			}
+		}
+		return Arrays.copyOf(sortedLiterals, length);
+	}
+
+	/**
+	 * Compiles the given clauses. Instead of calling each other recursively, {@link #propagateAndDecompose(int[][], int[], int, ArrayDeque)} and
+	 * {@link #compileComponent(int[][], ArrayDeque)} push a frame for each pending node on the stack. The result of a finished frame is passed to the frame
+	 * below it, {@code null} denotes that a frame has just been pushed.
+	 */
+	private Node compile(int[][] clauses, int[] variables) {
+		final ArrayDeque<Object> stack = new ArrayDeque<>();
+		Node result = propagateAndDecompose(clauses, variables, 0, stack);
+		while (!stack.isEmpty()) {
+			final Object frame = stack.peek();
+			if (frame instanceof AndFrame) {
+				final AndFrame andFrame = (AndFrame) frame;
+				if (result == falseNode) {
+					stack.pop();
+				} else {
+					if (result != null) {
+						andFrame.children[andFrame.next++] = result;
+					}
+					if (andFrame.next < andFrame.children.length) {
+						result = compileComponent(andFrame.components[andFrame.next], stack);
+					} else {
+						stack.pop();
+						numberOfNodes++;
+						result = new AndNode(andFrame.literals, andFrame.freeVariables, andFrame.children);
+					}
+				}
+			} else {
+				final DecisionFrame decisionFrame = (DecisionFrame) frame;
+				switch (decisionFrame.stage++) {
+				case 0:
+					result = propagateAndDecompose(decisionFrame.component, decisionFrame.variables, decisionFrame.variable, stack);
+					break;
+				case 1:
+					decisionFrame.positive = result;
+					result = propagateAndDecompose(decisionFrame.component, decisionFrame.variables, -decisionFrame.variable, stack);
+					break;
+				default:
+					stack.pop();
+					if ((decisionFrame.positive == falseNode) && (result == falseNode)) {
+						result = falseNode;
+					} else {
+						result = new DecisionNode(decisionFrame.variable, decisionFrame.positive, result);
+						numberOfNodes++;
+					}
+					cache.put(decisionFrame.key, result);
+					break;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the cached node of the component or {@code null} if a frame for its compilation was pushed on the stack.
+	 */
+	private Node compileComponent(int[][] component, ArrayDeque<Object> stack) {
+		final ComponentKey key = new ComponentKey(component);
+		final Node cachedNode = cache.get(key);
+		if (cachedNode != null) {
+			return cachedNode;
+		}
+		monitor.checkCancel();
+		if (System.currentTimeMillis() > deadline) {
+			throw new RuntimeTimeoutException();
+		}
+
+		final int[] variables = getVariables(component);
+		int decisionVariable = 0;
+		int maxOccurrences = -1;
+		for (final int variable : variables) {
+			if (-occurrences[variable] > maxOccurrences) {
+				maxOccurrences = -occurrences[variable];
+				decisionVariable = variable;
+			}
+		}
+		for (final int variable : variables) {
+			occurrences[variable] = 0;
+		}
+
+		stack.push(new DecisionFrame(key, component, variables, decisionVariable));
+		return null;
+	}
+
+	/**
+	 * Computes all variables of the given clauses. Stores the negated number of occurrences of each variable as a side effect.
+	 */
+	private int[] getVariables(int[][] clauses) {
+		int variableCount = 0;
+		for (final int[] clause : clauses) {
+			for (final int literal : clause) {
+				if (occurrences[Math.abs(literal)]++ == 0) {
+					variableCount++;
+				}
+			}
+		}
+		final int[] variables = new int[variableCount];
+		int i = 0;
+		for (final int[] clause : clauses) {
+			for (final int literal : clause) {
+				final int variable = Math.abs(literal);
+				if (occurrences[variable] > 0) {
+					variables[i++] = variable;
+					occurrences[variable] = -occurrences[variable];
+				}
+			}
+		}
+		Arrays.sort(variables);
+		return variables;
+	}
+
+	/**
+	 * Assigns the given decision literal, applies unit propagation, and decomposes the remaining clauses into independent components.
+	 *
+	 * @param clauses the clauses
+	 * @param scope all variables that are considered in the resulting node
+	 * @param decision the decision literal or 0
+	 * @param stack the stack of pending frames
+	 * @return the compiled node or {@code null} if a frame for the remaining components was pushed on the stack
+	 */
+	private Node propagateAndDecompose(int[][] clauses, int[] scope, int decision, ArrayDeque<Object> stack) {
+		int trailSize = 0;
+		if (decision != 0) {
+			values[Math.abs(decision)] = (byte) (decision > 0 ? 1 : -1);
+			trail[trailSize++] = decision;
+		}
+
+		final int[][] reducedClauses;
+		try {
+			boolean changed = true;
+			while (changed) {
+				changed = false;
+				for (final int[] clause : clauses) {
+					int unassignedLiteral = 0;
+					int unassignedCount = 0;
+					boolean satisfied = false;
+					for (final int literal : clause) {
+						final byte value = values[Math.abs(literal)];
+						if (value == 0) {
+							unassignedLiteral = literal;
+							unassignedCount++;
+						} else if ((value > 0) == (literal > 0)) {
+							satisfied = true;
+							break;
+						}
+					}
+					if (!satisfied) {
+						if (unassignedCount == 0) {
+							return falseNode;
+						} else if (unassignedCount == 1) {
+							values[Math.abs(unassignedLiteral)] = (byte) (unassignedLiteral > 0 ? 1 : -1);
+							trail[trailSize++] = unassignedLiteral;
+							changed = true;
+						}
+					}
+				}
+			}
+			reducedClauses = reduce(clauses);
+		} finally {
+			for (int i = 0; i < trailSize; i++) {
+				values[Math.abs(trail[i])] = 0;
+			}
+		}
+
+		final int[] literals = Arrays.copyOf(trail, trailSize);
+		for (final int literal : literals) {
+			values[Math.abs(literal)] = 2;
+		}
+		for (final int[] clause : reducedClauses) {
+			for (final int literal : clause) {
+				values[Math.abs(literal)] = 2;
+			}
+		}
+		int freeCount = 0;
+		for (final int variable : scope) {
+			if (values[variable] == 0) {
+				freeCount++;
+			}
+		}
+		final int[] freeVariables = new int[freeCount];
+		int i = 0;
+		for (final int variable : scope) {
+			if (values[variable] == 0) {
+				freeVariables[i++] = variable;
+			} else {
+				values[variable] = 0;
+			}
+		}
+
+		final int[][][] components = decompose(reducedClauses);
+		if (components.length == 0) {
+			numberOfNodes++;
+			return new AndNode(literals, freeVariables, new Node[0]);
+		}
+		stack.push(new AndFrame(literals, freeVariables, components));
+		return null;
+	}
+
+	/**
+	 * @return all clauses that are not satisfied by the current assignment without their assigned literals.
+	 */
+	private int[][] reduce(int[][] clauses) {
+		final ArrayList<int[]> reducedClauses = new ArrayList<>(clauses.length);
+		clauseLoop: for (final int[] clause : clauses) {
+			int unassignedCount = 0;
+			for (final int literal : clause) {
+				final byte value = values[Math.abs(literal)];
+				if (value == 0) {
+					unassignedCount++;
+				} else if ((value > 0) == (literal > 0)) {
+					continue clauseLoop;
+				}
+			}
+			if (unassignedCount == clause.length) {
+				reducedClauses.add(clause);
+			} else {
+				final int[] reducedClause = new int[unassignedCount];
+				int i = 0;
+				for (final int literal : clause) {
+					if (values[Math.abs(literal)] == 0) {
+						reducedClause[i++] = literal;
+					}
+				}
+				reducedClauses.add(reducedClause);
+			}
+		}
+		return reducedClauses.toArray(new int[0][]);
+	}
+
+	/**
+	 * Splits the given clauses into groups that do not share any variable. Each group is sorted to be used as a cache key.
+	 */
+	private int[][][] decompose(int[][] clauses) {
+		if (clauses.length == 0) {
+			return new int[0][][];
+		}
+		for (final int[] clause : clauses) {
+			final int root = find(Math.abs(clause[0]));
+			for (int i = 1; i < clause.length; i++) {
+				final int otherRoot = find(Math.abs(clause[i]));
+				if (otherRoot != root) {
+					parents[otherRoot] = root;
+				}
+			}
+		}
+
+		final HashMap<Integer, List<int[]>> groups = new HashMap<>();
+		for (final int[] clause : clauses) {
+			final int root = find(Math.abs(clause[0]));
+			List<int[]> group = groups.get(root);
+			if (group == null) {
+				group = new ArrayList<>();
+				groups.put(root, group);
+			}
+			group.add(clause);
+		}
+		for (final int[] clause : clauses) {
+			for (final int literal : clause) {
+				parents[Math.abs(literal)] = 0;
+			}
+		}
+
+		final int[][][] components = new int[groups.size()][][];
+		int i = 0;
+		for (final List<int[]> group : groups.values()) {
+			final int[][] component = group.toArray(new int[0][]);
+			Arrays.sort(component, clauseComparator);
+			components[i++] = component;
+		}
+		return components;
+	}
+
+	private int find(int variable) {
+		int root = variable;
+		while ((parents[root] != 0) && (parents[root] != root)) {
+			root = parents[root];
+		}
+		int current = variable;
+		while (current != root) {
+			final int next = parents[current];
+			parents[current] = root;
+			current = next;
+		}
+		parents[root] = root;
+		return root;
+	}
+
+}
@@ -0,0 +1,418 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.ddnnf;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Random;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.Variables;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+import de.ovgu.featureide.fm.core.job.monitor.NullMonitor;
+
+/**
+ * Decision-DNNF representation of a propositional formula. Each node stores the number of solutions over the variables it contains, which allows exact model
+ * counting under assumptions and uniform random sampling of solutions in linear time in the size of the graph. Both traverse the graph with an explicit
+ * stack, so they do not depend on the stack size of the calling thread.
+ *
+ * @see DDNNFBuilder
+ */
+public class DecisionDNNF implements Serializable {
+
+	private static final long serialVersionUID = 1836455371862813384L;
+
+	/**
+	 * A node of the decision-DNNF.
+	 */
+	public abstract static class Node implements Serializable {
+
+		private static final long serialVersionUID = 5349380136458163914L;
+
+		protected final BigInteger count;
+
+		protected Node(BigInteger count) {
+			this.count = count;
+		}
+
+		/**
+		 * @return the number of solutions over the variables contained in this node.
+		 */
+		public BigInteger getCount() {
+			return count;
+		}
+
+	}
+
+	/**
+	 * Decomposable conjunction of fixed literals, free variables, and child nodes with pairwise disjoint variables.
+	 */
+	public static final class AndNode extends Node {
+
+		private static final long serialVersionUID = -2102582347211478315L;
+
+		private final int[] literals;
+		private final int[] freeVariables;
+		private final Node[] children;
+
+		AndNode(int[] literals, int[] freeVariables, Node[] children) {
+			super(computeCount(freeVariables, children));
+			this.literals = literals;
+			this.freeVariables = freeVariables;
+			this.children = children;
+		}
+
+		private static BigInteger computeCount(int[] freeVariables, Node[] children) {
+			BigInteger count = BigInteger.ONE.shiftLeft(freeVariables.length);
+			for (final Node child : children) {
+				count = count.multiply(child.count);
+			}
+			return count;
+		}
+
+		public int[] getLiterals() {
+			return literals;
+		}
+
+		public int[] getFreeVariables() {
+			return freeVariables;
+		}
+
+		public Node[] getChildren() {
+			return children;
+		}
+
+	}
+
+	/**
+	 * Deterministic disjunction that branches on the value of one variable.
+	 */
+	public static final class DecisionNode extends Node {
+
+		private static final long serialVersionUID = 2817436108427335049L;
+
+		private final int variable;
+		private final Node positive;
+		private final Node negative;
+
+		DecisionNode(int variable, Node positive, Node negative) {
+			super(positive.count.add(negative.count));
+			this.variable = variable;
+			this.positive = positive;
+			this.negative = negative;
+		}
+
+		public int getVariable() {
+			return variable;
+		}
+
+		public Node getPositive() {
+			return positive;
+		}
+
+		public Node getNegative() {
+			return negative;
+		}
+
+	}
+
+	/**
+	 * A contradiction.
+	 */
+	public static final class FalseNode extends Node {
+
+		private static final long serialVersionUID = -1541926137407961566L;
+
+		FalseNode() {
+			super(BigInteger.ZERO);
+		}
+
+	}
+
+	public static DecisionDNNF build(CNF satInstance) {
+		return LongRunningWrapper.runMethod(new DDNNFBuilder(satInstance));
+	}
+
+	private final Variables variables;
+	private final int numberOfVariables;
+	private final Node root;
+	private final int numberOfNodes;
+
+	DecisionDNNF(Variables variables, int numberOfVariables, Node root, int numberOfNodes) {
+		this.variables = variables;
+		this.numberOfVariables = numberOfVariables;
+		this.root = root;
+		this.numberOfNodes = numberOfNodes;
+	}
+
+	public Node getRoot() {
+		return root;
+	}
+
+	/**
+	 * @return the variables of the compiled formula, which map feature names to the variables used by {@link #getSolutionCount(int...)}.
+	 */
+	public Variables getVariables() {
+		return variables;
+	}
+
+	public int getNumberOfVariables() {
+		return numberOfVariables;
+	}
+
+	public int getNumberOfNodes() {
+		return numberOfNodes;
+	}
+
+	/**
+	 * @return the number of solutions of the formula.
+	 */
+	public BigInteger getSolutionCount() {
+		return root.count;
+	}
+
+	/**
+	 * Computes the number of solutions that contain all given literals.
+	 *
+	 * @param assumptions the literals that must be contained in each solution.
+	 * @return the number of solutions.
+	 */
+	public BigInteger getSolutionCount(int... assumptions) {
+		return getSolutionCount(new NullMonitor<>(), 0, assumptions);
+	}
+
+	/**
+	 * Computes the number of solutions that contain all given literals. The computation checks the monitor for cancellation and stops when the timeout is
+	 * exceeded.
+	 *
+	 * @param monitor the monitor that is checked for cancellation.
+	 * @param timeout the timeout in milliseconds or {@code 0} for no timeout.
+	 * @param assumptions the literals that must be contained in each solution.
+	 * @return the number of solutions or {@code null} if the timeout was exceeded.
+	 */
+	public BigInteger getSolutionCount(IMonitor<?> monitor, int timeout, int... assumptions) {
+		if (assumptions.length == 0) {
+			return root.count;
+		}
+		final byte[] values = new byte[numberOfVariables + 1];
+		for (final int literal : assumptions) {
+			final int variable = Math.abs(literal);
+			final byte value = (byte) (literal > 0 ? 1 : -1);
+			if ((values[variable] != 0) && (values[variable] != value)) {
+				return BigInteger.ZERO;
+			}
+			values[variable] = value;
+		}
+		return count(values, monitor, timeout > 0 ? System.currentTimeMillis() + timeout : Long.MAX_VALUE);
+	}
+
+	/**
+	 * Counts the solutions of all nodes that are reachable under the given assignment in post-order. A node stays on the stack until the counts of all its
+	 * relevant children are known.
+	 */
+	private BigInteger count(byte[] values, IMonitor<?> monitor, long deadline) {
+		final IdentityHashMap<Node, BigInteger> cache = new IdentityHashMap<>();
+		final ArrayDeque<Node> stack = new ArrayDeque<>();
+		stack.push(root);
+		int visitedNodes = 0;
+		while (!stack.isEmpty()) {
+			final Node node = stack.peek();
+			if (cache.containsKey(node)) {
+				stack.pop();
+				continue;
+			}
+			if ((++visitedNodes & 0x3ff) == 0) {
+				monitor.checkCancel();
+				if (System.currentTimeMillis() > deadline) {
+					return null;
+				}
+			}
+
+			BigInteger count = null;
+			if (node instanceof DecisionNode) {
+				final DecisionNode decisionNode = (DecisionNode) node;
+				final byte value = values[decisionNode.variable];
+				final BigInteger positive = value < 0 ? BigInteger.ZERO : cache.get(decisionNode.positive);
+				final BigInteger negative = value > 0 ? BigInteger.ZERO : cache.get(decisionNode.negative);
+				if (positive == null) {
+					stack.push(decisionNode.positive);
+				}
+				if (negative == null) {
+					stack.push(decisionNode.negative);
+				}
+				if ((positive != null) && (negative != null)) {
+					count = positive.add(negative);
+				}
+			} else if (node instanceof AndNode) {
+				count = countAndNode((AndNode) node, values, cache, stack);
+			} else {
+				count = BigInteger.ZERO;
+			}
+			if (count != null) {
+				stack.pop();
+				cache.put(node, count);
+			}
+		}
+		return cache.get(root);
+	}
+
+	/**
+	 * @return the number of solutions of the node or {@code null} if children without a count were pushed on the stack.
+	 */
+	private BigInteger countAndNode(AndNode andNode, byte[] values, IdentityHashMap<Node, BigInteger> cache, ArrayDeque<Node> stack) {
+		for (final int literal : andNode.literals) {
+			if (values[Math.abs(literal)] == (literal > 0 ? -1 : 1)) {
+				return BigInteger.ZERO;
+			}
+		}
+		boolean pending = false;
+		for (final Node child : andNode.children) {
+			final BigInteger childCount = cache.get(child);
+			if (childCount == null) {
+				stack.push(child);
+				pending = true;
+			} else if (childCount.signum() == 0) {
+				return BigInteger.ZERO;
+			}
+		}
+		if (pending) {
+			return null;
+		}
+		int unassignedVariables = 0;
+		for (final int variable : andNode.freeVariables) {
+			if (values[variable] == 0) {
+				unassignedVariables++;
+			}
+		}
+		BigInteger count = BigInteger.ONE.shiftLeft(unassignedVariables);
+		for (final Node child : andNode.children) {
+			count = count.multiply(cache.get(child));
+		}
+		return count;
+	}
+
+	/**
+	 * Draws a solution of the formula. Each solution is drawn with the same probability.
+	 *
+	 * @param random the source of randomness.
+	 * @return a solution with one literal per variable (ordered by index) or {@code null} if the formula has no solution.
+	 */
+	public int[] sample(Random random) {
+		if (root.count.signum() == 0) {
+			return null;
+		}
+		final int[] solution = new int[numberOfVariables];
+		final ArrayDeque<Node> stack = new ArrayDeque<>();
+		stack.push(root);
+		while (!stack.isEmpty()) {
+			final Node node = stack.pop();
+			if (node instanceof DecisionNode) {
+				final DecisionNode decisionNode = (DecisionNode) node;
+				if (nextBigInteger(random, node.count).compareTo(decisionNode.positive.count) < 0) {
+					solution[decisionNode.variable - 1] = decisionNode.variable;
+					stack.push(decisionNode.positive);
+				} else {
+					solution[decisionNode.variable - 1] = -decisionNode.variable;
+					stack.push(decisionNode.negative);
+				}
+			} else if (node instanceof AndNode) {
+				final AndNode andNode = (AndNode) node;
+				for (final int literal : andNode.literals) {
+					solution[Math.abs(literal) - 1] = literal;
+				}
+				for (final int variable : andNode.freeVariables) {
+					solution[variable - 1] = random.nextBoolean() ? variable : -variable;
+				}
+				for (int i = andNode.children.length - 1; i >= 0; i--) {
+					stack.push(andNode.children[i]);
+				}
+			}
+		}
+		return solution;
+	}
+
+	/**
+	 * Returns the solution with the given rank. The ranks define a fixed order of all solutions, which is given by the structure of the decision-DNNF. Thus,
+	 * distinct ranks yield distinct solutions and a uniformly distributed rank yields a uniformly distributed solution.
+	 *
+	 * @param rank a number in the range [0, {@link #getSolutionCount()}).
+	 * @return the solution with one literal per variable (ordered by index).
+	 * @throws IllegalArgumentException if the rank is out of range.
+	 */
+	public int[] getSolution(BigInteger rank) {
+		if ((rank.signum() < 0) || (rank.compareTo(root.count) >= 0)) {
+			throw new IllegalArgumentException(rank.toString());
+		}
+		final int[] solution = new int[numberOfVariables];
+		final ArrayDeque<Node> nodes = new ArrayDeque<>();
+		final ArrayDeque<BigInteger> ranks = new ArrayDeque<>();
+		nodes.push(root);
+		ranks.push(rank);
+		while (!nodes.isEmpty()) {
+			final Node node = nodes.pop();
+			BigInteger nodeRank = ranks.pop();
+			if (node instanceof DecisionNode) {
+				final DecisionNode decisionNode = (DecisionNode) node;
+				if (nodeRank.compareTo(decisionNode.positive.count) < 0) {
+					solution[decisionNode.variable - 1] = decisionNode.variable;
+					nodes.push(decisionNode.positive);
+				} else {
+					solution[decisionNode.variable - 1] = -decisionNode.variable;
+					nodes.push(decisionNode.negative);
+					nodeRank = nodeRank.subtract(decisionNode.positive.count);
+				}
+				ranks.push(nodeRank);
+			} else if (node instanceof AndNode) {
+				final AndNode andNode = (AndNode) node;
+				for (final int literal : andNode.literals) {
+					solution[Math.abs(literal) - 1] = literal;
+				}
+				for (final int variable : andNode.freeVariables) {
+					solution[variable - 1] = nodeRank.testBit(0) ? variable : -variable;
+					nodeRank = nodeRank.shiftRight(1);
+				}
+				for (final Node child : andNode.children) {
+					final BigInteger[] quotientAndRemainder = nodeRank.divideAndRemainder(child.count);
+					nodes.push(child);
+					ranks.push(quotientAndRemainder[1]);
+					nodeRank = quotientAndRemainder[0];
+				}
+			}
+		}
+		return solution;
+	}
+
+	/**
+	 * @return a uniformly distributed integer in the range [0, bound).
+	 */
+	public static BigInteger nextBigInteger(Random random, BigInteger bound) {
+		final int bitLength = bound.bitLength();
+		BigInteger next;
+		do {
+			next = new BigInteger(bitLength, random);
+		} while (next.compareTo(bound) >= 0);
+		return next;
+	}
+
+}
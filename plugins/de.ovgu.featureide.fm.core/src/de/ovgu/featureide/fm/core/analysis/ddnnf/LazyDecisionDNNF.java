@@ -0,0 +1,87 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.ddnnf;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+
+/**
+ * Compiles a {@link CNF} into a {@link DecisionDNNF} when it is requested for the first time and keeps the result. In contrast to
+ * {@link DecisionDNNF#build(CNF)}, a request is bounded by a monitor and a timeout. A compilation that is canceled or times out is not kept, so the next
+ * request starts it again. Concurrent requests wait for a running compilation at most until their own timeout.<br> <b>Note:</b> The given CNF must not be
+ * sliced (see {@link CNF#normalize()}).
+ */
+public class LazyDecisionDNNF {
+
+	private final CNF satInstance;
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private volatile DecisionDNNF decisionDNNF = null;
+
+	public LazyDecisionDNNF(CNF satInstance) {
+		this.satInstance = satInstance;
+	}
+
+	/**
+	 * Returns the decision-DNNF and compiles it, if necessary.
+	 *
+	 * @param monitor the monitor that is checked for cancellation
+	 * @param timeout the timeout in milliseconds or {@code 0} for no timeout
+	 * @return the decision-DNNF or {@code null} if it could not be compiled within the timeout
+	 * @throws InterruptedException if the thread is interrupted while waiting for another compilation
+	 */
+	public DecisionDNNF get(IMonitor<?> monitor, int timeout) throws InterruptedException {
+		DecisionDNNF result = decisionDNNF;
+		if (result != null) {
+			return result;
+		}
+		final long start = System.currentTimeMillis();
+		if (timeout > 0) {
+			if (!lock.tryLock(timeout, TimeUnit.MILLISECONDS)) {
+				return null;
+			}
+		} else {
+			lock.lockInterruptibly();
+		}
+		try {
+			result = decisionDNNF;
+			if (result == null) {
+				final DDNNFBuilder builder = new DDNNFBuilder(satInstance);
+				if (timeout > 0) {
+					final long remainingTime = timeout - (System.currentTimeMillis() - start);
+					if (remainingTime <= 0) {
+						return null;
+					}
+					builder.setTimeout((int) remainingTime);
+				}
+				result = builder.build(monitor);
+				decisionDNNF = result;
+			}
+			return result;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+}
@@ -20,6 +20,8 @@
  */
 package de.ovgu.featureide.fm.core.cli;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -28,18 +30,22 @@ import java.util.List;
 
 import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
 import de.ovgu.featureide.fm.core.analysis.cnf.ClauseList;
-import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
 import de.ovgu.featureide.fm.core.analysis.cnf.SolutionList;
+import de.ovgu.featureide.fm.core.analysis.cnf.SolutionMatrix;
 import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
 import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.AllConfigurationGenerator;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.DDNNFRandomConfigurationGenerator;
 import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.IConfigurationGenerator;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.IConfigurationSink;
 import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.PairWiseConfigurationGenerator;
 import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.RandomConfigurationGenerator;
 import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.SPLCAToolConfigurationGenerator;
 import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.TWiseConfigurationGenerator;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
 import de.ovgu.featureide.fm.core.io.ProblemList;
+import de.ovgu.featureide.fm.core.io.binary.BinaryConfigurationListWriter;
 import de.ovgu.featureide.fm.core.io.csv.ConfigurationListFormat;
+import de.ovgu.featureide.fm.core.io.csv.ConfigurationListWriter;
 import de.ovgu.featureide.fm.core.io.expression.ExpressionGroupFormat;
 import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
 import de.ovgu.featureide.fm.core.io.manager.FileHandler;
@@ -62,9 +68,12 @@ public class ConfigurationGenerator extends ACLIFunction {
 	private boolean allowInitialSolutionModify = false;
 	private boolean allowInitialSolutionRemove = false;
 	private boolean countInitialSolutionForLimit = false;
+	private boolean uniform = false;
+	private boolean binary = false;
 	private int t;
 	private int m;
 	private int limit;
+	private int threads;
 
 	@Override
 	public String getId() {
@@ -104,7 +113,7 @@ public class ConfigurationGenerator extends ACLIFunction {
 
 		final SolutionList initialSample;
 		if (initialSampleFile != null) {
-			initialSample = new SolutionList();
+			initialSample = new SolutionList(null, new SolutionMatrix());
 			final ProblemList lastProblems = SimpleFileHandler.load(initialSampleFile, initialSample, new ConfigurationListFormat());
 			if (lastProblems.containsError()) {
 				throw new IllegalArgumentException(lastProblems.getErrors().get(0).error);
@@ -125,6 +134,7 @@ public class ConfigurationGenerator extends ACLIFunction {
 		}
 		case "incling": {
 			generator = new PairWiseConfigurationGenerator(cnf, limit);
+			((PairWiseConfigurationGenerator) generator).setParallelism(threads);
 			break;
 		}
 		case "yasa": {
@@ -144,7 +154,7 @@ public class ConfigurationGenerator extends ACLIFunction {
 			break;
 		}
 		case "random": {
-			generator = new RandomConfigurationGenerator(cnf, limit);
+			generator = uniform ? new DDNNFRandomConfigurationGenerator(cnf, limit) : new RandomConfigurationGenerator(cnf, limit);
 			break;
 		}
 		case "all": {
@@ -154,12 +164,30 @@ public class ConfigurationGenerator extends ACLIFunction {
 		default:
 			throw new IllegalArgumentException("No algorithm specified!");
 		}
-		final List<LiteralSet> result = LongRunningWrapper.runMethod(generator, new ConsoleMonitor<>());
-		if (result != null) {
-			SimpleFileHandler.save(outputFile, new SolutionList(cnf.getVariables(), result), new ConfigurationListFormat());
+		try {
+			if (binary) {
+				try (BinaryConfigurationListWriter writer = new BinaryConfigurationListWriter(outputFile, cnf.getVariables())) {
+					generate(generator, writer);
+				}
+			} else {
+				try (ConfigurationListWriter writer = new ConfigurationListWriter(outputFile, cnf.getVariables())) {
+					generate(generator, writer);
+				}
+			}
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
 		}
 	}
 
+	/**
+	 * Streams all configurations directly into the given sink, such that the memory consumption does not depend on the sample size.
+	 */
+	private void generate(IConfigurationGenerator generator, IConfigurationSink sink) {
+		generator.addSink(sink);
+		generator.setBufferResults(false);
+		LongRunningWrapper.runMethod(generator, new ConsoleMonitor<>());
+	}
+
 	private void resetArguments() {
 		algorithm = null;
 		outputFile = null;
@@ -169,9 +197,12 @@ public class ConfigurationGenerator extends ACLIFunction {
 		allowInitialSolutionModify = false;
 		allowInitialSolutionRemove = false;
 		countInitialSolutionForLimit = false;
+		uniform = false;
+		binary = false;
 		t = 1;
 		m = 1;
 		limit = Integer.MAX_VALUE;
+		threads = 1;
 	}
 
 	private void parseArguments(List<String> args) {
@@ -184,6 +215,10 @@ public class ConfigurationGenerator extends ACLIFunction {
 					algorithm = getArgValue(iterator, arg);
 					break;
 				}
+				case "b": {
+					binary = true;
+					break;
+				}
 				case "e": {
 					expressionFile = Paths.get(getArgValue(iterator, arg));
 					break;
@@ -220,10 +255,18 @@ public class ConfigurationGenerator extends ACLIFunction {
 					outputFile = Paths.get(getArgValue(iterator, arg));
 					break;
 				}
+				case "p": {
+					threads = Integer.parseInt(getArgValue(iterator, arg));
+					break;
+				}
 				case "t": {
 					t = Integer.parseInt(getArgValue(iterator, arg));
 					break;
 				}
+				case "u": {
+					uniform = true;
+					break;
+				}
 				default: {
 					throw new IllegalArgumentException(arg);
 				}
@@ -0,0 +1,151 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.cli;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.List;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.SolutionList;
+import de.ovgu.featureide.fm.core.analysis.cnf.SolutionMatrix;
+import de.ovgu.featureide.fm.core.analysis.cnf.SolutionValidator;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.io.ProblemList;
+import de.ovgu.featureide.fm.core.io.csv.ConfigurationListFormat;
+import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
+import de.ovgu.featureide.fm.core.io.manager.FileHandler;
+import de.ovgu.featureide.fm.core.io.manager.SimpleFileHandler;
+import de.ovgu.featureide.fm.core.job.monitor.NullMonitor;
+
+/**
+ * Command line interface for checking a list of configurations, stored in the {@link ConfigurationListFormat}, against a feature model. For each
+ * configuration, one line with its index and its validity is written. Configurations that do not define all features are valid, if they can be completed to
+ * a valid configuration.
+ *
+ * @see SolutionValidator
+ */
+public class ConfigurationValidator extends ACLIFunction {
+
+	private Path fmFile;
+	private Path inputFile;
+	private Path outputFile;
+
+	@Override
+	public String getId() {
+		return "checkconfig";
+	}
+
+	@Override
+	public void run(List<String> args) {
+		parseArguments(args);
+
+		if (fmFile == null) {
+			throw new IllegalArgumentException("No feature model specified!");
+		}
+		if (inputFile == null) {
+			throw new IllegalArgumentException("No configuration list specified!");
+		}
+
+		final FileHandler<IFeatureModel> fileHandler = FeatureModelManager.getFileHandler(fmFile);
+		if (fileHandler.getLastProblems().containsError()) {
+			throw new IllegalArgumentException(fileHandler.getLastProblems().getErrors().get(0).error);
+		}
+		final CNF cnf = new FeatureModelFormula(fileHandler.getObject()).getCNF();
+
+		final SolutionList configurations = new SolutionList(null, new SolutionMatrix());
+		final ProblemList lastProblems = SimpleFileHandler.load(inputFile, configurations, new ConfigurationListFormat());
+		if (lastProblems.containsError()) {
+			throw new IllegalArgumentException(lastProblems.getErrors().get(0).error);
+		}
+
+		final boolean[] valid = new SolutionValidator(cnf).isValid(configurations, new NullMonitor<>());
+
+		int numberOfValidConfigurations = 0;
+		final StringBuilder sb = new StringBuilder("Configuration;Valid\n");
+		for (int i = 0; i < valid.length; i++) {
+			sb.append(i).append(';').append(valid[i]).append('\n');
+			if (valid[i]) {
+				numberOfValidConfigurations++;
+			}
+		}
+		if (outputFile != null) {
+			try (Writer writer = Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8)) {
+				writer.write(sb.toString());
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		} else {
+			System.out.print(sb);
+		}
+		System.err.println(numberOfValidConfigurations + " of " + valid.length + " configurations are valid.");
+	}
+
+	private void resetArguments() {
+		fmFile = null;
+		inputFile = null;
+		outputFile = null;
+	}
+
+	private void parseArguments(List<String> args) {
+		resetArguments();
+		for (final Iterator<String> iterator = args.iterator(); iterator.hasNext();) {
+			final String arg = iterator.next();
+			if (arg.startsWith("-")) {
+				switch (arg.substring(1)) {
+				case "fm": {
+					fmFile = Paths.get(getArgValue(iterator, arg));
+					break;
+				}
+				case "i": {
+					inputFile = Paths.get(getArgValue(iterator, arg));
+					break;
+				}
+				case "o": {
+					outputFile = Paths.get(getArgValue(iterator, arg));
+					break;
+				}
+				default: {
+					throw new IllegalArgumentException(arg);
+				}
+				}
+			} else {
+				throw new IllegalArgumentException(arg);
+			}
+		}
+	}
+
+	private String getArgValue(final Iterator<String> iterator, final String arg) {
+		if (iterator.hasNext()) {
+			return iterator.next();
+		} else {
+			throw new IllegalArgumentException("No value specified for " + arg);
+		}
+	}
+
+}
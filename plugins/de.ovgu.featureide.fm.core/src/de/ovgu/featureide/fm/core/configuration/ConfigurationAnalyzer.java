@@ -20,6 +20,7 @@
  */
 package de.ovgu.featureide.fm.core.configuration;
 
+import java.math.BigInteger;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -118,6 +119,26 @@ public class ConfigurationAnalyzer {
 		return (result != null) ? result : 0;
 	}
 
+	/**
+	 * Counts the number of possible solutions exactly, without a timeout. Respects {@link #setIncludeAbstractFeatures(boolean)}. The feature model is compiled
+	 * once per {@link FeatureModelFormula}, subsequent calls for the same formula only take linear time in the size of the compiled representation.
+	 *
+	 * @return the number of solutions or {@code null} if the computation failed or was canceled
+	 */
+	public BigInteger count() {
+		return LongRunningWrapper.runMethod(propagator.count());
+	}
+
+	/**
+	 * Counts the number of possible solutions exactly, like {@link #count()}, but stops when the timeout is exceeded.
+	 *
+	 * @param timeout the timeout in milliseconds or {@code 0} for no timeout
+	 * @return the number of solutions or {@code null} if the computation failed, was canceled, or exceeded the timeout
+	 */
+	public BigInteger count(int timeout) {
+		return LongRunningWrapper.runMethod(propagator.count(timeout));
+	}
+
 	public Collection<SelectableFeature> update(boolean redundantManual, List<SelectableFeature> featureOrder) {
 		final Collection<SelectableFeature> result = LongRunningWrapper.runMethod(propagator.update(redundantManual, featureOrder));
 		return (result != null) ? result : Collections.emptyList();
@@ -0,0 +1,216 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.configuration;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.SolutionMatrix;
+import de.ovgu.featureide.fm.core.configuration.io.ConfigurationLoader.Selections;
+
+/**
+ * Stores which features are selected in which configuration of a folder as one bit set per feature. Each configuration file occupies one row, i.e., one bit
+ * in every column. Rows can be added, replaced, and removed one at a time, so the matrix can be kept up to date with single file changes instead of reloading
+ * the whole folder.<br> <br> Features that are selected in no configuration or in every configuration are found by counting the bits of their column.<br>
+ * <br> All methods are synchronized.
+ *
+ * @see ConfigurationMatrix
+ */
+public class ConfigurationColumnMatrix {
+
+	private final List<String> featureNames;
+	private final Map<String, Integer> featureIndex = new HashMap<>();
+	private final Map<Path, Integer> rows = new HashMap<>();
+
+	private long[][] columns;
+	private int[] freeRows = new int[0];
+	private int numberOfFreeRows = 0;
+	private int numberOfRows = 0;
+
+	/**
+	 * Creates an empty matrix.
+	 *
+	 * @param featureNames the names of all features
+	 */
+	public ConfigurationColumnMatrix(List<String> featureNames) {
+		this.featureNames = Collections.unmodifiableList(new ArrayList<>(featureNames));
+		for (int i = 0; i < featureNames.size(); i++) {
+			featureIndex.put(featureNames.get(i), i);
+		}
+		columns = new long[featureNames.size()][0];
+	}
+
+	/**
+	 * Creates a matrix that contains all configurations that were loaded by a {@link de.ovgu.featureide.fm.core.configuration.io.ConfigurationLoader}.
+	 *
+	 * @param selections the loaded configurations
+	 */
+	public ConfigurationColumnMatrix(Selections selections) {
+		this(selections.getFeatureNames());
+		final SolutionMatrix matrix = selections.getMatrix();
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = matrix.getColumn(i + 1);
+		}
+		numberOfRows = matrix.size();
+		final List<Path> paths = selections.getPaths();
+		for (int row = 0; row < paths.size(); row++) {
+			rows.put(paths.get(row), row);
+		}
+	}
+
+	public List<String> getFeatureNames() {
+		return featureNames;
+	}
+
+	/**
+	 * @return the number of configurations
+	 */
+	public synchronized int size() {
+		return rows.size();
+	}
+
+	public synchronized boolean contains(Path path) {
+		return rows.containsKey(path);
+	}
+
+	/**
+	 * Adds a configuration or replaces the selection of a configuration that is already contained.
+	 *
+	 * @param path the configuration file
+	 * @param configuration the content of the file
+	 */
+	public void set(Path path, Configuration configuration) {
+		set(path, configuration.getSelectedFeatureNames());
+	}
+
+	/**
+	 * Adds a configuration or replaces the selection of a configuration that is already contained.
+	 *
+	 * @param path the configuration file
+	 * @param selectedFeatures the names of all selected features. Unknown names are ignored.
+	 */
+	public synchronized void set(Path path, Collection<String> selectedFeatures) {
+		Integer row = rows.get(path);
+		if (row == null) {
+			row = numberOfFreeRows > 0 ? freeRows[--numberOfFreeRows] : numberOfRows++;
+			rows.put(path, row);
+			ensureCapacity(numberOfRows);
+		} else {
+			clearRow(row);
+		}
+		final long mask = 1L << row;
+		final int word = row >>> 6;
+		for (final String featureName : selectedFeatures) {
+			final Integer index = featureIndex.get(featureName);
+			if (index != null) {
+				columns[index][word] |= mask;
+			}
+		}
+	}
+
+	/**
+	 * Removes a configuration.
+	 *
+	 * @param path the configuration file
+	 * @return {@code true} if the configuration was contained
+	 */
+	public synchronized boolean remove(Path path) {
+		final Integer row = rows.remove(path);
+		if (row == null) {
+			return false;
+		}
+		clearRow(row);
+		if (numberOfFreeRows == freeRows.length) {
+			freeRows = Arrays.copyOf(freeRows, Math.max(8, freeRows.length << 1));
+		}
+		freeRows[numberOfFreeRows++] = row;
+		return true;
+	}
+
+	/**
+	 * @param featureName the name of a feature
+	 * @return the number of configurations in which the feature is selected, or {@code 0} for unknown features
+	 */
+	public synchronized int getSelectionCount(String featureName) {
+		final Integer index = featureIndex.get(featureName);
+		return index == null ? 0 : countBits(columns[index]);
+	}
+
+	/**
+	 * @param features the names of the features to check
+	 * @return all given features that are not selected in any configuration, in the order of the given collection. Empty if there are no configurations.
+	 */
+	public synchronized List<String> getNeverSelectedFeatures(Collection<String> features) {
+		return rows.isEmpty() ? Collections.<String> emptyList() : getFeatures(features, 0);
+	}
+
+	/**
+	 * @param features the names of the features to check
+	 * @return all given features that are selected in every configuration, in the order of the given collection. Empty if there are no configurations.
+	 */
+	public synchronized List<String> getAlwaysSelectedFeatures(Collection<String> features) {
+		return rows.isEmpty() ? Collections.<String> emptyList() : getFeatures(features, rows.size());
+	}
+
+	private List<String> getFeatures(Collection<String> features, int selectionCount) {
+		final List<String> result = new ArrayList<>();
+		for (final String featureName : features) {
+			final Integer index = featureIndex.get(featureName);
+			if ((index != null) && (countBits(columns[index]) == selectionCount)) {
+				result.add(featureName);
+			}
+		}
+		return result;
+	}
+
+	private void clearRow(int row) {
+		final long mask = ~(1L << row);
+		final int word = row >>> 6;
+		for (final long[] column : columns) {
+			column[word] &= mask;
+		}
+	}
+
+	private void ensureCapacity(int size) {
+		final int words = (size + (Long.SIZE - 1)) / Long.SIZE;
+		if ((columns.length > 0) && (columns[0].length < words)) {
+			final int newWords = Math.max(words, columns[0].length + (columns[0].length >> 1));
+			for (int i = 0; i < columns.length; i++) {
+				columns[i] = Arrays.copyOf(columns[i], newWords);
+			}
+		}
+	}
+
+	private static int countBits(long[] column) {
+		int count = 0;
+		for (final long word : column) {
+			count += Long.bitCount(word);
+		}
+		return count;
+	}
+
+}
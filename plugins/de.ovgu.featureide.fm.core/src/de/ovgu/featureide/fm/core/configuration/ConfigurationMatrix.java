@@ -20,20 +20,19 @@
  */
 package de.ovgu.featureide.fm.core.configuration;
 
-import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
-import java.util.List;
 
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet.Order;
+import de.ovgu.featureide.fm.core.analysis.cnf.SolutionMatrix;
 import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
 import de.ovgu.featureide.fm.core.configuration.io.ConfigurationLoader;
-import de.ovgu.featureide.fm.core.configuration.io.IConfigurationLoaderCallback;
 
 /**
- * Reads all configuration file from a certain folder and saves their content in form of a selection matrix.
+ * Reads all configuration file from a certain folder and saves their content in form of a selection matrix. The folder is read in parallel. If an
+ * {@link ConfigurationLoader#getIndexFile(Path, Path) index file} is given, unchanged files are taken from the index.
  *
  * @author Paul Maximilan Bittner
  * @author Sebastian Krieter
@@ -41,11 +40,11 @@ import de.ovgu.featureide.fm.core.configuration.io.IConfigurationLoaderCallback;
  */
 public class ConfigurationMatrix {
 
-	private final List<Config> configurationMatrix;
 	private final ConfigurationLoader loader;
 	private final FeatureModelFormula featureModel;
 	private final Path path;
 
+	private SolutionMatrix configurationMatrix = new SolutionMatrix();
 	private double[] rec = null;
 
 	public ConfigurationMatrix(FeatureModelFormula featureModel, String path) {
@@ -53,57 +52,43 @@ public class ConfigurationMatrix {
 	}
 
 	public ConfigurationMatrix(FeatureModelFormula featureModel, Path path) {
+		this(featureModel, path, null);
+	}
+
+	/**
+	 * @param featureModel the feature model
+	 * @param path the configuration folder
+	 * @param indexFile the index file of the folder or {@code null} to parse all files
+	 */
+	public ConfigurationMatrix(FeatureModelFormula featureModel, Path path, Path indexFile) {
 		this.featureModel = featureModel;
 		this.path = path;
-		configurationMatrix = new ArrayList<>();
-		loader = new ConfigurationLoader(new IConfigurationLoaderCallback() {
-
-			@Override
-			public void onLoadingStarted() {
-				configurationMatrix.clear();
-			}
-
-			@Override
-			public void onLoadingError(IOException exception) {}
-
-			@Override
-			public void onConfigurationLoaded(Configuration configuration, Path path) {
-				configurationMatrix.add(createConfig(configuration));
-			}
-
-			@Override
-			public void onLoadingFinished() {
-				// TODO Auto-generated method stub
-
-			}
-		});
+		loader = new ConfigurationLoader();
+		loader.setParallelism(Runtime.getRuntime().availableProcessors());
+		loader.setIndexFile(indexFile);
 	}
 
 	public void readConfigurations() {
-		loader.loadConfigurations(featureModel, path);
+		readConfigurations(null);
 	}
 
 	public void readConfigurations(String excludeFile) {
-		loader.loadConfigurations(featureModel, path, excludeFile);
+		configurationMatrix = loader.loadSelections(featureModel, path, excludeFile).getMatrix();
 	}
 
-	private Config createConfig(Configuration configuration) {
+	/**
+	 * Stores a configuration as a solution in which the i-th feature is represented by variable i + 1. Features that are not selected are stored as
+	 * deselected.
+	 */
+	private LiteralSet createConfig(Configuration configuration) {
 		final Collection<SelectableFeature> features = configuration.getFeatures();
-		final byte[] configArray = new byte[features.size()];
+		final int[] literals = new int[features.size()];
 		int i = 0;
 		for (final SelectableFeature feature : features) {
-			switch (feature.getSelection()) {
-			case SELECTED:
-				configArray[i++] = 1;
-				break;
-			case UNDEFINED:
-			case UNSELECTED:
-			default:
-				configArray[i++] = 0;
-				break;
-			}
+			final int variable = i + 1;
+			literals[i++] = feature.getSelection() == Selection.SELECTED ? variable : -variable;
 		}
-		return new Config(configArray);
+		return new LiteralSet(literals, Order.INDEX, false);
 	}
 
 	public double[] getRec() {
@@ -115,52 +100,34 @@ public class ConfigurationMatrix {
 			return;
 		}
 
-		final Config curConfig = createConfig(configuration);
+		final long[] curConfig = configurationMatrix.pack(createConfig(configuration));
 
-		rec = new double[configurationMatrix.get(0).configArray.length];
-		Arrays.fill(rec, 0);
+		final int numberOfFeatures = configurationMatrix.getNumberOfVariables();
+		rec = new double[numberOfFeatures];
 
 		final int[] w = new int[configurationMatrix.size()];
 		int wSum = 0;
-		{
-			int j = 0;
-			for (final Config config : configurationMatrix) {
-				final int delta = curConfig.getDelta(config);
-				w[j++] = delta;
-				wSum += delta;
-			}
+		for (int j = 0; j < w.length; j++) {
+			final int delta = numberOfFeatures - configurationMatrix.getDistance(j, curConfig);
+			w[j] = delta;
+			wSum += delta;
 		}
 
 		for (int i = 0; i < rec.length; i++) {
+			final int variable = i + 1;
 			int fSum = 0;
-			for (int j = 0; j < w.length; j++) {
-				fSum += configurationMatrix.get(j).configArray[i] * w[j];
+			final long[] column = configurationMatrix.getColumn(variable);
+			for (int k = 0; k < column.length; k++) {
+				for (long word = column[k]; word != 0; word &= word - 1) {
+					fSum += w[(k << 6) + Long.numberOfTrailingZeros(word)];
+				}
 			}
 			double recValue = ((double) fSum) / wSum;
-			if (curConfig.configArray[i] == 1) {
+			if ((curConfig[i >>> 6] & (1L << i)) != 0) {
 				recValue = 1 - recValue;
 			}
 			rec[i] = recValue;
 		}
 	}
 
-	private static class Config {
-
-		private final byte[] configArray;
-
-		public Config(byte[] configArray) {
-			this.configArray = configArray;
-		}
-
-		public int getDelta(Config otherConfig) {
-			int count = 0;
-			for (int i = 0; i < configArray.length; i++) {
-				if (configArray[i] == otherConfig.configArray[i]) {
-					count++;
-				}
-			}
-			return count;
-		}
-
-	}
 }
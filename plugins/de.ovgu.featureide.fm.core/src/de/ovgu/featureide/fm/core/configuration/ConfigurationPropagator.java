@@ -20,6 +20,7 @@
  */
 package de.ovgu.featureide.fm.core.configuration;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -32,12 +33,17 @@ import org.sat4j.specs.TimeoutException;
 import de.ovgu.featureide.fm.core.Logger;
 import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
 import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.SolutionList;
+import de.ovgu.featureide.fm.core.analysis.cnf.SolutionValidator;
+import de.ovgu.featureide.fm.core.analysis.cnf.Variables;
 import de.ovgu.featureide.fm.core.analysis.cnf.analysis.CoreDeadAnalysis;
 import de.ovgu.featureide.fm.core.analysis.cnf.analysis.CountSolutionsAnalysis;
 import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
 import de.ovgu.featureide.fm.core.analysis.cnf.formula.NoAbstractCNFCreator;
 import de.ovgu.featureide.fm.core.analysis.cnf.formula.NoAbstractNoHiddenCNFCreator;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.NoAbstractNoHiddenDecisionDNNFCreator;
 import de.ovgu.featureide.fm.core.analysis.cnf.formula.NoHiddenCNFCreator;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.NoHiddenDecisionDNNFCreator;
 import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.AllConfigurationGenerator;
 import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.OneWiseConfigurationGenerator;
 import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.OneWiseConfigurationGenerator.CoverStrategy;
@@ -45,6 +51,10 @@ import de.ovgu.featureide.fm.core.analysis.cnf.solver.AdvancedSatSolver;
 import de.ovgu.featureide.fm.core.analysis.cnf.solver.ISatSolver.SelectionStrategy;
 import de.ovgu.featureide.fm.core.analysis.cnf.solver.ISimpleSatSolver.SatResult;
 import de.ovgu.featureide.fm.core.analysis.cnf.solver.RuntimeContradictionException;
+import de.ovgu.featureide.fm.core.analysis.ddnnf.DecisionDNNF;
+import de.ovgu.featureide.fm.core.analysis.ddnnf.LazyDecisionDNNF;
+import de.ovgu.featureide.fm.core.base.IFeatureStructure;
+import de.ovgu.featureide.fm.core.io.csv.ConfigurationListFormat;
 import de.ovgu.featureide.fm.core.job.LongRunningMethod;
 import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
 import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
@@ -56,6 +66,10 @@ import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
  */
 public class ConfigurationPropagator implements IConfigurationPropagator {
 
+	/**
+	 * Checks the current configuration. If the configuration defines all variables, it is evaluated directly against the clauses. Otherwise, a sat solver
+	 * checks whether it can be completed to a valid configuration.
+	 */
 	public class IsValidMethod implements LongRunningMethod<Boolean> {
 
 		private final boolean deselectUndefinedFeatures;
@@ -71,21 +85,37 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 			if (formula == null) {
 				return false;
 			}
-			final AdvancedSatSolver solver = getSolverForCurrentConfiguration(deselectUndefinedFeatures, includeHiddenFeatures);
-			if (solver == null) {
+			final CNF cnf = getCNF(includeHiddenFeatures);
+			if (cnf == null) {
 				return false;
 			}
+			final int[] literals = getLiteralsForCurrentConfiguration(cnf.getVariables(), deselectUndefinedFeatures, includeHiddenFeatures);
+			return new SolutionValidator(cnf).isValid(new LiteralSet(literals));
+		}
+	}
 
-			final SatResult satResult = solver.hasSolution();
-			switch (satResult) {
-			case FALSE:
-			case TIMEOUT:
-				return false;
-			case TRUE:
-				return true;
-			default:
-				throw new AssertionError(satResult);
+	/**
+	 * Checks a list of configurations, e.g., read with {@link ConfigurationListFormat}, in the same way as {@link IsValidMethod}. Features are identified by
+	 * their names. Complete configurations are evaluated directly against the clauses, 64 configurations at a time, and only partial configurations are
+	 * checked by a sat solver.
+	 */
+	public class AreValidMethod implements LongRunningMethod<boolean[]> {
+
+		private final SolutionList configurations;
+		private final boolean includeHiddenFeatures;
+
+		public AreValidMethod(SolutionList configurations, boolean includeHiddenFeatures) {
+			this.configurations = configurations;
+			this.includeHiddenFeatures = includeHiddenFeatures;
+		}
+
+		@Override
+		public boolean[] execute(IMonitor<boolean[]> monitor) {
+			final CNF cnf = formula == null ? null : getCNF(includeHiddenFeatures);
+			if (cnf == null) {
+				return new boolean[configurations.getSolutions().size()];
 			}
+			return new SolutionValidator(cnf).isValid(configurations, monitor);
 		}
 	}
 
@@ -179,6 +209,129 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 
 	}
 
+	/**
+	 * Counts the solutions with a {@link DecisionDNNF} of the feature model. The decision-DNNF is compiled once per {@link FeatureModelFormula} and reused for
+	 * all configurations. The timeout covers both the compilation and the counting.<br> <br> If abstract features are excluded, but the configuration manually
+	 * selects or deselects an abstract feature, the decision-DNNF without abstract features cannot express this assignment. In this case, the solutions of the
+	 * formula with abstract features that satisfy all assignments are enumerated and projected onto the concrete features.
+	 */
+	public class CountMethod implements LongRunningMethod<BigInteger> {
+
+		private final int timeout;
+
+		/**
+		 * @param timeout the timeout in milliseconds or {@code 0} for no timeout
+		 */
+		public CountMethod(int timeout) {
+			this.timeout = timeout;
+		}
+
+		@Override
+		public BigInteger execute(IMonitor<BigInteger> monitor) throws Exception {
+			if (formula == null) {
+				return BigInteger.ZERO;
+			}
+			if (!includeAbstractFeatures && isAbstractFeatureAssigned()) {
+				return countProjected(monitor);
+			}
+			final long start = System.currentTimeMillis();
+			final LazyDecisionDNNF lazyDecisionDNNF =
+				formula.getElement(includeAbstractFeatures ? new NoHiddenDecisionDNNFCreator() : new NoAbstractNoHiddenDecisionDNNFCreator());
+			final DecisionDNNF ddnnf = lazyDecisionDNNF.get(monitor, timeout);
+			if (ddnnf == null) {
+				return null;
+			}
+			int remainingTime = 0;
+			if (timeout > 0) {
+				remainingTime = (int) (timeout - (System.currentTimeMillis() - start));
+				if (remainingTime <= 0) {
+					return null;
+				}
+			}
+			final Variables variables = ddnnf.getVariables();
+			final List<Integer> assumptions = new ArrayList<>();
+			for (final SelectableFeature feature : configuration.getFeatures()) {
+				if ((feature.getSelection() != Selection.UNDEFINED) && (includeAbstractFeatures || feature.getFeature().getStructure().isConcrete())
+					&& !feature.getFeature().getStructure().hasHiddenParent()) {
+					final int variable = variables.getVariable(feature.getFeature().getName());
+					if (variable != 0) {
+						assumptions.add(feature.getSelection() == Selection.SELECTED ? variable : -variable);
+					}
+				}
+			}
+			final int[] literals = new int[assumptions.size()];
+			for (int i = 0; i < literals.length; i++) {
+				literals[i] = assumptions.get(i);
+			}
+			return ddnnf.getSolutionCount(monitor, remainingTime, literals);
+		}
+
+		/**
+		 * Automatic selections are implied by the manual ones. Thus, only manual selections of abstract features are not covered by the other assumptions.
+		 */
+		private boolean isAbstractFeatureAssigned() {
+			for (final SelectableFeature feature : configuration.getFeatures()) {
+				final IFeatureStructure structure = feature.getFeature().getStructure();
+				if ((feature.getManual() != Selection.UNDEFINED) && structure.isAbstract() && !structure.hasHiddenParent()) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Counts the distinct assignments of the concrete features in all solutions that satisfy the current configuration, including its abstract features.
+		 */
+		private BigInteger countProjected(IMonitor<BigInteger> monitor) {
+			final AdvancedSatSolver solver;
+			try {
+				solver = new AdvancedSatSolver(formula.getElement(new NoHiddenCNFCreator()));
+			} catch (final RuntimeContradictionException e) {
+				return BigInteger.ZERO;
+			}
+			final Variables variables = solver.getSatInstance().getVariables();
+			final List<Integer> concreteVariables = new ArrayList<>();
+			for (final SelectableFeature feature : configuration.getFeatures()) {
+				final IFeatureStructure structure = feature.getFeature().getStructure();
+				if (!structure.hasHiddenParent()) {
+					final int variable = variables.getVariable(feature.getFeature().getName());
+					if (variable != 0) {
+						if (feature.getSelection() != Selection.UNDEFINED) {
+							solver.assignmentPush(feature.getSelection() == Selection.SELECTED ? variable : -variable);
+						}
+						if (structure.isConcrete()) {
+							concreteVariables.add(variable);
+						}
+					}
+				}
+			}
+			if (timeout > 0) {
+				solver.setTimeout(timeout);
+				solver.setGlobalTimeout(true);
+			}
+
+			BigInteger count = BigInteger.ZERO;
+			SatResult hasSolution = solver.hasSolution();
+			while (hasSolution == SatResult.TRUE) {
+				monitor.checkCancel();
+				count = count.add(BigInteger.ONE);
+				final int[] solution = solver.getSolution();
+				final int[] blockingClause = new int[concreteVariables.size()];
+				for (int i = 0; i < blockingClause.length; i++) {
+					blockingClause[i] = -solution[concreteVariables.get(i) - 1];
+				}
+				try {
+					solver.addClause(new LiteralSet(blockingClause));
+				} catch (final RuntimeContradictionException e) {
+					break;
+				}
+				hasSolution = solver.hasSolution();
+			}
+			return hasSolution == SatResult.TIMEOUT ? null : count;
+		}
+
+	}
+
 	public class FindOpenClauses implements LongRunningMethod<Collection<SelectableFeature>> {
 
 		@Override
@@ -535,40 +688,59 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 		if (solver == null) {
 			return null;
 		}
-		for (final SelectableFeature feature : configuration.getFeatures()) {
+		solver.assignmentPushAll(
+				getLiteralsForCurrentConfiguration(solver.getSatInstance().getVariables(), deselectUndefinedFeatures, includeHiddenFeatures));
+		return solver;
+	}
+
+	/**
+	 * Converts the selections of the current configuration into literals.
+	 *
+	 * @param variables the variables of the {@link CNF} that is used for the configuration
+	 * @param deselectUndefinedFeatures whether undefined features are treated as deselected instead of being omitted
+	 * @param includeHiddenFeatures whether hidden features are included
+	 * @return the literals of all considered features
+	 */
+	protected int[] getLiteralsForCurrentConfiguration(Variables variables, boolean deselectUndefinedFeatures, boolean includeHiddenFeatures) {
+		final Collection<SelectableFeature> features = configuration.getFeatures();
+		final int[] literals = new int[features.size()];
+		int index = 0;
+		for (final SelectableFeature feature : features) {
 			if ((deselectUndefinedFeatures || (feature.getSelection() != Selection.UNDEFINED))
 				&& (includeAbstractFeatures || feature.getFeature().getStructure().isConcrete())
 				&& (includeHiddenFeatures || !feature.getFeature().getStructure().hasHiddenParent())) {
-				solver.assignmentPush(
-						solver.getSatInstance().getVariables().getVariable(feature.getFeature().getName(), feature.getSelection() == Selection.SELECTED));
+				literals[index++] = variables.getVariable(feature.getFeature().getName(), feature.getSelection() == Selection.SELECTED);
 			}
 		}
-		return solver;
+		return Arrays.copyOf(literals, index);
 	}
 
 	protected AdvancedSatSolver getSolver(boolean includeHiddenFeatures) {
-		final CNF satInstance;
+		final CNF satInstance = getCNF(includeHiddenFeatures);
+		try {
+			if (satInstance != null) {
+				return new AdvancedSatSolver(satInstance);
+			}
+		} catch (final RuntimeContradictionException e) {
+			Logger.logError(e);
+		}
+		return null;
+	}
+
+	protected CNF getCNF(boolean includeHiddenFeatures) {
 		if (includeAbstractFeatures) {
 			if (includeHiddenFeatures) {
-				satInstance = formula.getCNF();
+				return formula.getCNF();
 			} else {
-				satInstance = formula.getElement(new NoHiddenCNFCreator());
+				return formula.getElement(new NoHiddenCNFCreator());
 			}
 		} else {
 			if (includeHiddenFeatures) {
-				satInstance = formula.getElement(new NoAbstractCNFCreator());
+				return formula.getElement(new NoAbstractCNFCreator());
 			} else {
-				satInstance = formula.getElement(new NoAbstractNoHiddenCNFCreator());
+				return formula.getElement(new NoAbstractNoHiddenCNFCreator());
 			}
 		}
-		try {
-			if (satInstance != null) {
-				return new AdvancedSatSolver(satInstance);
-			}
-		} catch (final RuntimeContradictionException e) {
-			Logger.logError(e);
-		}
-		return null;
 	}
 
 	@Override
@@ -615,6 +787,11 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 		return new IsValidMethod(true, false);
 	}
 
+	@Override
+	public AreValidMethod areValid(SolutionList configurations) {
+		return new AreValidMethod(configurations, true);
+	}
+
 	/**
 	 * Counts the number of possible solutions.
 	 *
@@ -627,6 +804,16 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 		return new CountSolutionsMethod(timeout);
 	}
 
+	@Override
+	public CountMethod count() {
+		return new CountMethod(0);
+	}
+
+	@Override
+	public CountMethod count(int timeout) {
+		return new CountMethod(timeout);
+	}
+
 	@Override
 	public UpdateMethod update(boolean redundantManual, List<SelectableFeature> featureOrder) {
 		return new UpdateMethod(redundantManual, featureOrder);
@@ -20,11 +20,13 @@
  */
 package de.ovgu.featureide.fm.core.configuration;
 
+import java.math.BigInteger;
 import java.util.Collection;
 import java.util.List;
 
 import org.sat4j.specs.TimeoutException;
 
+import de.ovgu.featureide.fm.core.analysis.cnf.SolutionList;
 import de.ovgu.featureide.fm.core.job.LongRunningMethod;
 
 /**
@@ -51,6 +53,15 @@ public interface IConfigurationPropagator {
 
 	LongRunningMethod<Boolean> canBeValid();
 
+	/**
+	 * Checks a list of configurations in the same way as {@link #isValid()}. Features are identified by their names. Configurations that do not define all
+	 * features are valid, if they can be completed to a valid configuration.
+	 *
+	 * @param configurations the configurations to check
+	 * @return for each configuration, whether it is valid
+	 */
+	LongRunningMethod<boolean[]> areValid(SolutionList configurations);
+
 	/**
 	 * Counts the number of possible solutions.
 	 *
@@ -59,6 +70,22 @@ public interface IConfigurationPropagator {
 	 */
 	LongRunningMethod<Long> number(int timeout);
 
+	/**
+	 * Counts the number of possible solutions exactly. The solutions are projected onto the features that are not hidden and, if abstract features are not
+	 * included, onto the concrete features.
+	 *
+	 * @return the number of solutions that are compatible with the current selection
+	 */
+	LongRunningMethod<BigInteger> count();
+
+	/**
+	 * Counts the number of possible solutions exactly, like {@link #count()}, but stops when the timeout is exceeded.
+	 *
+	 * @param timeout the timeout in milliseconds or {@code 0} for no timeout
+	 * @return the number of solutions that are compatible with the current selection or {@code null} if the timeout was exceeded
+	 */
+	LongRunningMethod<BigInteger> count(int timeout);
+
 	LongRunningMethod<Collection<SelectableFeature>> update(boolean redundantManual, List<SelectableFeature> featureOrder);
 
 	LongRunningMethod<Collection<SelectableFeature>> update(boolean redundantManual);
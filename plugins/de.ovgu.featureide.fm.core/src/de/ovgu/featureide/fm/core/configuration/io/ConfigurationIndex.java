@@ -0,0 +1,174 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.configuration.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent index of a configuration folder that is used by {@link ConfigurationLoader} to avoid parsing unchanged files again.<br> The file starts with a
+ * header consisting of {@link #MAGIC_NUMBER}, {@link #VERSION}, and the names of all features. Afterwards, each configuration file is stored with its relative
+ * path, modification time, size, content hash, and its selected features as bit set in the order of the header. The index is only valid for the same list
+ * of features.
+ */
+final class ConfigurationIndex {
+
+	static final int MAGIC_NUMBER = 0x46494349;
+	static final byte VERSION = 1;
+
+	/**
+	 * The indexed state of a single configuration file.
+	 */
+	static final class Entry {
+
+		final long modificationTime;
+		final long size;
+		final long hash;
+		final long[] selection;
+
+		Entry(long modificationTime, long size, long hash, long[] selection) {
+			this.modificationTime = modificationTime;
+			this.size = size;
+			this.hash = hash;
+			this.selection = selection;
+		}
+
+		boolean isUnmodified(long modificationTime, long size) {
+			return (this.modificationTime == modificationTime) && (this.size == size);
+		}
+
+	}
+
+	private ConfigurationIndex() {}
+
+	/**
+	 * Computes the 64 bit FNV-1a hash of the content of a file.
+	 *
+	 * @param content the content
+	 * @return the hash value
+	 */
+	static long hash(byte[] content) {
+		long hash = 0xcbf29ce484222325L;
+		for (final byte b : content) {
+			hash ^= b & 0xff;
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/**
+	 * Reads an index file.
+	 *
+	 * @param indexFile the index file
+	 * @param featureNames the current features
+	 * @return a map from the relative path of each configuration file to its entry. The map is empty, if the file does not exist or was created for
+	 *         different features.
+	 * @throws IOException if the file could not be read
+	 */
+	static Map<String, Entry> read(Path indexFile, List<String> featureNames) throws IOException {
+		final Map<String, Entry> entries = new HashMap<>();
+		if (!Files.isRegularFile(indexFile)) {
+			return entries;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+			if ((in.readInt() != MAGIC_NUMBER) || (in.readByte() != VERSION)) {
+				return entries;
+			}
+			final int numberOfFeatures = in.readInt();
+			if (numberOfFeatures != featureNames.size()) {
+				return entries;
+			}
+			for (final String featureName : featureNames) {
+				if (!featureName.equals(in.readUTF())) {
+					return entries;
+				}
+			}
+			final int numberOfWords = getNumberOfWords(numberOfFeatures);
+			final int numberOfEntries = in.readInt();
+			for (int i = 0; i < numberOfEntries; i++) {
+				final String key = in.readUTF();
+				final long modificationTime = in.readLong();
+				final long size = in.readLong();
+				final long hash = in.readLong();
+				final long[] selection = new long[numberOfWords];
+				for (int j = 0; j < numberOfWords; j++) {
+					selection[j] = in.readLong();
+				}
+				entries.put(key, new Entry(modificationTime, size, hash, selection));
+			}
+		}
+		return entries;
+	}
+
+	/**
+	 * Replaces an index file.
+	 *
+	 * @param indexFile the index file
+	 * @param featureNames the current features
+	 * @param entries a map from the relative path of each configuration file to its entry
+	 * @throws IOException if the file could not be written
+	 */
+	static void write(Path indexFile, List<String> featureNames, Map<String, Entry> entries) throws IOException {
+		final Path parent = indexFile.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		final Path tempFile = getTempFile(indexFile);
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+			out.writeInt(MAGIC_NUMBER);
+			out.writeByte(VERSION);
+			out.writeInt(featureNames.size());
+			for (final String featureName : featureNames) {
+				out.writeUTF(featureName);
+			}
+			out.writeInt(entries.size());
+			for (final Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+				final Entry entry = mapEntry.getValue();
+				out.writeUTF(mapEntry.getKey());
+				out.writeLong(entry.modificationTime);
+				out.writeLong(entry.size);
+				out.writeLong(entry.hash);
+				for (final long word : entry.selection) {
+					out.writeLong(word);
+				}
+			}
+		}
+		Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	static Path getTempFile(Path indexFile) {
+		return indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+	}
+
+	static int getNumberOfWords(int numberOfFeatures) {
+		return (numberOfFeatures + (Long.SIZE - 1)) / Long.SIZE;
+	}
+
+}
@@ -21,6 +21,7 @@
 package de.ovgu.featureide.fm.core.configuration.io;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -28,18 +29,41 @@ import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 
 import de.ovgu.featureide.fm.core.Logger;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet.Order;
+import de.ovgu.featureide.fm.core.analysis.cnf.SolutionMatrix;
 import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
 import de.ovgu.featureide.fm.core.configuration.Configuration;
 import de.ovgu.featureide.fm.core.configuration.FeatureIDEFormat;
+import de.ovgu.featureide.fm.core.configuration.SelectableFeature;
+import de.ovgu.featureide.fm.core.configuration.Selection;
+import de.ovgu.featureide.fm.core.configuration.io.ConfigurationIndex.Entry;
+import de.ovgu.featureide.fm.core.io.FileSystem;
+import de.ovgu.featureide.fm.core.io.manager.ConfigurationIO;
 import de.ovgu.featureide.fm.core.io.manager.ConfigurationManager;
 import de.ovgu.featureide.fm.core.io.manager.FileHandler;
+import de.ovgu.featureide.fm.core.io.manager.SimpleFileHandler;
 
 /**
- * This class loads all configurations of a given IFeatureModel.
+ * This class loads all configurations of a given IFeatureModel.<br> <br> Files are parsed by multiple threads if a {@link #setParallelism(int) parallelism}
+ * greater than one is set. The callback is always notified by the calling thread and in the order in which the files were found.
+ * {@link #loadSelections(FeatureModelFormula, Path, String)} decodes all configurations directly into a {@link SolutionMatrix} without creating a
+ * {@link Configuration} for the feature model, {@link #loadFileSelections(FeatureModelFormula, Path, List)} does the same for a given list of files. If an
+ * {@link #setIndexFile(Path) index file} is set, it is used to skip files that did not change since the last call.
  *
  * @author Paul Maximilian Bittner
  * @author Antje Moench
@@ -47,8 +71,99 @@ import de.ovgu.featureide.fm.core.io.manager.FileHandler;
  */
 public class ConfigurationLoader {
 
+	private static final int MAX_FILES_PER_TASK = 256;
+
+	/**
+	 * The selections of all configurations of a folder.
+	 *
+	 * @see ConfigurationLoader#loadSelections(FeatureModelFormula, Path, String)
+	 */
+	public static final class Selections {
+
+		private final List<String> featureNames;
+		private final List<Path> paths;
+		private final SolutionMatrix matrix;
+		private final int numberOfParsedFiles;
+
+		private Selections(List<String> featureNames, List<Path> paths, SolutionMatrix matrix, int numberOfParsedFiles) {
+			this.featureNames = featureNames;
+			this.paths = paths;
+			this.matrix = matrix;
+			this.numberOfParsedFiles = numberOfParsedFiles;
+		}
+
+		/**
+		 * @return the names of all features in pre-order of the feature tree. The i-th feature is represented by variable i + 1 in the {@link #getMatrix()
+		 *         matrix}.
+		 */
+		public List<String> getFeatureNames() {
+			return featureNames;
+		}
+
+		/**
+		 * @return the file of each row of the {@link #getMatrix() matrix}
+		 */
+		public List<Path> getPaths() {
+			return paths;
+		}
+
+		/**
+		 * @return one complete solution per configuration. Features that are not selected are stored as deselected.
+		 */
+		public SolutionMatrix getMatrix() {
+			return matrix;
+		}
+
+		/**
+		 * @return the number of files that were actually parsed, i.e., that were not taken from the index
+		 */
+		public int getNumberOfParsedFiles() {
+			return numberOfParsedFiles;
+		}
+
+	}
+
+	private static final class ConfigurationFile {
+
+		private final Path path;
+		private final String key;
+		private final long modificationTime;
+		private final long size;
+
+		private ConfigurationFile(Path path, String key, BasicFileAttributes attributes) {
+			this.path = path;
+			this.key = key;
+			modificationTime = attributes.lastModifiedTime().toMillis();
+			size = attributes.size();
+		}
+
+	}
+
+	/**
+	 * Returns the location of the index file of a configuration folder. Indices are kept in a separate state folder, such as the state location of a plug-in
+	 * or the working location of a project, so that they are neither part of the configuration folder nor shared via version control.
+	 *
+	 * @param stateFolder the folder that contains the indices
+	 * @param folder the configuration folder
+	 * @return the path of the index file inside the state folder
+	 */
+	public static Path getIndexFile(Path stateFolder, Path folder) {
+		final byte[] folderName = folder.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8);
+		return stateFolder.resolve("configurations-" + Long.toHexString(ConfigurationIndex.hash(folderName)) + ".index");
+	}
+
+	@FunctionalInterface
+	private interface FileCollector {
+
+		List<ConfigurationFile> collect() throws IOException;
+
+	}
+
 	private final IConfigurationLoaderCallback callback;
 
+	private int parallelism = 1;
+	private Path indexFile = null;
+
 	public ConfigurationLoader() {
 		this(null);
 	}
@@ -57,6 +172,37 @@ public class ConfigurationLoader {
 		this.callback = callback;
 	}
 
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets the maximum number of threads that parse files concurrently.
+	 *
+	 * @param parallelism the number of threads. Default is 1.
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException(Integer.toString(parallelism));
+		}
+		this.parallelism = parallelism;
+	}
+
+	public Path getIndexFile() {
+		return indexFile;
+	}
+
+	/**
+	 * Sets the file that stores modification time, hash, and selection of each configuration for {@link #loadSelections(FeatureModelFormula, Path, String)}.
+	 *
+	 * @param indexFile the index file or {@code null} to parse all files on each call. Default is {@code null}.
+	 *
+	 * @see #getIndexFile(Path, Path)
+	 */
+	public void setIndexFile(Path indexFile) {
+		this.indexFile = indexFile;
+	}
+
 	public List<Configuration> loadConfigurations(FeatureModelFormula featureModel, String path) {
 		return loadConfigurations(featureModel, Paths.get(path));
 	}
@@ -71,36 +217,26 @@ public class ConfigurationLoader {
 
 	public List<Configuration> loadConfigurations(final FeatureModelFormula featureModel, Path path, final String excludeFile) {
 		final List<Configuration> configs = new ArrayList<>();
-		final HashSet<String> configurationNames = new HashSet<>();
 
 		if (callback != null) {
 			callback.onLoadingStarted();
 		}
 
 		try {
-			Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
-
-				@Override
-				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-					final String fileName = file.getFileName().toString();
-					if (!fileName.equals(excludeFile) && !fileName.endsWith("." + new FeatureIDEFormat().getSuffix()) && Files.isReadable(file)
-						&& Files.isRegularFile(file)) {
-						final int extensionIndex = fileName.lastIndexOf('.');
-						final String configurationName = (extensionIndex > 0) ? fileName.substring(0, extensionIndex) : fileName;
-						if (configurationNames.add(configurationName)) {
-							final FileHandler<Configuration> fileHandler = ConfigurationManager.getFileHandler(file);
-							if (!fileHandler.getLastProblems().containsError()) {
-								final Configuration currentConfiguration = fileHandler.getObject();
-								currentConfiguration.updateFeatures(featureModel);
-								configs.add(currentConfiguration);
-								if (callback != null) {
-									callback.onConfigurationLoaded(currentConfiguration, file);
-								}
-							}
+			final List<ConfigurationFile> files = findFiles(path, excludeFile);
+			final Configuration[] configurations = new Configuration[files.size()];
+			final int[] notified = { 0 };
+			run(files.size(), i -> configurations[i] = loadConfiguration(featureModel, files.get(i).path), end -> {
+				for (int i = notified[0]; i < end; i++) {
+					final Configuration currentConfiguration = configurations[i];
+					if (currentConfiguration != null) {
+						configs.add(currentConfiguration);
+						if (callback != null) {
+							callback.onConfigurationLoaded(currentConfiguration, files.get(i).path);
 						}
 					}
-					return super.visitFile(file, attrs);
 				}
+				notified[0] = end;
 			});
 		} catch (final IOException e) {
 			Logger.logError(e);
@@ -116,4 +252,243 @@ public class ConfigurationLoader {
 		return configs;
 	}
 
+	/**
+	 * Loads the selections of all configurations in a folder. In contrast to {@link #loadConfigurations(FeatureModelFormula, Path, String)}, no
+	 * {@link Configuration} objects are kept and the callback is only notified about the start, end, and errors of the loading process.
+	 *
+	 * @param featureModel the feature model that defines the columns of the matrix
+	 * @param path the configuration folder
+	 * @param excludeFile the name of a file that is ignored or {@code null}
+	 * @return the selections of all configurations that could be parsed
+	 */
+	public Selections loadSelections(final FeatureModelFormula featureModel, final Path path, final String excludeFile) {
+		return loadSelections(featureModel, () -> findFiles(path, excludeFile));
+	}
+
+	/**
+	 * Loads the selections of the given configuration files. In contrast to {@link #loadSelections(FeatureModelFormula, Path, String)}, the folder is not
+	 * searched for files. Thus, the result contains exactly the given files that could be parsed, in the given order.
+	 *
+	 * @param featureModel the feature model that defines the columns of the matrix
+	 * @param path the configuration folder, which contains all files. Files are identified in the index by their path relative to this folder.
+	 * @param files the configuration files
+	 * @return the selections of all configurations that could be parsed
+	 */
+	public Selections loadFileSelections(final FeatureModelFormula featureModel, final Path path, final List<Path> files) {
+		return loadSelections(featureModel, () -> getFiles(path, files));
+	}
+
+	private Selections loadSelections(FeatureModelFormula featureModel, FileCollector fileCollector) {
+		final List<String> featureNames = new ArrayList<>();
+		for (final SelectableFeature feature : new Configuration(featureModel).getFeatures()) {
+			featureNames.add(feature.getName());
+		}
+		final Map<String, Integer> featureIndex = new HashMap<>();
+		for (int i = 0; i < featureNames.size(); i++) {
+			featureIndex.put(featureNames.get(i), i);
+		}
+		final SolutionMatrix matrix = new SolutionMatrix(featureNames.size());
+		final List<Path> paths = new ArrayList<>();
+		final AtomicInteger numberOfParsedFiles = new AtomicInteger();
+
+		if (callback != null) {
+			callback.onLoadingStarted();
+		}
+
+		try {
+			final Map<String, Entry> index = readIndex(featureNames);
+			final List<ConfigurationFile> files = fileCollector.collect();
+			final Entry[] entries = new Entry[files.size()];
+			run(files.size(), i -> {
+				final ConfigurationFile file = files.get(i);
+				entries[i] = loadEntry(featureIndex, file, index.get(file.key), numberOfParsedFiles);
+			}, end -> {});
+
+			matrix.ensureCapacity(files.size());
+			final int[] literals = new int[featureNames.size()];
+			final Map<String, Entry> newIndex = new LinkedHashMap<>();
+			for (int i = 0; i < entries.length; i++) {
+				final Entry entry = entries[i];
+				if (entry != null) {
+					for (int j = 0; j < literals.length; j++) {
+						literals[j] = (entry.selection[j >>> 6] & (1L << j)) != 0 ? j + 1 : -(j + 1);
+					}
+					matrix.add(new LiteralSet(literals, Order.INDEX, false));
+					paths.add(files.get(i).path);
+					newIndex.put(files.get(i).key, entry);
+				}
+			}
+			if ((indexFile != null) && !newIndex.equals(index)) {
+				ConfigurationIndex.write(indexFile, featureNames, newIndex);
+			}
+		} catch (final IOException e) {
+			Logger.logError(e);
+			if (callback != null) {
+				callback.onLoadingError(e);
+			}
+		}
+
+		if (callback != null) {
+			callback.onLoadingFinished();
+		}
+
+		return new Selections(Collections.unmodifiableList(featureNames), Collections.unmodifiableList(paths), matrix, numberOfParsedFiles.get());
+	}
+
+	private Map<String, Entry> readIndex(List<String> featureNames) {
+		if (indexFile != null) {
+			try {
+				return ConfigurationIndex.read(indexFile, featureNames);
+			} catch (final IOException e) {
+				Logger.logWarning("Could not read configuration index " + indexFile + ": " + e.getMessage());
+			}
+		}
+		return Collections.emptyMap();
+	}
+
+	/**
+	 * Collects all files that may contain a configuration in the order in which they are visited. Of multiple files with the same name, but different
+	 * extensions, only the first one is used.
+	 */
+	private List<ConfigurationFile> findFiles(final Path path, final String excludeFile) throws IOException {
+		final List<ConfigurationFile> files = new ArrayList<>();
+		final HashSet<String> configurationNames = new HashSet<>();
+		final String excludedSuffix = "." + new FeatureIDEFormat().getSuffix();
+		final Path absoluteIndexFile = indexFile == null ? null : indexFile.toAbsolutePath().normalize();
+		final Path absoluteTempFile = indexFile == null ? null : ConfigurationIndex.getTempFile(absoluteIndexFile);
+
+		Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				final String fileName = file.getFileName().toString();
+				if (!fileName.equals(excludeFile) && !fileName.endsWith(excludedSuffix) && Files.isReadable(file) && Files.isRegularFile(file)) {
+					if (absoluteIndexFile != null) {
+						final Path absoluteFile = file.toAbsolutePath().normalize();
+						if (absoluteFile.equals(absoluteIndexFile) || absoluteFile.equals(absoluteTempFile)) {
+							return super.visitFile(file, attrs);
+						}
+					}
+					if (configurationNames.add(SimpleFileHandler.getFileName(fileName))) {
+						files.add(new ConfigurationFile(file, path.relativize(file).toString().replace('\\', '/'), attrs));
+					}
+				}
+				return super.visitFile(file, attrs);
+			}
+		});
+		return files;
+	}
+
+	private static List<ConfigurationFile> getFiles(Path path, List<Path> paths) throws IOException {
+		final List<ConfigurationFile> files = new ArrayList<>(paths.size());
+		for (final Path file : paths) {
+			if (Files.isRegularFile(file)) {
+				files.add(new ConfigurationFile(file, path.relativize(file).toString().replace('\\', '/'),
+						Files.readAttributes(file, BasicFileAttributes.class)));
+			}
+		}
+		return files;
+	}
+
+	private static Configuration loadConfiguration(FeatureModelFormula featureModel, Path file) {
+		final FileHandler<Configuration> fileHandler = ConfigurationManager.getFileHandler(file);
+		if (fileHandler.getLastProblems().containsError()) {
+			return null;
+		}
+		final Configuration configuration = fileHandler.getObject();
+		configuration.updateFeatures(featureModel);
+		return configuration;
+	}
+
+	/**
+	 * Returns the entry of a file from the index, if the file was not modified. Otherwise, the file is read and only parsed, if its content changed.
+	 */
+	private static Entry loadEntry(Map<String, Integer> featureIndex, ConfigurationFile file, Entry indexEntry, AtomicInteger numberOfParsedFiles) {
+		if ((indexEntry != null) && indexEntry.isUnmodified(file.modificationTime, file.size)) {
+			return indexEntry;
+		}
+		final byte[] content;
+		try {
+			content = FileSystem.read(file.path);
+		} catch (final IOException e) {
+			Logger.logError(e);
+			return null;
+		}
+		final long hash = ConfigurationIndex.hash(content);
+		if ((indexEntry != null) && (indexEntry.hash == hash)) {
+			return new Entry(file.modificationTime, file.size, hash, indexEntry.selection);
+		}
+
+		numberOfParsedFiles.incrementAndGet();
+		final FileHandler<Configuration> fileHandler =
+			ConfigurationIO.getInstance().getFileHandler(file.path, new String(content, SimpleFileHandler.DEFAULT_CHARSET));
+		if (fileHandler.getLastProblems().containsError()) {
+			return null;
+		}
+		final long[] selection = new long[ConfigurationIndex.getNumberOfWords(featureIndex.size())];
+		for (final SelectableFeature feature : fileHandler.getObject().getFeatures()) {
+			if (feature.getSelection() == Selection.SELECTED) {
+				final Integer index = featureIndex.get(feature.getName());
+				if (index != null) {
+					selection[index >>> 6] |= 1L << index;
+				}
+			}
+		}
+		return new Entry(file.modificationTime, file.size, hash, selection);
+	}
+
+	/**
+	 * Calls the loader for each index from {@code 0} to {@code size - 1}. Indices are processed in contiguous chunks. After a chunk is finished, the
+	 * calling thread passes its exclusive end to {@code finished}, chunks in ascending order.
+	 */
+	private void run(int size, IntConsumer loader, IntConsumer finished) throws IOException {
+		final int filesPerTask = Math.max(1, Math.min(MAX_FILES_PER_TASK, (size + ((parallelism * 4) - 1)) / (parallelism * 4)));
+		final List<Callable<Integer>> tasks = new ArrayList<>();
+		for (int start = 0; start < size; start += filesPerTask) {
+			final int taskStart = start;
+			final int taskEnd = Math.min(start + filesPerTask, size);
+			tasks.add(() -> {
+				for (int i = taskStart; i < taskEnd; i++) {
+					loader.accept(i);
+				}
+				return taskEnd;
+			});
+		}
+
+		final int numberOfThreads = Math.min(parallelism, tasks.size());
+		try {
+			if (numberOfThreads <= 1) {
+				for (final Callable<Integer> task : tasks) {
+					finished.accept(task.call());
+				}
+			} else {
+				final ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+				try {
+					final List<Future<Integer>> futures = new ArrayList<>(tasks.size());
+					for (final Callable<Integer> task : tasks) {
+						futures.add(pool.submit(task));
+					}
+					for (final Future<Integer> future : futures) {
+						finished.accept(future.get());
+					}
+				} finally {
+					pool.shutdownNow();
+				}
+			}
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IOException(cause);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} catch (final RuntimeException e) {
+			throw e;
+		} catch (final Exception e) {
+			throw new IOException(e);
+		}
+	}
+
 }
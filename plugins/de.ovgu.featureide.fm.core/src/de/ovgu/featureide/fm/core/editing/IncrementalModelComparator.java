@@ -0,0 +1,277 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.editing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.sat4j.specs.TimeoutException;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.Variables;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.SelectorSatSolver;
+
+/**
+ * Compares two formulas in CNF using a single incremental sat solver. The clauses of both formulas are guarded by one activation literal per formula. Each
+ * clause that is contained in only one formula is checked by an assumption-based query against the other formula, such that learned clauses are reused
+ * between all checks.<br> Variables that are contained in only one formula are considered to be deselected in the other formula.
+ *
+ * @see ModelComparator
+ */
+public class IncrementalModelComparator {
+
+	/**
+	 * A clause that is contained in only one of the compared formulas and is not implied by the other formula.
+	 */
+	public static class ClauseEdit {
+
+		private final LiteralSet clause;
+		private final boolean addedClause;
+		private final LiteralSet witness;
+
+		private ClauseEdit(LiteralSet clause, boolean addedClause, LiteralSet witness) {
+			this.clause = clause;
+			this.addedClause = addedClause;
+			this.witness = witness;
+		}
+
+		/**
+		 * @return the clause in terms of {@link IncrementalModelComparator#getVariables()}.
+		 */
+		public LiteralSet getClause() {
+			return clause;
+		}
+
+		/**
+		 * @return {@code true} if the clause was added in the new formula and thus removes products, {@code false} if the clause was removed from the old
+		 *         formula and thus adds products.
+		 */
+		public boolean isAddedClause() {
+			return addedClause;
+		}
+
+		/**
+		 * @return a solution of the formula that does not contain the clause, which does not satisfy the clause.
+		 */
+		public LiteralSet getWitness() {
+			return witness;
+		}
+
+	}
+
+	private final class EditIterator {
+
+		private final int selector;
+		private final boolean addedClauses;
+		private final List<LiteralSet> candidates;
+		private final List<ClauseEdit> edits = new ArrayList<>();
+
+		private int index = 0;
+		private int[] lastWitness = null;
+
+		private EditIterator(int selector, boolean addedClauses, List<LiteralSet> candidates) {
+			this.selector = selector;
+			this.addedClauses = addedClauses;
+			this.candidates = candidates;
+		}
+
+		private ClauseEdit next() throws TimeoutException {
+			while (index < candidates.size()) {
+				final LiteralSet clause = candidates.get(index++);
+				if ((lastWitness != null) && isViolated(clause, lastWitness)) {
+					return addEdit(clause, lastWitness);
+				}
+				final int[] literals = clause.getLiterals();
+				final int[] assumptions = new int[literals.length + 1];
+				assumptions[0] = selector;
+				for (int i = 0; i < literals.length; i++) {
+					assumptions[i + 1] = -literals[i];
+				}
+				switch (solver.hasSolution(assumptions)) {
+				case FALSE:
+					break;
+				case TIMEOUT:
+					index--;
+					throw new TimeoutException();
+				case TRUE:
+					lastWitness = solver.getSolution();
+					return addEdit(clause, lastWitness);
+				default:
+					throw new AssertionError();
+				}
+			}
+			return null;
+		}
+
+		private ClauseEdit addEdit(LiteralSet clause, int[] witness) {
+			final ClauseEdit edit = new ClauseEdit(clause, addedClauses, new LiteralSet(witness));
+			edits.add(edit);
+			return edit;
+		}
+
+		private ClauseEdit get(int editIndex) throws TimeoutException {
+			while ((edits.size() <= editIndex) && (next() != null)) {}
+			return editIndex < edits.size() ? edits.get(editIndex) : null;
+		}
+
+		private List<ClauseEdit> getAll() throws TimeoutException {
+			while (next() != null) {}
+			return Collections.unmodifiableList(edits);
+		}
+
+	}
+
+	private final Variables variables;
+	private final SelectorSatSolver solver;
+
+	private final EditIterator removedClauses;
+	private final EditIterator addedClauses;
+
+	/**
+	 * Creates a new comparator. Both formulas may use different variables, which are matched by their names.
+	 *
+	 * @param oldCNF the old formula (must not be sliced)
+	 * @param newCNF the new formula (must not be sliced)
+	 * @param timeout the timeout for each solver call in milliseconds
+	 */
+	public IncrementalModelComparator(CNF oldCNF, CNF newCNF, int timeout) {
+		final Set<String> oldNames = getNames(oldCNF.getVariables());
+		final Set<String> newNames = getNames(newCNF.getVariables());
+		final LinkedHashSet<String> allNames = new LinkedHashSet<>(oldNames);
+		allNames.addAll(newNames);
+		variables = new Variables(allNames);
+
+		final LinkedHashSet<LiteralSet> oldClauses = adapt(oldCNF, newNames);
+		final LinkedHashSet<LiteralSet> newClauses = adapt(newCNF, oldNames);
+
+		solver = new SelectorSatSolver(new CNF(variables));
+		solver.setTimeout(timeout);
+		final int oldSelector = solver.newSelector();
+		final int newSelector = solver.newSelector();
+		for (final LiteralSet clause : oldClauses) {
+			solver.addSelectedClause(clause, oldSelector);
+		}
+		for (final LiteralSet clause : newClauses) {
+			solver.addSelectedClause(clause, newSelector);
+		}
+
+		final ArrayList<LiteralSet> onlyNewClauses = new ArrayList<>(newClauses);
+		onlyNewClauses.removeAll(oldClauses);
+		final ArrayList<LiteralSet> onlyOldClauses = new ArrayList<>(oldClauses);
+		onlyOldClauses.removeAll(newClauses);
+
+		removedClauses = new EditIterator(newSelector, false, onlyOldClauses);
+		addedClauses = new EditIterator(oldSelector, true, onlyNewClauses);
+	}
+
+	private static Set<String> getNames(Variables variables) {
+		final Set<String> names = new LinkedHashSet<>();
+		final String[] nameArray = variables.getNames();
+		for (int i = 1; i < nameArray.length; i++) {
+			names.add(nameArray[i]);
+		}
+		return names;
+	}
+
+	private LinkedHashSet<LiteralSet> adapt(CNF cnf, Set<String> otherNames) {
+		final LinkedHashSet<LiteralSet> clauses = new LinkedHashSet<>();
+		for (final LiteralSet clause : cnf.getClauses()) {
+			clauses.add(clause.adapt(cnf.getVariables(), variables));
+		}
+		for (final String name : otherNames) {
+			if (cnf.getVariables().getVariable(name) == 0) {
+				clauses.add(new LiteralSet(-variables.getVariable(name)));
+			}
+		}
+		return clauses;
+	}
+
+	private static boolean isViolated(LiteralSet clause, int[] solution) {
+		for (final int literal : clause.getLiterals()) {
+			if (solution[Math.abs(literal) - 1] == literal) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns a clause of the new formula that is not implied by the old formula. Edits are computed lazily in the order of the clauses.
+	 *
+	 * @param index the index of the edit
+	 * @return the edit that removes products or {@code null} if there are not more than {@code index} such edits.
+	 * @throws TimeoutException if a solver call exceeds the timeout. The computation can be continued by calling this method again.
+	 */
+	public ClauseEdit getRemovingEdit(int index) throws TimeoutException {
+		return addedClauses.get(index);
+	}
+
+	/**
+	 * Returns a clause of the old formula that is not implied by the new formula. Edits are computed lazily in the order of the clauses.
+	 *
+	 * @param index the index of the edit
+	 * @return the edit that adds products or {@code null} if there are not more than {@code index} such edits.
+	 * @throws TimeoutException if a solver call exceeds the timeout. The computation can be continued by calling this method again.
+	 */
+	public ClauseEdit getAddingEdit(int index) throws TimeoutException {
+		return removedClauses.get(index);
+	}
+
+	/**
+	 * @return all clauses of the new formula that are not implied by the old formula.
+	 */
+	public List<ClauseEdit> getRemovingEdits() throws TimeoutException {
+		return addedClauses.getAll();
+	}
+
+	/**
+	 * @return all clauses of the old formula that are not implied by the new formula.
+	 */
+	public List<ClauseEdit> getAddingEdits() throws TimeoutException {
+		return removedClauses.getAll();
+	}
+
+	/**
+	 * @return {@code true} if each product of the old formula is also a product of the new formula.
+	 */
+	public boolean implies() throws TimeoutException {
+		return getRemovingEdit(0) == null;
+	}
+
+	/**
+	 * @return {@code true} if each product of the new formula is also a product of the old formula.
+	 */
+	public boolean isImplied() throws TimeoutException {
+		return getAddingEdit(0) == null;
+	}
+
+	/**
+	 * @return the combined variables of both formulas. All clauses and witnesses refer to these variables.
+	 */
+	public Variables getVariables() {
+		return variables;
+	}
+
+}
@@ -20,6 +20,7 @@
  */
 package de.ovgu.featureide.fm.core.editing;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -35,9 +36,18 @@ import org.prop4j.SatSolver;
 import org.sat4j.specs.TimeoutException;
 
 import de.ovgu.featureide.fm.core.Logger;
+import de.ovgu.featureide.fm.core.RenamingsManager;
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.Variables;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.NoAbstractCNFCreator;
 import de.ovgu.featureide.fm.core.base.IFeature;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
 import de.ovgu.featureide.fm.core.configuration.Configuration;
+import de.ovgu.featureide.fm.core.configuration.SelectableFeature;
+import de.ovgu.featureide.fm.core.configuration.Selection;
+import de.ovgu.featureide.fm.core.editing.IncrementalModelComparator.ClauseEdit;
 
 /**
  * Compares two feature models based on a satisfiability solver. The result is a classification of the edit that transforms one model into the second model.
@@ -49,7 +59,7 @@ public class ModelComparator {
 	private final long timeout;
 
 	private enum Strategy {
-		WithoutIdenticalRules, SingleTesting, SingleTestingAborted
+		WithoutIdenticalRules, SingleTesting, SingleTestingAborted, IncrementalSolver
 	};
 
 	private final Set<Strategy> strategy = new HashSet<>();
@@ -80,8 +90,14 @@ public class ModelComparator {
 
 	private ExampleCalculator removedProducts;
 
+	private IncrementalModelComparator incrementalComparator;
+
+	private int addedExampleIndex;
+
+	private int removedExampleIndex;
+
 	public ModelComparator(long timeout) {
-		this(timeout, 3);
+		this(timeout, 4);
 	}
 
 	public ModelComparator(long timeout, int strategyIndex) {
@@ -95,15 +111,23 @@ public class ModelComparator {
 		if (strategyIndex > 2) {
 			strategy.add(Strategy.SingleTestingAborted);
 		}
+		if (strategyIndex > 3) {
+			strategy.add(Strategy.IncrementalSolver);
+		}
 	}
 
 	public Comparison compare(IFeatureModel oldModel, IFeatureModel newModel) {
 		this.oldModel = oldModel;
 		this.newModel = newModel;
+		incrementalComparator = null;
 		try {
 			addedFeatures = calculateAddedFeatures(oldModel, newModel);
 			deletedFeatures = calculateAddedFeatures(newModel, oldModel);
 
+			if (strategy.contains(Strategy.IncrementalSolver)) {
+				return compareIncremental();
+			}
+
 			final Map<Object, Node> oldMap = NodeCreator.calculateReplacingMap(oldModel);
 			final Map<Object, Node> newMap = NodeCreator.calculateReplacingMap(newModel);
 			optimizeReplacingMaps(oldMap, newMap);
@@ -145,6 +169,52 @@ public class ModelComparator {
 		return result;
 	}
 
+	private Comparison compareIncremental() throws TimeoutException {
+		oldRoot = null;
+		newRoot = null;
+		oldRootUpdated = null;
+		newRootUpdated = null;
+		addedExampleIndex = 0;
+		removedExampleIndex = 0;
+		incrementalComparator = new IncrementalModelComparator(createCNF(oldModel), createCNF(newModel), (int) Math.min(timeout, Integer.MAX_VALUE));
+
+		implies = incrementalComparator.implies();
+		isImplied = incrementalComparator.isImplied();
+		if (implies) {
+			result = isImplied ? Comparison.REFACTORING : Comparison.GENERALIZATION;
+		} else {
+			result = isImplied ? Comparison.SPECIALIZATION : Comparison.ARBITRARY;
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a CNF over all concrete features of the given model that uses the names of the features at the last save.
+	 */
+	private CNF createCNF(IFeatureModel model) {
+		final CNF cnf = new FeatureModelFormula(model).getElement(new NoAbstractCNFCreator()).normalize();
+		final RenamingsManager renamingsManager = model.getRenamingsManager();
+		final String[] names = cnf.getVariables().getNames();
+		final List<String> oldNames = new ArrayList<>(names.length - 1);
+		for (int i = 1; i < names.length; i++) {
+			oldNames.add(renamingsManager.getOldName(names[i]));
+		}
+		return new CNF(new Variables(oldNames), cnf.getClauses());
+	}
+
+	private Configuration createConfiguration(IFeatureModel model, LiteralSet solution) {
+		final Configuration configuration = new Configuration(new FeatureModelFormula(model));
+		final Variables variables = incrementalComparator.getVariables();
+		final RenamingsManager renamingsManager = model.getRenamingsManager();
+		for (final int literal : solution.getLiterals()) {
+			final SelectableFeature feature = configuration.getSelectableFeature(renamingsManager.getNewName(variables.getName(literal)));
+			if (feature != null) {
+				configuration.setManual(feature, literal > 0 ? Selection.SELECTED : Selection.UNSELECTED);
+			}
+		}
+		return configuration;
+	}
+
 	private Set<String> calculateAddedFeatures(IFeatureModel oldModel, IFeatureModel newModel) {
 		final Set<String> addedFeatures = new HashSet<>();
 		for (final IFeature feature : newModel.getFeatures()) {
@@ -234,9 +304,31 @@ public class ModelComparator {
 	}
 
 	public Configuration calculateExample(boolean added) throws TimeoutException {
+		if (incrementalComparator != null) {
+			final ClauseEdit edit = added ? incrementalComparator.getAddingEdit(addedExampleIndex++) : incrementalComparator.getRemovingEdit(removedExampleIndex++);
+			return edit == null ? null : createConfiguration(added ? newModel : oldModel, edit.getWitness());
+		}
 		return added ? addedProducts.nextExample() : removedProducts.nextExample();
 	}
 
+	/**
+	 * Returns the clauses that add products (removed or weakened clauses) or remove products (added or strengthened clauses). Only available for the
+	 * incremental solver strategy.
+	 *
+	 * @param added whether to return the edits that add or remove products.
+	 * @return the list of edits or {@code null} if the incremental solver is not used.
+	 */
+	public List<ClauseEdit> getEdits(boolean added) throws TimeoutException {
+		if (incrementalComparator == null) {
+			return null;
+		}
+		return added ? incrementalComparator.getAddingEdits() : incrementalComparator.getRemovingEdits();
+	}
+
+	public Variables getEditVariables() {
+		return incrementalComparator == null ? null : incrementalComparator.getVariables();
+	}
+
 	public Set<Strategy> getStrategy() {
 		return strategy;
 	}
@@ -0,0 +1,179 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.explanations.fm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelExplanationCacheCreator;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
+import de.ovgu.featureide.fm.core.base.IFeatureModelElement;
+
+/**
+ * Caches explanations of the anomalies of one revision of a feature model. The cache of a revision is obtained by
+ * {@link FeatureModelFormula#getElement(de.ovgu.featureide.fm.core.analysis.cnf.formula.ACreator) getElement} with a
+ * {@link FeatureModelExplanationCacheCreator}, such that it is discarded together with the formula of the revision. Each entry also records how long its
+ * explanation took to compute. This class is thread-safe.
+ */
+public class FeatureModelExplanationCache {
+
+	/**
+	 * The kind of anomaly that is explained.
+	 */
+	public enum Anomaly {
+		DEAD_FEATURE, FALSE_OPTIONAL_FEATURE, REDUNDANT_CONSTRAINT
+	}
+
+	/**
+	 * The explanation of one anomaly of one element.
+	 */
+	public static final class Entry {
+
+		private final Anomaly anomaly;
+		private final IFeatureModelElement element;
+		private final FeatureModelExplanation<?> explanation;
+		private final long time;
+		private final boolean hintHit;
+
+		public Entry(Anomaly anomaly, IFeatureModelElement element, FeatureModelExplanation<?> explanation, long time, boolean hintHit) {
+			this.anomaly = anomaly;
+			this.element = element;
+			this.explanation = explanation;
+			this.time = time;
+			this.hintHit = hintHit;
+		}
+
+		public Anomaly getAnomaly() {
+			return anomaly;
+		}
+
+		public IFeatureModelElement getElement() {
+			return element;
+		}
+
+		/**
+		 * @return the explanation; null if the anomaly could not be explained
+		 */
+		public FeatureModelExplanation<?> getExplanation() {
+			return explanation;
+		}
+
+		/**
+		 * @return the computation time of the explanation in nanoseconds
+		 */
+		public long getTime() {
+			return time;
+		}
+
+		/**
+		 * @return whether the explanation was found within the explanation of a related element
+		 */
+		public boolean isHintHit() {
+			return hintHit;
+		}
+
+		@Override
+		public String toString() {
+			return anomaly + " " + element.getName() + " (" + (time / 1_000_000.0) + " ms)";
+		}
+	}
+
+	private static final class Key {
+
+		private final Anomaly anomaly;
+		private final IFeatureModelElement element;
+
+		private Key(Anomaly anomaly, IFeatureModelElement element) {
+			this.anomaly = anomaly;
+			this.element = element;
+		}
+
+		@Override
+		public int hashCode() {
+			return (31 * anomaly.hashCode()) + element.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if ((obj == null) || (getClass() != obj.getClass())) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return (anomaly == other.anomaly) && Objects.equals(element, other.element);
+		}
+	}
+
+	private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the cached explanation of the given anomaly of the given element.
+	 *
+	 * @param anomaly the kind of anomaly
+	 * @param element the anomalous feature or constraint
+	 * @return the entry; null if the anomaly was not explained yet
+	 */
+	public Entry get(Anomaly anomaly, IFeatureModelElement element) {
+		return entries.get(new Key(anomaly, element));
+	}
+
+	/**
+	 * Adds an entry unless there is already one for the same anomaly and element.
+	 *
+	 * @param entry the entry to add
+	 * @return the entry in the cache
+	 */
+	public Entry add(Entry entry) {
+		final Entry previousEntry = entries.putIfAbsent(new Key(entry.getAnomaly(), entry.getElement()), entry);
+		return previousEntry == null ? entry : previousEntry;
+	}
+
+	/**
+	 * @return a snapshot of all entries
+	 */
+	public List<Entry> getEntries() {
+		return new ArrayList<>(entries.values());
+	}
+
+	/**
+	 * @return the sum of the computation times of all entries in nanoseconds
+	 */
+	public long getTotalTime() {
+		long totalTime = 0;
+		for (final Entry entry : entries.values()) {
+			totalTime += entry.getTime();
+		}
+		return totalTime;
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public void clear() {
+		entries.clear();
+	}
+
+}
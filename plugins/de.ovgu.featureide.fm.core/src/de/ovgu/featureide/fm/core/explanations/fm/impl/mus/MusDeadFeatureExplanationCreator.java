@@ -20,15 +20,15 @@
  */
 package de.ovgu.featureide.fm.core.explanations.fm.impl.mus;
 
-import org.prop4j.explain.solvers.MusExtractor;
 import org.prop4j.explain.solvers.SatSolverFactory;
 
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.SelectorMusExtractor;
 import de.ovgu.featureide.fm.core.base.IFeature;
 import de.ovgu.featureide.fm.core.explanations.fm.DeadFeatureExplanation;
 import de.ovgu.featureide.fm.core.explanations.fm.DeadFeatureExplanationCreator;
 
 /**
- * Implementation of {@link DeadFeatureExplanationCreator} using a {@link MusExtractor MUS extractor}.
+ * Implementation of {@link DeadFeatureExplanationCreator} using a {@link SelectorMusExtractor MUS extractor}.
  *
  * @author Timo G&uuml;nther
  */
@@ -53,16 +53,7 @@ public class MusDeadFeatureExplanationCreator extends MusFeatureModelExplanation
 
 	@Override
 	public DeadFeatureExplanation getExplanation() throws IllegalStateException {
-		final MusExtractor oracle = getOracle();
-		final DeadFeatureExplanation explanation;
-		oracle.push();
-		try {
-			oracle.addAssumption(getSubject().getName(), true);
-			explanation = getExplanation(oracle.getAllMinimalUnsatisfiableSubsetIndexes());
-		} finally {
-			oracle.pop();
-		}
-		return explanation;
+		return getExplanationForAssumptions(getLiteral(getSubject(), true));
 	}
 
 	@Override
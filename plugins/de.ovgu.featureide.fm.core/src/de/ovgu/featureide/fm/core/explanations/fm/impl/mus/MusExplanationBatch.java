@@ -0,0 +1,325 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.explanations.fm.impl.mus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import de.ovgu.featureide.fm.core.FeatureModelAnalyzer;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelExplanationCacheCreator;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.RuntimeTimeoutException;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.SelectorMusExtractor.Minimization;
+import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IConstraint;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.IFeatureModelElement;
+import de.ovgu.featureide.fm.core.explanations.fm.FeatureModelExplanation;
+import de.ovgu.featureide.fm.core.explanations.fm.FeatureModelExplanationCache;
+import de.ovgu.featureide.fm.core.explanations.fm.FeatureModelExplanationCache.Anomaly;
+import de.ovgu.featureide.fm.core.explanations.fm.FeatureModelExplanationCache.Entry;
+import de.ovgu.featureide.fm.core.job.LongRunningMethod;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+import de.ovgu.featureide.fm.core.job.monitor.NullMonitor;
+
+/**
+ * Explains all dead features, false-optional features, and redundant constraints of a feature model at once.<br> <br> The anomalies are grouped into
+ * clusters of related elements: dead features by their topmost dead ancestor, false-optional features by their atomic set, and each redundant constraint on
+ * its own. The clusters are explained concurrently by a pool of workers, each of which owns its own {@link MusFeatureModelExplanationCreator creators} and
+ * thus its own oracles. Within a cluster, the elements are explained in preorder and the unsatisfiable subset of the previous element is the
+ * {@link MusFeatureModelExplanationCreator#setHint(int[]) hint} for the next one. For instance, the explanation of a dead feature is usually found within the
+ * explanation of its dead parent.<br> <br> The explanations are stored in the {@link FeatureModelExplanationCache} of the given formula. Anomalies that are
+ * already in the cache are not explained again.
+ */
+public class MusExplanationBatch implements LongRunningMethod<FeatureModelExplanationCache> {
+
+	private static final class Task {
+
+		private final Anomaly anomaly;
+		private final IFeatureModelElement element;
+
+		private Task(Anomaly anomaly, IFeatureModelElement element) {
+			this.anomaly = anomaly;
+			this.element = element;
+		}
+	}
+
+	private final FeatureModelFormula formula;
+	private final EnumSet<Anomaly> anomalies = EnumSet.allOf(Anomaly.class);
+
+	private int parallelism = 1;
+	private int maximumExplanationCount = 1;
+	private Minimization minimization = Minimization.DELETION;
+
+	private ArrayBlockingQueue<Worker> workers;
+
+	public MusExplanationBatch(FeatureModelFormula formula) {
+		this.formula = formula;
+	}
+
+	/**
+	 * Sets the kinds of anomalies to explain. By default, all anomalies are explained.
+	 *
+	 * @param anomalies the kinds of anomalies
+	 */
+	public void setAnomalies(Anomaly... anomalies) {
+		this.anomalies.clear();
+		Collections.addAll(this.anomalies, anomalies);
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets the number of threads that explain clusters concurrently. Each thread uses its own oracles. Default is 1.
+	 *
+	 * @param parallelism the number of threads; at least 1
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least 1");
+		}
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * @see MusFeatureModelExplanationCreator#setMaximumExplanationCount(int)
+	 */
+	public void setMaximumExplanationCount(int maximumExplanationCount) {
+		if (maximumExplanationCount < 1) {
+			throw new IllegalArgumentException("Maximum explanation count must be at least 1");
+		}
+		this.maximumExplanationCount = maximumExplanationCount;
+	}
+
+	/**
+	 * @see MusFeatureModelExplanationCreator#setMinimization(Minimization)
+	 */
+	public void setMinimization(Minimization minimization) {
+		if (minimization == null) {
+			throw new IllegalArgumentException("Minimization must not be null");
+		}
+		this.minimization = minimization;
+	}
+
+	@Override
+	public FeatureModelExplanationCache execute(IMonitor<FeatureModelExplanationCache> monitor) throws Exception {
+		final FeatureModelExplanationCache cache = formula.getElement(new FeatureModelExplanationCacheCreator());
+		final List<List<Task>> clusters = createClusters();
+		int taskCount = 0;
+		for (final List<Task> cluster : clusters) {
+			taskCount += cluster.size();
+		}
+		monitor.setRemainingWork(taskCount);
+		run(clusters, cache, monitor);
+		return cache;
+	}
+
+	private List<List<Task>> createClusters() {
+		final FeatureModelAnalyzer analyzer = formula.getAnalyzer();
+		final IFeatureModel featureModel = formula.getFeatureModel();
+		final List<IFeature> preorder = new ArrayList<>(featureModel.getStructure().getFeaturesPreorder());
+		final List<List<Task>> clusters = new ArrayList<>();
+
+		if (anomalies.contains(Anomaly.DEAD_FEATURE)) {
+			final Set<IFeature> deadFeatures = new HashSet<>(analyzer.getDeadFeatures(new NullMonitor<>()));
+			final Map<IFeature, List<Task>> deadClusters = new LinkedHashMap<>();
+			for (final IFeature feature : preorder) {
+				if (deadFeatures.contains(feature)) {
+					IFeature root = feature;
+					for (IFeature parent = FeatureUtils.getParent(root); (parent != null) && deadFeatures.contains(parent); parent = FeatureUtils.getParent(root)) {
+						root = parent;
+					}
+					addTask(deadClusters, root, new Task(Anomaly.DEAD_FEATURE, feature));
+				}
+			}
+			clusters.addAll(deadClusters.values());
+		}
+
+		if (anomalies.contains(Anomaly.FALSE_OPTIONAL_FEATURE)) {
+			final Set<IFeature> falseOptionalFeatures = new HashSet<>(analyzer.getFalseOptionalFeatures(new NullMonitor<>()));
+			if (!falseOptionalFeatures.isEmpty()) {
+				final Map<IFeature, Integer> atomicSetIndexes = new HashMap<>();
+				final List<List<IFeature>> atomicSets = analyzer.getAtomicSets(new NullMonitor<>());
+				// The first atomic set contains all core features and is too coarse to relate its false-optional features.
+				for (int i = 1; i < atomicSets.size(); i++) {
+					for (final IFeature feature : atomicSets.get(i)) {
+						atomicSetIndexes.put(feature, i);
+					}
+				}
+				final Map<Object, List<Task>> falseOptionalClusters = new LinkedHashMap<>();
+				for (final IFeature feature : preorder) {
+					if (falseOptionalFeatures.contains(feature)) {
+						final Integer atomicSetIndex = atomicSetIndexes.get(feature);
+						addTask(falseOptionalClusters, atomicSetIndex == null ? feature : atomicSetIndex, new Task(Anomaly.FALSE_OPTIONAL_FEATURE, feature));
+					}
+				}
+				clusters.addAll(falseOptionalClusters.values());
+			}
+		}
+
+		if (anomalies.contains(Anomaly.REDUNDANT_CONSTRAINT)) {
+			for (final IConstraint constraint : analyzer.getRedundantConstraints(new NullMonitor<>())) {
+				clusters.add(Collections.singletonList(new Task(Anomaly.REDUNDANT_CONSTRAINT, constraint)));
+			}
+		}
+		return clusters;
+	}
+
+	private static <K> void addTask(Map<K, List<Task>> clusters, K key, Task task) {
+		List<Task> cluster = clusters.get(key);
+		if (cluster == null) {
+			cluster = new ArrayList<>();
+			clusters.put(key, cluster);
+		}
+		cluster.add(task);
+	}
+
+	private void run(List<List<Task>> clusters, FeatureModelExplanationCache cache, IMonitor<FeatureModelExplanationCache> monitor) throws Exception {
+		final int numberOfThreads = Math.min(parallelism, clusters.size());
+		workers = new ArrayBlockingQueue<>(Math.max(1, numberOfThreads));
+		for (int i = 0; i < Math.max(1, numberOfThreads); i++) {
+			workers.add(new Worker());
+		}
+
+		final List<Callable<Integer>> tasks = new ArrayList<>(clusters.size());
+		for (final List<Task> cluster : clusters) {
+			tasks.add(() -> {
+				final Worker worker = workers.take();
+				try {
+					return worker.explain(cluster, cache);
+				} finally {
+					workers.add(worker);
+				}
+			});
+		}
+
+		try {
+			if (numberOfThreads <= 1) {
+				for (final Callable<Integer> task : tasks) {
+					monitor.worked(task.call());
+				}
+			} else {
+				final ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+				try {
+					final List<Future<Integer>> futures = new ArrayList<>(tasks.size());
+					for (final Callable<Integer> task : tasks) {
+						futures.add(pool.submit(task));
+					}
+					for (final Future<Integer> future : futures) {
+						try {
+							monitor.worked(future.get());
+						} catch (final ExecutionException e) {
+							if (e.getCause() instanceof Exception) {
+								throw (Exception) e.getCause();
+							}
+							throw e;
+						}
+					}
+				} finally {
+					pool.shutdownNow();
+				}
+			}
+		} finally {
+			workers = null;
+		}
+	}
+
+	/**
+	 * Explains clusters with its own creators. The creators and their oracles are created on first use.
+	 */
+	private final class Worker {
+
+		private MusDeadFeatureExplanationCreator deadFeatureCreator;
+		private MusFalseOptionalFeatureExplanationCreator falseOptionalFeatureCreator;
+		private MusRedundantConstraintExplanationCreator redundantConstraintCreator;
+
+		private int explain(List<Task> cluster, FeatureModelExplanationCache cache) {
+			int[] hint = null;
+			for (final Task task : cluster) {
+				if (cache.get(task.anomaly, task.element) != null) {
+					hint = null;
+					continue;
+				}
+				final MusFeatureModelExplanationCreator<?, ?> creator = getCreator(task);
+				creator.setHint(hint);
+				final long startTime = System.nanoTime();
+				FeatureModelExplanation<?> explanation;
+				try {
+					explanation = creator.getExplanation();
+				} catch (final RuntimeTimeoutException e) {
+					explanation = null;
+				}
+				final long time = System.nanoTime() - startTime;
+				cache.add(new Entry(task.anomaly, task.element, explanation, time, (explanation != null) && creator.isLastHintHit()));
+				hint = explanation == null ? null : creator.getLastSubset();
+			}
+			return cluster.size();
+		}
+
+		private MusFeatureModelExplanationCreator<?, ?> getCreator(Task task) {
+			switch (task.anomaly) {
+			case DEAD_FEATURE:
+				if (deadFeatureCreator == null) {
+					deadFeatureCreator = init(new MusDeadFeatureExplanationCreator());
+				}
+				deadFeatureCreator.setSubject((IFeature) task.element);
+				return deadFeatureCreator;
+			case FALSE_OPTIONAL_FEATURE:
+				if (falseOptionalFeatureCreator == null) {
+					falseOptionalFeatureCreator = init(new MusFalseOptionalFeatureExplanationCreator());
+				}
+				falseOptionalFeatureCreator.setSubject((IFeature) task.element);
+				return falseOptionalFeatureCreator;
+			case REDUNDANT_CONSTRAINT:
+				if (redundantConstraintCreator == null) {
+					redundantConstraintCreator = init(new MusRedundantConstraintExplanationCreator());
+				}
+				redundantConstraintCreator.setSubject((IConstraint) task.element);
+				return redundantConstraintCreator;
+			default:
+				throw new IllegalStateException(String.valueOf(task.anomaly));
+			}
+		}
+
+		private <C extends MusFeatureModelExplanationCreator<?, ?>> C init(C creator) {
+			creator.setFeatureModel(formula.getFeatureModel());
+			creator.setMaximumExplanationCount(maximumExplanationCount);
+			creator.setMinimization(minimization);
+			return creator;
+		}
+	}
+
+}
@@ -20,16 +20,16 @@
  */
 package de.ovgu.featureide.fm.core.explanations.fm.impl.mus;
 
-import org.prop4j.explain.solvers.MusExtractor;
 import org.prop4j.explain.solvers.SatSolverFactory;
 
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.SelectorMusExtractor;
 import de.ovgu.featureide.fm.core.base.FeatureUtils;
 import de.ovgu.featureide.fm.core.base.IFeature;
 import de.ovgu.featureide.fm.core.explanations.fm.FalseOptionalFeatureExplanation;
 import de.ovgu.featureide.fm.core.explanations.fm.FalseOptionalFeatureExplanationCreator;
 
 /**
- * Implementation of {@link FalseOptionalFeatureExplanationCreator} using a {@link MusExtractor MUS extractor}.
+ * Implementation of {@link FalseOptionalFeatureExplanationCreator} using a {@link SelectorMusExtractor MUS extractor}.
  *
  * @author Timo G&uuml;nther
  */
@@ -54,17 +54,7 @@ public class MusFalseOptionalFeatureExplanationCreator extends MusFeatureModelEx
 
 	@Override
 	public FalseOptionalFeatureExplanation getExplanation() throws IllegalStateException {
-		final MusExtractor oracle = getOracle();
-		final FalseOptionalFeatureExplanation explanation;
-		oracle.push();
-		try {
-			oracle.addAssumption(getSubject().getName(), false);
-			oracle.addAssumption(FeatureUtils.getParent(getSubject()).getName(), true);
-			explanation = getExplanation(oracle.getAllMinimalUnsatisfiableSubsetIndexes());
-		} finally {
-			oracle.pop();
-		}
-		return explanation;
+		return getExplanationForAssumptions(getLiteral(getSubject(), false), getLiteral(FeatureUtils.getParent(getSubject()), true));
 	}
 
 	@Override
@@ -20,30 +20,77 @@
  */
 package de.ovgu.featureide.fm.core.explanations.fm.impl.mus;
 
-import org.prop4j.explain.solvers.MusExtractor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.prop4j.Node;
 import org.prop4j.explain.solvers.SatSolverFactory;
 
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.FeatureModelCNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.Nodes;
+import de.ovgu.featureide.fm.core.analysis.cnf.Variables;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.SelectorMusExtractor;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.SelectorMusExtractor.Minimization;
+import de.ovgu.featureide.fm.core.base.IConstraint;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.editing.FeatureModelToNodeTraceModel;
+import de.ovgu.featureide.fm.core.editing.FeatureModelToNodeTraceModel.FeatureModelElementTrace;
+import de.ovgu.featureide.fm.core.editing.FeatureModelToNodeTraceModel.Origin;
 import de.ovgu.featureide.fm.core.explanations.fm.FeatureModelExplanation;
 import de.ovgu.featureide.fm.core.explanations.fm.FeatureModelExplanationCreator;
 import de.ovgu.featureide.fm.core.explanations.fm.impl.AbstractFeatureModelExplanationCreator;
 
 /**
- * Abstract implementation of {@link FeatureModelExplanationCreator} using a {@link MusExtractor MUS extractor}.
+ * Abstract implementation of {@link FeatureModelExplanationCreator} using a {@link SelectorMusExtractor MUS extractor}.<br> <br> The oracle is created once
+ * per feature model. All clauses of the CNF with the same trace form one group of the oracle, such that every constraint and every structural relationship
+ * has one permanent selector. An explanation is a query with the selectors of the relevant groups and the assumptions of the defect. Thus, the oracle is
+ * never modified during explaining and reused for all defects of the same feature model.
  *
  * @param <S> subject
  * @param <E> explanation
  * @author Timo G&uuml;nther
  */
 public abstract class MusFeatureModelExplanationCreator<S, E extends FeatureModelExplanation<S>>
-		extends AbstractFeatureModelExplanationCreator<S, E, MusExtractor> {
+		extends AbstractFeatureModelExplanationCreator<S, E, SelectorMusExtractor> {
 
-	/** The solver factory used to create the oracle. */
+	/** The solver factory passed on construction. */
 	private final SatSolverFactory solverFactory;
 
+	/** The maximum number of minimal unsatisfiable subsets to compute per explanation. */
+	private int maximumExplanationCount = 1;
+	/** The algorithm used to minimize unsatisfiable subsets. */
+	private Minimization minimization = Minimization.DELETION;
+
+	/** The variables of the feature model. Created and reset together with the oracle. */
+	private Variables variables;
+	/** The index of the first clause of each group of the oracle. Created and reset together with the oracle. */
+	private int[] groupClauseIndexes;
+	/** The group of the clauses of each constraint. Created and reset together with the oracle. */
+	private final Map<IConstraint, Integer> constraintGroups = new HashMap<>();
+	/** The groups that contain each variable. Created and reset together with the oracle. */
+	private int[][] variableGroups;
+
+	/** The groups of a related explanation that are checked first. */
+	private int[] hint;
+	/** The groups of the first minimal unsatisfiable subset of the last explanation. */
+	private int[] lastSubset;
+	/** Whether the first minimal unsatisfiable subset of the last explanation was found within the hint. */
+	private boolean lastHintHit;
+
 	/**
 	 * Constructs a new instance of this class.
 	 *
-	 * @param solverFactory the solver factory used to create the oracle
+	 * @param solverFactory the solver factory; kept for compatibility, the oracle is always a {@link SelectorMusExtractor}
 	 */
 	protected MusFeatureModelExplanationCreator(SatSolverFactory solverFactory) {
 		if (solverFactory == null) {
@@ -53,19 +100,289 @@ public abstract class MusFeatureModelExplanationCreator<S, E extends FeatureMode
 	}
 
 	/**
-	 * Returns the solver factory used to create the oracle
+	 * Returns the solver factory passed on construction.
 	 *
 	 * @return the solver factory
+	 * @deprecated The oracle does not depend on the solver factory anymore.
 	 */
+	@Deprecated
 	public SatSolverFactory getSatSolverFactory() {
 		return solverFactory;
 	}
 
+	/**
+	 * Returns the maximum number of minimal unsatisfiable subsets that are computed for one explanation. Each subset is one alternative explanation. Defaults
+	 * to 1.
+	 *
+	 * @return the maximum number of alternative explanations
+	 */
+	public int getMaximumExplanationCount() {
+		return maximumExplanationCount;
+	}
+
+	/**
+	 * Sets the maximum number of minimal unsatisfiable subsets that are computed for one explanation.
+	 *
+	 * @param maximumExplanationCount the maximum number of alternative explanations; at least 1
+	 */
+	public void setMaximumExplanationCount(int maximumExplanationCount) {
+		if (maximumExplanationCount < 1) {
+			throw new IllegalArgumentException("Maximum explanation count must be at least 1");
+		}
+		this.maximumExplanationCount = maximumExplanationCount;
+	}
+
+	/**
+	 * Returns the algorithm used to minimize unsatisfiable subsets.
+	 *
+	 * @return the minimization algorithm
+	 */
+	public Minimization getMinimization() {
+		return minimization;
+	}
+
+	/**
+	 * Sets the algorithm used to minimize unsatisfiable subsets.
+	 *
+	 * @param minimization the minimization algorithm; not null
+	 */
+	public void setMinimization(Minimization minimization) {
+		if (minimization == null) {
+			throw new IllegalArgumentException("Minimization must not be null");
+		}
+		this.minimization = minimization;
+	}
+
 	@Override
-	protected MusExtractor createOracle() {
-		final MusExtractor oracle = getSatSolverFactory().getMusExtractor();
-		oracle.addFormula(getCnf());
+	protected void setOracle(SelectorMusExtractor oracle) {
+		super.setOracle(oracle);
+		if (oracle == null) {
+			variables = null;
+			groupClauseIndexes = null;
+			constraintGroups.clear();
+			variableGroups = null;
+			hint = null;
+			lastSubset = null;
+		}
+	}
+
+	@Override
+	protected SelectorMusExtractor createOracle() {
+		final Node[] clauses = getCnf().getChildren();
+		final FeatureModelToNodeTraceModel traceModel = getTraceModel();
+
+		final Map<FeatureModelElementTrace, List<LiteralSet>> groupClauses = new LinkedHashMap<>();
+		final Map<FeatureModelElementTrace, Integer> firstClauseIndexes = new HashMap<>();
+		for (int i = 0; i < clauses.length; i++) {
+			final FeatureModelElementTrace trace = traceModel.getTrace(i);
+			List<LiteralSet> group = groupClauses.get(trace);
+			if (group == null) {
+				group = new ArrayList<>();
+				groupClauses.put(trace, group);
+				firstClauseIndexes.put(trace, i);
+			}
+			group.addAll(toClauses(clauses[i]));
+		}
+
+		final SelectorMusExtractor oracle = new SelectorMusExtractor(new CNF(getVariables()));
+		final int[] clauseIndexes = new int[groupClauses.size()];
+		final List<Set<Integer>> groupsOfVariables = new ArrayList<>();
+		for (int i = 0; i <= getVariables().size(); i++) {
+			groupsOfVariables.add(new TreeSet<Integer>());
+		}
+		for (final Entry<FeatureModelElementTrace, List<LiteralSet>> entry : groupClauses.entrySet()) {
+			final FeatureModelElementTrace trace = entry.getKey();
+			final int group = oracle.addGroup(entry.getValue());
+			clauseIndexes[group] = firstClauseIndexes.get(trace);
+			if (trace.getOrigin() == Origin.CONSTRAINT) {
+				constraintGroups.put((IConstraint) trace.getElement(), group);
+			}
+			for (final LiteralSet clause : entry.getValue()) {
+				for (final int literal : clause.getLiterals()) {
+					groupsOfVariables.get(Math.abs(literal)).add(group);
+				}
+			}
+		}
+		groupClauseIndexes = clauseIndexes;
+		variableGroups = new int[groupsOfVariables.size()][];
+		for (int i = 0; i < variableGroups.length; i++) {
+			final Set<Integer> groups = groupsOfVariables.get(i);
+			variableGroups[i] = new int[groups.size()];
+			int index = 0;
+			for (final Integer group : groups) {
+				variableGroups[i][index++] = group;
+			}
+		}
 		return oracle;
 	}
 
+	/**
+	 * Converts the given formula into clauses over the variables of the oracle.
+	 *
+	 * @param node formula to convert
+	 * @return the clauses of the formula; an empty clause if the formula is a contradiction
+	 */
+	protected List<LiteralSet> toClauses(Node node) {
+		final List<LiteralSet> clauses = Nodes.convert(getVariables(), node);
+		for (final LiteralSet clause : clauses) {
+			if (clause.containsLiteral(0)) {
+				return Collections.singletonList(new LiteralSet());
+			}
+		}
+		return clauses;
+	}
+
+	/**
+	 * Returns the literal of the given feature.
+	 *
+	 * @param feature a feature of the feature model
+	 * @param positive the sign of the literal
+	 * @return the literal
+	 * @throws IllegalStateException if the feature model or the feature is not set
+	 */
+	protected int getLiteral(IFeature feature, boolean positive) throws IllegalStateException {
+		getOracle();
+		if (feature == null) {
+			throw new IllegalStateException("Feature not set");
+		}
+		return getVariables().getVariable(feature.getName(), positive);
+	}
+
+	/**
+	 * Returns the variables of the feature model. Creates them first if necessary.
+	 *
+	 * @return the variables; not null
+	 */
+	protected Variables getVariables() {
+		if (variables == null) {
+			variables = FeatureModelCNF.empty(getFeatureModel(), false).getVariables();
+		}
+		return variables;
+	}
+
+	/**
+	 * Returns the group of the oracle that contains the clauses of the given constraint.
+	 *
+	 * @param constraint a constraint of the feature model
+	 * @return the index of the group; -1 if the constraint has no clauses
+	 */
+	protected int getConstraintGroup(IConstraint constraint) {
+		getOracle();
+		final Integer group = constraintGroups.get(constraint);
+		return group == null ? -1 : group;
+	}
+
+	/**
+	 * Returns the groups of the oracle that contain the clauses of the feature model. Groups added later by subclasses are not included.
+	 *
+	 * @param excludedGroups the indexes of the groups to leave out
+	 * @return the indexes of the groups
+	 */
+	protected int[] getFeatureModelGroups(int... excludedGroups) {
+		getOracle();
+		final boolean[] excluded = new boolean[groupClauseIndexes.length];
+		for (final int group : excludedGroups) {
+			excluded[group] = true;
+		}
+		final int[] groups = new int[groupClauseIndexes.length];
+		int groupCount = 0;
+		for (int group = 0; group < groups.length; group++) {
+			if (!excluded[group]) {
+				groups[groupCount++] = group;
+			}
+		}
+		return Arrays.copyOf(groups, groupCount);
+	}
+
+	/**
+	 * Returns an explanation of why the given groups of the feature model are unsatisfiable under the given assumptions. Computes up to
+	 * {@link #getMaximumExplanationCount()} minimal unsatisfiable subsets, of which the shortest is the explanation and all are alternative explanations.
+	 *
+	 * @param groups the indexes of the groups that may be part of the explanation
+	 * @param assumptions literals or selectors that hold for the defect
+	 * @return the explanation; null if the groups are satisfiable
+	 */
+	protected E getExplanation(int[] groups, int... assumptions) {
+		final SelectorMusExtractor oracle = getOracle();
+		oracle.setMinimization(minimization);
+		final int hintHits = oracle.getHintHits();
+		final List<int[]> subsets = oracle.getMinimalUnsatisfiableSubsets(groups, getHintGroups(assumptions), maximumExplanationCount, assumptions);
+		lastHintHit = oracle.getHintHits() > hintHits;
+		lastSubset = subsets.isEmpty() ? null : subsets.get(0);
+		final List<Set<Integer>> clauseIndexes = new ArrayList<>(subsets.size());
+		for (final int[] subset : subsets) {
+			final Set<Integer> subsetClauseIndexes = new TreeSet<>();
+			for (final int group : subset) {
+				subsetClauseIndexes.add(groupClauseIndexes[group]);
+			}
+			clauseIndexes.add(subsetClauseIndexes);
+		}
+		return getExplanation(clauseIndexes);
+	}
+
+	/**
+	 * Extends the hint by all groups that contain a variable of the given assumptions, which connects the related explanation to the subject.
+	 */
+	private int[] getHintGroups(int[] assumptions) {
+		if (hint == null) {
+			return null;
+		}
+		final Set<Integer> hintGroups = new TreeSet<>();
+		for (final int group : hint) {
+			hintGroups.add(group);
+		}
+		for (final int literal : assumptions) {
+			final int variable = Math.abs(literal);
+			if (variable < variableGroups.length) {
+				for (final int group : variableGroups[variable]) {
+					hintGroups.add(group);
+				}
+			}
+		}
+		final int[] hintArray = new int[hintGroups.size()];
+		int index = 0;
+		for (final Integer group : hintGroups) {
+			hintArray[index++] = group;
+		}
+		return hintArray;
+	}
+
+	/**
+	 * Sets the groups of a related explanation, such as the one of a feature in the same atomic set. Subsequent explanations are first searched within these
+	 * groups and the groups that contain the variables of the subject.
+	 *
+	 * @param hint groups as returned by {@link #getLastSubset()}; null for no hint
+	 */
+	public void setHint(int[] hint) {
+		this.hint = hint;
+	}
+
+	/**
+	 * Returns the groups of the first minimal unsatisfiable subset of the last explanation. They can be used as {@link #setHint(int[]) hint} for related
+	 * explanations of the same creator.
+	 *
+	 * @return the groups; null if the last subject could not be explained
+	 */
+	public int[] getLastSubset() {
+		return lastSubset;
+	}
+
+	/**
+	 * @return whether the last explanation was found within the {@link #setHint(int[]) hint}
+	 */
+	public boolean isLastHintHit() {
+		return lastHintHit;
+	}
+
+	/**
+	 * Returns an explanation of why all groups of the feature model are unsatisfiable under the given assumptions.
+	 *
+	 * @param assumptions literals or selectors that hold for the defect
+	 * @return the explanation; null if the feature model is satisfiable under the assumptions
+	 * @see #getExplanation(int[], int...)
+	 */
+	protected E getExplanationForAssumptions(int... assumptions) {
+		return getExplanation(getFeatureModelGroups(), assumptions);
+	}
+
 }
@@ -20,27 +20,30 @@
  */
 package de.ovgu.featureide.fm.core.explanations.fm.impl.mus;
 
-import org.prop4j.Node;
-import org.prop4j.explain.solvers.MusExtractor;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.prop4j.Not;
 import org.prop4j.explain.solvers.SatSolverFactory;
 
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.SelectorMusExtractor;
 import de.ovgu.featureide.fm.core.base.IConstraint;
-import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
-import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.ModelType;
-import de.ovgu.featureide.fm.core.explanations.Reason;
 import de.ovgu.featureide.fm.core.explanations.fm.RedundantConstraintExplanation;
 import de.ovgu.featureide.fm.core.explanations.fm.RedundantConstraintExplanationCreator;
 
 /**
- * Implementation of {@link RedundantConstraintExplanationCreator} using a {@link MusExtractor MUS extractor}.
+ * Implementation of {@link RedundantConstraintExplanationCreator} using a {@link SelectorMusExtractor MUS extractor}.
  *
  * @author Timo G&uuml;nther
  */
 public class MusRedundantConstraintExplanationCreator extends MusFeatureModelExplanationCreator<IConstraint, RedundantConstraintExplanation>
 		implements RedundantConstraintExplanationCreator {
 
-	/** The amount of clauses added to the oracle to account for the redundant constraint. */
-	private int redundantConstraintClauseCount;
+	/**
+	 * The group of the negated clauses of each constraint explained so far. Negated constraints are added to the oracle only once and are never part of an
+	 * explanation. Reset together with the oracle.
+	 */
+	private final Map<IConstraint, Integer> negatedConstraintGroups = new HashMap<>();
 
 	/**
 	 * Constructs a new instance of this class.
@@ -58,58 +61,47 @@ public class MusRedundantConstraintExplanationCreator extends MusFeatureModelExp
 		super(solverFactory);
 	}
 
-	/**
-	 * {@inheritDoc}
-	 *
-	 * <p> Does not include any of the constraints. The constraints are only added later during explaining. This is faster than creating the complete CNF and
-	 * repeatedly removing the redundant constraints from it. </p>
-	 */
 	@Override
-	protected AdvancedNodeCreator createNodeCreator() {
-		final AdvancedNodeCreator nc = super.createNodeCreator();
-		nc.setModelType(ModelType.OnlyStructure);
-		return nc;
+	protected void setOracle(SelectorMusExtractor oracle) {
+		super.setOracle(oracle);
+		if (oracle == null) {
+			negatedConstraintGroups.clear();
+		}
 	}
 
 	/**
-	 * Adds the given constraint to the oracle.
+	 * Returns the group of the oracle that contains the negated clauses of the given constraint. Adds the group first if necessary.
 	 *
-	 * @param constraint constraint to add
-	 * @param positive whether the constraint should be added as is ({@code true}) or in negated form ({@code false})
-	 * @return amount of clauses added
+	 * @param constraint constraint to negate
+	 * @return the index of the group
 	 */
-	private int addConstraint(IConstraint constraint, boolean positive) {
-		final AdvancedNodeCreator nc = getNodeCreator();
-		final Node constraintNode = nc.createConstraintNode(constraint, positive);
-		return getOracle().addFormula(constraintNode);
+	private int getNegatedConstraintGroup(IConstraint constraint) {
+		final SelectorMusExtractor oracle = getOracle();
+		Integer group = negatedConstraintGroups.get(constraint);
+		if (group == null) {
+			group = oracle.addGroup(toClauses(new Not(constraint.getNode())));
+			negatedConstraintGroups.put(constraint, group);
+		}
+		return group;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p> Uses every group of the feature model but the one of the redundant constraint. The negated redundant constraint is assumed and thus not part of the
+	 * explanation. </p>
+	 */
 	@Override
 	public RedundantConstraintExplanation getExplanation() throws IllegalStateException {
-		final RedundantConstraintExplanation explanation;
-		final MusExtractor oracle = getOracle();
-		oracle.push();
-		int constraintClauseCount = 0;
-		try {
-			// Add each constraint but the redundant one.
-			for (final IConstraint constraint : getFeatureModel().getConstraints()) {
-				if (constraint.equals(getSubject())) {
-					continue;
-				}
-				constraintClauseCount += addConstraint(constraint, true);
-			}
-
-			// Add the negated redundant constraint.
-			redundantConstraintClauseCount = addConstraint(getSubject(), false);
-			constraintClauseCount += redundantConstraintClauseCount;
-
-			// Get the explanation.
-			explanation = getExplanation(oracle.getAllMinimalUnsatisfiableSubsetIndexes());
-		} finally {
-			oracle.pop();
-			getTraceModel().removeTraces(constraintClauseCount);
+		final SelectorMusExtractor oracle = getOracle();
+		final IConstraint constraint = getSubject();
+		if (constraint == null) {
+			throw new IllegalStateException("Constraint not set");
 		}
-		return explanation;
+		final int negatedSelector = oracle.getSelector(getNegatedConstraintGroup(constraint));
+		final int constraintGroup = getConstraintGroup(constraint);
+		final int[] groups = constraintGroup < 0 ? getFeatureModelGroups() : getFeatureModelGroups(constraintGroup);
+		return getExplanation(groups, negatedSelector);
 	}
 
 	@Override
@@ -117,12 +109,4 @@ public class MusRedundantConstraintExplanationCreator extends MusFeatureModelExp
 		return new RedundantConstraintExplanation(getSubject());
 	}
 
-	@Override
-	protected Reason<?> getReason(int clauseIndex) {
-		if (clauseIndex >= (getTraceModel().getTraceCount() - redundantConstraintClauseCount)) {
-			return null; // Ignore the redundant constraint clauses.
-		}
-		return super.getReason(clauseIndex);
-	}
-
 }
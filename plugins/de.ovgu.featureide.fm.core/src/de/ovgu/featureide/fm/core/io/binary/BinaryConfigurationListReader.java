@@ -0,0 +1,171 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.io.binary;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet.Order;
+import de.ovgu.featureide.fm.core.analysis.cnf.SolutionList;
+import de.ovgu.featureide.fm.core.analysis.cnf.SolutionMatrix;
+import de.ovgu.featureide.fm.core.analysis.cnf.Variables;
+import de.ovgu.featureide.fm.core.io.Problem;
+import de.ovgu.featureide.fm.core.io.ProblemList;
+
+/**
+ * Reads a list of configurations written by a {@link BinaryConfigurationListWriter} one configuration at a time.
+ *
+ * @see BinaryConfigurationListWriter
+ */
+public class BinaryConfigurationListReader implements Closeable {
+
+	private final DataInputStream in;
+	private final Variables variables;
+	private final int numberOfVariables;
+	private final byte[] record;
+
+	private int numberOfConfigurations = 0;
+
+	/**
+	 * Reads all configurations from the given file.
+	 *
+	 * @param path the file
+	 * @param configurationList the list to which all read configurations are added
+	 * @return a list of all problems that occurred
+	 */
+	public static ProblemList load(Path path, SolutionList configurationList) {
+		final ProblemList problems = new ProblemList();
+		try (BinaryConfigurationListReader reader = new BinaryConfigurationListReader(path)) {
+			configurationList.setVariables(reader.getVariables());
+			final List<LiteralSet> solutions = configurationList.getSolutions();
+			if ((solutions instanceof SolutionMatrix) && solutions.isEmpty()) {
+				((SolutionMatrix) solutions).setNumberOfVariables(reader.getVariables().size());
+			}
+			for (LiteralSet configuration = reader.read(); configuration != null; configuration = reader.read()) {
+				configurationList.addSolution(configuration);
+			}
+		} catch (final IOException e) {
+			problems.add(new Problem(e));
+		}
+		return problems;
+	}
+
+	public BinaryConfigurationListReader(Path path) throws IOException {
+		this(Files.newInputStream(path));
+	}
+
+	/**
+	 * Reads the header immediately.
+	 *
+	 * @param inputStream the source. Is closed by {@link #close()}.
+	 * @throws IOException if the header could not be read or is invalid
+	 */
+	public BinaryConfigurationListReader(InputStream inputStream) throws IOException {
+		in = new DataInputStream(new BufferedInputStream(inputStream));
+		if (in.readInt() != BinaryConfigurationListWriter.MAGIC_NUMBER) {
+			in.close();
+			throw new IOException("Not a binary configuration list!");
+		}
+		final byte version = in.readByte();
+		if (version != BinaryConfigurationListWriter.VERSION) {
+			in.close();
+			throw new IOException("Unsupported version " + version + "!");
+		}
+		numberOfVariables = in.readInt();
+		final ArrayList<String> names = new ArrayList<>(numberOfVariables);
+		for (int i = 0; i < numberOfVariables; i++) {
+			names.add(in.readUTF());
+		}
+		variables = new Variables(names);
+		record = new byte[BinaryConfigurationListWriter.getRecordLength(numberOfVariables)];
+	}
+
+	public Variables getVariables() {
+		return variables;
+	}
+
+	/**
+	 * Reads the next configuration.
+	 *
+	 * @return the next configuration or {@code null} if there are no more configurations.
+	 * @throws IOException if the next configuration could not be read completely
+	 */
+	public LiteralSet read() throws IOException {
+		if (record.length == 0) {
+			return null;
+		}
+		final int firstByte = in.read();
+		if (firstByte < 0) {
+			return null;
+		}
+		record[0] = (byte) firstByte;
+		try {
+			in.readFully(record, 1, record.length - 1);
+		} catch (final EOFException e) {
+			throw new IOException("Incomplete configuration " + (numberOfConfigurations + 1) + "!");
+		}
+		numberOfConfigurations++;
+
+		final int[] literals = new int[numberOfVariables];
+		int index = 0;
+		for (int variable = 1; variable <= numberOfVariables; variable++) {
+			final int bitIndex = (variable - 1) << 1;
+			switch ((record[bitIndex >>> 3] >>> (bitIndex & 7)) & 0b11) {
+			case BinaryConfigurationListWriter.POSITIVE:
+				literals[index++] = variable;
+				break;
+			case BinaryConfigurationListWriter.NEGATIVE:
+				literals[index++] = -variable;
+				break;
+			default:
+				break;
+			}
+		}
+		if (index == numberOfVariables) {
+			return new LiteralSet(literals, Order.INDEX, false);
+		} else {
+			return new LiteralSet(Arrays.copyOfRange(literals, 0, index), Order.UNORDERED, false);
+		}
+	}
+
+	/**
+	 * @return the number of configurations read so far
+	 */
+	public int getNumberOfConfigurations() {
+		return numberOfConfigurations;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+}
@@ -0,0 +1,116 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.io.binary;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.Variables;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.IConfigurationSink;
+
+/**
+ * Writes a list of configurations in a compact binary format one configuration at a time.<br> The file starts with a header consisting of
+ * {@link #MAGIC_NUMBER}, {@link #VERSION}, the number of variables, and the name of each variable. Afterwards, each configuration is stored as a record of
+ * {@link #getRecordLength(int)} bytes, which holds two bits per variable (see {@link #UNDEFINED}, {@link #NEGATIVE}, and {@link #POSITIVE}). The first
+ * variable is stored in the two least significant bits of the first byte.
+ *
+ * @see BinaryConfigurationListReader
+ */
+public class BinaryConfigurationListWriter implements IConfigurationSink, Closeable {
+
+	public static final int MAGIC_NUMBER = 0x46494453;
+	public static final byte VERSION = 1;
+
+	public static final int UNDEFINED = 0b00;
+	public static final int NEGATIVE = 0b01;
+	public static final int POSITIVE = 0b10;
+
+	private final DataOutputStream out;
+	private final int numberOfVariables;
+	private final byte[] record;
+
+	private int numberOfConfigurations = 0;
+
+	public static int getRecordLength(int numberOfVariables) {
+		return ((numberOfVariables << 1) + 7) >>> 3;
+	}
+
+	public BinaryConfigurationListWriter(Path path, Variables variables) throws IOException {
+		this(Files.newOutputStream(path), variables);
+	}
+
+	/**
+	 * Writes the header immediately.
+	 *
+	 * @param outputStream the target. Is closed by {@link #close()}.
+	 * @param variables the variables of all configurations
+	 * @throws IOException if the header could not be written
+	 */
+	public BinaryConfigurationListWriter(OutputStream outputStream, Variables variables) throws IOException {
+		out = new DataOutputStream(new BufferedOutputStream(outputStream));
+		numberOfVariables = Math.max(0, variables.size());
+		record = new byte[getRecordLength(numberOfVariables)];
+
+		out.writeInt(MAGIC_NUMBER);
+		out.writeByte(VERSION);
+		out.writeInt(numberOfVariables);
+		for (int i = 1; i <= numberOfVariables; i++) {
+			out.writeUTF(variables.getName(i));
+		}
+	}
+
+	@Override
+	public void accept(LiteralSet configuration) throws IOException {
+		Arrays.fill(record, (byte) 0);
+		for (final int literal : configuration.getLiterals()) {
+			if (literal != 0) {
+				final int variable = Math.abs(literal);
+				if (variable > numberOfVariables) {
+					throw new IllegalArgumentException("Unknown variable " + variable);
+				}
+				final int bitIndex = (variable - 1) << 1;
+				record[bitIndex >>> 3] |= (literal > 0 ? POSITIVE : NEGATIVE) << (bitIndex & 7);
+			}
+		}
+		out.write(record);
+		numberOfConfigurations++;
+	}
+
+	/**
+	 * @return the number of configurations written so far
+	 */
+	public int getNumberOfConfigurations() {
+		return numberOfConfigurations;
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+}
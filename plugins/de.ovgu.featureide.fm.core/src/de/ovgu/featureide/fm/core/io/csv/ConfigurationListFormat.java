@@ -21,6 +21,7 @@
 package de.ovgu.featureide.fm.core.io.csv;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
 import java.util.regex.Pattern;
 
@@ -28,6 +29,7 @@ import de.ovgu.featureide.fm.core.PluginID;
 import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
 import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet.Order;
 import de.ovgu.featureide.fm.core.analysis.cnf.SolutionList;
+import de.ovgu.featureide.fm.core.analysis.cnf.SolutionMatrix;
 import de.ovgu.featureide.fm.core.analysis.cnf.Variables;
 import de.ovgu.featureide.fm.core.io.APersistentFormat;
 import de.ovgu.featureide.fm.core.io.Problem;
@@ -46,25 +48,48 @@ public class ConfigurationListFormat extends APersistentFormat<SolutionList> {
 	@Override
 	public String write(SolutionList configurationList) {
 		final StringBuilder csv = new StringBuilder();
+		final Variables variables = configurationList.getVariables();
+		writeHeader(csv, variables);
+		final List<LiteralSet> solutions = configurationList.getSolutions();
+		if ((solutions instanceof SolutionMatrix) && (((SolutionMatrix) solutions).getNumberOfVariables() == variables.size())) {
+			final SolutionMatrix matrix = (SolutionMatrix) solutions;
+			for (int row = 0; row < matrix.size(); row++) {
+				csv.append(row);
+				for (int i = 1; i <= variables.size(); i++) {
+					csv.append(';');
+					final int literal = matrix.getLiteral(row, i);
+					csv.append(literal == 0 ? '0' : literal > 0 ? '+' : '-');
+				}
+				csv.append('\n');
+			}
+		} else {
+			int configurationIndex = 0;
+			for (final LiteralSet configuration : solutions) {
+				writeConfiguration(csv, configurationIndex++, configuration, variables.size());
+			}
+		}
+		return csv.toString();
+	}
+
+	static void writeHeader(StringBuilder csv, Variables variables) {
 		csv.append("Configuration");
-		final String[] names = configurationList.getVariables().getNames();
+		final String[] names = variables.getNames();
 		for (int i = 1; i < names.length; i++) {
 			csv.append(';');
 			csv.append(names[i]);
 		}
 		csv.append('\n');
-		int configurationIndex = 0;
-		for (final LiteralSet configuration : configurationList.getSolutions()) {
-			csv.append(configurationIndex++);
-			final int[] literals = configuration.getLiterals();
-			for (int i = 1; i < names.length; i++) {
-				csv.append(';');
-				final int indexOfVariable = configuration.indexOfVariable(i);
-				csv.append(indexOfVariable < 0 ? '0' : literals[indexOfVariable] > 0 ? '+' : '-');
-			}
-			csv.append('\n');
+	}
+
+	static void writeConfiguration(StringBuilder csv, int configurationIndex, LiteralSet configuration, int numberOfVariables) {
+		csv.append(configurationIndex);
+		final int[] literals = configuration.getLiterals();
+		for (int i = 1; i <= numberOfVariables; i++) {
+			csv.append(';');
+			final int indexOfVariable = configuration.indexOfVariable(i);
+			csv.append(indexOfVariable < 0 ? '0' : literals[indexOfVariable] > 0 ? '+' : '-');
 		}
-		return csv.toString();
+		csv.append('\n');
 	}
 
 	@Override
@@ -87,6 +112,13 @@ public class ConfigurationListFormat extends APersistentFormat<SolutionList> {
 				configurationList.setVariables(new Variables(Arrays.asList(names).subList(1, names.length)));
 			}
 
+			final List<LiteralSet> solutions = configurationList.getSolutions();
+			if ((solutions instanceof SolutionMatrix) && solutions.isEmpty()) {
+				final SolutionMatrix matrix = (SolutionMatrix) solutions;
+				matrix.setNumberOfVariables(configurationList.getVariables().size());
+				return readMatrix(scanner, matrix, problems);
+			}
+
 			while (scanner.hasNext()) {
 				final String line = scanner.next();
 				lineNumber++;
@@ -124,6 +156,41 @@ public class ConfigurationListFormat extends APersistentFormat<SolutionList> {
 		return problems;
 	}
 
+	/**
+	 * Reads the configurations directly into a {@link SolutionMatrix} without creating a {@link LiteralSet} for each line.
+	 */
+	private ProblemList readMatrix(Scanner scanner, SolutionMatrix matrix, ProblemList problems) {
+		final int numberOfVariables = matrix.getNumberOfVariables();
+		int lineNumber = 0;
+		while (scanner.hasNext()) {
+			final String line = scanner.next();
+			lineNumber++;
+			final String[] split = line.split(";");
+			if ((split.length - 1) != numberOfVariables) {
+				problems.add(new Problem(new UnsupportedModelException("Number of selections does not match number of features!", lineNumber)));
+				return problems;
+			}
+			final int row = matrix.addEmpty();
+			for (int i = 1; i < split.length; i++) {
+				switch (split[i]) {
+				case "0":
+					break;
+				case "+":
+					matrix.setLiteral(row, i);
+					break;
+				case "-":
+					matrix.setLiteral(row, -i);
+					break;
+				default:
+					matrix.remove(row);
+					problems.add(new Problem(new UnsupportedModelException("Invalid symbol \"" + split[i] + "\"!", lineNumber)));
+					return problems;
+				}
+			}
+		}
+		return problems;
+	}
+
 	@Override
 	public String getSuffix() {
 		return "csv";
@@ -0,0 +1,90 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.io.csv;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.Variables;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.IConfigurationSink;
+import de.ovgu.featureide.fm.core.io.manager.SimpleFileHandler;
+
+/**
+ * Writes a list of configurations in the {@link ConfigurationListFormat} one configuration at a time. In contrast to
+ * {@link ConfigurationListFormat#write(de.ovgu.featureide.fm.core.analysis.cnf.SolutionList)}, the configurations are never held in memory together.
+ *
+ * @see ConfigurationListFormat
+ */
+public class ConfigurationListWriter implements IConfigurationSink, Closeable {
+
+	private final Writer writer;
+	private final int numberOfVariables;
+	private final StringBuilder line = new StringBuilder();
+
+	private int configurationIndex = 0;
+
+	public ConfigurationListWriter(Path path, Variables variables) throws IOException {
+		this(Files.newBufferedWriter(path, SimpleFileHandler.DEFAULT_CHARSET), variables);
+	}
+
+	/**
+	 * Writes the header line immediately.
+	 *
+	 * @param writer the target. Is closed by {@link #close()}.
+	 * @param variables the variables of all configurations
+	 * @throws IOException if the header could not be written
+	 */
+	public ConfigurationListWriter(Writer writer, Variables variables) throws IOException {
+		this.writer = (writer instanceof BufferedWriter) ? writer : new BufferedWriter(writer);
+		numberOfVariables = variables.size();
+		ConfigurationListFormat.writeHeader(line, variables);
+		flushLine();
+	}
+
+	@Override
+	public void accept(LiteralSet configuration) throws IOException {
+		ConfigurationListFormat.writeConfiguration(line, configurationIndex++, configuration, numberOfVariables);
+		flushLine();
+	}
+
+	private void flushLine() throws IOException {
+		writer.append(line);
+		line.setLength(0);
+	}
+
+	/**
+	 * @return the number of configurations written so far
+	 */
+	public int getNumberOfConfigurations() {
+		return configurationIndex;
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.close();
+	}
+
+}
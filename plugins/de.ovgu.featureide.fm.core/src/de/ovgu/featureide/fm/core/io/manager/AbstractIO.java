@@ -104,9 +104,26 @@ public abstract class AbstractIO<T> {
 
 	public final FileHandler<T> getFileHandler(Path path) {
 		final FileHandler<T> fileHandler = new FileHandler<>(path, null, null);
-		final String content = fileHandler.readContent();
+		parse(fileHandler, fileHandler.readContent());
+		return fileHandler;
+	}
 
+	/**
+	 * Parses the given content of a file without reading the file again.
+	 *
+	 * @param path The path pointing to the file. Is used to determine the format.
+	 * @param content The content of the file.
+	 * @return A file handler that contains the parsed object or the problems that occurred.
+	 */
+	public final FileHandler<T> getFileHandler(Path path, String content) {
+		final FileHandler<T> fileHandler = new FileHandler<>(path, null, null);
+		parse(fileHandler, content);
+		return fileHandler;
+	}
+
+	private void parse(FileHandler<T> fileHandler, String content) {
 		if (content != null) {
+			final Path path = fileHandler.getPath();
 			final String fileName = path.getFileName().toString();
 			final IPersistentFormat<T> format = getFormatManager().getFormatByContent(content, fileName);
 			if (format == null) {
@@ -122,8 +139,6 @@ public abstract class AbstractIO<T> {
 				}
 			}
 		}
-
-		return fileHandler;
 	}
 
 	public final boolean save(T object, Path path, IPersistentFormat<T> format) {
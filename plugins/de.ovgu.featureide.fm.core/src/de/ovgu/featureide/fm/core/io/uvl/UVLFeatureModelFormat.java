@@ -22,13 +22,25 @@ package de.ovgu.featureide.fm.core.io.uvl;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -97,6 +109,35 @@ public class UVLFeatureModelFormat extends AFeatureModelFormat {
 	private static final Pattern STRICT_ID_RESTRICTIVE_PATTERN =
 		Pattern.compile("(?!alternative|or|features|constraints|true|false|as|refer)[a-zA-Z][a-zA-Z_0-9]*");
 
+	/**
+	 * The UVL library parses, validates, and prints constraints recursively. Thus, it runs in a separate thread with a stack that is large enough for
+	 * machine-generated constraints with thousands of literals.
+	 */
+	private static final long PARSER_STACK_SIZE = 1L << 28;
+
+	/**
+	 * The maximal number of parser threads. Each thread is reused for subsequent calls and terminates after being idle for {@value #PARSER_KEEP_ALIVE}
+	 * seconds.
+	 */
+	private static final int PARSER_THREADS = 2;
+	private static final long PARSER_KEEP_ALIVE = 30;
+
+	private static final ThreadPoolExecutor parserExecutor;
+	static {
+		parserExecutor = new ThreadPoolExecutor(PARSER_THREADS, PARSER_THREADS, PARSER_KEEP_ALIVE, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+				ParserThread::new);
+		parserExecutor.allowCoreThreadTimeOut(true);
+	}
+
+	private static final class ParserThread extends Thread {
+
+		private ParserThread(Runnable task) {
+			super(null, task, "UVL Parser", PARSER_STACK_SIZE);
+			setDaemon(true);
+		}
+
+	}
+
 	private static Map<Class<? extends Constraint>, Integer> prioritiy = new HashMap<>();
 	static {
 		final Map<Class<? extends Constraint>, Integer> tempMap = new HashMap<>();
@@ -110,6 +151,7 @@ public class UVLFeatureModelFormat extends AFeatureModelFormat {
 	}
 
 	private FeatureModel rootModel;
+	private Map<String, String> literalNames;
 	protected ProblemList pl;
 	protected MultiFeatureModelFactory factory;
 
@@ -146,10 +188,15 @@ public class UVLFeatureModelFormat extends AFeatureModelFormat {
 	public ProblemList read(IFeatureModel fm, CharSequence source, Path path) {
 		fm.setSourceFile(path);
 		pl = new ProblemList();
-		final UVLModelFactory uvlModelFactory = new UVLModelFactory();
+		literalNames = new HashMap<>();
 		try {
-			rootModel = uvlModelFactory.parse(source.toString(), path.resolve("..").normalize().toString());
-			uvlModelFactory.convertAllMoreComplexLanguageLevels(rootModel, LanguageLevel.BOOLEAN_LEVEL);
+			final String directory = path.resolve("..").normalize().toString();
+			rootModel = callWithLargeStack(() -> {
+				final UVLModelFactory uvlModelFactory = new UVLModelFactory();
+				final FeatureModel uvlModel = uvlModelFactory.parse(source.toString(), directory);
+				uvlModelFactory.convertAllMoreComplexLanguageLevels(uvlModel, LanguageLevel.BOOLEAN_LEVEL);
+				return uvlModel;
+			});
 			constructFeatureModel((MultiFeatureModel) fm);
 		} catch (final ParseError e) {
 			if (e instanceof ParseErrorList) {
@@ -160,14 +207,41 @@ public class UVLFeatureModelFormat extends AFeatureModelFormat {
 			} else {
 				pl.add(toProblem(e));
 			}
+		} finally {
+			literalNames = null;
 		}
 		return pl;
 	}
 
+	private static <T> T callWithLargeStack(Callable<T> task) {
+		final FutureTask<T> futureTask = new FutureTask<>(task);
+		if (Thread.currentThread() instanceof ParserThread) {
+			// already running with a large stack, waiting for another parser thread could exhaust the pool
+			futureTask.run();
+		} else {
+			parserExecutor.execute(futureTask);
+		}
+		try {
+			return futureTask.get();
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new ParseError(String.valueOf(cause));
+		} catch (final InterruptedException e) {
+			futureTask.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new ParseError("Parsing was interrupted.");
+		}
+	}
+
 	private void constructFeatureModel(MultiFeatureModel fm) {
 		factory = (MultiFeatureModelFactory) FMFactoryManager.getInstance().getFactory(fm);
 		fm.reset();
-		parseImports(rootModel, fm);
+		parseImports(rootModel, fm, new HashSet<Path>());
 		final IFeature rootFeature;
 		final Feature uvlRootFeature = rootModel.getRootFeature();
 		rootFeature = parseFeature(fm, uvlRootFeature, null);
@@ -305,42 +379,138 @@ public class UVLFeatureModelFormat extends AFeatureModelFormat {
 		}
 	}
 
+	/**
+	 * Converts a UVL constraint into a propositional formula without recursion. Chains of conjunctions and disjunctions, which the UVL parser represents as
+	 * binary trees, are flattened into a single n-ary {@link org.prop4j.And} or {@link org.prop4j.Or}. Literals with the same name share the same name
+	 * instance.
+	 *
+	 * @param constraint the UVL constraint
+	 * @return the propositional formula or {@code null} if the constraint contains an unknown construct at its root
+	 */
 	private Node parseConstraint(Constraint constraint) {
-		if (constraint instanceof AndConstraint) {
-			return new org.prop4j.And(parseConstraint(((AndConstraint) constraint).getLeft()), parseConstraint(((AndConstraint) constraint).getRight()));
+		final Deque<ConstraintFrame> stack = new ArrayDeque<>();
+		Constraint next = constraint;
+		while (true) {
+			next = removeParentheses(next);
+			final List<Constraint> operands = getOperands(next);
+			if (operands != null) {
+				stack.push(new ConstraintFrame(next, operands));
+				next = operands.get(0);
+				continue;
+			}
+			Node node = next instanceof LiteralConstraint ? parseLiteral((LiteralConstraint) next) : null;
+			while (true) {
+				final ConstraintFrame frame = stack.peek();
+				if (frame == null) {
+					return node;
+				}
+				frame.children[frame.index++] = node;
+				if (frame.index < frame.children.length) {
+					next = frame.operands.get(frame.index);
+					break;
+				}
+				stack.pop();
+				node = frame.toNode();
+			}
+		}
+	}
+
+	private Node parseLiteral(LiteralConstraint constraint) {
+		final String name = constraint.toString(false, "").replace("\"", "");
+		return new org.prop4j.Literal(literalNames.computeIfAbsent(name, Function.identity()));
+	}
+
+	private static Constraint removeParentheses(Constraint constraint) {
+		while (constraint instanceof ParenthesisConstraint) {
+			constraint = ((ParenthesisConstraint) constraint).getContent();
+		}
+		return constraint;
+	}
+
+	private static List<Constraint> getOperands(Constraint constraint) {
+		if ((constraint instanceof AndConstraint) || (constraint instanceof OrConstraint)) {
+			final List<Constraint> operands = new ArrayList<>();
+			final Deque<Constraint> pending = new ArrayDeque<>();
+			pending.push(constraint);
+			while (!pending.isEmpty()) {
+				final Constraint operand = removeParentheses(pending.pop());
+				if ((operand instanceof AndConstraint) && (constraint instanceof AndConstraint)) {
+					pending.push(((AndConstraint) operand).getRight());
+					pending.push(((AndConstraint) operand).getLeft());
+				} else if ((operand instanceof OrConstraint) && (constraint instanceof OrConstraint)) {
+					pending.push(((OrConstraint) operand).getRight());
+					pending.push(((OrConstraint) operand).getLeft());
+				} else {
+					operands.add(operand);
+				}
+			}
+			return operands;
 		} else if (constraint instanceof EquivalenceConstraint) {
-			return new org.prop4j.Equals(parseConstraint(((EquivalenceConstraint) constraint).getLeft()),
-					parseConstraint(((EquivalenceConstraint) constraint).getRight()));
+			return Arrays.asList(((EquivalenceConstraint) constraint).getLeft(), ((EquivalenceConstraint) constraint).getRight());
 		} else if (constraint instanceof ImplicationConstraint) {
-			return new org.prop4j.Implies(parseConstraint(((ImplicationConstraint) constraint).getLeft()),
-					parseConstraint(((ImplicationConstraint) constraint).getRight()));
+			return Arrays.asList(((ImplicationConstraint) constraint).getLeft(), ((ImplicationConstraint) constraint).getRight());
 		} else if (constraint instanceof NotConstraint) {
-			return new org.prop4j.Not(parseConstraint(((NotConstraint) constraint).getContent()));
-		} else if (constraint instanceof OrConstraint) {
-			return new org.prop4j.Or(parseConstraint(((OrConstraint) constraint).getLeft()), parseConstraint(((OrConstraint) constraint).getRight()));
-		} else if (constraint instanceof ParenthesisConstraint) {
-			return parseConstraint(((ParenthesisConstraint) constraint).getContent());
-		} else if (constraint instanceof LiteralConstraint) {
-			return new org.prop4j.Literal(((LiteralConstraint) constraint).toString(false, "").replace("\"", ""));
+			return Collections.singletonList(((NotConstraint) constraint).getContent());
 		} else {
 			return null;
 		}
 	}
 
-	private void parseImports(FeatureModel uvlModel, MultiFeatureModel fm) {
+	/**
+	 * A compound constraint whose operands are currently converted by {@link UVLFeatureModelFormat#parseConstraint(Constraint)}.
+	 */
+	private static final class ConstraintFrame {
+
+		private final Constraint constraint;
+		private final List<Constraint> operands;
+		private final Node[] children;
+		private int index;
+
+		private ConstraintFrame(Constraint constraint, List<Constraint> operands) {
+			this.constraint = constraint;
+			this.operands = operands;
+			children = new Node[operands.size()];
+		}
+
+		private Node toNode() {
+			if (constraint instanceof AndConstraint) {
+				return new org.prop4j.And(children);
+			} else if (constraint instanceof OrConstraint) {
+				return new org.prop4j.Or(children);
+			} else if (constraint instanceof EquivalenceConstraint) {
+				return new org.prop4j.Equals(children[0], children[1]);
+			} else if (constraint instanceof ImplicationConstraint) {
+				return new org.prop4j.Implies(children[0], children[1]);
+			} else {
+				return new org.prop4j.Not(children[0]);
+			}
+		}
+	}
+
+	/**
+	 * Registers all referenced imports of the given UVL model and, transitively, of the imported models. Each imported file is traversed only once, even if it
+	 * is imported by multiple models.
+	 *
+	 * @param uvlModel the UVL model
+	 * @param fm the feature model
+	 * @param visited the paths of all imported models that were already traversed
+	 */
+	private void parseImports(FeatureModel uvlModel, MultiFeatureModel fm, Set<Path> visited) {
 		final List<Import> imports = uvlModel.getImports();
 		for (final Import importLine : imports) {
 			// only consider submodels that are actually referenced somewhere
 			if (importLine.isReferenced()) {
-				parseImports(importLine.getFeatureModel(), fm);
-				parseImport(fm, importLine);
+				final Path path = getImportPath(fm, importLine);
+				if (visited.add(path.normalize())) {
+					parseImports(importLine.getFeatureModel(), fm, visited);
+				}
+				fm.addInstance(importLine.getNamespace(), importLine.getAlias(), path);
 			}
 		}
 	}
 
-	private void parseImport(MultiFeatureModel fm, Import i) {
-		final Path path = fm.getSourceFile().resolveSibling(i.getNamespace().replace(".", "/") + "." + FILE_EXTENSION);
-		fm.addInstance(i.getNamespace(), i.getAlias(), path);
+	private Path getImportPath(MultiFeatureModel fm, Import i) {
+		return fm.getSourceFile().resolveSibling(i.getNamespace().replace(".", "/") + "." + FILE_EXTENSION);
 	}
 
 	/**
@@ -354,8 +524,7 @@ public class UVLFeatureModelFormat extends AFeatureModelFormat {
 	@Override
 	public String write(IFeatureModel fm) {
 		Configuration.setTabulatorSymbol("\t");
-		final String uvlModel = featureIDEModelToUVLFeatureModel(fm).toString();
-		return uvlModel;
+		return callWithLargeStack(() -> featureIDEModelToUVLFeatureModel(fm).toString());
 	}
 
 	private FeatureModel featureIDEModelToUVLFeatureModel(IFeatureModel fm) {
@@ -513,36 +682,15 @@ public class UVLFeatureModelFormat extends AFeatureModelFormat {
 	}
 
 	private Constraint printMultiArity(BiFunction<Constraint, Constraint, Constraint> constructor, Node[] args, Class<? extends Constraint> constraintType) {
-		switch (args.length) {
-		case 0:
-			return null;
-		case 1:
-			Constraint child = featureIDEConstraintToUVLConstraint(args[0]);
+		Constraint result = null;
+		for (final Node arg : args) {
+			Constraint child = featureIDEConstraintToUVLConstraint(arg);
 			if (prioritiy.get(child.getClass()) > prioritiy.get(constraintType)) {
 				child = new ParenthesisConstraint(child);
 			}
-			return child;
-		case 2:
-			Constraint child1 = featureIDEConstraintToUVLConstraint(args[0]);
-			Constraint child2 = featureIDEConstraintToUVLConstraint(args[1]);
-			if (prioritiy.get(child1.getClass()) > prioritiy.get(constraintType)) {
-				child1 = new ParenthesisConstraint(child1);
-			}
-			if (prioritiy.get(child2.getClass()) > prioritiy.get(constraintType)) {
-				child2 = new ParenthesisConstraint(child2);
-			}
-			return constructor.apply(child1, child2);
-		default:
-			Constraint childLeft = featureIDEConstraintToUVLConstraint(args[0]);
-			Constraint childRight = printMultiArity(constructor, Arrays.copyOfRange(args, 1, args.length), constraintType);
-			if (prioritiy.get(childLeft.getClass()) > prioritiy.get(constraintType)) {
-				childLeft = new ParenthesisConstraint(childLeft);
-			}
-			if (prioritiy.get(childRight.getClass()) > prioritiy.get(constraintType)) {
-				childRight = new ParenthesisConstraint(childRight);
-			}
-			return constructor.apply(childLeft, childRight);
+			result = result == null ? child : constructor.apply(result, child);
 		}
+		return result;
 	}
 
 	@Override
@@ -1188,4 +1188,6 @@ public class StringTable {
 	public static final String DELETE_SUBMODEL = "Delete Submodel";
 	public static final String SHOW_CONSTRAINTS = "Show Constraints";
 	public static final String FEATURE_MODELING_COMPOSER_NAME = "Feature Modeling";
+	public static final String ONLY_D_OF_D_REQUESTED_CONFIGURATIONS_EXIST = "Only %d of %d requested configurations exist.";
+	public static final String KNOWN_SOLUTIONS_D_OF_D_QUERIES_ANSWERED_D_STORED = "Known solutions: %d of %d queries answered (%d stored)";
 }
@@ -36,6 +36,7 @@ import static de.ovgu.featureide.fm.core.localization.StringTable.UPDATING_FEATU
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -80,6 +81,7 @@ import org.eclipse.ui.progress.UIJob;
 
 import de.ovgu.featureide.fm.core.AnalysesCollection;
 import de.ovgu.featureide.fm.core.FeatureModelAnalyzer;
+import de.ovgu.featureide.fm.core.FeatureModelAnalyzer.IAnalysisListener;
 import de.ovgu.featureide.fm.core.Features;
 import de.ovgu.featureide.fm.core.Logger;
 import de.ovgu.featureide.fm.core.analysis.FeatureModelProperties.FeatureModelStatus;
@@ -575,8 +577,19 @@ public class FeatureDiagramEditor extends FeatureModelEditorPage implements GUID
 					return true;
 				}
 
-				final AnalysesCollection analysisResults = localAnalyzer.analyzeFeatureModel(monitor);
-				refreshGraphics(analysisResults);
+				// show the results of each finished analysis step immediately
+				final IAnalysisListener analysisListener = (step, elements, time) -> {
+					if (!elements.isEmpty()) {
+						refreshElements(elements);
+					}
+				};
+				localAnalyzer.addAnalysisListener(analysisListener);
+				try {
+					final AnalysesCollection analysisResults = localAnalyzer.analyzeFeatureModel(monitor);
+					refreshGraphics(analysisResults);
+				} finally {
+					localAnalyzer.removeAnalysisListener(analysisListener);
+				}
 				return true;
 			}
 		}, ANALYZE_FEATURE_MODEL);
@@ -591,11 +604,20 @@ public class FeatureDiagramEditor extends FeatureModelEditorPage implements GUID
 	 * @param changedAttributes Result of analysis to only refresh special features, or null if all features should be refreshed.
 	 */
 	public void refreshGraphics(final AnalysesCollection changedAttributes) {
+		refreshElements(changedAttributes == null ? null : changedAttributes.getFeatureModelElementsProperties().keySet());
+	}
+
+	/**
+	 * Refreshes the colors of the given feature model elements.
+	 *
+	 * @param changedElements The features and constraints to refresh, or null if all features should be refreshed.
+	 */
+	private void refreshElements(final Collection<? extends IFeatureModelElement> changedElements) {
 		final UIJob refreshGraphics = new UIJob(UPDATING_FEATURE_MODEL_ATTRIBUTES) {
 
 			@Override
 			public IStatus runInUIThread(IProgressMonitor monitor) {
-				if (changedAttributes == null) {
+				if (changedElements == null) {
 					for (final IGraphicalFeature f : graphicalFeatureModel.getVisibleFeatures()) {
 						f.getObject().fireEvent(new FeatureIDEEvent(this, EventType.ATTRIBUTE_CHANGED, false, true));
 						f.update(FeatureIDEEvent.getDefault(EventType.ATTRIBUTE_CHANGED));
@@ -605,7 +627,7 @@ public class FeatureDiagramEditor extends FeatureModelEditorPage implements GUID
 						c.update(FeatureIDEEvent.getDefault(EventType.ATTRIBUTE_CHANGED));
 					}
 				} else {
-					for (final IFeatureModelElement element : changedAttributes.getFeatureModelElementsProperties().keySet()) {
+					for (final IFeatureModelElement element : changedElements) {
 						if (element instanceof IFeature) {
 							((IFeature) element).fireEvent(new FeatureIDEEvent(this, EventType.ATTRIBUTE_CHANGED, false, true));
 							graphicalFeatureModel.getGraphicalFeature((IFeature) element).update(FeatureIDEEvent.getDefault(EventType.ATTRIBUTE_CHANGED));
@@ -106,6 +106,7 @@ import de.ovgu.featureide.fm.core.configuration.ConfigurationPropagator;
 import de.ovgu.featureide.fm.core.configuration.SelectableFeature;
 import de.ovgu.featureide.fm.core.configuration.Selection;
 import de.ovgu.featureide.fm.core.configuration.TreeElement;
+import de.ovgu.featureide.fm.core.configuration.io.ConfigurationLoader;
 import de.ovgu.featureide.fm.core.explanations.Explanation;
 import de.ovgu.featureide.fm.core.explanations.config.AutomaticSelectionExplanationCreator;
 import de.ovgu.featureide.fm.core.explanations.config.ConfigurationExplanationCreatorFactory;
@@ -1077,8 +1078,9 @@ public abstract class ConfigurationTreeEditorPage extends EditorPart implements
 
 	private Void computeRecommendation(Configuration configuration) {
 		final Path path = configurationEditor.getConfigurationManager().getPath();
+		final Path indexFile = ConfigurationLoader.getIndexFile(FMUIPlugin.getDefault().getStateLocation().toFile().toPath(), path.getParent());
 		final ConfigurationMatrix configurationMatrix =
-			new ConfigurationMatrix(configurationEditor.getFeatureModelManager().getPersistentFormula(), path.getParent());
+			new ConfigurationMatrix(configurationEditor.getFeatureModelManager().getPersistentFormula(), path.getParent(), indexFile);
 		configurationMatrix.readConfigurations(path.getFileName().toString());
 		configurationMatrix.calcRec(configuration);
 		final double[] rec = configurationMatrix.getRec();
@@ -23,6 +23,8 @@ package de.ovgu.featureide.ui.statistics.core.composite.lazyimplementations;
 import static de.ovgu.featureide.fm.core.localization.StringTable.CALCULATING;
 import static de.ovgu.featureide.fm.core.localization.StringTable.MORE_THAN;
 
+import java.math.BigInteger;
+
 import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
 import de.ovgu.featureide.fm.core.configuration.Configuration;
 import de.ovgu.featureide.fm.core.configuration.ConfigurationAnalyzer;
@@ -46,9 +48,11 @@ public class ConfigNode extends Parent {
 	}
 
 	/**
-	 * calculates the number of configurations/variants depending on ignoreAbstract. This method should be called by {@link TreeClickListener}.
+	 * calculates the number of configurations/variants depending on ignoreAbstract. This method should be called by {@link TreeClickListener}. The number
+	 * is computed exactly with a compiled representation of the feature model, which is cached for the model revision. Only if this fails or does not finish
+	 * within the timeout, solutions are enumerated with the same timeout.
 	 *
-	 * @param timeout defines how long the SAT-Solver may take to accomplish the task.
+	 * @param timeout defines how long the exact computation and, if it fails, the SAT-Solver may take to accomplish the task.
 	 * @param priority for the job.
 	 */
 	public void calculate(final int timeout, final int priority) {
@@ -64,6 +68,10 @@ public class ConfigNode extends Parent {
 
 				final ConfigurationAnalyzer analyzer = new ConfigurationAnalyzer(innerModel, new Configuration(innerModel));
 				analyzer.setIncludeAbstractFeatures(!removeAbstract);
+				final BigInteger count = analyzer.count(timeout);
+				if (count != null) {
+					return count.toString();
+				}
 				final long number = analyzer.number(timeout);
 
 				return ((number < 0) ? MORE_THAN + (-number - 1) : String.valueOf(number));
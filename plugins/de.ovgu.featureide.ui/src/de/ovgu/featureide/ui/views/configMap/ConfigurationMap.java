@@ -196,6 +196,7 @@ public class ConfigurationMap extends ViewPart implements ICustomTableHeaderSele
 		openFileAction.setImageDescriptor(ImageDescriptor.createFromImage(UIPlugin.getImage("ConfigurationIcon.png")));
 
 		loader = new ConfigurationLoader(configLoaderCallback);
+		loader.setParallelism(Runtime.getRuntime().availableProcessors());
 		configurationColumns = new ArrayList<>();
 		configPaths = new HashMap<>();
 
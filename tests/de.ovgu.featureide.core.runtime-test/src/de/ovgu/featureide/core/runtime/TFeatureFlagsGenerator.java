@@ -0,0 +1,187 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.core.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests the generation of the feature flags class and the rewriting of feature checks in {@link FeatureFlagsGenerator}.
+ */
+public class TFeatureFlagsGenerator {
+
+	private static final Set<String> FLAGS = new HashSet<>(Arrays.asList("Hello", "World"));
+
+	private static final String SOURCE = "package main;\n\n" //
+		+ "import properties.PropertyManager;\n\n" //
+		+ "public class Main {\n" //
+		+ "	public static void main(String[] args) {\n" //
+		+ "		if (PropertyManager.getProperty(\"Hello\")) {\n" //
+		+ "			System.out.print(\"Hello\");\n" //
+		+ "		}\n" //
+		+ "		if (properties.PropertyManager.getProperty( \"World\" )) {\n" //
+		+ "			System.out.print(\" world\");\n" //
+		+ "		}\n" //
+		+ "	}\n" //
+		+ "}\n";
+
+	private static final String REWRITTEN_SOURCE = "package main;\n\n" //
+		+ "import properties.FeatureFlags;\n\n" //
+		+ "public class Main {\n" //
+		+ "	public static void main(String[] args) {\n" //
+		+ "		if (FeatureFlags.Hello) {\n" //
+		+ "			System.out.print(\"Hello\");\n" //
+		+ "		}\n" //
+		+ "		if (properties.FeatureFlags.World) {\n" //
+		+ "			System.out.print(\" world\");\n" //
+		+ "		}\n" //
+		+ "	}\n" //
+		+ "}\n";
+
+	private static final String RESTORED_SOURCE = "package main;\n\n" //
+		+ "import properties.PropertyManager;\n\n" //
+		+ "public class Main {\n" //
+		+ "	public static void main(String[] args) {\n" //
+		+ "		if (PropertyManager.getProperty(\"Hello\")) {\n" //
+		+ "			System.out.print(\"Hello\");\n" //
+		+ "		}\n" //
+		+ "		if (properties.PropertyManager.getProperty(\"World\")) {\n" //
+		+ "			System.out.print(\" world\");\n" //
+		+ "		}\n" //
+		+ "	}\n" //
+		+ "}\n";
+
+	private static final String UNKNOWN_FEATURE_SOURCE = "package main;\n\n" //
+		+ "import properties.PropertyManager;\n\n" //
+		+ "public class Main {\n" //
+		+ "	boolean hello = PropertyManager.getProperty(\"Hello\");\n" //
+		+ "	boolean unknown = PropertyManager.getProperty(\"Unknown\");\n" //
+		+ "}\n";
+
+	private static final String UNKNOWN_FEATURE_REWRITTEN_SOURCE = "package main;\n\n" //
+		+ "import properties.PropertyManager;\n" //
+		+ "import properties.FeatureFlags;\n\n" //
+		+ "public class Main {\n" //
+		+ "	boolean hello = FeatureFlags.Hello;\n" //
+		+ "	boolean unknown = PropertyManager.getProperty(\"Unknown\");\n" //
+		+ "}\n";
+
+	@Test
+	public void testGenerateClass() {
+		final String expected = "package properties;\n\n" //
+			+ "/**\n" //
+			+ " * Class generated by FeatureIDE to access feature selections without any lookup.\n" //
+			+ " * The selection of each feature is read once from the property file when this class is loaded.\n" //
+			+ " * Do not edit, this class is generated again on every build.\n" //
+			+ " */\n" //
+			+ "public final class FeatureFlags {\n\n" //
+			+ "	public static final boolean Hello = PropertyManager.getProperty(\"Hello\");\n" //
+			+ "	public static final boolean World = PropertyManager.getProperty(\"World\");\n\n" //
+			+ "	private FeatureFlags() {}\n\n" //
+			+ "}\n";
+		assertEquals(expected, FeatureFlagsGenerator.generateClass(Arrays.asList("Hello", "World")));
+	}
+
+	@Test
+	public void testGenerateClassWithoutFeatures() {
+		final String generated = FeatureFlagsGenerator.generateClass(Collections.<String> emptyList());
+		assertTrue(generated.contains("public final class FeatureFlags {\n\n	private FeatureFlags() {}\n\n}\n"));
+	}
+
+	@Test
+	public void testGenerateClassSkipsInvalidNames() {
+		final String generated = FeatureFlagsGenerator.generateClass(Arrays.asList("Hello", "class", "int", "true", "null", "goto", "1st", "a-b", ""));
+		assertTrue(generated.contains(" Hello = "));
+		for (final String name : Arrays.asList("class", "int", "true", "null", "goto", "1st", "a-b")) {
+			assertFalse(name, generated.contains(" " + name + " = "));
+		}
+	}
+
+	@Test
+	public void testIsValidFlagName() {
+		assertTrue(FeatureFlagsGenerator.isValidFlagName("Hello"));
+		assertTrue(FeatureFlagsGenerator.isValidFlagName("_feature$1"));
+		assertTrue(FeatureFlagsGenerator.isValidFlagName("Class"));
+		assertFalse(FeatureFlagsGenerator.isValidFlagName(null));
+		assertFalse(FeatureFlagsGenerator.isValidFlagName(""));
+		assertFalse(FeatureFlagsGenerator.isValidFlagName("class"));
+		assertFalse(FeatureFlagsGenerator.isValidFlagName("false"));
+		assertFalse(FeatureFlagsGenerator.isValidFlagName("const"));
+		assertFalse(FeatureFlagsGenerator.isValidFlagName("a b"));
+	}
+
+	@Test
+	public void testRewriteCallSites() {
+		assertEquals(REWRITTEN_SOURCE, FeatureFlagsGenerator.rewriteCallSites(SOURCE, FLAGS));
+	}
+
+	@Test
+	public void testRewriteCallSitesKeepsUnknownFeatures() {
+		assertEquals(UNKNOWN_FEATURE_REWRITTEN_SOURCE, FeatureFlagsGenerator.rewriteCallSites(UNKNOWN_FEATURE_SOURCE, FLAGS));
+	}
+
+	@Test
+	public void testRewriteCallSitesSkipsInvalidNames() {
+		final String source = "class A {\n	boolean b = properties.PropertyManager.getProperty(\"class\");\n}\n";
+		assertSame(source, FeatureFlagsGenerator.rewriteCallSites(source, new HashSet<>(Arrays.asList("class"))));
+	}
+
+	@Test
+	public void testRewriteCallSitesWithoutCalls() {
+		final String source = "package main;\n\nclass A {\n	boolean b = MyPropertyManager.getProperty(\"Hello\");\n}\n";
+		assertSame(source, FeatureFlagsGenerator.rewriteCallSites(source, FLAGS));
+	}
+
+	@Test
+	public void testRewriteCallSitesInPropertiesPackage() {
+		final String source = "package properties;\n\nclass A {\n	boolean b = PropertyManager.getProperty(\"Hello\");\n}\n";
+		assertEquals("package properties;\n\nclass A {\n	boolean b = FeatureFlags.Hello;\n}\n", FeatureFlagsGenerator.rewriteCallSites(source, FLAGS));
+	}
+
+	@Test
+	public void testRestoreCallSites() {
+		assertEquals(RESTORED_SOURCE, FeatureFlagsGenerator.restoreCallSites(REWRITTEN_SOURCE));
+		assertEquals(UNKNOWN_FEATURE_SOURCE, FeatureFlagsGenerator.restoreCallSites(UNKNOWN_FEATURE_REWRITTEN_SOURCE));
+	}
+
+	@Test
+	public void testRestoreCallSitesWithoutReads() {
+		final String source = "package main;\n\nclass A {\n	boolean b = MyFeatureFlags.Hello || FeatureFlags.get();\n}\n";
+		assertSame(source, FeatureFlagsGenerator.restoreCallSites(source));
+	}
+
+	@Test
+	public void testRestoreCallSitesAddsImport() {
+		final String source = "package main;\n\nimport properties.*;\n\nclass A {\n	boolean b = FeatureFlags.Hello;\n}\n";
+		assertEquals("package main;\n\nimport properties.*;\n\nclass A {\n	boolean b = PropertyManager.getProperty(\"Hello\");\n}\n",
+				FeatureFlagsGenerator.restoreCallSites(source));
+	}
+
+}
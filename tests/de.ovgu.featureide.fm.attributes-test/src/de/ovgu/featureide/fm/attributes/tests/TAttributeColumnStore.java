@@ -0,0 +1,211 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.attributes.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.ovgu.featureide.fm.attributes.FMAttributesLibrary;
+import de.ovgu.featureide.fm.attributes.base.IExtendedFeature;
+import de.ovgu.featureide.fm.attributes.base.IFeatureAttribute;
+import de.ovgu.featureide.fm.attributes.base.impl.AttributeColumnStore;
+import de.ovgu.featureide.fm.attributes.base.impl.AttributeColumnStore.Column;
+import de.ovgu.featureide.fm.attributes.base.impl.AttributeColumnStore.Snapshot;
+import de.ovgu.featureide.fm.attributes.base.impl.DoubleFeatureAttribute;
+import de.ovgu.featureide.fm.attributes.base.impl.ExtendedFeature;
+import de.ovgu.featureide.fm.attributes.base.impl.ExtendedFeatureModel;
+import de.ovgu.featureide.fm.attributes.base.impl.LongFeatureAttribute;
+import de.ovgu.featureide.fm.attributes.formula.aggregates.AverageFunctionFormula;
+import de.ovgu.featureide.fm.attributes.formula.aggregates.MaxFunctionFormula;
+import de.ovgu.featureide.fm.attributes.formula.aggregates.MedianFunctionFormula;
+import de.ovgu.featureide.fm.attributes.formula.aggregates.MinFunctionFormula;
+import de.ovgu.featureide.fm.attributes.formula.aggregates.SumFunctionFormula;
+import de.ovgu.featureide.fm.attributes.formula.formulas.KeyValueVariable;
+import de.ovgu.featureide.fm.attributes.formula.provider.FeatureNameValueProvider;
+import de.ovgu.featureide.fm.attributes.formula.provider.FeatureValueProvider;
+import de.ovgu.featureide.fm.attributes.formula.provider.FormulaValueProvider;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.init.FMCoreLibrary;
+import de.ovgu.featureide.fm.core.init.LibraryManager;
+
+/**
+ * Tests the {@link AttributeColumnStore} and the aggregates that use it.
+ */
+public class TAttributeColumnStore {
+
+	private static final String[] ATTRIBUTES = { "Calories", "Price", "Organic Food", "Advert Text", "Unknown" };
+
+	@Before
+	public void prepareWorkbench() {
+		LibraryManager.registerLibrary(FMCoreLibrary.getInstance());
+		LibraryManager.registerLibrary(FMAttributesLibrary.getInstance());
+	}
+
+	@Test
+	public void testAggregatesOverFeatures() {
+		final ExtendedFeatureModel model = Commons.getSandwitchModel();
+		final List<IFeature> features = new ArrayList<>(model.getFeatures());
+		for (final Double defaultValue : new Double[] { null, 1d }) {
+			final FeatureValueProvider provider = new FeatureValueProvider(defaultValue);
+			for (final String attribute : ATTRIBUTES) {
+				assertAggregates(provider, attribute, features);
+				assertAggregates(provider, attribute, features.subList(0, features.size() / 2));
+			}
+		}
+	}
+
+	@Test
+	public void testAggregatesOverFeatureNames() {
+		final ExtendedFeatureModel model = Commons.getSandwitchModel();
+		final List<String> names = new ArrayList<>();
+		for (final IFeature feature : model.getFeatures()) {
+			names.add(feature.getName());
+		}
+		for (final Double defaultValue : new Double[] { null, 1d }) {
+			final FeatureNameValueProvider provider = new FeatureNameValueProvider(model, defaultValue);
+			for (final String attribute : ATTRIBUTES) {
+				assertAggregates(provider, attribute, names);
+			}
+		}
+	}
+
+	@Test
+	public void testIncrementalUpdate() {
+		final ExtendedFeatureModel model = Commons.getSandwitchModel();
+		final List<IFeature> features = new ArrayList<>(model.getFeatures());
+		final FeatureValueProvider provider = new FeatureValueProvider(null);
+		final AttributeColumnStore store = model.getAttributeStore();
+		final Column column = store.getColumn("Calories");
+
+		final IExtendedFeature ham = (IExtendedFeature) model.getFeature("Ham");
+		final int hamIndex = store.getIndex(ham);
+		assertTrue(column.isNumerical(hamIndex));
+		assertEquals(92d, column.getValue(hamIndex), 0);
+
+		ham.getAttribute("Calories").setValue(100L);
+		assertEquals(100d, column.getValue(hamIndex), 0);
+		assertAggregates(provider, "Calories", features);
+
+		ham.getAttribute("Calories").setValue(null);
+		assertFalse(column.isNumerical(hamIndex));
+		assertAggregates(provider, "Calories", features);
+
+		final IFeatureAttribute price = new DoubleFeatureAttribute(ham, "Price", "", 1.5, false, false);
+		ham.addAttribute(price);
+		assertAggregates(provider, "Price", features);
+		price.setName("Weight");
+		assertAggregates(provider, "Price", features);
+		assertAggregates(provider, "Weight", features);
+		ham.removeAttribute(price);
+		assertAggregates(provider, "Weight", features);
+
+		assertSame(store, model.getAttributeStore());
+		final ExtendedFeature feature = new ExtendedFeature(model, "Bacon");
+		feature.addAttribute(new DoubleFeatureAttribute(feature, "Calories", "", 500d, false, false));
+		model.addFeature(feature);
+		model.getStructure().getRoot().addChild(feature.getStructure());
+		assertNotSame(store, model.getAttributeStore());
+		features.add(feature);
+		assertAggregates(provider, "Calories", features);
+	}
+
+	@Test
+	public void testLongValues() {
+		final ExtendedFeatureModel model = Commons.getSandwitchModel();
+		final IExtendedFeature ham = (IExtendedFeature) model.getFeature("Ham");
+		final IExtendedFeature gouda = (IExtendedFeature) model.getFeature("Gouda");
+		final long large = (1L << 53) + 1;
+		ham.addAttribute(new LongFeatureAttribute(ham, "Size", "", large, false, false));
+		gouda.addAttribute(new LongFeatureAttribute(gouda, "Size", "", 1L, false, false));
+
+		final AttributeColumnStore store = model.getAttributeStore();
+		final Snapshot snapshot = store.getColumn("Size").getSnapshot();
+		final int hamIndex = store.getIndex(ham);
+		assertTrue(snapshot.isLong(hamIndex));
+		assertEquals(large, snapshot.getLongValue(hamIndex));
+
+		// summation in double arithmetic would yield 2^53
+		final KeyValueVariable variable = new KeyValueVariable("Size");
+		final FeatureValueProvider provider = new FeatureValueProvider(null);
+		final List<IFeature> features = Arrays.<IFeature> asList(ham, gouda);
+		assertEquals((double) (large + 1), new SumFunctionFormula(variable, provider).getResult(features), 0);
+		assertEquals((double) large, new MaxFunctionFormula(variable, provider).getResult(features), 0);
+		assertEquals(1d, new MinFunctionFormula(variable, provider).getResult(features), 0);
+
+		ham.addAttribute(new LongFeatureAttribute(ham, "Overflow", "", Long.MAX_VALUE, false, false));
+		gouda.addAttribute(new LongFeatureAttribute(gouda, "Overflow", "", Long.MAX_VALUE, false, false));
+		assertEquals(2d * Long.MAX_VALUE, new SumFunctionFormula(new KeyValueVariable("Overflow"), provider).getResult(features), 0);
+	}
+
+	@Test
+	public void testSnapshotIsNotModified() {
+		final ExtendedFeatureModel model = Commons.getSandwitchModel();
+		final AttributeColumnStore store = model.getAttributeStore();
+		final Column column = store.getColumn("Calories");
+		final Snapshot snapshot = column.getSnapshot();
+
+		final IExtendedFeature ham = (IExtendedFeature) model.getFeature("Ham");
+		final int hamIndex = store.getIndex(ham);
+		ham.getAttribute("Calories").setValue(100L);
+		assertEquals(92d, snapshot.getValue(hamIndex), 0);
+		assertEquals(92L, snapshot.getLongValue(hamIndex));
+		assertNotSame(snapshot, column.getSnapshot());
+		assertEquals(100L, column.getSnapshot().getLongValue(hamIndex));
+	}
+
+	private static void assertAggregates(FormulaValueProvider provider, String attribute, List<?> valueHolders) {
+		final KeyValueVariable variable = new KeyValueVariable(attribute);
+		final List<Double> values = new ArrayList<>();
+		for (final Object valueHolder : valueHolders) {
+			final Double value = variable.getResult(provider.getValues(valueHolder, new String[] { attribute }));
+			if (value != null) {
+				values.add(value);
+			}
+		}
+		final String message = attribute + " " + provider.getDefaultValue();
+		double sum = 0;
+		for (final Double value : values) {
+			sum += value;
+		}
+		assertEquals(message, sum, new SumFunctionFormula(variable, provider).getResult(valueHolders), 1e-9);
+		if (values.isEmpty()) {
+			return;
+		}
+		assertEquals(message, Collections.max(values), new MaxFunctionFormula(variable, provider).getResult(valueHolders), 0);
+		assertEquals(message, Collections.min(values), new MinFunctionFormula(variable, provider).getResult(valueHolders), 0);
+		assertEquals(message, sum / values.size(), new AverageFunctionFormula(variable, provider).getResult(valueHolders), 1e-9);
+		Collections.sort(values);
+		final double median = values.size() == 1 ? values.get(0) : values.get((values.size() % 2) == 0 ? values.size() / 2 : (values.size() / 2) - 1);
+		assertEquals(message, median, new MedianFunctionFormula(variable, provider).getResult(valueHolders), 0);
+	}
+
+}
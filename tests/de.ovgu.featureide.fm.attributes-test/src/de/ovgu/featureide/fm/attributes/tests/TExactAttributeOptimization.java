@@ -0,0 +1,144 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.attributes.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.prop4j.Implies;
+import org.prop4j.Literal;
+import org.prop4j.Not;
+
+import de.ovgu.featureide.fm.attributes.FMAttributesLibrary;
+import de.ovgu.featureide.fm.attributes.base.IExtendedFeature;
+import de.ovgu.featureide.fm.attributes.base.impl.ExtendedFeatureModel;
+import de.ovgu.featureide.fm.attributes.computations.impl.ExactAttributeOptimization;
+import de.ovgu.featureide.fm.core.analysis.cnf.analysis.LinearObjectiveAnalysis.Optimum;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
+import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.impl.FMFactoryManager;
+import de.ovgu.featureide.fm.core.configuration.Configuration;
+import de.ovgu.featureide.fm.core.configuration.SelectableFeature;
+import de.ovgu.featureide.fm.core.configuration.Selection;
+import de.ovgu.featureide.fm.core.init.FMCoreLibrary;
+import de.ovgu.featureide.fm.core.init.LibraryManager;
+
+/**
+ * Tests the {@link ExactAttributeOptimization}.
+ */
+public class TExactAttributeOptimization {
+
+	@Before
+	public void prepareWorkbench() {
+		LibraryManager.registerLibrary(FMCoreLibrary.getInstance());
+		LibraryManager.registerLibrary(FMAttributesLibrary.getInstance());
+	}
+
+	@Test
+	public void testOptimaWithPartialConfiguration() {
+		final ExtendedFeatureModel model = Commons.getSandwitchModel();
+		final FeatureModelFormula formula = new FeatureModelFormula(model);
+		final ExactAttributeOptimization optimization = ExactAttributeOptimization.getInstance(formula, "Price");
+
+		final Configuration config = new Configuration(formula);
+		assertEquals(8.7d, optimization.getMaximum(config).getValue(), 0);
+		assertEquals(1.79d, optimization.getMinimum(config).getValue(), 0);
+
+		select(config, "Full Grain ");
+		assertEquals(8.7d, optimization.getMaximum(config).getValue(), 0);
+		final Optimum minimum = optimization.getMinimum(config);
+		assertEquals(1.99d, minimum.getValue(), 0);
+		assertTrue(optimization.getSelectedFeatureNames(minimum).contains("Full Grain "));
+		assertFalse(optimization.isTimeoutOccured());
+	}
+
+	@Test
+	public void testCrossTreeConstraint() {
+		final ExtendedFeatureModel model = Commons.getSandwitchModel();
+		model.addConstraint(FMFactoryManager.getInstance().getFactory(model).createConstraint(model,
+				new Implies(new Literal("Gouda"), new Not(new Literal("Ham")))));
+		final FeatureModelFormula formula = new FeatureModelFormula(model);
+		final ExactAttributeOptimization optimization = ExactAttributeOptimization.getInstance(formula, "Price");
+
+		final Optimum maximum = optimization.getMaximum(new Configuration(formula));
+		assertNotNull(maximum);
+		assertTrue(maximum.getValue() < 8.7d);
+		final List<String> selectedFeatures = optimization.getSelectedFeatureNames(maximum);
+		assertFalse(selectedFeatures.contains("Gouda") && selectedFeatures.contains("Ham"));
+	}
+
+	@Test
+	public void testChangedAttributeValue() {
+		final ExtendedFeatureModel model = Commons.getSandwitchModel();
+		final FeatureModelFormula formula = new FeatureModelFormula(model);
+		final ExactAttributeOptimization optimization = ExactAttributeOptimization.getInstance(formula, "Price");
+		final Configuration config = new Configuration(formula);
+		final double maximum = optimization.getMaximum(config).getValue();
+
+		final IExtendedFeature root = (IExtendedFeature) FeatureUtils.getRoot(model);
+		root.getAttribute("Price").setValue((Double) root.getAttribute("Price").getValue() + 1);
+		assertEquals(maximum + 1, optimization.getMaximum(config).getValue(), 1e-9);
+	}
+
+	@Test
+	public void testInvalidConfiguration() {
+		final ExtendedFeatureModel model = Commons.getSandwitchModel();
+		final FeatureModelFormula formula = new FeatureModelFormula(model);
+		final Configuration config = new Configuration(formula);
+		for (final SelectableFeature feature : config.getFeatures()) {
+			if (feature.getFeature().getName().equals("Sandwich")) {
+				config.setManual(feature, Selection.UNSELECTED);
+			}
+		}
+		assertNull(ExactAttributeOptimization.getInstance(formula, "Price").getMaximum(config));
+	}
+
+	@Test
+	public void testInstanceCache() {
+		final ExtendedFeatureModel model = Commons.getSandwitchModel();
+		final FeatureModelFormula formula = new FeatureModelFormula(model);
+		final ExactAttributeOptimization optimization = ExactAttributeOptimization.getInstance(formula, "Price");
+		assertSame(optimization, ExactAttributeOptimization.getInstance(formula, "Price"));
+		assertNotSame(optimization, ExactAttributeOptimization.getInstance(formula, "Calories"));
+		assertNotSame(optimization, ExactAttributeOptimization.getInstance(new FeatureModelFormula(model), "Price"));
+
+		formula.resetFormula();
+		assertNotSame(optimization, ExactAttributeOptimization.getInstance(formula, "Price"));
+	}
+
+	private static void select(Configuration config, String featureName) {
+		for (final SelectableFeature feature : config.getFeatures()) {
+			if (feature.getFeature().getName().equals(featureName)) {
+				config.setManual(feature, Selection.SELECTED);
+			}
+		}
+	}
+
+}
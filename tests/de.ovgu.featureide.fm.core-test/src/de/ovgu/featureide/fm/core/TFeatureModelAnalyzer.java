@@ -20,21 +20,30 @@
  */
 package de.ovgu.featureide.fm.core;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.FeatureModelAnalyzer.AnalysisStep;
 import de.ovgu.featureide.fm.core.analysis.ConstraintProperties.ConstraintStatus;
+import de.ovgu.featureide.fm.core.analysis.FeatureModelProperties.FeatureModelStatus;
 import de.ovgu.featureide.fm.core.analysis.FeatureProperties.FeatureStatus;
 import de.ovgu.featureide.fm.core.base.IConstraint;
 import de.ovgu.featureide.fm.core.base.IFeature;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.IFeatureModelElement;
 import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
 
 /**
@@ -316,4 +325,76 @@ public class TFeatureModelAnalyzer {
 	public void TDeadFeatures_FM10() {
 		assertTrue(!FM10_DATA.getFeatureModelProperties().hasDeadFeatures());
 	}
+
+	@Test
+	public void TConcurrentAnalysis() {
+		for (final File file : MODEL_FILE_FOLDER.listFiles(filter)) {
+			final IFeatureModel fm = FeatureModelManager.load(file.toPath());
+			final FeatureModelAnalyzer sequentialAnalyzer = new FeatureModelAnalyzer(fm);
+			sequentialAnalyzer.setExecutor(null);
+			sequentialAnalyzer.analyzeFeatureModel(null);
+
+			final FeatureModelAnalyzer concurrentAnalyzer = new FeatureModelAnalyzer(fm);
+			final List<AnalysisStep> finishedSteps = Collections.synchronizedList(new ArrayList<>());
+			concurrentAnalyzer.addAnalysisListener((step, elements, time) -> finishedSteps.add(step));
+			concurrentAnalyzer.analyzeFeatureModel(null);
+			assertEqualStatus(file.getName(), sequentialAnalyzer, concurrentAnalyzer);
+			assertEquals(file.getName(), EnumSet.copyOf(finishedSteps), concurrentAnalyzer.getAnalysisTimes().keySet());
+			assertEquals(file.getName(), AnalysisStep.VALIDITY, finishedSteps.get(0));
+
+			// analyze again with the solvers of the first run
+			concurrentAnalyzer.reset();
+			concurrentAnalyzer.analyzeFeatureModel(null);
+			assertEqualStatus(file.getName(), sequentialAnalyzer, concurrentAnalyzer);
+		}
+	}
+
+	@Test
+	public void TAnalysisListener() {
+		final FeatureModelAnalyzer analyzer = new FeatureModelAnalyzer(FM_test_2);
+		final List<AnalysisStep> finishedSteps = new ArrayList<>();
+		final List<IFeatureModelElement> redundantConstraints = new ArrayList<>();
+		analyzer.addAnalysisListener((step, elements, time) -> {
+			finishedSteps.add(step);
+			if (step == AnalysisStep.REDUNDANT_CONSTRAINTS) {
+				redundantConstraints.addAll(elements);
+				for (final IFeatureModelElement constraint : elements) {
+					assertTrue(analyzer.getConstraintProperties((IConstraint) constraint).hasStatus(ConstraintStatus.REDUNDANT));
+				}
+			}
+		});
+		analyzer.analyzeFeatureModel(null);
+
+		final Set<AnalysisStep> expectedSteps = EnumSet.of(AnalysisStep.VALIDITY, AnalysisStep.DEAD_FEATURES, AnalysisStep.FALSE_OPTIONAL_FEATURES,
+				AnalysisStep.INDETERMINATE_HIDDEN_FEATURES, AnalysisStep.REDUNDANT_CONSTRAINTS, AnalysisStep.TAUTOLOGY_CONSTRAINTS,
+				AnalysisStep.CONSTRAINT_ANOMALIES);
+		assertEquals(expectedSteps.size(), finishedSteps.size());
+		assertEquals(expectedSteps, EnumSet.copyOf(finishedSteps));
+		assertTrue(finishedSteps.indexOf(AnalysisStep.REDUNDANT_CONSTRAINTS) < finishedSteps.indexOf(AnalysisStep.TAUTOLOGY_CONSTRAINTS));
+		assertEquals(AnalysisStep.CONSTRAINT_ANOMALIES, finishedSteps.get(finishedSteps.size() - 1));
+		assertEquals(expectedSteps, analyzer.getAnalysisTimes().keySet());
+		for (final IConstraint constraint : FM_test_2.getConstraints()) {
+			assertEquals(analyzer.getConstraintProperties(constraint).hasStatus(ConstraintStatus.REDUNDANT), redundantConstraints.contains(constraint));
+		}
+	}
+
+	private static void assertEqualStatus(String message, FeatureModelAnalyzer expected, FeatureModelAnalyzer actual) {
+		for (final FeatureModelStatus status : FeatureModelStatus.values()) {
+			assertEquals(message, expected.getFeatureModelProperties().hasStatus(status), actual.getFeatureModelProperties().hasStatus(status));
+		}
+		for (final IFeature feature : expected.getAnalysesCollection().getFeatureModelElementsProperties().keySet().stream()
+				.filter(IFeature.class::isInstance).map(IFeature.class::cast).toArray(IFeature[]::new)) {
+			for (final FeatureStatus status : FeatureStatus.values()) {
+				assertEquals(message + " " + feature, expected.getFeatureProperties(feature).hasStatus(status),
+						actual.getFeatureProperties(feature).hasStatus(status));
+			}
+		}
+		for (final IConstraint constraint : expected.getAnalysesCollection().getFeatureModelElementsProperties().keySet().stream()
+				.filter(IConstraint.class::isInstance).map(IConstraint.class::cast).toArray(IConstraint[]::new)) {
+			for (final ConstraintStatus status : ConstraintStatus.values()) {
+				assertEquals(message + " " + constraint, expected.getConstraintProperties(constraint).hasStatus(status),
+						actual.getConstraintProperties(constraint).hasStatus(status));
+			}
+		}
+	}
 }
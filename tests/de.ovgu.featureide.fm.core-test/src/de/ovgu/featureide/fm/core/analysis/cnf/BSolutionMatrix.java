@@ -0,0 +1,82 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.cnf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet.Order;
+
+/**
+ * This is a benchmark for the heap consumption of {@link SolutionMatrix} compared to a list of {@link LiteralSet literal sets}. The test cases do not
+ * analyze the validity of the solutions.
+ */
+public class BSolutionMatrix {
+
+	private static final int NUMBER_OF_SOLUTIONS = 2000;
+	private static final int NUMBER_OF_VARIABLES = 2000;
+
+	private static List<LiteralSet> createSolutions(final Random random) {
+		final List<LiteralSet> solutions = new ArrayList<>(NUMBER_OF_SOLUTIONS);
+		for (int i = 0; i < NUMBER_OF_SOLUTIONS; i++) {
+			final int[] literals = new int[NUMBER_OF_VARIABLES];
+			for (int j = 0; j < NUMBER_OF_VARIABLES; j++) {
+				literals[j] = random.nextBoolean() ? j + 1 : -(j + 1);
+			}
+			solutions.add(new LiteralSet(literals, Order.INDEX, false));
+		}
+		return solutions;
+	}
+
+	private static long getUsedHeap() {
+		final Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	@Test
+	public void BHeapConsumption() {
+		final long baseline = getUsedHeap();
+		List<LiteralSet> solutions = createSolutions(new Random(0));
+		final long listHeap = getUsedHeap() - baseline;
+		final int listSize = solutions.size();
+		solutions = null;
+
+		final long baseline2 = getUsedHeap();
+		final SolutionMatrix matrix = new SolutionMatrix(NUMBER_OF_VARIABLES, createSolutions(new Random(0)));
+		matrix.trimToSize();
+		final long matrixHeap = getUsedHeap() - baseline2;
+
+		System.out.println("List<LiteralSet>: " + (listHeap >> 10) + " KiB, SolutionMatrix: " + (matrixHeap >> 10) + " KiB");
+		assertEquals(listSize, matrix.size());
+		// Theoretical factor is 16 (two bits instead of one int per variable)
+		assertTrue(matrixHeap < (listHeap / 8));
+	}
+
+}
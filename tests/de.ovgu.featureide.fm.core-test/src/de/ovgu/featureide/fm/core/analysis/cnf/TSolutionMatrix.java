@@ -0,0 +1,129 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.cnf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet.Order;
+import de.ovgu.featureide.fm.core.io.csv.ConfigurationListFormat;
+
+/**
+ * Test methods of {@link SolutionMatrix}.
+ */
+public class TSolutionMatrix {
+
+	private final List<LiteralSet> solutions = Arrays.asList( //
+			new LiteralSet(new int[] { 1, -2, 3, -4, 5 }, Order.INDEX, false), //
+			new LiteralSet(new int[] { -1, -2, -3, -4, -5 }, Order.INDEX, false), //
+			new LiteralSet(new int[] { 2, -5 }, Order.UNORDERED, false));
+
+	@Test
+	public void testRoundTrip() {
+		final SolutionMatrix matrix = new SolutionMatrix(5, solutions);
+		assertEquals(solutions, matrix);
+		matrix.remove(0);
+		assertEquals(solutions.subList(1, 3), matrix);
+		matrix.add(0, solutions.get(0));
+		assertEquals(solutions, matrix);
+		matrix.set(1, solutions.get(2));
+		assertEquals(solutions.get(2), matrix.get(1));
+	}
+
+	@Test
+	public void testLargeNumberOfVariables() {
+		final int numberOfVariables = 130;
+		final int[] literals = new int[numberOfVariables];
+		for (int i = 0; i < numberOfVariables; i++) {
+			literals[i] = (i % 3) == 0 ? i + 1 : -(i + 1);
+		}
+		final LiteralSet solution = new LiteralSet(literals, Order.INDEX, false);
+		final SolutionMatrix matrix = new SolutionMatrix(numberOfVariables);
+		matrix.add(solution);
+		matrix.add(solution.negate());
+		assertEquals(solution, matrix.get(0));
+		assertEquals(numberOfVariables, matrix.getDistance(0, 1));
+		assertEquals(44, matrix.countSelected(0));
+		assertEquals(86, matrix.countDeselected(0));
+		assertEquals(0, matrix.getDistance(1, matrix.pack(solution.negate())));
+	}
+
+	@Test
+	public void testQueries() {
+		final SolutionMatrix matrix = new SolutionMatrix(5, solutions);
+		assertTrue(matrix.containsAll(0, new LiteralSet(1, 3, 5)));
+		assertFalse(matrix.containsAll(0, new LiteralSet(1, 2)));
+		assertTrue(matrix.containsAll(2, new LiteralSet(2)));
+		assertFalse(matrix.contains(2, 1));
+		assertFalse(matrix.contains(2, -1));
+		assertEquals(-5, matrix.getLiteral(2, 5));
+		assertEquals(0, matrix.getLiteral(2, 3));
+
+		assertEquals(3, matrix.countUndefined(2));
+		assertEquals(3, matrix.getDistance(0, 1));
+		assertEquals(5, matrix.getDistance(0, 2));
+
+		assertArrayEquals(new long[] { 0b001L }, matrix.getColumn(1));
+		assertArrayEquals(new long[] { 0b110L }, matrix.getColumn(-5));
+		assertArrayEquals(new int[] { 0, 1, 1, 1, 0, 1 }, matrix.countSelections());
+		assertArrayEquals(new int[] { 0, 1, 2, 1, 2, 2 }, matrix.countDeselections());
+	}
+
+	@Test
+	public void testTranspose() {
+		final SolutionMatrix matrix = new SolutionMatrix(5, solutions);
+		final long[] selected = new long[6];
+		final long[] deselected = new long[6];
+		assertEquals(3, matrix.transpose(0, selected, deselected));
+		assertArrayEquals(new long[] { 0, 0b001L, 0b100L, 0b001L, 0, 0b001L }, selected);
+		assertArrayEquals(new long[] { 0, 0b010L, 0b011L, 0b010L, 0b011L, 0b110L }, deselected);
+
+		for (int i = 0; i < 70; i++) {
+			matrix.add(solutions.get(1));
+		}
+		assertEquals(64, matrix.transpose(0, selected, deselected));
+		assertEquals(~0b100L, deselected[4]);
+		assertEquals(9, matrix.transpose(64, selected, deselected));
+		assertEquals(0b111111111L, deselected[4]);
+		assertEquals(0L, selected[1]);
+	}
+
+	@Test
+	public void testConfigurationListFormat() {
+		final SolutionList solutionList = new SolutionList(new Variables(Arrays.asList("a", "b", "c", "d", "e")), solutions);
+		final ConfigurationListFormat format = new ConfigurationListFormat();
+		final String csv = format.write(solutionList);
+
+		final SolutionList packedSolutionList = new SolutionList(null, new SolutionMatrix());
+		assertFalse(format.read(packedSolutionList, csv).containsError());
+		assertTrue(packedSolutionList.getSolutions() instanceof SolutionMatrix);
+		assertEquals(solutions, packedSolutionList.getSolutions());
+		assertEquals(csv, format.write(packedSolutionList));
+	}
+
+}
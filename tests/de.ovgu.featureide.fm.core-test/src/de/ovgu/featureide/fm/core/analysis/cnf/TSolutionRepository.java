@@ -0,0 +1,130 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.cnf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.analysis.cnf.analysis.AtomicSetAnalysis;
+import de.ovgu.featureide.fm.core.analysis.cnf.analysis.CoreDeadAnalysis;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.SolutionRepositoryCreator;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Test methods of {@link SolutionRepository}.
+ */
+public class TSolutionRepository {
+
+	private static CNF createCNF(int numberOfVariables) {
+		final String[] names = new String[numberOfVariables];
+		for (int i = 0; i < numberOfVariables; i++) {
+			names[i] = "v" + (i + 1);
+		}
+		return new CNF(new Variables(Arrays.asList(names)));
+	}
+
+	@Test
+	public void testQueries() {
+		final SolutionRepository repository = new SolutionRepository(createCNF(4));
+		assertTrue(repository.add(new int[] { 1, -2, 3, -4 }));
+		assertTrue(repository.add(new int[] { -1, -2, -3, 4 }));
+		assertFalse(repository.add(new int[] { 1, -2, 3, -4 }));
+		assertFalse(repository.add(new int[] { 1, -2, 3 }));
+		assertFalse(repository.add(new int[] { 1, 0, 3, -4 }));
+		assertEquals(2, repository.size());
+
+		assertTrue(repository.containsSolution(-2));
+		assertFalse(repository.containsSolution(2));
+		assertFalse(repository.containsSolution(1, 4));
+		assertFalse(repository.containsSolution(5));
+		assertArrayEquals(new int[] { -1, -2, -3, 4 }, repository.getSolution(-3));
+		assertArrayEquals(new int[] { 1, -2, 3, -4 }, repository.getSolution());
+		assertNull(repository.getSolution(-1, 3));
+
+		assertEquals(3, repository.getHits());
+		assertEquals(4, repository.getMisses());
+		assertEquals(3 / 7.0, repository.getHitRate(), 1e-9);
+
+		repository.clear();
+		assertEquals(0, repository.size());
+		assertFalse(repository.containsSolution());
+	}
+
+	@Test
+	public void testCapacity() {
+		final int numberOfVariables = 70;
+		final SolutionRepository repository = new SolutionRepository(createCNF(numberOfVariables), 65);
+		for (int s = 0; s < 66; s++) {
+			final int[] solution = new int[numberOfVariables];
+			for (int i = 0; i < numberOfVariables; i++) {
+				solution[i] = i == s ? i + 1 : -(i + 1);
+			}
+			assertTrue(repository.add(solution));
+		}
+		assertEquals(65, repository.size());
+		assertFalse(repository.containsSolution(1));
+		assertTrue(repository.containsSolution(2));
+		assertTrue(repository.containsSolution(66, -70));
+		assertFalse(repository.containsSolution(67));
+	}
+
+	@Test
+	public void testSharedByAnalyses() {
+		final FeatureModelFormula formula = new FeatureModelFormula(Commons.loadBenchmarkFeatureModelFromFile("berkeley_db_model.xml"));
+		final CNF cnf = formula.getCNF();
+		final SolutionRepository repository = formula.getElement(new SolutionRepositoryCreator());
+		assertTrue(repository == formula.getElement(new SolutionRepositoryCreator()));
+
+		final LiteralSet expectedCoreDead = LongRunningWrapper.runMethod(new CoreDeadAnalysis(cnf));
+		final List<LiteralSet> expectedAtomicSets = LongRunningWrapper.runMethod(new AtomicSetAnalysis(cnf));
+
+		final CoreDeadAnalysis coreDeadAnalysis = new CoreDeadAnalysis(cnf);
+		coreDeadAnalysis.setSolutionRepository(repository);
+		assertEquals(expectedCoreDead, LongRunningWrapper.runMethod(coreDeadAnalysis));
+		assertTrue(repository.size() > 0);
+
+		final AtomicSetAnalysis atomicSetAnalysis = new AtomicSetAnalysis(cnf);
+		atomicSetAnalysis.setSolutionRepository(repository);
+		assertEquals(expectedAtomicSets.size(), LongRunningWrapper.runMethod(atomicSetAnalysis).size());
+		assertTrue(repository.getHits() > 0);
+
+		final CoreDeadAnalysis secondAnalysis = new CoreDeadAnalysis(cnf);
+		secondAnalysis.setSolutionRepository(repository);
+		assertEquals(expectedCoreDead, LongRunningWrapper.runMethod(secondAnalysis));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDifferentFormula() {
+		final FeatureModelFormula formula = new FeatureModelFormula(Commons.loadBenchmarkFeatureModelFromFile("berkeley_db_model.xml"));
+		new CoreDeadAnalysis(formula.getCNF().clone()).setSolutionRepository(formula.getElement(new SolutionRepositoryCreator()));
+	}
+
+}
@@ -0,0 +1,139 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.cnf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet.Order;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.AdvancedSatSolver;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.ISimpleSatSolver.SatResult;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.RuntimeContradictionException;
+import de.ovgu.featureide.fm.core.job.monitor.NullMonitor;
+
+/**
+ * Tests the evaluation of solutions by {@link SolutionValidator} against a sat solver.
+ */
+public class TSolutionValidator {
+
+	private static final int NUMBER_OF_VARIABLES = 12;
+
+	private final Variables variables = new Variables(Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k", "l"));
+
+	private CNF createCNF(Random random, int numberOfClauses) {
+		final List<LiteralSet> clauses = new ArrayList<>();
+		for (int i = 0; i < numberOfClauses; i++) {
+			final int[] literals = new int[1 + random.nextInt(3)];
+			for (int j = 0; j < literals.length; j++) {
+				final int variable = 1 + random.nextInt(NUMBER_OF_VARIABLES);
+				literals[j] = random.nextBoolean() ? variable : -variable;
+			}
+			clauses.add(new LiteralSet(literals));
+		}
+		return new CNF(variables, clauses);
+	}
+
+	private LiteralSet createSolution(Random random, boolean complete) {
+		final int[] literals = new int[NUMBER_OF_VARIABLES];
+		int index = 0;
+		for (int variable = 1; variable <= NUMBER_OF_VARIABLES; variable++) {
+			if (complete || random.nextBoolean()) {
+				literals[index++] = random.nextBoolean() ? variable : -variable;
+			}
+		}
+		return index == NUMBER_OF_VARIABLES ? new LiteralSet(literals, Order.INDEX, false)
+			: new LiteralSet(Arrays.copyOf(literals, index), Order.UNORDERED, false);
+	}
+
+	private boolean hasSolution(CNF cnf, LiteralSet solution) {
+		try {
+			final AdvancedSatSolver solver = new AdvancedSatSolver(cnf);
+			solver.assignmentPushAll(solution.getLiterals());
+			return solver.hasSolution() == SatResult.TRUE;
+		} catch (final RuntimeContradictionException e) {
+			return false;
+		}
+	}
+
+	@Test
+	public void testRandomFormulas() {
+		final Random random = new Random(0);
+		int numberOfValidSolutions = 0;
+		for (int i = 0; i < 20; i++) {
+			final CNF cnf = createCNF(random, 5 + (i * 2));
+			final List<LiteralSet> solutions = new ArrayList<>();
+			for (int j = 0; j < 150; j++) {
+				solutions.add(createSolution(random, (j % 3) != 0));
+			}
+			final boolean[] expected = new boolean[solutions.size()];
+			for (int j = 0; j < expected.length; j++) {
+				expected[j] = hasSolution(cnf, solutions.get(j));
+				if (expected[j]) {
+					numberOfValidSolutions++;
+				}
+			}
+
+			final SolutionValidator validator = new SolutionValidator(cnf);
+			assertTrue(Arrays.equals(expected, validator.isValid(solutions, new NullMonitor<>())));
+			assertTrue(Arrays.equals(expected, validator.isValid(new SolutionMatrix(NUMBER_OF_VARIABLES, solutions), new NullMonitor<>())));
+			for (int j = 0; j < expected.length; j++) {
+				assertEquals(expected[j], validator.isValid(solutions.get(j)));
+			}
+		}
+		assertTrue(numberOfValidSolutions > 0);
+	}
+
+	@Test
+	public void testContradictorySolution() {
+		final CNF cnf = new CNF(variables, Arrays.asList(new LiteralSet(1, 2)));
+		final SolutionValidator validator = new SolutionValidator(cnf);
+		final LiteralSet solution = new LiteralSet(new int[] { 1, -1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12 }, Order.UNORDERED, false);
+		assertFalse(validator.isValid(solution));
+		assertTrue(Arrays.equals(new boolean[] { false }, validator.isValid(Collections.singletonList(solution), new NullMonitor<>())));
+	}
+
+	@Test
+	public void testOtherVariables() {
+		final CNF cnf = new CNF(variables, Arrays.asList(new LiteralSet(1, -2), new LiteralSet(-12)));
+		final SolutionValidator validator = new SolutionValidator(cnf);
+
+		// variable "x" is not part of the CNF and variables "c" to "k" are undefined
+		final Variables otherVariables = new Variables(Arrays.asList("l", "x", "b", "a"));
+		final List<LiteralSet> solutions = Arrays.asList( //
+				new LiteralSet(new int[] { -1, 2, -3, 4 }, Order.INDEX, false), //
+				new LiteralSet(new int[] { -1, -2, 3, -4 }, Order.INDEX, false), //
+				new LiteralSet(new int[] { 1, -2, 3, 4 }, Order.INDEX, false), //
+				new LiteralSet(new int[] { 2, -3 }, Order.UNORDERED, false));
+		final boolean[] expected = { true, false, false, true };
+		assertTrue(Arrays.equals(expected, validator.isValid(new SolutionList(otherVariables, solutions), new NullMonitor<>())));
+		assertTrue(Arrays.equals(expected, validator.isValid(new SolutionList(otherVariables, new SolutionMatrix(4, solutions)), new NullMonitor<>())));
+	}
+
+}
@@ -0,0 +1,90 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.cnf.analysis;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.ModalImplicationGraphCreator;
+import de.ovgu.featureide.fm.core.analysis.mig.ModalImplicationGraph;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Tests that {@link AtomicSetAnalysisMIG} computes the same atomic sets as {@link AtomicSetAnalysis}.
+ */
+public class TAtomicSetAnalysisMIG {
+
+	private static void testModel(IFeatureModel featureModel) {
+		final FeatureModelFormula formula = new FeatureModelFormula(featureModel);
+		final CNF cnf = formula.getCNF();
+		final ModalImplicationGraph mig = formula.getElement(new ModalImplicationGraphCreator());
+		final List<LiteralSet> expected = LongRunningWrapper.runMethod(new AtomicSetAnalysis(cnf));
+
+		for (final int parallelism : new int[] { 1, 4 }) {
+			final AtomicSetAnalysisMIG analysis = new AtomicSetAnalysisMIG(cnf, mig);
+			analysis.setParallelism(parallelism);
+			assertEquals(expected, LongRunningWrapper.runMethod(analysis));
+		}
+		assertEquals(expected, LongRunningWrapper.runMethod(new AtomicSetAnalysisMIG(cnf)));
+	}
+
+	@Test
+	public void testCar() {
+		testModel(Commons.loadTestFeatureModelFromFile("car.xml"));
+	}
+
+	@Test
+	public void testGPL() {
+		testModel(Commons.loadTestFeatureModelFromFile("gpl_medium_model.xml"));
+	}
+
+	@Test
+	public void testBerkeleyDB() {
+		testModel(Commons.loadBenchmarkFeatureModelFromFile("berkeley_db_model.xml"));
+	}
+
+	@Test
+	public void testRandomModel() {
+		testModel(Commons.loadBenchmarkFeatureModelFromFile("200-100.xml"));
+	}
+
+	@Test
+	public void testAssumptions() {
+		final FeatureModelFormula formula = new FeatureModelFormula(Commons.loadTestFeatureModelFromFile("car.xml"));
+		final CNF cnf = formula.getCNF();
+		final LiteralSet assumptions = new LiteralSet(cnf.getVariables().getVariable("Bluetooth", true));
+
+		final AtomicSetAnalysis expectedAnalysis = new AtomicSetAnalysis(cnf);
+		expectedAnalysis.setAssumptions(assumptions);
+		final AtomicSetAnalysisMIG analysis = new AtomicSetAnalysisMIG(cnf, formula.getElement(new ModalImplicationGraphCreator()));
+		analysis.setAssumptions(assumptions);
+		assertEquals(LongRunningWrapper.runMethod(expectedAnalysis), LongRunningWrapper.runMethod(analysis));
+	}
+
+}
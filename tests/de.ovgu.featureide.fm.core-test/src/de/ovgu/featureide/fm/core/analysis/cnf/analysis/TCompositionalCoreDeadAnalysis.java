@@ -0,0 +1,215 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.cnf.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.CNFComposition;
+import de.ovgu.featureide.fm.core.analysis.cnf.CNFComposition.ImportedCNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.impl.MultiFeatureModel;
+import de.ovgu.featureide.fm.core.init.FMCoreLibrary;
+import de.ovgu.featureide.fm.core.init.LibraryManager;
+import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Tests that {@link CompositionalCoreDeadAnalysis} computes the same core and dead features as {@link CoreDeadAnalysis} for feature models with imports.
+ */
+public class TCompositionalCoreDeadAnalysis {
+
+	private static final String BASE = "namespace Base\n" //
+		+ "features\n" //
+		+ "\tBase\n" //
+		+ "\t\tmandatory\n" //
+		+ "\t\t\tCore\n" //
+		+ "\t\t\t\talternative\n" //
+		+ "\t\t\t\t\tX\n" //
+		+ "\t\t\t\t\tY\n" //
+		+ "\t\toptional\n" //
+		+ "\t\t\tOpt\n" //
+		+ "\t\t\tDead\n" //
+		+ "constraints\n" //
+		+ "\tDead => X & Y\n" //
+		+ "\tOpt => Y\n";
+
+	private Path folder;
+
+	@BeforeClass
+	public static void setUpClass() {
+		LibraryManager.registerLibrary(FMCoreLibrary.getInstance());
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		folder = Files.createTempDirectory("composition");
+		Files.write(folder.resolve("Base.uvl"), BASE.getBytes());
+		CNFComposition.clearCache();
+		CompositionalCoreDeadAnalysis.clearCache();
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		try (Stream<Path> files = Files.walk(folder)) {
+			files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	private MultiFeatureModel loadModel(String name, String source) throws IOException {
+		final Path path = folder.resolve(name + ".uvl");
+		Files.write(path, source.getBytes());
+		final IFeatureModel featureModel = FeatureModelManager.load(path);
+		assertNotNull(featureModel);
+		assertTrue(featureModel instanceof MultiFeatureModel);
+		return (MultiFeatureModel) featureModel;
+	}
+
+	private static Set<String> toNames(CNF cnf, LiteralSet literals) {
+		assertNotNull(literals);
+		final Set<String> names = new TreeSet<>();
+		for (final int literal : literals.getLiterals()) {
+			names.add((literal > 0 ? "" : "-") + cnf.getVariables().getName(Math.abs(literal)));
+		}
+		return names;
+	}
+
+	private static Set<String> testModel(MultiFeatureModel featureModel) {
+		final CNF cnf = new FeatureModelFormula(featureModel).getCNF();
+		final Set<String> expected = toNames(cnf, LongRunningWrapper.runMethod(new CoreDeadAnalysis(cnf)));
+
+		final CompositionalCoreDeadAnalysis analysis = new CompositionalCoreDeadAnalysis(cnf);
+		analysis.setAliases(featureModel.getExternalModels().keySet());
+		assertEquals(expected, toNames(cnf, LongRunningWrapper.runMethod(analysis)));
+		return expected;
+	}
+
+	@Test
+	public void testWithoutImports() throws IOException {
+		final MultiFeatureModel featureModel = loadModel("Plain", "features\n\tPlain\n\t\tmandatory\n\t\t\tA\n\t\toptional\n\t\t\tB\n");
+		assertTrue(testModel(featureModel).contains("A"));
+	}
+
+	@Test
+	public void testSingleImport() throws IOException {
+		final MultiFeatureModel featureModel = loadModel("Single", "namespace Single\n" //
+			+ "imports\n" //
+			+ "\tBase as b\n" //
+			+ "features\n" //
+			+ "\tSingle\n" //
+			+ "\t\tmandatory\n" //
+			+ "\t\t\tb.Base\n" //
+			+ "\t\toptional\n" //
+			+ "\t\t\tA\n" //
+			+ "constraints\n" //
+			+ "\tA => b.Opt\n");
+		final Set<String> result = testModel(featureModel);
+		assertTrue(result.contains("b.Core"));
+		assertTrue(result.contains("-b.Dead"));
+	}
+
+	@Test
+	public void testContextConstraints() throws IOException {
+		// the importing model makes A core, which forces Y and thus deselects X only in its context
+		final MultiFeatureModel featureModel = loadModel("Context", "namespace Context\n" //
+			+ "imports\n" //
+			+ "\tBase as b\n" //
+			+ "\tBase as c\n" //
+			+ "features\n" //
+			+ "\tContext\n" //
+			+ "\t\tmandatory\n" //
+			+ "\t\t\tA\n" //
+			+ "\t\t\tb.Base\n" //
+			+ "\t\toptional\n" //
+			+ "\t\t\tc.Base\n" //
+			+ "constraints\n" //
+			+ "\tA => b.Opt\n");
+		final Set<String> result = testModel(featureModel);
+		assertTrue(result.contains("b.Y"));
+		assertTrue(result.contains("-b.X"));
+		assertTrue(!result.contains("c.Y") && !result.contains("-c.X"));
+	}
+
+	@Test
+	public void testVoidModel() throws IOException {
+		final MultiFeatureModel featureModel = loadModel("Void", "namespace Void\n" //
+			+ "imports\n" //
+			+ "\tBase as b\n" //
+			+ "features\n" //
+			+ "\tVoid\n" //
+			+ "\t\tmandatory\n" //
+			+ "\t\t\tb.Base\n" //
+			+ "constraints\n" //
+			+ "\tb.Opt\n" //
+			+ "\tb.X\n");
+		final CNF cnf = new FeatureModelFormula(featureModel).getCNF();
+		final CompositionalCoreDeadAnalysis analysis = new CompositionalCoreDeadAnalysis(cnf);
+		analysis.setAliases(featureModel.getExternalModels().keySet());
+		assertEquals(LongRunningWrapper.runMethod(new CoreDeadAnalysis(cnf)), LongRunningWrapper.runMethod(analysis));
+	}
+
+	@Test
+	public void testSharedImport() throws IOException {
+		final String source = "imports\n" //
+			+ "\tBase as b\n" //
+			+ "features\n" //
+			+ "\tProduct\n" //
+			+ "\t\tmandatory\n" //
+			+ "\t\t\tb.Base\n" //
+			+ "\t\toptional\n" //
+			+ "\t\t\tA\n" //
+			+ "constraints\n" //
+			+ "\tA => b.Opt\n";
+		final MultiFeatureModel first = loadModel("First", "namespace First\n" + source);
+		final MultiFeatureModel second = loadModel("Second", "namespace Second\n" + source.replace("Base as b", "Base as other").replace("b.", "other."));
+		testModel(first);
+		testModel(second);
+
+		final List<ImportedCNF> firstImports =
+			new CNFComposition(new FeatureModelFormula(first).getCNF(), first.getExternalModels().keySet()).getImportedCNFs();
+		final List<ImportedCNF> secondImports =
+			new CNFComposition(new FeatureModelFormula(second).getCNF(), second.getExternalModels().keySet()).getImportedCNFs();
+		assertEquals(1, firstImports.size());
+		assertEquals(1, secondImports.size());
+		assertEquals(firstImports.get(0).getCNF(), secondImports.get(0).getCNF());
+		assertSame(CNFComposition.slice(firstImports.get(0)), CNFComposition.slice(secondImports.get(0)));
+	}
+
+}
@@ -0,0 +1,137 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.cnf.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.Variables;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.ModalImplicationGraphCreator;
+import de.ovgu.featureide.fm.core.analysis.mig.ModalImplicationGraph;
+import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.filter.OptionalFeatureFilter;
+import de.ovgu.featureide.fm.core.functional.Functional;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Tests that {@link ImplicationAnalysisMIG} computes the same results as {@link IndependentRedundancyAnalysis} and {@link CoreDeadAnalysis}.
+ */
+public class TImplicationAnalysisMIG {
+
+	private static List<LiteralSet> getOptionalFeatureClauses(FeatureModelFormula formula) {
+		final Variables variables = formula.getCNF().getVariables();
+		final List<LiteralSet> clauses = new ArrayList<>();
+		for (final IFeature feature : Functional.filterToList(formula.getFeatureModel().getFeatures(), new OptionalFeatureFilter())) {
+			clauses.add(new LiteralSet(variables.getVariable(FeatureUtils.getParent(feature).getName(), false), variables.getVariable(feature.getName(), true)));
+		}
+		return clauses;
+	}
+
+	private static List<LiteralSet> getRandomAssumptionSets(CNF cnf, int count, int size) {
+		final Random random = new Random(0);
+		final int numberOfVariables = cnf.getVariables().size();
+		final List<LiteralSet> assumptionSets = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			final int[] literals = new int[size];
+			for (int j = 0; j < size; j++) {
+				final int var = (j * (numberOfVariables / size)) + random.nextInt(numberOfVariables / size) + 1;
+				literals[j] = random.nextBoolean() ? var : -var;
+			}
+			assumptionSets.add(new LiteralSet(literals));
+		}
+		return assumptionSets;
+	}
+
+	private static void testModel(FeatureModelFormula formula) {
+		final CNF cnf = formula.getCNF();
+		final ModalImplicationGraph mig = formula.getElement(new ModalImplicationGraphCreator());
+		final List<LiteralSet> clauses = getOptionalFeatureClauses(formula);
+		final List<LiteralSet> assumptionSets = getRandomAssumptionSets(cnf, 20, 3);
+
+		final List<LiteralSet> expectedClauses = LongRunningWrapper.runMethod(new IndependentRedundancyAnalysis(cnf, clauses));
+		final List<LiteralSet> expectedLiterals = new ArrayList<>();
+		for (final LiteralSet assumptionSet : assumptionSets) {
+			final HasSolutionAnalysis hasSolutionAnalysis = new HasSolutionAnalysis(cnf);
+			hasSolutionAnalysis.setAssumptions(assumptionSet);
+			if (LongRunningWrapper.runMethod(hasSolutionAnalysis)) {
+				final CoreDeadAnalysis analysis = new CoreDeadAnalysis(cnf);
+				analysis.setAssumptions(assumptionSet);
+				final int[] coreDead = LongRunningWrapper.runMethod(analysis).getLiterals();
+				final int[] literals = Arrays.copyOf(assumptionSet.getLiterals(), assumptionSet.size() + coreDead.length);
+				System.arraycopy(coreDead, 0, literals, assumptionSet.size(), coreDead.length);
+				expectedLiterals.add(new LiteralSet(literals));
+			} else {
+				expectedLiterals.add(null);
+			}
+		}
+
+		for (final int parallelism : new int[] { 1, 4 }) {
+			for (final ModalImplicationGraph graph : new ModalImplicationGraph[] { mig, null }) {
+				final ImplicationAnalysisMIG analysis = new ImplicationAnalysisMIG(cnf, graph);
+				analysis.setClauseList(clauses);
+				analysis.setAssumptionSets(assumptionSets);
+				analysis.setParallelism(parallelism);
+				assertEquals(expectedClauses, LongRunningWrapper.runMethod(analysis));
+				for (int i = 0; i < assumptionSets.size(); i++) {
+					final LiteralSet impliedLiterals = analysis.getImpliedLiterals().get(i);
+					if (expectedLiterals.get(i) == null) {
+						assertNull(impliedLiterals);
+					} else {
+						assertEquals(assumptionSets.get(i).toString(), expectedLiterals.get(i), new LiteralSet(impliedLiterals, LiteralSet.Order.NATURAL));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testCar() {
+		testModel(new FeatureModelFormula(Commons.loadTestFeatureModelFromFile("car.xml")));
+	}
+
+	@Test
+	public void testFalseOptional() {
+		testModel(new FeatureModelFormula(Commons.loadTestFeatureModelFromFile("false_optional_test.xml")));
+	}
+
+	@Test
+	public void testBerkeleyDB() {
+		testModel(new FeatureModelFormula(Commons.loadBenchmarkFeatureModelFromFile("berkeley_db_model.xml")));
+	}
+
+	@Test
+	public void testRandomModel() {
+		testModel(new FeatureModelFormula(Commons.loadBenchmarkFeatureModelFromFile("200-100.xml")));
+	}
+
+}
@@ -0,0 +1,256 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.cnf.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.Variables;
+import de.ovgu.featureide.fm.core.analysis.cnf.analysis.LinearObjectiveAnalysis.Optimum;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.AllConfigurationGenerator;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.AdvancedSatSolver;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.ISimpleSatSolver.SatResult;
+import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Tests the {@link LinearObjectiveAnalysis} against the optima of all configurations.
+ */
+public class TLinearObjectiveAnalysis {
+
+	private final static Path modelDirectory = Commons.getRemoteOrLocalFolder(Commons.TEST_FEATURE_MODEL_PATH).toPath();
+
+	@Test
+	public void testCar() {
+		testRandomObjectives("car", 20);
+	}
+
+	@Test
+	public void testGPL() {
+		testRandomObjectives("gpl_medium_model", 10);
+	}
+
+	@Test
+	public void testWitness() {
+		final CNF cnf = loadCNF("car");
+		final double[] weights = new double[cnf.getVariables().size() + 1];
+		for (int i = 1; i < weights.length; i++) {
+			weights[i] = i;
+		}
+		final Optimum optimum = LongRunningWrapper.runMethod(new LinearObjectiveAnalysis(cnf, weights));
+		assertNotNull(optimum);
+		final List<LiteralSet> solutions = LongRunningWrapper.runMethod(new AllConfigurationGenerator(cnf));
+		assertTrue(solutions.contains(optimum.getSolution()));
+		assertEquals(getValue(weights, optimum.getSolution()), optimum.getValue(), 0);
+	}
+
+	@Test
+	public void testUnsatisfiable() {
+		final CNF cnf = loadCNF("unsatisfiable");
+		final double[] weights = new double[cnf.getVariables().size() + 1];
+		assertNull(LongRunningWrapper.runMethod(new LinearObjectiveAnalysis(cnf, weights)));
+	}
+
+	@Test
+	public void testContradictingAssumptions() {
+		final CNF cnf = loadCNF("car");
+		final double[] weights = new double[cnf.getVariables().size() + 1];
+		final LinearObjectiveAnalysis analysis = new LinearObjectiveAnalysis(cnf, weights);
+		analysis.setAssumptions(new LiteralSet(cnf.getVariables().getVariable("Manual"), cnf.getVariables().getVariable("Automatic")));
+		assertNull(LongRunningWrapper.runMethod(analysis));
+	}
+
+	@Test
+	public void testTimeoutIsNotCached() {
+		final CNF cnf = loadCNF("gpl_medium_model");
+		final double[] weights = new double[cnf.getVariables().size() + 1];
+		for (int i = 1; i < weights.length; i++) {
+			weights[i] = (i % 3) - 1;
+		}
+		final Optimum expected = LongRunningWrapper.runMethod(new LinearObjectiveAnalysis(cnf, weights));
+
+		// all satisfiability checks except the first one exceed the timeout
+		final int[] calls = new int[1];
+		final boolean[] timeout = { true };
+		final AdvancedSatSolver solver = new AdvancedSatSolver(cnf) {
+
+			@Override
+			public SatResult hasSolution() {
+				return (timeout[0] && (calls[0]++ > 0)) ? SatResult.TIMEOUT : super.hasSolution();
+			}
+		};
+		final LinearObjectiveAnalysis analysis = new LinearObjectiveAnalysis(solver, weights);
+		analysis.setThrowTimeoutException(false);
+		final Optimum timedOut = LongRunningWrapper.runMethod(analysis);
+		assertNotNull(timedOut);
+		assertTrue(analysis.isTimeoutOccured());
+
+		timeout[0] = false;
+		final Optimum optimum = LongRunningWrapper.runMethod(analysis);
+		assertFalse(analysis.isTimeoutOccured());
+		assertEquals(expected.getValue(), optimum.getValue(), 0);
+	}
+
+	@Test
+	public void testTotalTimeout() {
+		final CNF cnf = loadCNF("gpl_medium_model");
+		final double[] weights = new double[cnf.getVariables().size() + 1];
+		for (int i = 1; i < weights.length; i++) {
+			weights[i] = (i % 3) - 1;
+		}
+		final Optimum expected = LongRunningWrapper.runMethod(new LinearObjectiveAnalysis(cnf, weights));
+
+		// every satisfiability check is slow, such that the search exceeds the total timeout
+		final AdvancedSatSolver solver = new AdvancedSatSolver(cnf) {
+
+			@Override
+			public SatResult hasSolution() {
+				try {
+					Thread.sleep(20);
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return super.hasSolution();
+			}
+		};
+		final LinearObjectiveAnalysis analysis = new LinearObjectiveAnalysis(solver, weights);
+		analysis.setThrowTimeoutException(false);
+		analysis.setTotalTimeout(50);
+		final Optimum timedOut = LongRunningWrapper.runMethod(analysis);
+		assertNotNull(timedOut);
+		assertTrue(analysis.isTimeoutOccured());
+
+		analysis.setTotalTimeout(0);
+		final Optimum optimum = LongRunningWrapper.runMethod(analysis);
+		assertFalse(analysis.isTimeoutOccured());
+		assertEquals(expected.getValue(), optimum.getValue(), 0);
+	}
+
+	@Test
+	public void testManyVariables() throws InterruptedException {
+		final int variableCount = 100_000;
+		final List<String> names = new ArrayList<>(variableCount);
+		for (int i = 1; i <= variableCount; i++) {
+			names.add("v" + i);
+		}
+		final CNF cnf = new CNF(new Variables(names));
+		cnf.addClause(new LiteralSet(-(variableCount - 1), -variableCount));
+		final double[] weights = new double[variableCount + 1];
+		Arrays.fill(weights, 1);
+
+		// the depth of the search must not be limited by the call stack
+		final Optimum[] optimum = new Optimum[1];
+		final Thread thread = new Thread(null, () -> optimum[0] = LongRunningWrapper.runMethod(new LinearObjectiveAnalysis(cnf, weights)), "search", 256 * 1024);
+		thread.start();
+		thread.join();
+		assertNotNull(optimum[0]);
+		assertEquals(variableCount - 1, optimum[0].getValue(), 0);
+	}
+
+	private void testRandomObjectives(String modelName, int objectiveCount) {
+		final CNF cnf = loadCNF(modelName);
+		final List<LiteralSet> solutions = LongRunningWrapper.runMethod(new AllConfigurationGenerator(cnf));
+		final int variableCount = cnf.getVariables().size();
+		final Random random = new Random(0);
+		for (int i = 0; i < objectiveCount; i++) {
+			final double[] weights = new double[variableCount + 1];
+			for (int var = 1; var <= variableCount; var++) {
+				weights[var] = random.nextInt(5) == 0 ? 0 : random.nextInt(201) - 100;
+			}
+			for (final boolean maximize : new boolean[] { true, false }) {
+				// the same instance is reused for different assumptions
+				final LinearObjectiveAnalysis analysis = new LinearObjectiveAnalysis(cnf, weights);
+				analysis.setMaximize(maximize);
+				for (int j = 0; j < 10; j++) {
+					final LiteralSet assumptions = randomAssumptions(random, variableCount, j % 4);
+					analysis.setAssumptions(assumptions);
+					final Optimum optimum = LongRunningWrapper.runMethod(analysis);
+
+					final List<LiteralSet> validSolutions = new ArrayList<>();
+					for (final LiteralSet solution : solutions) {
+						if (solution.containsAll(assumptions)) {
+							validSolutions.add(solution);
+						}
+					}
+					if (validSolutions.isEmpty()) {
+						assertNull(optimum);
+					} else {
+						assertNotNull(optimum);
+						double expected = maximize ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+						for (final LiteralSet solution : validSolutions) {
+							final double value = getValue(weights, solution);
+							expected = maximize ? Math.max(expected, value) : Math.min(expected, value);
+						}
+						assertEquals(expected, optimum.getValue(), 0);
+						assertTrue(optimum.getSolution().containsAll(assumptions));
+						assertEquals(expected, getValue(weights, optimum.getSolution()), 0);
+					}
+				}
+			}
+		}
+	}
+
+	private static LiteralSet randomAssumptions(Random random, int variableCount, int size) {
+		final int[] literals = new int[size];
+		int count = 0;
+		while (count < size) {
+			final int var = random.nextInt(variableCount) + 1;
+			boolean contained = false;
+			for (int k = 0; k < count; k++) {
+				contained |= Math.abs(literals[k]) == var;
+			}
+			if (!contained) {
+				literals[count++] = random.nextBoolean() ? var : -var;
+			}
+		}
+		return new LiteralSet(literals);
+	}
+
+	private static double getValue(double[] weights, LiteralSet solution) {
+		double value = 0;
+		for (final int literal : solution.getLiterals()) {
+			if (literal > 0) {
+				value += weights[literal];
+			}
+		}
+		return value;
+	}
+
+	private static CNF loadCNF(String modelName) {
+		return new FeatureModelFormula(FeatureModelManager.load(modelDirectory.resolve(modelName + ".xml"))).getCNF();
+	}
+
+}
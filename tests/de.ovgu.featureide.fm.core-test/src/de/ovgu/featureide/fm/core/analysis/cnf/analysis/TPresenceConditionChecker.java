@@ -0,0 +1,168 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.cnf.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Not;
+import org.prop4j.Or;
+import org.prop4j.SatSolver;
+import org.sat4j.specs.TimeoutException;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.analysis.cnf.analysis.PresenceConditionChecker.Status;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
+import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+import de.ovgu.featureide.fm.core.editing.NodeCreator;
+import de.ovgu.featureide.fm.core.functional.Functional;
+import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
+
+/**
+ * Tests the {@link PresenceConditionChecker}.
+ */
+public class TPresenceConditionChecker {
+
+	private final static Path modelDirectory = Commons.getRemoteOrLocalFolder(Commons.TEST_FEATURE_MODEL_PATH).toPath();
+
+	@Test
+	public void testExpressions() {
+		final PresenceConditionChecker checker = createChecker("car");
+		final List<Node> noContext = Collections.emptyList();
+		assertEquals(Status.NORMAL, checker.check(new Literal("USB"), noContext));
+		assertEquals(Status.CONTRADICTION, checker.check(new And(new Literal("USB"), new Not(new Literal("USB"))), noContext));
+		assertEquals(Status.TAUTOLOGY, checker.check(new Or(new Literal("CD"), new Not(new Literal("CD"))), noContext));
+		assertEquals(Status.DEAD, checker.check(new And(new Literal("Manual"), new Literal("Automatic")), noContext));
+		assertEquals(Status.SUPERFLUOUS, checker.check(new Or(new Literal("Manual"), new Literal("Automatic")), noContext));
+		assertEquals(Status.TAUTOLOGY, checker.check(new Literal(NodeCreator.varTrue), noContext));
+		assertEquals(Status.CONTRADICTION, checker.check(new Literal(NodeCreator.varFalse), noContext));
+	}
+
+	@Test
+	public void testContext() {
+		final PresenceConditionChecker checker = createChecker("car");
+		final List<Node> context = Arrays.asList(new Literal("Radio"));
+		assertEquals(Status.SUPERFLUOUS, checker.check(new Literal("USB"), context));
+		assertEquals(Status.DEAD, checker.check(new Not(new Literal("USB")), context));
+		assertEquals(Status.NORMAL, checker.check(new Literal("CD"), context));
+		assertEquals(Status.NORMAL, checker.check(new Literal("USB"), Arrays.asList(new Literal(NodeCreator.varTrue))));
+		assertEquals(Status.SUPERFLUOUS, checker.check(Arrays.asList(new Literal("Navigation"), new Literal("Radio"))));
+		assertEquals(Status.DEAD, checker.check(new Literal("USB"), Arrays.asList(new Literal("Bluetooth"))));
+	}
+
+	@Test
+	public void testUndefinedFeatures() {
+		final PresenceConditionChecker checker = createChecker("car");
+		final List<Node> noContext = Collections.emptyList();
+		assertEquals(Status.NORMAL, checker.check(new Literal("Undefined"), noContext));
+		assertEquals(Status.CONTRADICTION, checker.check(new And(new Literal("Undefined"), new Not(new Literal("Undefined"))), noContext));
+		assertEquals(Status.DEAD, checker.check(new Literal("Undefined"), Arrays.asList(new Not(new Literal("Undefined")))));
+	}
+
+	@Test
+	public void testVoidModel() {
+		final PresenceConditionChecker checker = createChecker("unsatisfiable");
+		assertTrue(checker.isVoid());
+		assertEquals(Status.VOID, checker.check(new Literal("A"), Collections.<Node> emptyList()));
+	}
+
+	@Test
+	public void testCache() {
+		final PresenceConditionChecker checker = createChecker("car");
+		final List<Node> context = Arrays.asList(new Literal("Radio"));
+		checker.check(new And(new Literal("USB"), new Literal("CD")), context);
+		checker.check(new And(new Literal("CD"), new Literal("USB")), context);
+		assertEquals(1, checker.getCacheSize());
+	}
+
+	/**
+	 * Compares the results of the checker to individual checks of the expression, the feature model, and the context with new solver instances.
+	 */
+	@Test
+	public void testRandomExpressions() throws TimeoutException {
+		final IFeatureModel featureModel = FeatureModelManager.load(modelDirectory.resolve("gpl_medium_model.xml"));
+		final PresenceConditionChecker checker = new PresenceConditionChecker(new FeatureModelFormula(featureModel).getCNF());
+		final Node featureModelNode = AdvancedNodeCreator.createNodes(featureModel);
+		final List<String> names = Functional.toList(FeatureUtils.extractFeatureNames(featureModel.getFeatures()));
+		final Random random = new Random(0);
+		for (int i = 0; i < 500; i++) {
+			final List<Node> stack = new ArrayList<>();
+			final int depth = 1 + random.nextInt(3);
+			for (int j = 0; j < depth; j++) {
+				stack.add(createRandomExpression(names, random, 2));
+			}
+			final Node expression = stack.get(0);
+			final List<Node> context = stack.subList(1, stack.size());
+			assertEquals(stack.toString(), check(expression, featureModelNode, context), checker.check(expression, context));
+		}
+	}
+
+	private static Status check(Node expression, Node featureModelNode, List<Node> context) throws TimeoutException {
+		if (!new SatSolver(expression, 1000).hasSolution()) {
+			return Status.CONTRADICTION;
+		}
+		if (!new SatSolver(new Not(expression), 1000).hasSolution()) {
+			return Status.TAUTOLOGY;
+		}
+		final Node contextNode = context.isEmpty() ? featureModelNode : new And(featureModelNode, new And(context.toArray(new Node[0])));
+		if (!new SatSolver(new And(contextNode, expression), 1000).hasSolution()) {
+			return Status.DEAD;
+		}
+		if (!new SatSolver(new And(contextNode, new Not(expression)), 1000).hasSolution()) {
+			return Status.SUPERFLUOUS;
+		}
+		return Status.NORMAL;
+	}
+
+	private static Node createRandomExpression(List<String> names, Random random, int depth) {
+		if ((depth == 0) || random.nextBoolean()) {
+			return new Literal(names.get(random.nextInt(names.size())), random.nextBoolean());
+		}
+		final Node left = createRandomExpression(names, random, depth - 1);
+		final Node right = createRandomExpression(names, random, depth - 1);
+		switch (random.nextInt(3)) {
+		case 0:
+			return new And(left, right);
+		case 1:
+			return new Or(left, right);
+		default:
+			return new Not(new And(left, right));
+		}
+	}
+
+	private static PresenceConditionChecker createChecker(String modelName) {
+		return new PresenceConditionChecker(new FeatureModelFormula(FeatureModelManager.load(modelDirectory.resolve(modelName + ".xml"))).getCNF());
+	}
+
+}
@@ -0,0 +1,71 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.SampleTester;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.TWiseCoverageCriterion;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * This is a benchmark for the throughput of the sequential and the parallel mode of {@link PairWiseConfigurationGenerator}. The test cases only check the
+ * coverage of the samples.
+ */
+public class BPairWiseConfigurationGenerator {
+
+	private static void sample(String modelName, int parallelism) {
+		final CNF cnf = new FeatureModelFormula(Commons.loadBenchmarkFeatureModelFromFile(modelName)).getCNF();
+		final PairWiseConfigurationGenerator generator = new PairWiseConfigurationGenerator(cnf, Integer.MAX_VALUE);
+		generator.setRandom(new Random(0));
+		generator.setParallelism(parallelism);
+
+		final long start = System.nanoTime();
+		final List<LiteralSet> sample = LongRunningWrapper.runMethod(generator);
+		final double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+		System.out.println(modelName + " (" + parallelism + " threads): " + sample.size() + " configurations in " + seconds + " s ("
+			+ (sample.size() / seconds) + " configurations/s)");
+
+		final SampleTester tester = new SampleTester(cnf);
+		tester.setSample(sample);
+		assertEquals(1.0, tester.getCoverage(new TWiseCoverageCriterion(cnf, 2)), 0.0);
+	}
+
+	@Test
+	public void BSequential() {
+		sample("berkeley_db_model.xml", 1);
+	}
+
+	@Test
+	public void BParallel() {
+		sample("berkeley_db_model.xml", Math.max(2, Runtime.getRuntime().availableProcessors()));
+	}
+
+}
@@ -0,0 +1,192 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.cnf.solver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Node;
+import org.prop4j.Not;
+import org.prop4j.SatSolver;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.Variables;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.SelectorMusExtractor.Minimization;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.explanations.Explanation;
+import de.ovgu.featureide.fm.core.explanations.fm.impl.mus.MusDeadFeatureExplanationCreator;
+import de.ovgu.featureide.fm.core.explanations.fm.impl.mus.MusRedundantConstraintExplanationCreator;
+
+/**
+ * Test methods of {@link SelectorMusExtractor}.
+ */
+public class TSelectorMusExtractor {
+
+	private static CNF createCNF(int numberOfVariables) {
+		final String[] names = new String[numberOfVariables];
+		for (int i = 0; i < numberOfVariables; i++) {
+			names[i] = "v" + (i + 1);
+		}
+		return new CNF(new Variables(Arrays.asList(names)));
+	}
+
+	/**
+	 * Groups: 0 = {1}, 1 = {-1 | 2}, 2 = {-2}, 3 = {3}, 4 = {-1}. The minimal unsatisfiable subsets are {0, 1, 2} and {0, 4}.
+	 */
+	private static SelectorMusExtractor createExample() {
+		final SelectorMusExtractor extractor = new SelectorMusExtractor(createCNF(3));
+		extractor.addGroup(Arrays.asList(new LiteralSet(1)));
+		extractor.addGroup(Arrays.asList(new LiteralSet(-1, 2)));
+		extractor.addGroup(Arrays.asList(new LiteralSet(-2)));
+		extractor.addGroup(Arrays.asList(new LiteralSet(3)));
+		extractor.addGroup(Arrays.asList(new LiteralSet(-1)));
+		return extractor;
+	}
+
+	private static void assertMinimalUnsatisfiable(SelectorMusExtractor extractor, int[] subset, int... assumptions) {
+		assertNotNull(subset);
+		assertFalse(extractor.isSatisfiable(subset, assumptions));
+		for (int i = 0; i < subset.length; i++) {
+			final int[] reduced = new int[subset.length - 1];
+			System.arraycopy(subset, 0, reduced, 0, i);
+			System.arraycopy(subset, i + 1, reduced, i, reduced.length - i);
+			assertTrue(extractor.isSatisfiable(reduced, assumptions));
+		}
+	}
+
+	@Test
+	public void testSingleSubset() {
+		for (final Minimization minimization : Minimization.values()) {
+			final SelectorMusExtractor extractor = createExample();
+			extractor.setMinimization(minimization);
+			final int[] subset = extractor.getMinimalUnsatisfiableSubset(extractor.getAllGroups());
+			assertMinimalUnsatisfiable(extractor, subset);
+			assertArrayEquals(new int[] { 0, 1, 2 }, extractor.getMinimalUnsatisfiableSubset(extractor.getAllGroupsExcept(4)));
+			assertArrayEquals(new int[] { 1, 2 }, extractor.getMinimalUnsatisfiableSubset(new int[] { 1, 2, 3 }, 1));
+			assertArrayEquals(new int[0], extractor.getMinimalUnsatisfiableSubset(new int[] { 1, 3 }, 1, -1));
+			assertNull(extractor.getMinimalUnsatisfiableSubset(new int[] { 1, 2, 3 }));
+			assertNull(extractor.getMinimalUnsatisfiableSubset(new int[] { 0, 1 }, extractor.getSelector(3)));
+			assertArrayEquals(new int[] { 0 }, extractor.getMinimalUnsatisfiableSubset(new int[] { 0, 3 }, extractor.getSelector(4)));
+		}
+	}
+
+	@Test
+	public void testMultipleSubsets() {
+		final SelectorMusExtractor extractor = createExample();
+		final int[] groups = extractor.getAllGroups();
+		assertEquals(1, extractor.getMinimalUnsatisfiableSubsets(groups, 1).size());
+
+		final List<int[]> subsets = extractor.getMinimalUnsatisfiableSubsets(groups, 10);
+		assertEquals(2, subsets.size());
+		final Set<List<Integer>> found = new HashSet<>();
+		for (final int[] subset : subsets) {
+			final List<Integer> list = new ArrayList<>();
+			for (final int group : subset) {
+				list.add(group);
+			}
+			found.add(list);
+		}
+		assertTrue(found.contains(Arrays.asList(0, 1, 2)));
+		assertTrue(found.contains(Arrays.asList(0, 4)));
+
+		assertTrue(extractor.getMinimalUnsatisfiableSubsets(new int[] { 1, 2, 3 }, 10).isEmpty());
+	}
+
+	@Test
+	public void testRandomFormulas() {
+		final Random random = new Random(42);
+		for (int run = 0; run < 20; run++) {
+			final SelectorMusExtractor extractor = new SelectorMusExtractor(createCNF(8));
+			for (int i = 0; i < 40; i++) {
+				final int[] literals = new int[1 + random.nextInt(3)];
+				for (int j = 0; j < literals.length; j++) {
+					literals[j] = (random.nextInt(8) + 1) * (random.nextBoolean() ? 1 : -1);
+				}
+				extractor.addGroup(Arrays.asList(new LiteralSet(literals)));
+			}
+			final int[] groups = extractor.getAllGroups();
+			if (extractor.isSatisfiable(groups)) {
+				continue;
+			}
+			for (final Minimization minimization : Minimization.values()) {
+				extractor.setMinimization(minimization);
+				assertMinimalUnsatisfiable(extractor, extractor.getMinimalUnsatisfiableSubset(groups));
+				for (final int[] subset : extractor.getMinimalUnsatisfiableSubsets(groups, 5)) {
+					assertMinimalUnsatisfiable(extractor, subset);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testFeatureModelExplanations() {
+		final IFeatureModel fm = Commons.loadTestFeatureModelFromFile("car.xml");
+		for (final Minimization minimization : Minimization.values()) {
+			final MusDeadFeatureExplanationCreator dead = new MusDeadFeatureExplanationCreator();
+			dead.setMinimization(minimization);
+			dead.setMaximumExplanationCount(3);
+			dead.setFeatureModel(fm);
+			for (final String name : new String[] { "Bluetooth", "Manual" }) {
+				dead.setSubject(fm.getFeature(name));
+				assertValid(dead.getExplanation());
+			}
+			dead.setSubject(fm.getFeature("Car"));
+			assertNull(dead.getExplanation());
+
+			final MusRedundantConstraintExplanationCreator redundant = new MusRedundantConstraintExplanationCreator();
+			redundant.setMinimization(minimization);
+			redundant.setMaximumExplanationCount(3);
+			redundant.setFeatureModel(fm);
+			for (final int index : new int[] { 0, 1, 1, 3 }) {
+				redundant.setSubject(fm.getConstraints().get(index));
+				assertValid(redundant.getExplanation());
+			}
+		}
+	}
+
+	private static void assertValid(Explanation<?> explanation) {
+		assertNotNull(explanation);
+		for (final Explanation<?> alternative : explanation.getAlternativeExplanations()) {
+			final Node node = new And(alternative.toNode(), new Not(alternative.getImplication()));
+			try {
+				assertFalse(new SatSolver(node, 1000).hasSolution());
+			} catch (final Exception e) {
+				throw new AssertionError(e);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,237 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.analysis.ddnnf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.Variables;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.DDNNFRandomConfigurationGenerator;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.SampleTester;
+import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor.MethodCancelException;
+import de.ovgu.featureide.fm.core.job.monitor.NullMonitor;
+
+/**
+ * Tests the compilation of {@link DecisionDNNF} and the uniform sampling with {@link DDNNFRandomConfigurationGenerator}.
+ */
+public class TDecisionDNNF {
+
+	private final static Path modelDirectory = Commons.getRemoteOrLocalFolder(Commons.TEST_FEATURE_MODEL_PATH).toPath();
+
+	/**
+	 * Critical value of the chi-square distribution with 6 degrees of freedom for a significance level of 0.001.
+	 */
+	private static final double CHI_SQUARE_6_0001 = 22.458;
+
+	@Test
+	public void testSolutionCount() {
+		assertEquals(BigInteger.ONE, DecisionDNNF.build(loadCNF("basic")).getSolutionCount());
+		assertEquals(BigInteger.valueOf(2), DecisionDNNF.build(loadCNF("simple")).getSolutionCount());
+		assertEquals(BigInteger.valueOf(7), DecisionDNNF.build(loadCNF("car")).getSolutionCount());
+		assertEquals(BigInteger.valueOf(960), DecisionDNNF.build(loadCNF("gpl_medium_model")).getSolutionCount());
+		assertEquals(BigInteger.ZERO, DecisionDNNF.build(loadCNF("unsatisfiable")).getSolutionCount());
+	}
+
+	@Test
+	public void testConditionedSolutionCount() {
+		final CNF cnf = loadCNF("car");
+		final DecisionDNNF ddnnf = DecisionDNNF.build(cnf);
+		for (int variable = 1; variable <= cnf.getVariables().size(); variable++) {
+			final BigInteger positive = ddnnf.getSolutionCount(variable);
+			final BigInteger negative = ddnnf.getSolutionCount(-variable);
+			assertEquals(ddnnf.getSolutionCount(), positive.add(negative));
+		}
+	}
+
+	@Test
+	public void testUnsatisfiableSample() {
+		assertNull(DecisionDNNF.build(loadCNF("unsatisfiable")).sample(new Random(0)));
+	}
+
+	@Test
+	public void testSampleWithoutDuplicates() {
+		final CNF cnf = loadCNF("gpl_medium_model");
+		final DDNNFRandomConfigurationGenerator generator = new DDNNFRandomConfigurationGenerator(cnf, Integer.MAX_VALUE);
+		generator.setRandom(new Random(0));
+		final List<LiteralSet> sample = LongRunningWrapper.runMethod(generator);
+
+		final SampleTester tester = new SampleTester(cnf);
+		tester.setSample(sample);
+		assertFalse(tester.hasInvalidSolutions());
+		assertEquals(960, sample.size());
+		assertEquals(960, new HashSet<>(sample).size());
+	}
+
+	@Test
+	public void testSolutionRanks() {
+		final CNF cnf = loadCNF("gpl_medium_model");
+		final DecisionDNNF ddnnf = DecisionDNNF.build(cnf);
+		final List<LiteralSet> solutions = new ArrayList<>();
+		for (int rank = 0; rank < 960; rank++) {
+			solutions.add(new LiteralSet(ddnnf.getSolution(BigInteger.valueOf(rank)), LiteralSet.Order.INDEX, false));
+		}
+
+		final SampleTester tester = new SampleTester(cnf);
+		tester.setSample(solutions);
+		assertFalse(tester.hasInvalidSolutions());
+		assertEquals(960, new HashSet<>(solutions).size());
+	}
+
+	@Test
+	public void testSampleShortfall() {
+		final CNF cnf = loadCNF("gpl_medium_model");
+		final DDNNFRandomConfigurationGenerator generator = new DDNNFRandomConfigurationGenerator(cnf, 1000);
+		generator.setRandom(new Random(0));
+		final List<LiteralSet> sample = LongRunningWrapper.runMethod(generator);
+		assertEquals(960, new HashSet<>(sample).size());
+		assertEquals(40, generator.getMissingConfigurations());
+
+		final DDNNFRandomConfigurationGenerator smallGenerator = new DDNNFRandomConfigurationGenerator(cnf, 900);
+		smallGenerator.setRandom(new Random(0));
+		assertEquals(900, new HashSet<>(LongRunningWrapper.runMethod(smallGenerator)).size());
+		assertEquals(0, smallGenerator.getMissingConfigurations());
+	}
+
+	@Test
+	public void testUniformity() {
+		final CNF cnf = loadCNF("car");
+		final int samplesPerSolution = 1000;
+		final DDNNFRandomConfigurationGenerator generator = new DDNNFRandomConfigurationGenerator(cnf, 7 * samplesPerSolution);
+		generator.setAllowDuplicates(true);
+		generator.setRandom(new Random(0));
+		final List<LiteralSet> sample = LongRunningWrapper.runMethod(generator);
+		assertEquals(7 * samplesPerSolution, sample.size());
+
+		final HashMap<LiteralSet, Integer> frequencies = new HashMap<>();
+		for (final LiteralSet solution : sample) {
+			frequencies.merge(solution, 1, Integer::sum);
+		}
+		assertEquals(7, frequencies.size());
+
+		double chiSquare = 0;
+		for (final int observed : frequencies.values()) {
+			final double difference = observed - samplesPerSolution;
+			chiSquare += (difference * difference) / samplesPerSolution;
+		}
+		assertTrue("Sample is not uniformly distributed (chi-square = " + chiSquare + ")", chiSquare < CHI_SQUARE_6_0001);
+	}
+
+	@Test
+	public void testDeepFormula() throws InterruptedException {
+		final int variableCount = 3000;
+		final CNF cnf = createChain(variableCount);
+
+		// the depth of the compilation and the traversals must not be limited by the call stack
+		final Object[] results = new Object[3];
+		final Thread thread = new Thread(null, () -> {
+			final DecisionDNNF ddnnf = DecisionDNNF.build(cnf);
+			results[0] = ddnnf.getSolutionCount();
+			results[1] = ddnnf.getSolutionCount(1);
+			results[2] = ddnnf.sample(new Random(0));
+		}, "ddnnf", 256 * 1024);
+		thread.start();
+		thread.join();
+
+		assertEquals(fibonacci(variableCount + 2), results[0]);
+		assertEquals(fibonacci(variableCount + 1), results[1]);
+		final int[] solution = (int[]) results[2];
+		assertNotNull(solution);
+		for (int i = 1; i < variableCount; i++) {
+			assertTrue((solution[i - 1] > 0) || (solution[i] > 0));
+		}
+	}
+
+	@Test
+	public void testTimeout() throws InterruptedException {
+		final int variableCount = 3000;
+		final CNF cnf = createChain(variableCount);
+		final DDNNFBuilder builder = new DDNNFBuilder(cnf);
+		builder.setTimeout(1);
+		assertNull(LongRunningWrapper.runMethod(builder));
+
+		// a compilation that exceeded the timeout is not kept
+		final LazyDecisionDNNF lazyDecisionDNNF = new LazyDecisionDNNF(cnf);
+		assertNull(lazyDecisionDNNF.get(new NullMonitor<>(), 1));
+		final DecisionDNNF ddnnf = lazyDecisionDNNF.get(new NullMonitor<>(), 0);
+		assertEquals(fibonacci(variableCount + 2), ddnnf.getSolutionCount());
+		assertSame(ddnnf, lazyDecisionDNNF.get(new NullMonitor<>(), 1));
+
+		final NullMonitor<Void> monitor = new NullMonitor<>();
+		monitor.cancel();
+		try {
+			ddnnf.getSolutionCount(monitor, 0, 1);
+			fail();
+		} catch (final MethodCancelException e) {}
+	}
+
+	/**
+	 * @return a CNF with the clauses (x<sub>i</sub> &or; x<sub>i + 1</sub>), which has {@link #fibonacci(int) fibonacci}(variableCount + 2) solutions and
+	 *         is compiled into a decision-DNNF with a depth that is linear in the number of variables.
+	 */
+	private static CNF createChain(int variableCount) {
+		final ArrayList<String> names = new ArrayList<>(variableCount);
+		for (int i = 1; i <= variableCount; i++) {
+			names.add("v" + i);
+		}
+		final CNF cnf = new CNF(new Variables(names));
+		for (int i = 1; i < variableCount; i++) {
+			cnf.addClause(new LiteralSet(i, i + 1));
+		}
+		return cnf;
+	}
+
+	private static BigInteger fibonacci(int n) {
+		BigInteger previous = BigInteger.ZERO;
+		BigInteger current = BigInteger.ONE;
+		for (int i = 1; i < n; i++) {
+			final BigInteger next = previous.add(current);
+			previous = current;
+			current = next;
+		}
+		return current;
+	}
+
+	private static CNF loadCNF(String modelName) {
+		return new FeatureModelFormula(FeatureModelManager.load(modelDirectory.resolve(modelName + ".xml"))).getCNF();
+	}
+
+}
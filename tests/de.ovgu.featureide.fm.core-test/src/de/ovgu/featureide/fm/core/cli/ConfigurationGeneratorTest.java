@@ -41,12 +41,15 @@ import de.ovgu.featureide.Commons;
 import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
 import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
 import de.ovgu.featureide.fm.core.analysis.cnf.SolutionList;
+import de.ovgu.featureide.fm.core.analysis.cnf.SolutionMatrix;
 import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.AllConfigurationGenerator;
 import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.RandomConfigurationGenerator;
 import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.SampleTester;
 import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.TWiseCoverageCriterion;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
 import de.ovgu.featureide.fm.core.io.ProblemList;
+import de.ovgu.featureide.fm.core.io.binary.BinaryConfigurationListReader;
 import de.ovgu.featureide.fm.core.io.csv.ConfigurationListFormat;
 import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
 import de.ovgu.featureide.fm.core.io.manager.FileHandler;
@@ -120,6 +123,49 @@ public class ConfigurationGeneratorTest {
 		testLimitedSize("apl_model", "random", 100, 100);
 	}
 
+	@Test
+	public void UniformRandomCoverage() {
+		testSize("basic", "random", Arrays.asList("-u"), 1);
+		testSize("simple", "random", Arrays.asList("-u"), 2);
+		testSize("car", "random", Arrays.asList("-u", "-l", "10"), 7);
+		testSize("gpl_medium_model", "random", Arrays.asList("-u", "-l", "100"), 100);
+		testSize("unsatisfiable", "random", Arrays.asList("-u"), 0);
+	}
+
+	@Test
+	public void BinaryOutput() {
+		final Path modelFile = modelDirectory.resolve("gpl_medium_model.xml");
+		try {
+			final SolutionList csvSample = new SolutionList(null, new SolutionMatrix());
+			FileHandler.load(runSampleAlgorithm(modelFile, "all", Collections.emptyList()), csvSample, new ConfigurationListFormat());
+			final SolutionList binarySample = new SolutionList(null, new SolutionMatrix());
+			final ProblemList problems = BinaryConfigurationListReader.load(runSampleAlgorithm(modelFile, "all", Arrays.asList("-b")), binarySample);
+			assertFalse(problems.containsError());
+			assertEquals(960, binarySample.getSolutions().size());
+			assertEquals(csvSample.getVariables(), binarySample.getVariables());
+			assertEquals(csvSample.getSolutions(), binarySample.getSolutions());
+		} catch (final IOException e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	@Test
+	public void StreamingSink() {
+		final CNF cnf = new FeatureModelFormula(FeatureModelManager.load(modelDirectory.resolve("gpl_medium_model.xml"))).getCNF();
+		final AllConfigurationGenerator generator = new AllConfigurationGenerator(cnf);
+		final List<LiteralSet> streamedSample = new ArrayList<>();
+		generator.addSink(streamedSample::add);
+		generator.setBufferResults(false);
+		final List<LiteralSet> result = LongRunningWrapper.runMethod(generator);
+		assertTrue(result.isEmpty());
+		assertTrue(generator.getResultQueue().isEmpty());
+		assertEquals(960, streamedSample.size());
+		final SampleTester tester = new SampleTester(cnf);
+		tester.setSample(streamedSample);
+		assertFalse(tester.hasInvalidSolutions());
+	}
+
 	@Test
 	public void ChvatalLimit() {
 		testTWiseLimitedSize("gpl_medium_model", "chvatal", 1, 5);
@@ -198,6 +244,11 @@ public class ConfigurationGeneratorTest {
 		testCoverageAndDeterminism("incling", 2, modelNames);
 	}
 
+	@Test
+	public void ParallelInclingTwoWiseCoverage() {
+		testCoverageAndDeterminism("incling", 2, modelNames, Arrays.asList("-p", "3"));
+	}
+
 //	@Test
 //	public void ICPLOneWiseCoverage() {
 //		testCoverage("icpl", 1, modelNames);
@@ -238,19 +289,30 @@ public class ConfigurationGeneratorTest {
 	}
 
 	private void testCoverageAndDeterminism(final String algorithmName, final int t, final List<String> modelNameList) {
+		testCoverageAndDeterminism(algorithmName, t, modelNameList, Collections.emptyList());
+	}
+
+	private void testCoverageAndDeterminism(final String algorithmName, final int t, final List<String> modelNameList, List<String> additionalArgs) {
+		final List<String> args = new ArrayList<>(additionalArgs);
+		args.add("-t");
+		args.add(Integer.toString(t));
 		for (final String modelName : modelNameList) {
 			final Path modelFile = modelDirectory.resolve(modelName + ".xml");
-			final SampleTester tester = sample(modelFile, algorithmName, Arrays.asList("-t", Integer.toString(t)));
+			final SampleTester tester = sample(modelFile, algorithmName, args);
 			assertFalse("Invalid solutions for " + modelName, tester.hasInvalidSolutions());
 			assertEquals("Wrong coverage for " + modelName, 1.0, tester.getCoverage(new TWiseCoverageCriterion(tester.getCnf(), t)), 0.0);
-			final SampleTester tester2 = sample(modelFile, algorithmName, Arrays.asList("-t", Integer.toString(t)));
+			final SampleTester tester2 = sample(modelFile, algorithmName, args);
 			assertEquals("Wrong size for " + modelName, tester.getSize(), tester2.getSize());
 		}
 	}
 
 	private static void testSize(String modelName, String algorithm, int numberOfConfigurations) {
+		testSize(modelName, algorithm, Collections.emptyList(), numberOfConfigurations);
+	}
+
+	private static void testSize(String modelName, String algorithm, List<String> additionalArgs, int numberOfConfigurations) {
 		final Path modelFile = modelDirectory.resolve(modelName + ".xml");
-		final SampleTester tester = sample(modelFile, algorithm, Collections.emptyList());
+		final SampleTester tester = sample(modelFile, algorithm, additionalArgs);
 		assertFalse("Invalid solutions for " + modelName, tester.hasInvalidSolutions());
 		assertEquals("Wrong number of configurations for " + modelName, numberOfConfigurations, tester.getSize());
 	}
@@ -273,7 +335,7 @@ public class ConfigurationGeneratorTest {
 		final Path modelFile = modelDirectory.resolve(modelName + ".xml");
 		try {
 			final Path sampleFile = runSampleAlgorithm(modelFile, "random", Arrays.asList("-l", Integer.toString(initialSize)));
-			final SolutionList sample = new SolutionList();
+			final SolutionList sample = new SolutionList(null, new SolutionMatrix());
 			FileHandler.load(sampleFile, sample, new ConfigurationListFormat());
 			final SampleTester tester = sample(modelFile, "yasa", Arrays.asList("-t", Integer.toString(t), "-m", "5", "-i", sampleFile.toString()));
 			assertFalse("Invalid solutions for " + modelName, tester.hasInvalidSolutions());
@@ -343,7 +405,7 @@ public class ConfigurationGeneratorTest {
 		try {
 			final Path outFile = runSampleAlgorithm(modelFile, algorithm, additionalArgs);
 
-			final SolutionList sample = new SolutionList();
+			final SolutionList sample = new SolutionList(null, new SolutionMatrix());
 			final ProblemList problemList = FileHandler.load(outFile, sample, new ConfigurationListFormat());
 			ProblemList errors = problemList.getErrors();
 			if (!errors.isEmpty()) {
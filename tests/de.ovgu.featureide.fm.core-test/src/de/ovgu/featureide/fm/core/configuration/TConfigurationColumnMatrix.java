@@ -0,0 +1,131 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.configuration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link ConfigurationColumnMatrix}.
+ */
+public class TConfigurationColumnMatrix {
+
+	private static final List<String> FEATURES = Arrays.asList("A", "B", "C", "D", "E");
+
+	@Test
+	public void testEmpty() {
+		final ConfigurationColumnMatrix matrix = new ConfigurationColumnMatrix(FEATURES);
+		assertEquals(0, matrix.size());
+		assertTrue(matrix.getNeverSelectedFeatures(FEATURES).isEmpty());
+		assertTrue(matrix.getAlwaysSelectedFeatures(FEATURES).isEmpty());
+	}
+
+	@Test
+	public void testSetAndRemove() {
+		final ConfigurationColumnMatrix matrix = new ConfigurationColumnMatrix(FEATURES);
+		final Path a = Paths.get("a.config");
+		final Path b = Paths.get("b.config");
+		matrix.set(a, Arrays.asList("A", "B", "X"));
+		matrix.set(b, Arrays.asList("A", "C"));
+		assertEquals(2, matrix.size());
+		assertEquals(Arrays.asList("A"), matrix.getAlwaysSelectedFeatures(FEATURES));
+		assertEquals(Arrays.asList("D", "E"), matrix.getNeverSelectedFeatures(FEATURES));
+		assertEquals(0, matrix.getSelectionCount("X"));
+
+		matrix.set(b, Arrays.asList("A", "B", "D"));
+		assertEquals(2, matrix.size());
+		assertEquals(Arrays.asList("A", "B"), matrix.getAlwaysSelectedFeatures(FEATURES));
+		assertEquals(Arrays.asList("C", "E"), matrix.getNeverSelectedFeatures(FEATURES));
+
+		assertTrue(matrix.remove(a));
+		assertFalse(matrix.remove(a));
+		assertFalse(matrix.contains(a));
+		assertEquals(Arrays.asList("A", "B", "D"), matrix.getAlwaysSelectedFeatures(FEATURES));
+		assertEquals(1, matrix.getSelectionCount("D"));
+	}
+
+	@Test
+	public void testRandomChanges() {
+		final Random random = new Random(0);
+		final ConfigurationColumnMatrix matrix = new ConfigurationColumnMatrix(FEATURES);
+		final Map<Path, Set<String>> expected = new HashMap<>();
+		for (int i = 0; i < 2000; i++) {
+			final Path path = Paths.get("config" + random.nextInt(200));
+			if (random.nextInt(4) == 0) {
+				assertEquals(expected.remove(path) != null, matrix.remove(path));
+			} else {
+				final Set<String> selection = new HashSet<>();
+				for (final String feature : FEATURES) {
+					if (random.nextInt(10) != 0) {
+						selection.add(feature);
+					}
+				}
+				expected.put(path, selection);
+				matrix.set(path, selection);
+			}
+			if ((i % 50) == 0) {
+				check(matrix, expected);
+			}
+		}
+		check(matrix, expected);
+	}
+
+	private static void check(ConfigurationColumnMatrix matrix, Map<Path, Set<String>> expected) {
+		assertEquals(expected.size(), matrix.size());
+		final List<String> never = new ArrayList<>();
+		final List<String> always = new ArrayList<>();
+		for (final String feature : FEATURES) {
+			int count = 0;
+			for (final Set<String> selection : expected.values()) {
+				if (selection.contains(feature)) {
+					count++;
+				}
+			}
+			assertEquals(count, matrix.getSelectionCount(feature));
+			if (!expected.isEmpty()) {
+				if (count == 0) {
+					never.add(feature);
+				} else if (count == expected.size()) {
+					always.add(feature);
+				}
+			}
+		}
+		assertEquals(never, matrix.getNeverSelectedFeatures(FEATURES));
+		assertEquals(always, matrix.getAlwaysSelectedFeatures(FEATURES));
+		assertEquals(Collections.emptyList(), matrix.getNeverSelectedFeatures(Collections.singletonList("X")));
+	}
+
+}
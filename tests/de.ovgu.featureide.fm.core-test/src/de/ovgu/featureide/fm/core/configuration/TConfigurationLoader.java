@@ -0,0 +1,211 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.configuration;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
+import de.ovgu.featureide.fm.core.configuration.io.ConfigurationLoader;
+import de.ovgu.featureide.fm.core.configuration.io.ConfigurationLoader.Selections;
+import de.ovgu.featureide.fm.core.io.manager.ConfigurationManager;
+
+/**
+ * Tests for {@link ConfigurationLoader}.
+ */
+public class TConfigurationLoader {
+
+	private static final int NUMBER_OF_CONFIGURATIONS = 50;
+
+	private FeatureModelFormula formula;
+	private Path folder;
+	private Path stateFolder;
+
+	@Before
+	public void setUp() throws IOException {
+		formula = new FeatureModelFormula(Commons.loadTestFeatureModelFromFile("car.xml"));
+		folder = Files.createTempDirectory("configurations");
+		stateFolder = Files.createTempDirectory("state");
+		final Random random = new Random(0);
+		for (int i = 0; i < NUMBER_OF_CONFIGURATIONS; i++) {
+			writeConfiguration("config" + i, random);
+		}
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		delete(folder);
+		delete(stateFolder);
+	}
+
+	private static void delete(Path folder) throws IOException {
+		try (Stream<Path> files = Files.walk(folder)) {
+			files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	private void writeConfiguration(String name, Random random) {
+		final Configuration configuration = new Configuration(formula);
+		for (final SelectableFeature feature : configuration.getFeatures()) {
+			if (feature.getFeature().getStructure().isConcrete() && random.nextBoolean()) {
+				configuration.setManual(feature, Selection.SELECTED);
+			}
+		}
+		ConfigurationManager.save(configuration, folder.resolve(name + "." + new DefaultFormat().getSuffix()), new DefaultFormat());
+	}
+
+	@Test
+	public void testParallelLoading() {
+		final List<Configuration> sequential = new ConfigurationLoader().loadConfigurations(formula, folder);
+		final ConfigurationLoader parallelLoader = new ConfigurationLoader();
+		parallelLoader.setParallelism(4);
+		final List<Configuration> parallel = parallelLoader.loadConfigurations(formula, folder);
+
+		assertEquals(NUMBER_OF_CONFIGURATIONS, sequential.size());
+		assertEquals(sequential.size(), parallel.size());
+		for (int i = 0; i < sequential.size(); i++) {
+			assertEquals(sequential.get(i).getSelectedFeatureNames(), parallel.get(i).getSelectedFeatureNames());
+		}
+	}
+
+	@Test
+	public void testSelections() {
+		final List<Configuration> configurations = new ConfigurationLoader().loadConfigurations(formula, folder);
+		final ConfigurationLoader loader = new ConfigurationLoader();
+		loader.setParallelism(4);
+		final Selections selections = loader.loadSelections(formula, folder, null);
+
+		assertEquals(configurations.size(), selections.getMatrix().size());
+		assertEquals(configurations.size(), selections.getPaths().size());
+		for (int i = 0; i < configurations.size(); i++) {
+			assertArrayEquals(getLiterals(configurations.get(i), selections.getFeatureNames()), selections.getMatrix().get(i).getLiterals());
+		}
+	}
+
+	@Test
+	public void testIndex() throws IOException {
+		final ConfigurationLoader loader = new ConfigurationLoader();
+		loader.setParallelism(2);
+		loader.setIndexFile(ConfigurationLoader.getIndexFile(stateFolder, folder));
+
+		final Selections first = loader.loadSelections(formula, folder, null);
+		assertEquals(NUMBER_OF_CONFIGURATIONS, first.getNumberOfParsedFiles());
+		assertTrue(Files.isRegularFile(loader.getIndexFile()));
+		assertEquals(stateFolder, loader.getIndexFile().getParent());
+		try (Stream<Path> files = Files.list(folder)) {
+			assertEquals(NUMBER_OF_CONFIGURATIONS, files.count());
+		}
+		assertEquals(NUMBER_OF_CONFIGURATIONS, new ConfigurationLoader().loadSelections(formula, folder, null).getMatrix().size());
+
+		final Selections second = loader.loadSelections(formula, folder, null);
+		assertEquals(0, second.getNumberOfParsedFiles());
+		assertEquals(first.getPaths(), second.getPaths());
+		assertEquals(first.getMatrix(), second.getMatrix());
+
+		final Path touchedFile = first.getPaths().get(0);
+		Files.setLastModifiedTime(touchedFile, FileTime.fromMillis(Files.getLastModifiedTime(touchedFile).toMillis() + 10000));
+		final Path changedFile = first.getPaths().get(1);
+		Files.write(changedFile, new ArrayList<String>());
+		Files.delete(first.getPaths().get(2));
+
+		final Selections third = loader.loadSelections(formula, folder, null);
+		assertEquals(1, third.getNumberOfParsedFiles());
+		assertEquals(NUMBER_OF_CONFIGURATIONS - 1, third.getMatrix().size());
+		final int changedRow = third.getPaths().indexOf(changedFile);
+		for (final int literal : third.getMatrix().get(changedRow).getLiterals()) {
+			assertTrue(literal < 0);
+		}
+		assertEquals(first.getMatrix().get(0), third.getMatrix().get(third.getPaths().indexOf(touchedFile)));
+	}
+
+	@Test
+	public void testFileSelections() throws IOException {
+		final Configuration configuration = ConfigurationManager.load(folder.resolve("config0." + new DefaultFormat().getSuffix()));
+		ConfigurationManager.save(configuration, folder.resolve("config0." + new XMLConfFormat().getSuffix()), new XMLConfFormat());
+		final List<Path> files;
+		try (Stream<Path> paths = Files.list(folder)) {
+			files = paths.sorted().collect(Collectors.toList());
+		}
+		assertEquals(NUMBER_OF_CONFIGURATIONS, new ConfigurationLoader().loadSelections(formula, folder, null).getMatrix().size());
+
+		final ConfigurationLoader loader = new ConfigurationLoader();
+		loader.setParallelism(2);
+		loader.setIndexFile(ConfigurationLoader.getIndexFile(stateFolder, folder));
+		final Selections first = loader.loadFileSelections(formula, folder, files);
+		assertEquals(files, first.getPaths());
+		assertEquals(NUMBER_OF_CONFIGURATIONS + 1, first.getNumberOfParsedFiles());
+
+		final Selections second = loader.loadFileSelections(formula, folder, files);
+		assertEquals(0, second.getNumberOfParsedFiles());
+		assertEquals(first.getMatrix(), second.getMatrix());
+
+		final ConfigurationColumnMatrix matrix = new ConfigurationColumnMatrix(second);
+		for (final Path file : files) {
+			assertTrue(matrix.contains(file));
+		}
+		final int row = files.indexOf(folder.resolve("config0." + new DefaultFormat().getSuffix()));
+		assertEquals(second.getMatrix().get(row), second.getMatrix().get(files.indexOf(folder.resolve("config0." + new XMLConfFormat().getSuffix()))));
+	}
+
+	@Test
+	public void testColumnMatrix() {
+		final List<Configuration> configurations = new ConfigurationLoader().loadConfigurations(formula, folder);
+		final ConfigurationColumnMatrix matrix = new ConfigurationColumnMatrix(new ConfigurationLoader().loadSelections(formula, folder, null));
+
+		assertEquals(configurations.size(), matrix.size());
+		for (final String featureName : matrix.getFeatureNames()) {
+			int count = 0;
+			for (final Configuration configuration : configurations) {
+				if (configuration.getSelectedFeatureNames().contains(featureName)) {
+					count++;
+				}
+			}
+			assertEquals(count, matrix.getSelectionCount(featureName));
+		}
+	}
+
+	private static int[] getLiterals(Configuration configuration, List<String> featureNames) {
+		final int[] literals = new int[featureNames.size()];
+		for (int i = 0; i < literals.length; i++) {
+			final SelectableFeature feature = configuration.getSelectableFeature(featureNames.get(i));
+			literals[i] = (feature != null) && (feature.getSelection() == Selection.SELECTED) ? i + 1 : -(i + 1);
+		}
+		return literals;
+	}
+
+}
@@ -24,8 +24,15 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Test;
 
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet.Order;
+import de.ovgu.featureide.fm.core.analysis.cnf.SolutionList;
+import de.ovgu.featureide.fm.core.analysis.cnf.Variables;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
 import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
 
@@ -94,4 +101,19 @@ public class TConfigurationSelection extends AbstractConfigurationTest {
 		testConfigurationInvalid(c);
 	}
 
+	@Test
+	public void testAreValid() {
+		final ConfigurationPropagator propagator = getConfigurationPropagator(formula, new Configuration(formula));
+		final List<LiteralSet> configurations = Arrays.asList( //
+				new LiteralSet(new int[] { -1, -2, 3, 4 }, Order.INDEX, false), //
+				new LiteralSet(new int[] { 1, -2, 3, 4 }, Order.INDEX, false), //
+				new LiteralSet(new int[] { -1, 2, 3, 4 }, Order.INDEX, false), //
+				new LiteralSet(new int[] { -1, -2, -3, 4 }, Order.INDEX, false), //
+				new LiteralSet(new int[] { 1 }, Order.UNORDERED, false), //
+				new LiteralSet(new int[] { 2 }, Order.UNORDERED, false));
+		final SolutionList solutionList = new SolutionList(new Variables(Arrays.asList("A", "B", "C", "S")), configurations);
+		final boolean[] valid = LongRunningWrapper.runMethod(propagator.areValid(solutionList));
+		assertTrue(Arrays.equals(new boolean[] { true, true, false, false, true, false }, valid));
+	}
+
 }
@@ -21,10 +21,15 @@
 package de.ovgu.featureide.fm.core.configuration;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.math.BigInteger;
 
 import org.junit.Test;
 
+import de.ovgu.featureide.Commons;
 import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.NoAbstractNoHiddenDecisionDNNFCreator;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
 
 /**
@@ -44,7 +49,68 @@ public class TNumberOfConfigurations extends AbstractConfigurationTest {
 		final FeatureModelFormula featureModel = new FeatureModelFormula(fm);
 		final ConfigurationAnalyzer analyzer = new ConfigurationAnalyzer(featureModel, new Configuration(featureModel));
 		analyzer.setIncludeAbstractFeatures(!removeAbstract);
-		return analyzer.number();
+		final long number = analyzer.number();
+		if (number >= 0) {
+			assertEquals(BigInteger.valueOf(number), analyzer.count());
+		}
+		return number;
+	}
+
+	private static void assertCount(final FeatureModelFormula featureModel, Configuration configuration, boolean removeAbstract) {
+		final ConfigurationAnalyzer analyzer = new ConfigurationAnalyzer(featureModel, configuration);
+		analyzer.setIncludeAbstractFeatures(!removeAbstract);
+		assertEquals(BigInteger.valueOf(analyzer.number(60000)), analyzer.count());
+		assertEquals(analyzer.count(), analyzer.count(60000));
+	}
+
+	@Test
+	public void testCountWithSelection() {
+		final FeatureModelFormula featureModel = new FeatureModelFormula(Commons.loadTestFeatureModelFromFile("car.xml"));
+		final Configuration configuration = new Configuration(featureModel);
+		assertCount(featureModel, configuration, false);
+		assertCount(featureModel, configuration, true);
+		for (final SelectableFeature feature : configuration.getFeatures()) {
+			if (feature.getFeature().getStructure().isConcrete() && !feature.getFeature().getStructure().isRoot()) {
+				configuration.setManual(feature, Selection.SELECTED);
+				break;
+			}
+		}
+		assertCount(featureModel, configuration, false);
+		assertCount(featureModel, configuration, true);
+	}
+
+	@Test
+	public void testCountWithAbstractSelection() {
+		final IFeatureModel fm =
+			loadXML("<and mandatory=\"true\" name=\"S\"><feature abstract=\"true\" name=\"A\"/><feature name=\"B\"/><feature name=\"C\"/></and>",
+					"<rule><imp><var>A</var><var>B</var></imp></rule>");
+		final FeatureModelFormula featureModel = new FeatureModelFormula(fm);
+		final Configuration configuration = new Configuration(featureModel);
+		assertEquals(BigInteger.valueOf(4), countWithoutAbstract(featureModel, configuration));
+
+		final SelectableFeature abstractFeature = configuration.getSelectableFeature("A");
+		configuration.setManual(abstractFeature, Selection.SELECTED);
+		assertEquals(BigInteger.valueOf(2), countWithoutAbstract(featureModel, configuration));
+		configuration.setManual(abstractFeature, Selection.UNSELECTED);
+		assertEquals(BigInteger.valueOf(4), countWithoutAbstract(featureModel, configuration));
+
+		configuration.setManual(configuration.getSelectableFeature("B"), Selection.UNSELECTED);
+		assertEquals(BigInteger.valueOf(2), countWithoutAbstract(featureModel, configuration));
+	}
+
+	private static BigInteger countWithoutAbstract(final FeatureModelFormula featureModel, Configuration configuration) {
+		final ConfigurationAnalyzer analyzer = new ConfigurationAnalyzer(featureModel, configuration);
+		analyzer.setIncludeAbstractFeatures(false);
+		final BigInteger count = analyzer.count();
+		assertEquals(count, analyzer.count(60000));
+		return count;
+	}
+
+	@Test
+	public void testCountLargeModel() {
+		final FeatureModelFormula featureModel = new FeatureModelFormula(Commons.loadTestFeatureModelFromFile("gpl_medium_model.xml"));
+		assertCount(featureModel, new Configuration(featureModel), true);
+		assertSame(featureModel.getElement(new NoAbstractNoHiddenDecisionDNNFCreator()), featureModel.getElement(new NoAbstractNoHiddenDecisionDNNFCreator()));
 	}
 
 	@Test
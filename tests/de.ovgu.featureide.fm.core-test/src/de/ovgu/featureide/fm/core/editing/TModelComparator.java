@@ -21,18 +21,29 @@
 package de.ovgu.featureide.fm.core.editing;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.FileNotFoundException;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.junit.Test;
 import org.sat4j.specs.TimeoutException;
 
 import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.ExtensionManager.NoSuchExtensionException;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.impl.FMFactoryManager;
 import de.ovgu.featureide.fm.core.configuration.Configuration;
+import de.ovgu.featureide.fm.core.configuration.ConfigurationAnalyzer;
+import de.ovgu.featureide.fm.core.editing.IncrementalModelComparator.ClauseEdit;
 import de.ovgu.featureide.fm.core.io.UnsupportedModelException;
+import de.ovgu.featureide.fm.core.io.xml.XmlFeatureModelFormat;
 
 /**
  * Checks that the calculation of edit categories works properly. A couple of known refactorings, generalizations and arbitrary edits are performed and the
@@ -68,4 +79,57 @@ public class TModelComparator {
 		}
 		// TODO: assertEquals(12, addedProducts.size());
 	}
+
+	@Test
+	public void testIncrementalSolverMatchesLegacyStrategy() throws FileNotFoundException, UnsupportedModelException, TimeoutException {
+		final IFeatureModel fm = Commons.loadBenchmarkFeatureModelFromFile("issue_264_model_optional.xml");
+		final IFeatureModel fmGen = Commons.loadBenchmarkFeatureModelFromFile("issue_264_model_alternative.xml");
+		for (final IFeatureModel[] models : new IFeatureModel[][] { { fm, fmGen }, { fmGen, fm }, { fm, fm } }) {
+			assertEquals(new ModelComparator(1000000, 3).compare(models[0], models[1]), new ModelComparator(1000000, 4).compare(models[0], models[1]));
+		}
+	}
+
+	@Test
+	public void testIncrementalSolverEdits() throws TimeoutException {
+		final IFeatureModel oldModel = loadXML("<alt mandatory=\"true\" name=\"S\"><feature name=\"A\"/><feature name=\"B\"/></alt>", "");
+		final IFeatureModel newModel = loadXML("<or mandatory=\"true\" name=\"S\"><feature name=\"A\"/><feature name=\"B\"/><feature name=\"C\"/></or>",
+				"<rule><imp><var>C</var><var>A</var></imp></rule>");
+		final ModelComparator comparator = new ModelComparator(1000000);
+		assertEquals(Comparison.GENERALIZATION, comparator.compare(oldModel, newModel));
+		assertTrue(comparator.getEdits(false).isEmpty());
+
+		final List<ClauseEdit> edits = comparator.getEdits(true);
+		assertFalse(edits.isEmpty());
+		for (final ClauseEdit edit : edits) {
+			assertFalse(edit.isAddedClause());
+		}
+
+		final Configuration example = comparator.calculateExample(true);
+		assertNotNull(example);
+		final FeatureModelFormula formula = new FeatureModelFormula(newModel);
+		assertTrue(new ConfigurationAnalyzer(formula, example).isValid());
+		assertFalse(new ConfigurationAnalyzer(new FeatureModelFormula(oldModel), new Configuration(example, new FeatureModelFormula(oldModel))).isValid());
+	}
+
+	@Test
+	public void testIncrementalSolverAbstractFeatureRefactoring() {
+		final IFeatureModel oldModel =
+			loadXML("<and abstract=\"true\" mandatory=\"true\" name=\"S\"><and abstract=\"true\" name=\"G\"><feature name=\"A\"/></and><feature name=\"B\"/></and>",
+					"");
+		final IFeatureModel newModel = loadXML("<and abstract=\"true\" mandatory=\"true\" name=\"S\"><feature name=\"A\"/><feature name=\"B\"/></and>", "");
+		assertEquals(Comparison.REFACTORING, new ModelComparator(1000000).compare(oldModel, newModel));
+	}
+
+	private static IFeatureModel loadXML(String fmXml, String constraintsXml) {
+		final String xml = "<featureModel><struct>" + fmXml + "</struct><constraints>" + constraintsXml + "</constraints></featureModel>";
+		try {
+			final IFeatureModel fm = FMFactoryManager.getInstance().getFactory(new XmlFeatureModelFormat()).create();
+			assertFalse(new XmlFeatureModelFormat().read(fm, xml).containsError());
+			return fm;
+		} catch (final NoSuchExtensionException e) {
+			fail();
+			return null;
+		}
+	}
+
 }
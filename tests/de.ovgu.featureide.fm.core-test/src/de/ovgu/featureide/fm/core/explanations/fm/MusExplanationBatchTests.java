@@ -0,0 +1,138 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.explanations.fm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Node;
+import org.prop4j.Not;
+import org.prop4j.SatSolver;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.FeatureModelAnalyzer;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
+import de.ovgu.featureide.fm.core.base.IConstraint;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.IFeatureModelElement;
+import de.ovgu.featureide.fm.core.explanations.fm.FeatureModelExplanationCache.Anomaly;
+import de.ovgu.featureide.fm.core.explanations.fm.FeatureModelExplanationCache.Entry;
+import de.ovgu.featureide.fm.core.explanations.fm.impl.mus.MusExplanationBatch;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+import de.ovgu.featureide.fm.core.job.monitor.NullMonitor;
+
+/**
+ * Tests for {@link MusExplanationBatch}.
+ */
+public class MusExplanationBatchTests {
+
+	@Test
+	public void testCar() {
+		testBatch("car.xml", 1);
+		testBatch("car.xml", 4);
+	}
+
+	@Test
+	public void test500() {
+		final FeatureModelExplanationCache cache = testBatch("500-100.xml", 4);
+		int hintHits = 0;
+		for (final Entry entry : cache.getEntries()) {
+			if (entry.isHintHit()) {
+				hintHits++;
+			}
+		}
+		assertTrue(hintHits > 0);
+	}
+
+	@Test
+	public void testCache() {
+		final IFeatureModel fm = Commons.loadTestFeatureModelFromFile("car.xml");
+		final FeatureModelFormula formula = new FeatureModelFormula(fm);
+		final FeatureModelAnalyzer analyzer = formula.getAnalyzer();
+		final FeatureModelExplanationCache cache = analyzer.explainAnomalies(new NullMonitor<FeatureModelExplanationCache>());
+
+		final IFeature deadFeature = analyzer.getDeadFeatures(new NullMonitor<>()).get(0);
+		final Entry entry = cache.get(Anomaly.DEAD_FEATURE, deadFeature);
+		assertNotNull(entry);
+		assertSame(entry.getExplanation(), analyzer.getDeadFeatureExplanation(deadFeature));
+
+		final MusExplanationBatch batch = new MusExplanationBatch(formula);
+		assertSame(cache, LongRunningWrapper.runMethod(batch));
+		assertSame(entry, cache.get(Anomaly.DEAD_FEATURE, deadFeature));
+
+		formula.resetFormula();
+		final FeatureModelExplanationCache newCache = LongRunningWrapper.runMethod(new MusExplanationBatch(formula));
+		assertEquals(cache.size(), newCache.size());
+		assertFalse(newCache.get(Anomaly.DEAD_FEATURE, deadFeature) == entry);
+	}
+
+	private static FeatureModelExplanationCache testBatch(String modelName, int parallelism) {
+		final IFeatureModel fm = Commons.loadTestFeatureModelFromFile(modelName);
+		final FeatureModelFormula formula = new FeatureModelFormula(fm);
+		final FeatureModelAnalyzer analyzer = formula.getAnalyzer();
+		final MusExplanationBatch batch = new MusExplanationBatch(formula);
+		batch.setParallelism(parallelism);
+		final FeatureModelExplanationCache cache = LongRunningWrapper.runMethod(batch);
+
+		final Set<IFeatureModelElement> deadFeatures = new HashSet<IFeatureModelElement>(analyzer.getDeadFeatures(new NullMonitor<>()));
+		final Set<IFeatureModelElement> falseOptionalFeatures = new HashSet<IFeatureModelElement>(analyzer.getFalseOptionalFeatures(new NullMonitor<>()));
+		final Set<IConstraint> redundantConstraints = new HashSet<>(analyzer.getRedundantConstraints(new NullMonitor<>()));
+		assertEquals(deadFeatures.size() + falseOptionalFeatures.size() + redundantConstraints.size(), cache.size());
+		for (final Entry entry : cache.getEntries()) {
+			switch (entry.getAnomaly()) {
+			case DEAD_FEATURE:
+				assertTrue(deadFeatures.contains(entry.getElement()));
+				break;
+			case FALSE_OPTIONAL_FEATURE:
+				assertTrue(falseOptionalFeatures.contains(entry.getElement()));
+				break;
+			case REDUNDANT_CONSTRAINT:
+				assertTrue(redundantConstraints.contains(entry.getElement()));
+				break;
+			default:
+				break;
+			}
+			assertTrue(entry.getTime() >= 0);
+			assertNotNull(entry.getExplanation());
+			assertTrue(isValid(entry.getExplanation()));
+		}
+		return cache;
+	}
+
+	private static boolean isValid(FeatureModelExplanation<?> explanation) {
+		final Node node = new And(explanation.toNode(), new Not(explanation.getImplication()));
+		try {
+			return !new SatSolver(node, 1000).hasSolution();
+		} catch (final Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+}
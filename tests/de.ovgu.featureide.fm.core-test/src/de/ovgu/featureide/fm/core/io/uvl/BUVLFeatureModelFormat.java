@@ -0,0 +1,151 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2019  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.io.uvl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Or;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
+import de.ovgu.featureide.fm.core.base.IConstraint;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.init.FMCoreLibrary;
+import de.ovgu.featureide.fm.core.init.LibraryManager;
+import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
+
+/**
+ * This is a benchmark for reading machine-generated UVL files with {@link UVLFeatureModelFormat}. Each file contains a conjunction and a disjunction over all
+ * features, which must be read into flat n-ary formulas.
+ */
+public class BUVLFeatureModelFormat {
+
+	private static final int[] NUMBER_OF_FEATURES = { 1000, 5000, 10000 };
+
+	private Path folder;
+
+	@BeforeClass
+	public static void setUpClass() {
+		LibraryManager.registerLibrary(FMCoreLibrary.getInstance());
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		folder = Files.createTempDirectory("uvl");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		try (Stream<Path> files = Files.walk(folder)) {
+			files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	private Path writeModel(int numberOfFeatures) throws IOException {
+		final StringBuilder sb = new StringBuilder();
+		sb.append("features\n\tRoot\n\t\toptional\n");
+		for (int i = 0; i < numberOfFeatures; i++) {
+			sb.append("\t\t\tF").append(i).append('\n');
+		}
+		sb.append("constraints\n");
+		for (final String operator : new String[] { " & ", " | " }) {
+			sb.append("\t(F0");
+			for (int i = 1; i < numberOfFeatures; i++) {
+				sb.append(operator).append('F').append(i);
+			}
+			sb.append(")\n");
+		}
+		final Path path = folder.resolve("model" + numberOfFeatures + "." + UVLFeatureModelFormat.FILE_EXTENSION);
+		Files.write(path, sb.toString().getBytes());
+		return path;
+	}
+
+	private static void checkConstraints(IFeatureModel featureModel, int numberOfFeatures) {
+		final List<IConstraint> constraints = featureModel.getConstraints();
+		assertEquals(2, constraints.size());
+		final Node conjunction = constraints.get(0).getNode();
+		final Node disjunction = constraints.get(1).getNode();
+		assertTrue(conjunction instanceof And);
+		assertTrue(disjunction instanceof Or);
+		assertEquals(numberOfFeatures, conjunction.getChildren().length);
+		assertEquals(numberOfFeatures, disjunction.getChildren().length);
+		for (int i = 0; i < numberOfFeatures; i++) {
+			final Literal literal = (Literal) conjunction.getChildren()[i];
+			assertEquals("F" + i, literal.var);
+			assertSame(literal.var, ((Literal) disjunction.getChildren()[i]).var);
+		}
+	}
+
+	@Test
+	public void BReadLargeConstraints() throws IOException {
+		for (final int numberOfFeatures : NUMBER_OF_FEATURES) {
+			final Path path = writeModel(numberOfFeatures);
+
+			long time = System.nanoTime();
+			final IFeatureModel featureModel = FeatureModelManager.load(path);
+			final long readTime = System.nanoTime() - time;
+			assertNotNull(featureModel);
+			checkConstraints(featureModel, numberOfFeatures);
+
+			time = System.nanoTime();
+			final int numberOfClauses = new FeatureModelFormula(featureModel).getCNF().getClauses().size();
+			final long cnfTime = System.nanoTime() - time;
+			assertTrue(numberOfClauses > numberOfFeatures);
+
+			System.out.println(numberOfFeatures + " features: read " + (readTime / 1_000_000) + " ms, CNF " + (cnfTime / 1_000_000) + " ms");
+		}
+	}
+
+	@Test
+	public void BWriteLargeConstraints() throws IOException {
+		final int numberOfFeatures = NUMBER_OF_FEATURES[NUMBER_OF_FEATURES.length - 1];
+		final IFeatureModel featureModel = FeatureModelManager.load(writeModel(numberOfFeatures));
+		assertNotNull(featureModel);
+
+		final UVLFeatureModelFormat format = new UVLFeatureModelFormat();
+		final long time = System.nanoTime();
+		final String source = format.write(featureModel);
+		System.out.println(numberOfFeatures + " features: write " + ((System.nanoTime() - time) / 1_000_000) + " ms");
+
+		final Path path = folder.resolve("written." + UVLFeatureModelFormat.FILE_EXTENSION);
+		Files.write(path, source.getBytes());
+		final IFeatureModel writtenFeatureModel = FeatureModelManager.load(path);
+		assertNotNull(writtenFeatureModel);
+		checkConstraints(writtenFeatureModel, numberOfFeatures);
+	}
+
+}